@@ -0,0 +1,93 @@
+package benchmark;
+
+import dao.FileStorage;
+import model.Cashier;
+import model.Product;
+import model.ProductCategory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Помощни методи за подготовка на данни за бенчмарковете.
+ */
+final class BenchmarkData {
+
+    // Частен конструктор, за да предотвратим създаването на инстанции
+    private BenchmarkData() {
+    }
+
+    /**
+     * Насочва {@link FileStorage} към нова временна директория за данни.
+     * Трябва да се извика преди първото използване на {@link FileStorage} във всеки fork.
+     *
+     * @return Временната директория.
+     */
+    static Path useTemporaryDataDir() throws IOException {
+        Path dataDir = Files.createTempDirectory("store-benchmark");
+        System.setProperty("store.dataDir", dataDir.toString());
+        return dataDir;
+    }
+
+    /**
+     * Изтрива временна директория за данни заедно със съдържанието ѝ.
+     *
+     * @param dataDir Директорията за изтриване.
+     */
+    static void deleteDataDir(Path dataDir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dataDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Записва колекция от обекти с един запис, вместо с отделно добавяне на всеки обект.
+     * Обектите трябва да имат зададени ID.
+     *
+     * @param type    Типът на обектите.
+     * @param objects Обектите за записване.
+     */
+    static <T> void seed(Class<T> type, List<T> objects) {
+        List<T> collection = FileStorage.getCollection(type);
+        collection.clear();
+        collection.addAll(objects);
+        FileStorage.updateObjects(type, List.of(objects.get(0)));
+    }
+
+    /**
+     * Създава касиери с ID от 1 до size.
+     */
+    static List<Cashier> cashiers(int size, Random random) {
+        List<Cashier> cashiers = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Cashier cashier = new Cashier("Касиер " + i, 1000 + random.nextInt(100_000) / 100.0);
+            cashier.setId(i);
+            cashiers.add(cashier);
+        }
+        return cashiers;
+    }
+
+    /**
+     * Създава продукти с ID от 1 до size със случайни цени, категории и срокове на годност.
+     */
+    static List<Product> products(int size, Random random) {
+        ProductCategory[] categories = ProductCategory.values();
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Product product = new Product("Продукт " + i, random.nextInt(10_000) / 100.0,
+                    categories[random.nextInt(categories.length)], LocalDate.now().plusDays(random.nextInt(60) - 5));
+            product.setId(i);
+            products.add(product);
+        }
+        return products;
+    }
+}
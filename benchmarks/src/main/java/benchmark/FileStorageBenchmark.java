@@ -0,0 +1,76 @@
+package benchmark;
+
+import dao.FileStorage;
+import model.Cashier;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Измерва основните операции на {@link FileStorage} върху колекция от касиери с даден размер.
+ * Всеки fork използва собствена временна директория за данни.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class FileStorageBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private Path dataDir;
+    private Method loadCollection;
+    private Cashier middleCashier;
+    private int lookupId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, ReflectiveOperationException {
+        dataDir = BenchmarkData.useTemporaryDataDir();
+        BenchmarkData.seed(Cashier.class, BenchmarkData.cashiers(size, new Random(42)));
+
+        lookupId = size / 2;
+        middleCashier = FileStorage.findObjectById(Cashier.class, lookupId).orElseThrow();
+
+        // loadCollection е частен метод, а студеното зареждане е това, което искаме да измерим
+        loadCollection = FileStorage.class.getDeclaredMethod("loadCollection", Class.class);
+        loadCollection.setAccessible(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteDataDir(dataDir);
+    }
+
+    @Benchmark
+    public Cashier addObject() {
+        Cashier cashier = new Cashier("Нов касиер", 1200);
+        FileStorage.addObject(cashier);
+        return cashier;
+    }
+
+    @Benchmark
+    public boolean updateObject() {
+        middleCashier.setSalary(middleCashier.getSalary() + 1);
+        return FileStorage.updateObject(middleCashier, c -> c.getId() == lookupId);
+    }
+
+    @Benchmark
+    public Optional<Cashier> findObjectById() {
+        return FileStorage.findObjectById(Cashier.class, lookupId);
+    }
+
+    @Benchmark
+    public ArrayList<Cashier> loadCollectionCold() throws ReflectiveOperationException {
+        loadCollection.invoke(null, Cashier.class);
+        return FileStorage.getCollection(Cashier.class);
+    }
+}
@@ -0,0 +1,92 @@
+package benchmark;
+
+import model.Product;
+import model.ProductCategory;
+import model.Store;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import service.BulkPriceCalculator;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнява изчисляването на крайни цени продукт по продукт чрез {@link Store#getProductFinalPrice(Product)}
+ * с пакетното изчисление на {@link BulkPriceCalculator} с и без Vector API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class PriceKernelBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private Store store;
+    private List<Product> products;
+    private double[] purchasePrices;
+    private int[] categoryOrdinals;
+    private int[] daysToExpiry;
+    private double[] markups;
+    private double[] finalPrices;
+
+    @Setup
+    public void setUp() {
+        Map<ProductCategory, Double> markupPercentages = new HashMap<>();
+        markupPercentages.put(ProductCategory.FOOD, 20.0);
+        markupPercentages.put(ProductCategory.NON_FOOD, 30.0);
+        store = new Store("Магазин", markupPercentages, 3, 25.0);
+
+        Random random = new Random(42);
+        ProductCategory[] categories = ProductCategory.values();
+        products = new ArrayList<>(size);
+        purchasePrices = new double[size];
+        categoryOrdinals = new int[size];
+        daysToExpiry = new int[size];
+        finalPrices = new double[size];
+        for (int i = 0; i < size; i++) {
+            Product product = new Product("Продукт " + i, random.nextInt(10_000) / 100.0,
+                    categories[random.nextInt(categories.length)], LocalDate.now().plusDays(random.nextInt(60)));
+            product.setId(i + 1);
+            products.add(product);
+            purchasePrices[i] = product.getUnitPurchasePrice();
+            categoryOrdinals[i] = product.getCategory().ordinal();
+            daysToExpiry[i] = (int) ChronoUnit.DAYS.between(LocalDate.now(), product.getExpirationDate());
+        }
+        markups = new double[categories.length];
+        for (ProductCategory category : categories) {
+            markups[category.ordinal()] = markupPercentages.get(category);
+        }
+    }
+
+    @Benchmark
+    public void perProductFinalPrice(Blackhole blackhole) {
+        for (Product product : products) {
+            blackhole.consume(store.getProductFinalPrice(product));
+        }
+    }
+
+    @Benchmark
+    public double[] bulkKernel() {
+        BulkPriceCalculator.computeFinalPrices(purchasePrices, categoryOrdinals, daysToExpiry, markups,
+                store.getDaysBeforeExpirationThreshold(), store.getDiscountPercentNearExpiration(), finalPrices, size);
+        return finalPrices;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dstore.pricing.disableVectorApi=true")
+    public double[] bulkKernelScalarFallback() {
+        BulkPriceCalculator.computeFinalPrices(purchasePrices, categoryOrdinals, daysToExpiry, markups,
+                store.getDaysBeforeExpirationThreshold(), store.getDiscountPercentNearExpiration(), finalPrices, size);
+        return finalPrices;
+    }
+}
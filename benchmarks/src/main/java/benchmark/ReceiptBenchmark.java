@@ -0,0 +1,49 @@
+package benchmark;
+
+import model.Money;
+import model.Product;
+import model.Receipt;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Измерва изчисляването на общата сума на касова бележка с даден брой различни продукти.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReceiptBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int lines;
+
+    private Receipt receipt;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Product> products = BenchmarkData.products(lines, random);
+        Map<Product, Integer> purchasedProducts = new HashMap<>();
+        Map<Integer, Long> unitPrices = new HashMap<>();
+        for (Product product : products) {
+            purchasedProducts.put(product, 1 + random.nextInt(5));
+            unitPrices.put(product.getId(), Money.fromDouble(product.getUnitPurchasePrice() * 1.2));
+        }
+        receipt = new Receipt(1, 1, 1, LocalDateTime.now(), purchasedProducts, unitPrices);
+    }
+
+    @Benchmark
+    public long calculateTotalPrice() {
+        receipt.calculateTotalPrice();
+        return receipt.getTotalPriceCents();
+    }
+}
@@ -0,0 +1,101 @@
+package benchmark;
+
+import model.*;
+import org.openjdk.jmh.annotations.*;
+import service.ServiceFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Измерва справките на {@link Store}, които търсят продукти, касиери и касови бележки през услугите.
+ * Размерът е брой продукти в наличност и брой издадени касови бележки. Тъй като търсенето по ID обхожда
+ * цялата колекция, размерите са по-малки от тези в {@link FileStorageBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class StoreBenchmark {
+
+    private static final int CASHIERS = 5;
+    private static final int PRODUCTS_PER_RECEIPT = 3;
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private Path dataDir;
+    private Store store;
+    private Product product;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = BenchmarkData.useTemporaryDataDir();
+        // Регистрира касовите бележки за запис в отделни файлове, преди да бъдат заредени
+        ServiceFactory.getReceiptService();
+        Random random = new Random(42);
+
+        Map<ProductCategory, Double> markupPercentages = new HashMap<>();
+        markupPercentages.put(ProductCategory.FOOD, 20.0);
+        markupPercentages.put(ProductCategory.NON_FOOD, 30.0);
+        store = new Store("Магазин", markupPercentages, 3, 25.0);
+        store.setId(1);
+
+        List<Cashier> cashiers = BenchmarkData.cashiers(CASHIERS, random);
+        BenchmarkData.seed(Cashier.class, cashiers);
+        for (Cashier cashier : cashiers) {
+            store.addCashier(cashier.getId());
+        }
+
+        List<Product> products = BenchmarkData.products(size, random);
+        BenchmarkData.seed(Product.class, products);
+        for (Product p : products) {
+            store.setProductStock(p.getId(), 1 + random.nextInt(50));
+        }
+        product = products.get(size / 2);
+
+        List<Receipt> receipts = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Map<Product, Integer> purchasedProducts = new HashMap<>();
+            Map<Integer, Long> unitPrices = new HashMap<>();
+            for (int j = 0; j < PRODUCTS_PER_RECEIPT; j++) {
+                Product purchased = products.get(random.nextInt(size));
+                int quantity = 1 + random.nextInt(3);
+                purchasedProducts.merge(purchased, quantity, Integer::sum);
+                unitPrices.put(purchased.getId(), store.getProductFinalPriceCents(purchased));
+                store.addProductSold(purchased, quantity);
+            }
+            Receipt receipt = new Receipt(1, cashiers.get(random.nextInt(CASHIERS)).getId(), store.getId(),
+                    LocalDateTime.now(), purchasedProducts, unitPrices);
+            receipt.setId(i);
+            receipts.add(receipt);
+            store.addReceipt(i);
+        }
+        BenchmarkData.seed(Receipt.class, receipts);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteDataDir(dataDir);
+    }
+
+    @Benchmark
+    public ArrayList<Product> getAvailableProducts() {
+        return store.getAvailableProducts();
+    }
+
+    @Benchmark
+    public double getProductFinalPrice() {
+        return store.getProductFinalPrice(product);
+    }
+
+    @Benchmark
+    public double calculateProfit() {
+        return store.calculateProfit();
+    }
+}
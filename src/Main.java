@@ -1,7 +1,16 @@
+import batch.BatchReplayer;
+import metrics.FlightRecording;
+import metrics.Metrics;
 import model.Client;
 import model.Store;
+import report.StoreReportGenerator;
+import server.StoreHttpServer;
 import service.*;
+import simulation.CheckoutSimulator;
 import util.DataInitializer;
+import util.DatasetConfig;
+
+import java.util.Arrays;
 
 public class Main {
     private static final StoreService storeService = ServiceFactory.getStoreService();
@@ -9,12 +18,47 @@ public class Main {
 
     public static void main(String[] args) {
 
+        // Периодичен отчет на показателите, ако JVM е стартирана с -Dstore.metrics.enabled=true
+        Metrics.startPeriodicDump();
+        // Запис с Java Flight Recorder, ако JVM е стартирана с -Dstore.jfr.file=<файл>
+        FlightRecording.startIfConfigured();
+
+        // Режим на симулация: java Main simulate [ключ=стойност ...]
+        if (args.length > 0 && args[0].equals("simulate")) {
+            CheckoutSimulator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Режим на HTTP сървър: java Main server [host=127.0.0.1] [port=8080]
+        if (args.length > 0 && args[0].equals("server")) {
+            StoreHttpServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Пакетно изпълнение на покупки от файл: java Main replay file=<път> [ключ=стойност ...]
+        if (args.length > 0 && args[0].equals("replay")) {
+            BatchReplayer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Обобщен финансов отчет за всички магазини: java Main report [parallelism=<брой нишки>]
+        if (args.length > 0 && args[0].equals("report")) {
+            StoreReportGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Генериране на синтетични данни: java Main generate [ключ=стойност ...]
+        if (args.length > 0 && args[0].equals("generate")) {
+            DataInitializer.generateData(DatasetConfig.fromArgs(Arrays.copyOfRange(args, 1, args.length)));
+            return;
+        }
+
         try {
 
             DataInitializer.initializeData();
 
-            // Актуализиране на цените на продуктите във всички магазини, защото може да наближава крайният срок на годност на продуктите и трябва да се приложи отстъпка
-            storeService.updatePricesForAllStores();
+            // Ежедневно актуализиране на цените на продуктите във фонов режим, защото може да наближава крайният срок на годност на продуктите и трябва да се приложи отстъпка
+            ServiceFactory.getRepricingService().start();
 
             System.out.println("Здравейте! Добре дошли в системата за покупка от магазини за хранителни стоки!");
             System.out.println("Изберете опция:");
@@ -49,6 +93,11 @@ public class Main {
                     break;
                 case 3:
                     System.out.println("Администраторски изглед:");
+                    // Обобщеният отчет обхожда всички касови бележки, затова се изчислява само при поискване
+                    System.out.print("Показване на обобщен финансов отчет за всички магазини? (да/не): ");
+                    if ("да".equalsIgnoreCase(System.console().readLine().trim())) {
+                        new StoreReportGenerator().generate().print(System.out);
+                    }
                     Store selectedStore = storeService.selectStore();
                     if (selectedStore != null) {
                         System.out.println("\nФинансова информация за магазин: " + selectedStore.getName());
@@ -0,0 +1,149 @@
+package analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Контейнер с до {@link #MAX_ARRAY_SIZE} стойности, пазени като сортиран масив.
+ */
+class ArrayContainer extends Container {
+
+    private char[] values;
+    private int cardinality;
+
+    ArrayContainer() {
+        this(new char[4], 0);
+    }
+
+    ArrayContainer(char[] values, int cardinality) {
+        this.values = values;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    Container add(char value) {
+        int position = Arrays.binarySearch(values, 0, cardinality, value);
+        if (position >= 0) {
+            return this;
+        }
+        if (cardinality == MAX_ARRAY_SIZE) {
+            return toBitmapContainer().add(value);
+        }
+        position = -position - 1;
+        if (cardinality == values.length) {
+            values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, Math.max(4, values.length * 2)));
+        }
+        System.arraycopy(values, position, values, position + 1, cardinality - position);
+        values[position] = value;
+        cardinality++;
+        return this;
+    }
+
+    @Override
+    boolean contains(char value) {
+        return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    Container and(Container other) {
+        char[] result = new char[Math.min(cardinality, other.cardinality())];
+        int size = 0;
+        if (other instanceof ArrayContainer array) {
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < array.cardinality) {
+                if (values[i] < array.values[j]) {
+                    i++;
+                } else if (values[i] > array.values[j]) {
+                    j++;
+                } else {
+                    result[size++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+        } else {
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i])) {
+                    result[size++] = values[i];
+                }
+            }
+        }
+        return new ArrayContainer(result, size);
+    }
+
+    @Override
+    Container or(Container other) {
+        if (other instanceof BitmapContainer) {
+            return other.or(this);
+        }
+        ArrayContainer array = (ArrayContainer) other;
+        if (cardinality + array.cardinality > MAX_ARRAY_SIZE) {
+            return toBitmapContainer().or(array);
+        }
+        char[] result = new char[cardinality + array.cardinality];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < cardinality || j < array.cardinality) {
+            if (j == array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+                result[size++] = values[i++];
+            } else if (i == cardinality || values[i] > array.values[j]) {
+                result[size++] = array.values[j++];
+            } else {
+                result[size++] = values[i];
+                i++;
+                j++;
+            }
+        }
+        return new ArrayContainer(result, size);
+    }
+
+    @Override
+    Container copy() {
+        return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+    }
+
+    @Override
+    void forEach(int high, IntConsumer consumer) {
+        for (int i = 0; i < cardinality; i++) {
+            consumer.accept(high | values[i]);
+        }
+    }
+
+    @Override
+    long sizeInBytes() {
+        return 2L * values.length;
+    }
+
+    @Override
+    void writeValues(DataOutput out) throws IOException {
+        for (int i = 0; i < cardinality; i++) {
+            out.writeChar(values[i]);
+        }
+    }
+
+    static ArrayContainer readValues(DataInput in, int cardinality) throws IOException {
+        char[] values = new char[cardinality];
+        for (int i = 0; i < cardinality; i++) {
+            values[i] = in.readChar();
+        }
+        return new ArrayContainer(values, cardinality);
+    }
+
+    BitmapContainer toBitmapContainer() {
+        BitmapContainer bitmap = new BitmapContainer();
+        for (int i = 0; i < cardinality; i++) {
+            bitmap.add(values[i]);
+        }
+        return bitmap;
+    }
+}
@@ -0,0 +1,88 @@
+package analytics;
+
+import model.Receipt;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Разпределения на стойността и броя на артикулите в касовите бележки по ден, магазин и касиер.
+ * За всяка тройка се пази {@link BasketSketch}, а справките за период, магазин или всички магазини обединяват скиците,
+ * без да преглеждат касовите бележки.
+ * Всички методи са синхронизирани.
+ */
+public class BasketQuantiles {
+
+    private final int k;
+    // Ден (брой дни от 1970-01-01) -> (магазин << 32 | касиер) -> скица
+    private final TreeMap<Integer, Map<Long, BasketSketch>> days = new TreeMap<>();
+    private int sketchCount;
+
+    /**
+     * Конструктор за създаване на празна структура.
+     *
+     * @param k Параметърът {@code k} на скиците.
+     * @throws IllegalArgumentException ако {@code k} е по-малко от 8.
+     */
+    public BasketQuantiles(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("Параметърът k на скиците трябва да бъде поне 8");
+        }
+        this.k = k;
+    }
+
+    /**
+     * Добавя касова бележка в скицата на магазина и касиера за деня на покупката.
+     *
+     * @param receipt Касовата бележка.
+     */
+    public synchronized void add(Receipt receipt) {
+        int day = (int) receipt.getDateTime().toLocalDate().toEpochDay();
+        long key = key(receipt.getStore(), receipt.getCashier());
+        Map<Long, BasketSketch> sketches = days.computeIfAbsent(day, d -> new HashMap<>());
+        BasketSketch sketch = sketches.get(key);
+        if (sketch == null) {
+            sketch = new BasketSketch(k);
+            sketches.put(key, sketch);
+            sketchCount++;
+        }
+        sketch.add(receipt);
+    }
+
+    /**
+     * Връща обединеното разпределение на касовите бележки в даден период.
+     *
+     * @param storeId   ID на магазина или null за всички магазини.
+     * @param cashierId ID на касиера или null за всички касиери.
+     * @param from      Първият ден (включително).
+     * @param to        Последният ден (включително).
+     * @return Новото разпределение, което не се променя от следващите касови бележки.
+     */
+    public synchronized BasketSketch summarize(Integer storeId, Integer cashierId, LocalDate from, LocalDate to) {
+        BasketSketch result = new BasketSketch(k);
+        for (Map<Long, BasketSketch> sketches : days.subMap((int) from.toEpochDay(), true, (int) to.toEpochDay(), true).values()) {
+            for (Map.Entry<Long, BasketSketch> entry : sketches.entrySet()) {
+                long key = entry.getKey();
+                if ((storeId == null || (int) (key >>> 32) == storeId) && (cashierId == null || (int) key == cashierId)) {
+                    result.merge(entry.getValue());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Връща броя на скиците (дни, магазини и касиери с поне една касова бележка).
+     *
+     * @return Брой скици.
+     */
+    public synchronized int getSketchCount() {
+        return sketchCount;
+    }
+
+    private static long key(int storeId, int cashierId) {
+        return ((long) storeId << 32) | (cashierId & 0xFFFFFFFFL);
+    }
+}
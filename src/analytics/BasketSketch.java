@@ -0,0 +1,76 @@
+package analytics;
+
+import model.Receipt;
+
+/**
+ * Разпределение на стойността (в центове) и на броя на артикулите в касовите бележки, пазено със скици {@link KllSketch}.
+ * Класът не е безопасен за едновременна употреба от няколко нишки.
+ */
+public class BasketSketch {
+
+    private final KllSketch valueCents;
+    private final KllSketch items;
+
+    /**
+     * Конструктор за създаване на празно разпределение.
+     *
+     * @param k Параметърът {@code k} на скиците.
+     * @throws IllegalArgumentException ако {@code k} е по-малко от 8.
+     */
+    public BasketSketch(int k) {
+        this.valueCents = new KllSketch(k);
+        this.items = new KllSketch(k);
+    }
+
+    /**
+     * Добавя обща стойност и брой артикули на касова бележка.
+     *
+     * @param receipt Касовата бележка.
+     */
+    public void add(Receipt receipt) {
+        long quantity = 0;
+        for (int productQuantity : receipt.getPurchasedProducts().values()) {
+            quantity += productQuantity;
+        }
+        valueCents.add(receipt.getTotalPriceCents());
+        items.add(quantity);
+    }
+
+    /**
+     * Добавя касовите бележки от друго разпределение.
+     *
+     * @param other Разпределение със същото {@code k}.
+     * @throws IllegalArgumentException ако {@code k} е различно.
+     */
+    public void merge(BasketSketch other) {
+        valueCents.merge(other.valueCents);
+        items.merge(other.items);
+    }
+
+    /**
+     * Връща броя на касовите бележки.
+     *
+     * @return Брой касови бележки.
+     */
+    public long getReceiptCount() {
+        return valueCents.getCount();
+    }
+
+    /**
+     * Връща скицата на общата стойност на касовите бележки в центове.
+     *
+     * @return Скицата.
+     */
+    public KllSketch getValueCents() {
+        return valueCents;
+    }
+
+    /**
+     * Връща скицата на броя на артикулите (сумата от количествата) в касовите бележки.
+     *
+     * @return Скицата.
+     */
+    public KllSketch getItems() {
+        return items;
+    }
+}
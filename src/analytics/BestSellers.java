@@ -0,0 +1,90 @@
+package analytics;
+
+import model.Product;
+import model.Receipt;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Най-продаваните продукти по периоди - общо за всички магазини и поотделно за всеки магазин.
+ * Всяка покупка добавя продадените количества в {@link WindowedSpaceSaving} на магазина и в общата,
+ * така че справка като "20-те най-продавани продукта през последния час" не преглежда касовите бележки.
+ * Броят на продажбите в отговора е приблизителен, като всеки елемент съдържа максималната си грешка.
+ */
+public class BestSellers {
+
+    private final int capacity;
+    private final int bucketMinutes;
+    private final int bucketCount;
+    private final WindowedSpaceSaving global;
+    private final Map<Integer, WindowedSpaceSaving> byStore = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор за създаване на празна структура.
+     *
+     * @param capacity      Брой броячи на скицата за всеки интервал.
+     * @param bucketMinutes Дължина на интервала в минути.
+     * @param bucketCount   Брой пазени интервали.
+     * @throws IllegalArgumentException ако някоя от стойностите не е положителна.
+     */
+    public BestSellers(int capacity, int bucketMinutes, int bucketCount) {
+        this.capacity = capacity;
+        this.bucketMinutes = bucketMinutes;
+        this.bucketCount = bucketCount;
+        this.global = new WindowedSpaceSaving(capacity, bucketMinutes, bucketCount);
+    }
+
+    /**
+     * Добавя продадените количества от касова бележка.
+     *
+     * @param receipt Касовата бележка.
+     */
+    public void add(Receipt receipt) {
+        int epochMinute = EpochMinutes.of(receipt.getDateTime());
+        WindowedSpaceSaving store = byStore.computeIfAbsent(receipt.getStore(),
+                id -> new WindowedSpaceSaving(capacity, bucketMinutes, bucketCount));
+        for (Map.Entry<Product, Integer> entry : receipt.getPurchasedProducts().entrySet()) {
+            if (entry.getValue() > 0) {
+                store.add(entry.getKey().getId(), entry.getValue(), epochMinute);
+                global.add(entry.getKey().getId(), entry.getValue(), epochMinute);
+            }
+        }
+    }
+
+    /**
+     * Връща най-продаваните продукти през последните {@code minutes} минути до даден момент.
+     *
+     * @param storeId ID на магазина или null за всички магазини.
+     * @param n       Брой продукти.
+     * @param end     Краят на периода.
+     * @param minutes Дължина на периода.
+     * @return Продуктите с приблизителните продадени количества и грешките им.
+     */
+    public TopNResult topSliding(Integer storeId, int n, LocalDateTime end, int minutes) {
+        return sketchFor(storeId).topSliding(n, EpochMinutes.of(end), minutes);
+    }
+
+    /**
+     * Връща най-продаваните продукти във фиксирания период с дължина {@code minutes} (например часа или деня),
+     * който съдържа даден момент.
+     *
+     * @param storeId ID на магазина или null за всички магазини.
+     * @param n       Брой продукти.
+     * @param at      Момент в периода.
+     * @param minutes Дължина на периода.
+     * @return Продуктите с приблизителните продадени количества и грешките им.
+     */
+    public TopNResult topTumbling(Integer storeId, int n, LocalDateTime at, int minutes) {
+        return sketchFor(storeId).topTumbling(n, EpochMinutes.of(at), minutes);
+    }
+
+    private WindowedSpaceSaving sketchFor(Integer storeId) {
+        if (storeId == null) {
+            return global;
+        }
+        WindowedSpaceSaving store = byStore.get(storeId);
+        return store != null ? store : new WindowedSpaceSaving(capacity, bucketMinutes, bucketCount);
+    }
+}
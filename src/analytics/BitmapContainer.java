@@ -0,0 +1,124 @@
+package analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.IntConsumer;
+
+/**
+ * Контейнер с повече от {@link #MAX_ARRAY_SIZE} стойности, пазени като битова карта с по един бит за всяка
+ * от 65536-те възможни стойности.
+ */
+class BitmapContainer extends Container {
+
+    private static final int WORDS = 1024;
+
+    private final long[] words;
+    private int cardinality;
+
+    BitmapContainer() {
+        this(new long[WORDS], 0);
+    }
+
+    private BitmapContainer(long[] words, int cardinality) {
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    Container add(char value) {
+        long mask = 1L << value;
+        int index = value >>> 6;
+        if ((words[index] & mask) == 0) {
+            words[index] |= mask;
+            cardinality++;
+        }
+        return this;
+    }
+
+    @Override
+    boolean contains(char value) {
+        return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    Container and(Container other) {
+        if (other instanceof ArrayContainer) {
+            return other.and(this);
+        }
+        BitmapContainer bitmap = (BitmapContainer) other;
+        long[] result = new long[WORDS];
+        int count = 0;
+        for (int i = 0; i < WORDS; i++) {
+            result[i] = words[i] & bitmap.words[i];
+            count += Long.bitCount(result[i]);
+        }
+        BitmapContainer container = new BitmapContainer(result, count);
+        return count > MAX_ARRAY_SIZE ? container : container.toArrayContainer();
+    }
+
+    @Override
+    Container or(Container other) {
+        long[] result = words.clone();
+        int count = cardinality;
+        if (other instanceof BitmapContainer bitmap) {
+            count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                result[i] |= bitmap.words[i];
+                count += Long.bitCount(result[i]);
+            }
+            return new BitmapContainer(result, count);
+        }
+        BitmapContainer container = new BitmapContainer(result, count);
+        other.forEach(0, value -> container.add((char) value));
+        return container;
+    }
+
+    @Override
+    Container copy() {
+        return new BitmapContainer(words.clone(), cardinality);
+    }
+
+    @Override
+    void forEach(int high, IntConsumer consumer) {
+        for (int i = 0; i < WORDS; i++) {
+            long word = words[i];
+            while (word != 0) {
+                consumer.accept(high | (i << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    @Override
+    long sizeInBytes() {
+        return 8L * WORDS;
+    }
+
+    @Override
+    void writeValues(DataOutput out) throws IOException {
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    static BitmapContainer readValues(DataInput in, int cardinality) throws IOException {
+        long[] words = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            words[i] = in.readLong();
+        }
+        return new BitmapContainer(words, cardinality);
+    }
+
+    private ArrayContainer toArrayContainer() {
+        char[] values = new char[cardinality];
+        int[] size = {0};
+        forEach(0, value -> values[size[0]++] = (char) value);
+        return new ArrayContainer(values, cardinality);
+    }
+}
@@ -0,0 +1,95 @@
+package analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Продажбите на касиерите за период от {@link SalesRollup#queryCashiers}, които могат да бъдат подредени
+ * по брой касови бележки, маркирани бройки или приходи.
+ */
+public class CashierLeaderboard {
+
+    /**
+     * Показател, по който се подреждат касиерите.
+     */
+    public enum Metric {
+        RECEIPTS(Comparator.comparingLong(CashierStats::getReceiptCount)),
+        UNITS(Comparator.comparingLong(CashierStats::getUnits)),
+        REVENUE(Comparator.comparingLong(CashierStats::getRevenueCents));
+
+        private final Comparator<CashierStats> order;
+
+        Metric(Comparator<CashierStats> order) {
+            this.order = order;
+        }
+
+        /**
+         * Връща показателя по име, без значение от малки и главни букви.
+         *
+         * @param name Името, например {@code revenue}.
+         * @return Показателят.
+         * @throws IllegalArgumentException ако няма показател с това име.
+         */
+        public static Metric parse(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Непознат показател за подреждане на касиерите: " + name);
+            }
+        }
+    }
+
+    private final SalesTotals totals;
+    private final List<CashierStats> cashiers;
+
+    /**
+     * Конструктор за създаване на резултат.
+     *
+     * @param totals   Сумите за всички касиери и действителният период.
+     * @param cashiers Продажбите по касиер в произволен ред.
+     */
+    public CashierLeaderboard(SalesTotals totals, List<CashierStats> cashiers) {
+        this.totals = totals;
+        this.cashiers = List.copyOf(cashiers);
+    }
+
+    /**
+     * Връща сумите за всички касиери в периода и действителния период.
+     *
+     * @return Сумите.
+     */
+    public SalesTotals getTotals() {
+        return totals;
+    }
+
+    /**
+     * Връща броя на касиерите с продажби в периода.
+     *
+     * @return Брой редове.
+     */
+    public int getCashierCount() {
+        return cashiers.size();
+    }
+
+    /**
+     * Връща първите {@code n} касиери по даден показател в намаляващ ред. При равенство по-напред е
+     * касиерът с по-малко ID.
+     *
+     * @param n      Брой касиери.
+     * @param metric Показателят.
+     * @return Подреденият списък.
+     * @throws IllegalArgumentException ако n не е положително.
+     */
+    public List<CashierStats> top(int n, Metric metric) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Броят на касиерите трябва да бъде положителен");
+        }
+        List<CashierStats> ranked = new ArrayList<>(cashiers);
+        ranked.sort(metric.order.reversed()
+                .thenComparingInt(CashierStats::getCashierId)
+                .thenComparingInt(CashierStats::getStoreId));
+        return ranked.subList(0, Math.min(n, ranked.size()));
+    }
+}
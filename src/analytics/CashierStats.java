@@ -0,0 +1,84 @@
+package analytics;
+
+/**
+ * Продажбите на един касиер в един магазин за период от {@link CashierLeaderboard}.
+ */
+public class CashierStats {
+
+    private final int storeId;
+    private final int cashierId;
+    private final long receiptCount;
+    private final long revenueCents;
+    private final long units;
+
+    /**
+     * Конструктор за създаване на резултат.
+     *
+     * @param storeId      ID на магазина.
+     * @param cashierId    ID на касиера.
+     * @param receiptCount Брой издадени касови бележки.
+     * @param revenueCents Приходи в стотинки.
+     * @param units        Маркирани бройки.
+     */
+    public CashierStats(int storeId, int cashierId, long receiptCount, long revenueCents, long units) {
+        this.storeId = storeId;
+        this.cashierId = cashierId;
+        this.receiptCount = receiptCount;
+        this.revenueCents = revenueCents;
+        this.units = units;
+    }
+
+    /**
+     * Връща ID на магазина.
+     *
+     * @return ID на магазина.
+     */
+    public int getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * Връща ID на касиера.
+     *
+     * @return ID на касиера.
+     */
+    public int getCashierId() {
+        return cashierId;
+    }
+
+    /**
+     * Връща броя на издадените касови бележки за периода.
+     *
+     * @return Брой касови бележки.
+     */
+    public long getReceiptCount() {
+        return receiptCount;
+    }
+
+    /**
+     * Връща приходите на касиера за периода.
+     *
+     * @return Приходи в стотинки.
+     */
+    public long getRevenueCents() {
+        return revenueCents;
+    }
+
+    /**
+     * Връща броя на маркираните бройки за периода.
+     *
+     * @return Брой бройки.
+     */
+    public long getUnits() {
+        return units;
+    }
+
+    /**
+     * Връща средната стойност на касова бележка.
+     *
+     * @return Средната стойност в стотинки, закръглена надолу, или 0 без касови бележки.
+     */
+    public long getAverageBasketCents() {
+        return receiptCount == 0 ? 0 : revenueCents / receiptCount;
+    }
+}
@@ -0,0 +1,70 @@
+package analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.IntConsumer;
+
+/**
+ * Контейнер с долните 16 бита на стойностите от един блок на {@link RoaringBitmap}.
+ * Блоковете с малко стойности се пазят като сортиран масив ({@link ArrayContainer}), а плътните -
+ * като битова карта с 65536 бита ({@link BitmapContainer}).
+ */
+abstract class Container {
+
+    /**
+     * Максимален брой стойности в масив - над него битовата карта (8 KB) заема по-малко памет.
+     */
+    static final int MAX_ARRAY_SIZE = 4096;
+
+    private static final byte ARRAY = 0;
+    private static final byte BITMAP = 1;
+
+    /**
+     * Добавя стойност.
+     *
+     * @return Контейнерът със стойността - същият или нов, ако видът на контейнера се е сменил.
+     */
+    abstract Container add(char value);
+
+    abstract boolean contains(char value);
+
+    abstract int cardinality();
+
+    /**
+     * Връща сечението с друг контейнер като нов контейнер.
+     */
+    abstract Container and(Container other);
+
+    /**
+     * Връща обединението с друг контейнер като нов контейнер.
+     */
+    abstract Container or(Container other);
+
+    abstract Container copy();
+
+    /**
+     * Подава стойностите във възходящ ред, като към всяка добавя горните 16 бита {@code high}.
+     */
+    abstract void forEach(int high, IntConsumer consumer);
+
+    abstract long sizeInBytes();
+
+    void write(DataOutput out) throws IOException {
+        out.writeByte(this instanceof ArrayContainer ? ARRAY : BITMAP);
+        out.writeShort(cardinality() - 1);
+        writeValues(out);
+    }
+
+    abstract void writeValues(DataOutput out) throws IOException;
+
+    static Container read(DataInput in) throws IOException {
+        byte type = in.readByte();
+        int cardinality = in.readUnsignedShort() + 1;
+        return switch (type) {
+            case ARRAY -> ArrayContainer.readValues(in, cardinality);
+            case BITMAP -> BitmapContainer.readValues(in, cardinality);
+            default -> throw new IOException("Непознат вид контейнер: " + type);
+        };
+    }
+}
@@ -0,0 +1,213 @@
+package analytics;
+
+import model.Receipt;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * Приблизителен брой на различните клиенти по магазин и период. За всеки ден и магазин се пази скица
+ * {@link HyperLogLog}, а броят за седмица, месец или няколко магазина се получава чрез обединяване на скиците,
+ * без да се преглеждат касовите бележки.
+ * <p>
+ * Скиците на един ден са отделна част, която се записва и чете поотделно. Частите се зареждат при първото
+ * използване, като в паметта се пазят най-много {@value #MAX_CACHED_DAYS} дни - по-старите записани части
+ * се освобождават и се зареждат отново при нужда. Списъкът с дните и последната добавена касова бележка
+ * се записват отделно в {@link #manifest()}.
+ * Всички методи са синхронизирани.
+ */
+public class DistinctClients {
+
+    /**
+     * Брой битове за избор на регистър в скиците (4096 регистъра, грешка около 1.6%).
+     */
+    public static final int PRECISION = 12;
+    static final int MAX_CACHED_DAYS = 400;
+    private static final int FORMAT_VERSION = 1;
+
+    private final IntFunction<byte[]> partitionLoader;
+    private final NavigableSet<Integer> days = new TreeSet<>();
+    private final Set<Integer> dirtyDays = new HashSet<>();
+    private final LinkedHashMap<Integer, Map<Integer, HyperLogLog>> cachedDays = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Map<Integer, HyperLogLog>> eldest) {
+            // Незаписаните дни остават в паметта до записването им
+            return size() > MAX_CACHED_DAYS && !dirtyDays.contains(eldest.getKey());
+        }
+    };
+    private int lastReceiptId;
+
+    /**
+     * Конструктор за създаване на празна структура.
+     *
+     * @param partitionLoader Връща записаната част за даден ден (брой дни от 1970-01-01) или null.
+     */
+    public DistinctClients(IntFunction<byte[]> partitionLoader) {
+        this.partitionLoader = partitionLoader;
+    }
+
+    /**
+     * Създава структура от записания списък с дни. Частите на дните се зареждат при нужда.
+     *
+     * @param manifest        Данните, върнати от {@link #manifest()}.
+     * @param partitionLoader Връща записаната част за даден ден или null.
+     * @return Структурата.
+     * @throws IllegalArgumentException ако данните не са валидни.
+     */
+    public static DistinctClients restore(byte[] manifest, IntFunction<byte[]> partitionLoader) {
+        DistinctClients clients = new DistinctClients(partitionLoader);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(manifest))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Неподдържана версия на броя на клиентите: " + version);
+            }
+            clients.lastReceiptId = in.readInt();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                clients.days.add(in.readInt());
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Невалиден списък с дни на броя на клиентите: " + e.getMessage(), e);
+        }
+        return clients;
+    }
+
+    /**
+     * Добавя клиента на касова бележка в скицата на магазина за деня на покупката.
+     *
+     * @param receipt Касовата бележка.
+     */
+    public synchronized void add(Receipt receipt) {
+        int day = (int) receipt.getDateTime().toLocalDate().toEpochDay();
+        Map<Integer, HyperLogLog> stores = partition(day);
+        if (stores == null) {
+            stores = new HashMap<>();
+            cachedDays.put(day, stores);
+            days.add(day);
+        }
+        stores.computeIfAbsent(receipt.getStore(), id -> new HyperLogLog(PRECISION)).add(receipt.getClient());
+        dirtyDays.add(day);
+        lastReceiptId = Math.max(lastReceiptId, receipt.getId());
+    }
+
+    /**
+     * Връща приблизителния брой на различните клиенти в даден период.
+     *
+     * @param storeId ID на магазина или null за всички магазини.
+     * @param from    Първият ден (включително).
+     * @param to      Последният ден (включително).
+     * @return Оценката и грешката ѝ.
+     */
+    public synchronized DistinctCount count(Integer storeId, LocalDate from, LocalDate to) {
+        HyperLogLog merged = new HyperLogLog(PRECISION);
+        for (int day : days.subSet((int) from.toEpochDay(), true, (int) to.toEpochDay(), true)) {
+            Map<Integer, HyperLogLog> stores = partition(day);
+            if (stores == null) {
+                continue;
+            }
+            if (storeId != null) {
+                HyperLogLog sketch = stores.get(storeId);
+                if (sketch != null) {
+                    merged.merge(sketch);
+                }
+            } else {
+                for (HyperLogLog sketch : stores.values()) {
+                    merged.merge(sketch);
+                }
+            }
+        }
+        return new DistinctCount(merged.estimate(), merged.getStandardError());
+    }
+
+    /**
+     * Връща ID на последната добавена касова бележка.
+     *
+     * @return Най-голямото добавено ID или 0.
+     */
+    public synchronized int getLastReceiptId() {
+        return lastReceiptId;
+    }
+
+    /**
+     * Връща променените след последното извикване дни, записани в двоичен формат, и ги отбелязва като записани.
+     *
+     * @return Частите по ден (брой дни от 1970-01-01).
+     */
+    public synchronized Map<Integer, byte[]> drainDirtyPartitions() {
+        Map<Integer, byte[]> partitions = new TreeMap<>();
+        for (int day : dirtyDays) {
+            partitions.put(day, toBytes(cachedDays.get(day)));
+        }
+        dirtyDays.clear();
+        return partitions;
+    }
+
+    /**
+     * Връща списъка с дни и последната добавена касова бележка в двоичен формат.
+     *
+     * @return Записаният списък.
+     */
+    public synchronized byte[] manifest() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(lastReceiptId);
+            out.writeInt(days.size());
+            for (int day : days) {
+                out.writeInt(day);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Връща броя на дните, заредени в паметта.
+     *
+     * @return Брой заредени дни.
+     */
+    public synchronized int getCachedDayCount() {
+        return cachedDays.size();
+    }
+
+    private Map<Integer, HyperLogLog> partition(int day) {
+        Map<Integer, HyperLogLog> stores = cachedDays.get(day);
+        if (stores != null || !days.contains(day)) {
+            return stores;
+        }
+        byte[] data = partitionLoader.apply(day);
+        stores = data != null ? fromBytes(data) : new HashMap<>();
+        cachedDays.put(day, stores);
+        return stores;
+    }
+
+    private static byte[] toBytes(Map<Integer, HyperLogLog> stores) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(stores.size());
+            for (Map.Entry<Integer, HyperLogLog> entry : stores.entrySet()) {
+                out.writeInt(entry.getKey());
+                entry.getValue().serialize(out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Map<Integer, HyperLogLog> fromBytes(byte[] data) {
+        Map<Integer, HyperLogLog> stores = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                stores.put(in.readInt(), HyperLogLog.deserialize(in));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Невалидна част от броя на клиентите: " + e.getMessage(), e);
+        }
+        return stores;
+    }
+}
@@ -0,0 +1,44 @@
+package analytics;
+
+/**
+ * Приблизителен брой на различните стойности с относителната стандартна грешка на оценката.
+ */
+public class DistinctCount {
+
+    private final long estimate;
+    private final double standardError;
+
+    /**
+     * Конструктор за създаване на резултат.
+     *
+     * @param estimate      Оценка на броя.
+     * @param standardError Относителна стандартна грешка, например 0.016 за 1.6%.
+     */
+    public DistinctCount(long estimate, double standardError) {
+        this.estimate = estimate;
+        this.standardError = standardError;
+    }
+
+    /**
+     * Връща оценката на броя на различните стойности.
+     *
+     * @return Оценка на броя.
+     */
+    public long getEstimate() {
+        return estimate;
+    }
+
+    /**
+     * Връща относителната стандартна грешка на оценката.
+     *
+     * @return Грешка, например 0.016 за 1.6%.
+     */
+    public double getStandardError() {
+        return standardError;
+    }
+
+    @Override
+    public String toString() {
+        return estimate + " (±" + Math.round(standardError * 1000) / 10.0 + "%)";
+    }
+}
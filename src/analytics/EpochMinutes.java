@@ -0,0 +1,34 @@
+package analytics;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Превръщане на момент в брой минути от 1970-01-01 00:00 и обратно. Моментите в касовите бележки са местно време
+ * без часова зона, затова минутите се броят като в UTC, без преместване.
+ */
+public final class EpochMinutes {
+
+    private EpochMinutes() {
+    }
+
+    /**
+     * Връща момента като брой минути от 1970-01-01 00:00.
+     *
+     * @param dateTime Моментът.
+     * @return Брой минути.
+     */
+    public static int of(LocalDateTime dateTime) {
+        return (int) Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Връща момента, съответстващ на брой минути от 1970-01-01 00:00.
+     *
+     * @param epochMinute Брой минути.
+     * @return Моментът.
+     */
+    public static LocalDateTime toDateTime(int epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60L, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,66 @@
+package analytics;
+
+/**
+ * Елемент от отговора на {@link SpaceSaving}: продукт с приблизителния му брой продажби.
+ * Броят е горна граница на истинския брой, а {@code count - error} - долна граница.
+ */
+public class HeavyHitter {
+
+    private final int item;
+    private final long count;
+    private final long error;
+
+    /**
+     * Конструктор за създаване на елемент.
+     *
+     * @param item  ID на елемента (например продукт).
+     * @param count Приблизителен брой (горна граница).
+     * @param error Максимално надценяване на броя.
+     */
+    public HeavyHitter(int item, long count, long error) {
+        this.item = item;
+        this.count = count;
+        this.error = error;
+    }
+
+    /**
+     * Връща ID на елемента.
+     *
+     * @return ID на елемента (например продукт).
+     */
+    public int getItem() {
+        return item;
+    }
+
+    /**
+     * Връща приблизителния брой на елемента.
+     *
+     * @return Горна граница на истинския брой.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Връща максималното надценяване на броя.
+     *
+     * @return Максимална грешка на броя.
+     */
+    public long getError() {
+        return error;
+    }
+
+    /**
+     * Връща гарантирания минимален брой.
+     *
+     * @return Долна граница на истинския брой.
+     */
+    public long getGuaranteedCount() {
+        return count - error;
+    }
+
+    @Override
+    public String toString() {
+        return item + "=" + count + "(±" + error + ")";
+    }
+}
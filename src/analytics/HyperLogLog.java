@@ -0,0 +1,248 @@
+package analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Скица HyperLogLog за приблизителния брой на различните стойности (например клиенти) с фиксирана памет.
+ * Хешът на всяка стойност избира един от {@code 2^precision} регистъра по първите си битове, а регистърът пази
+ * най-дългата поредица от нули в останалите битове. Относителната стандартна грешка е {@code 1.04 / sqrt(2^precision)}.
+ * Докато стойностите са малко, се пазят само ненулевите регистри в сортиран масив, за да може да има скица
+ * за всеки магазин и ден. Скиците с еднаква точност могат да бъдат обединявани.
+ * Класът не е безопасен за едновременна употреба от няколко нишки.
+ */
+public class HyperLogLog {
+
+    private static final byte SPARSE = 0;
+    private static final byte DENSE = 1;
+
+    private final int precision;
+    // Ненулевите регистри като (индекс << 8 | стойност), сортирани по индекс, докато registers е null
+    private int[] sparse = new int[4];
+    private int sparseSize;
+    private byte[] registers;
+
+    /**
+     * Конструктор за създаване на празна скица.
+     *
+     * @param precision Брой битове за избор на регистър (от 4 до 18).
+     * @throws IllegalArgumentException ако точността е извън допустимите граници.
+     */
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Точността трябва да бъде между 4 и 18");
+        }
+        this.precision = precision;
+    }
+
+    /**
+     * Добавя стойност.
+     *
+     * @param value Стойността, например ID на клиент.
+     */
+    public void add(long value) {
+        long hash = mix(value);
+        int index = (int) (hash >>> (64 - precision));
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        setRegister(index, rank);
+    }
+
+    /**
+     * Добавя всички стойности от друга скица.
+     *
+     * @param other Скица със същата точност.
+     * @throws IllegalArgumentException ако точността е различна.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Не могат да бъдат обединени скици с различна точност");
+        }
+        if (other.registers != null) {
+            toDense();
+            for (int i = 0; i < registers.length; i++) {
+                if (other.registers[i] > registers[i]) {
+                    registers[i] = other.registers[i];
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < other.sparseSize; i++) {
+            setRegister(other.sparse[i] >>> 8, other.sparse[i] & 0xFF);
+        }
+    }
+
+    /**
+     * Връща приблизителния брой на различните стойности.
+     *
+     * @return Оценка на броя.
+     */
+    public long estimate() {
+        int m = 1 << precision;
+        double sum = 0;
+        int zeros = 0;
+        if (registers != null) {
+            for (byte register : registers) {
+                sum += 1.0 / (1L << register);
+                if (register == 0) {
+                    zeros++;
+                }
+            }
+        } else {
+            zeros = m - sparseSize;
+            sum = zeros;
+            for (int i = 0; i < sparseSize; i++) {
+                sum += 1.0 / (1L << (sparse[i] & 0xFF));
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // При малко стойности линейното броене по празните регистри е по-точно
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Връща относителната стандартна грешка на оценката.
+     *
+     * @return Грешка, например 0.016 за 1.6%.
+     */
+    public double getStandardError() {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    /**
+     * Връща точността на скицата.
+     *
+     * @return Броят на битовете за номер на регистър (скицата има 2^precision регистъра).
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Записва скицата в поток.
+     *
+     * @param out Потокът.
+     * @throws IOException при грешка при записа.
+     */
+    public void serialize(DataOutput out) throws IOException {
+        out.writeByte(precision);
+        if (registers != null) {
+            out.writeByte(DENSE);
+            out.write(registers);
+        } else {
+            out.writeByte(SPARSE);
+            out.writeInt(sparseSize);
+            for (int i = 0; i < sparseSize; i++) {
+                out.writeInt(sparse[i]);
+            }
+        }
+    }
+
+    /**
+     * Чете скица, записана с {@link #serialize(DataOutput)}.
+     *
+     * @param in Потокът.
+     * @return Прочетената скица.
+     * @throws IOException при грешка при четенето или невалидни данни.
+     */
+    public static HyperLogLog deserialize(DataInput in) throws IOException {
+        int precision = in.readByte();
+        HyperLogLog sketch;
+        try {
+            sketch = new HyperLogLog(precision);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        byte mode = in.readByte();
+        if (mode == DENSE) {
+            sketch.registers = new byte[1 << precision];
+            in.readFully(sketch.registers);
+        } else if (mode == SPARSE) {
+            int size = in.readInt();
+            if (size < 0 || size > 1 << precision) {
+                throw new IOException("Невалиден брой регистри: " + size);
+            }
+            sketch.sparse = new int[Math.max(4, size)];
+            for (int i = 0; i < size; i++) {
+                sketch.sparse[i] = in.readInt();
+            }
+            sketch.sparseSize = size;
+        } else {
+            throw new IOException("Непознат вид скица: " + mode);
+        }
+        return sketch;
+    }
+
+    private void setRegister(int index, int rank) {
+        if (registers != null) {
+            if (rank > registers[index]) {
+                registers[index] = (byte) rank;
+            }
+            return;
+        }
+        int position = findSparse(index);
+        if (position >= 0) {
+            if (rank > (sparse[position] & 0xFF)) {
+                sparse[position] = index << 8 | rank;
+            }
+            return;
+        }
+        // Масивът с ненулеви регистри заема 4 байта на регистър и се заменя, когато стане по-голям от всички регистри
+        if (sparseSize + 1 > (1 << precision) / 4) {
+            toDense();
+            registers[index] = (byte) rank;
+            return;
+        }
+        position = -position - 1;
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, sparse.length * 2);
+        }
+        System.arraycopy(sparse, position, sparse, position + 1, sparseSize - position);
+        sparse[position] = index << 8 | rank;
+        sparseSize++;
+    }
+
+    private int findSparse(int index) {
+        int low = 0;
+        int high = sparseSize - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleIndex = sparse[middle] >>> 8;
+            if (middleIndex < index) {
+                low = middle + 1;
+            } else if (middleIndex > index) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void toDense() {
+        if (registers != null) {
+            return;
+        }
+        registers = new byte[1 << precision];
+        for (int i = 0; i < sparseSize; i++) {
+            registers[sparse[i] >>> 8] = (byte) (sparse[i] & 0xFF);
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    /**
+     * Разбърква битовете на стойността (SplitMix64), за да са равномерно разпределени и за поредни ID-та.
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,299 @@
+package analytics;
+
+import java.util.Arrays;
+
+/**
+ * Скица KLL за приблизителните квантили (например медиана и 95-и персентил) на поток от цели числа с ограничена памет.
+ * Стойностите се пазят в нива, като стойност на ниво {@code h} представя {@code 2^h} стойности от потока.
+ * Когато едно ниво се напълни, то се сортира и всяка втора стойност (четните или нечетните позиции на случаен принцип)
+ * се премества на по-горното ниво, а останалите се изхвърлят. Капацитетът на нивата намалява геометрично надолу
+ * от горното ниво, така че скицата пази около {@code 3k} стойности независимо от броя им, а грешката в ранга
+ * е около 1.3% при {@code k = 200}. Докато стойностите са под {@code k}, квантилите са точни.
+ * Скиците с еднакво {@code k} могат да бъдат обединявани без загуба на точност.
+ * Минималната и максималната стойност, броят и сумата се пазят точно.
+ * Класът не е безопасен за едновременна употреба от няколко нишки.
+ */
+public class KllSketch {
+
+    /**
+     * Стойност на {@code k} по подразбиране.
+     */
+    public static final int DEFAULT_K = 200;
+
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_LEVEL_CAPACITY = 2;
+    private static final int INITIAL_LEVEL_SIZE = 8;
+
+    private final int k;
+    private long[][] levels = {new long[INITIAL_LEVEL_SIZE]};
+    private int[] sizes = new int[1];
+    private int retained;
+    private int maxRetained;
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private int random;
+
+    /**
+     * Конструктор за създаване на празна скица с {@link #DEFAULT_K}.
+     */
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Конструктор за създаване на празна скица.
+     *
+     * @param k Капацитет на горното ниво - по-голямо {@code k} дава по-малка грешка и заема повече памет.
+     * @throws IllegalArgumentException ако {@code k} е по-малко от 8.
+     */
+    public KllSketch(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("Параметърът k на скицата трябва да бъде поне 8");
+        }
+        this.k = k;
+        this.maxRetained = capacity(0);
+        this.random = 0x9E3779B9;
+    }
+
+    /**
+     * Добавя стойност.
+     *
+     * @param value Стойността.
+     */
+    public void add(long value) {
+        append(0, value);
+        retained++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * Добавя всички стойности от друга скица.
+     *
+     * @param other Скица със същото {@code k}.
+     * @throws IllegalArgumentException ако {@code k} е различно.
+     */
+    public void merge(KllSketch other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("Не могат да бъдат обединени скици с различно k");
+        }
+        if (other.count == 0) {
+            return;
+        }
+        while (levels.length < other.levels.length) {
+            addLevel();
+        }
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        retained += other.retained;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        while (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * Връща приблизителната стойност с даден ранг - например 0.5 за медианата и 0.99 за 99-ия персентил.
+     *
+     * @param rank Рангът между 0 и 1.
+     * @return Най-малката запазена стойност, до която (включително) са поне {@code rank} от стойностите,
+     * или 0, ако скицата е празна.
+     * @throws IllegalArgumentException ако рангът е извън интервала [0, 1].
+     */
+    public long quantile(double rank) {
+        return quantiles(rank)[0];
+    }
+
+    /**
+     * Връща приблизителните стойности за няколко ранга, като сортира запазените стойности само веднъж.
+     *
+     * @param ranks Ранговете между 0 и 1.
+     * @return Стойностите в реда на ранговете (0 за празна скица).
+     * @throws IllegalArgumentException ако някой ранг е извън интервала [0, 1].
+     */
+    public long[] quantiles(double... ranks) {
+        for (double rank : ranks) {
+            if (rank < 0 || rank > 1) {
+                throw new IllegalArgumentException("Рангът трябва да бъде между 0 и 1");
+            }
+        }
+        long[] result = new long[ranks.length];
+        if (count == 0) {
+            return result;
+        }
+
+        // Сортираните стойности от всички нива с натрупаното тегло (2^ниво за всяка стойност)
+        long[] values = new long[0];
+        long[] cumulative = new long[0];
+        for (int level = 0; level < levels.length; level++) {
+            long[] levelValues = Arrays.copyOf(levels[level], sizes[level]);
+            Arrays.sort(levelValues);
+            long[][] merged = mergeSorted(values, cumulative, levelValues, 1L << level);
+            values = merged[0];
+            cumulative = merged[1];
+        }
+
+        long totalWeight = cumulative[cumulative.length - 1];
+        for (int i = 0; i < ranks.length; i++) {
+            if (ranks[i] == 0) {
+                result[i] = min;
+            } else if (ranks[i] == 1) {
+                result[i] = max;
+            } else {
+                long target = (long) Math.ceil(ranks[i] * totalWeight);
+                int position = Arrays.binarySearch(cumulative, target);
+                result[i] = values[position >= 0 ? position : -position - 1];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Връща броя на добавените стойности.
+     *
+     * @return Брой стойности.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Връща сумата на добавените стойности.
+     *
+     * @return Сумата.
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * Връща най-малката добавена стойност.
+     *
+     * @return Минимумът или 0, ако скицата е празна.
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Връща най-голямата добавена стойност.
+     *
+     * @return Максимумът или 0, ако скицата е празна.
+     */
+    public long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    /**
+     * Връща броя на стойностите, които скицата пази в паметта.
+     *
+     * @return Брой запазени стойности.
+     */
+    public int getRetainedCount() {
+        return retained;
+    }
+
+    /**
+     * Връща приблизителната грешка в ранга на върнатите квантили (с вероятност около 99%).
+     *
+     * @return Грешката, например 0.0133 за 1.33% при {@code k = 200}.
+     */
+    public double getRankError() {
+        return 2.296 / Math.pow(k, 0.9723);
+    }
+
+    private int capacity(int level) {
+        int depth = levels.length - level - 1;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private void append(int level, long value) {
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], levels[level].length * 2);
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levels.length + 1);
+        levels[levels.length - 1] = new long[INITIAL_LEVEL_SIZE];
+        sizes = Arrays.copyOf(sizes, sizes.length + 1);
+        maxRetained = 0;
+        for (int level = 0; level < levels.length; level++) {
+            maxRetained += capacity(level);
+        }
+    }
+
+    /**
+     * Уплътнява най-ниското пълно ниво, като премества половината от стойностите му на по-горното ниво.
+     */
+    private void compress() {
+        for (int level = 0; level < levels.length; level++) {
+            if (sizes[level] < capacity(level)) {
+                continue;
+            }
+            if (level + 1 == levels.length) {
+                addLevel();
+            }
+            long[] values = levels[level];
+            int size = sizes[level];
+            Arrays.sort(values, 0, size);
+            // При нечетен брой най-голямата стойност остава на нивото
+            int kept = size % 2;
+            int pairs = size - kept;
+            int offset = nextBit();
+            for (int i = offset; i < pairs; i += 2) {
+                append(level + 1, values[i]);
+            }
+            if (kept == 1) {
+                values[0] = values[size - 1];
+            }
+            sizes[level] = kept;
+            retained -= pairs / 2;
+            return;
+        }
+    }
+
+    /**
+     * Слива сортираните стойности с натрупано тегло с още сортирани стойности с еднакво тегло.
+     */
+    private static long[][] mergeSorted(long[] values, long[] cumulative, long[] added, long weight) {
+        long[] mergedValues = new long[values.length + added.length];
+        long[] mergedCumulative = new long[mergedValues.length];
+        int i = 0;
+        int j = 0;
+        long total = 0;
+        for (int position = 0; position < mergedValues.length; position++) {
+            if (j == added.length || (i < values.length && values[i] <= added[j])) {
+                total += cumulative[i] - (i == 0 ? 0 : cumulative[i - 1]);
+                mergedValues[position] = values[i++];
+            } else {
+                total += weight;
+                mergedValues[position] = added[j++];
+            }
+            mergedCumulative[position] = total;
+        }
+        return new long[][]{mergedValues, mergedCumulative};
+    }
+
+    private int nextBit() {
+        // Xorshift - достатъчно за избора на четни или нечетни позиции и без заделяне на памет
+        random ^= random << 13;
+        random ^= random >>> 17;
+        random ^= random << 5;
+        return random & 1;
+    }
+}
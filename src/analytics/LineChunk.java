@@ -0,0 +1,40 @@
+package analytics;
+
+/**
+ * Част от {@link ReceiptLineStore} с до {@link #CAPACITY} реда, записани като отделни масиви по колони.
+ * Редовете се добавят само от една нишка наведнъж, а броят им се публикува след записването на колоните,
+ * така че четящите нишки виждат само напълно записани редове.
+ */
+class LineChunk {
+
+    static final int CAPACITY = 1 << 14;
+
+    final int[] receiptIds = new int[CAPACITY];
+    final int[] storeIds = new int[CAPACITY];
+    final int[] cashierIds = new int[CAPACITY];
+    final int[] productIds = new int[CAPACITY];
+    final int[] quantities = new int[CAPACITY];
+    final long[] priceCents = new long[CAPACITY];
+    final int[] epochMinutes = new int[CAPACITY];
+    private volatile int size;
+
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == CAPACITY;
+    }
+
+    void add(int receiptId, int storeId, int cashierId, int productId, int quantity, long unitPriceCents, int epochMinute) {
+        int row = size;
+        receiptIds[row] = receiptId;
+        storeIds[row] = storeId;
+        cashierIds[row] = cashierId;
+        productIds[row] = productId;
+        quantities[row] = quantity;
+        priceCents[row] = unitPriceCents;
+        epochMinutes[row] = epochMinute;
+        size = row + 1;
+    }
+}
@@ -0,0 +1,94 @@
+package analytics;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * Хеш-таблица от long към сума от long с отворено адресиране, за да не се създават обекти
+ * за всеки обходен ред при групиране.
+ */
+class LongSumMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] sums;
+    private int size;
+    // Ключът EMPTY се пази отделно, защото отбелязва свободните места
+    private boolean hasEmptyKey;
+    private long emptyKeySum;
+
+    LongSumMap() {
+        keys = new long[16];
+        sums = new long[16];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    void add(long key, long value) {
+        if (key == EMPTY) {
+            hasEmptyKey = true;
+            emptyKeySum += value;
+            return;
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                sums[slot] = value;
+                grow();
+                return;
+            }
+        }
+        sums[slot] += value;
+    }
+
+    void addAll(LongSumMap other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != EMPTY) {
+                add(other.keys[i], other.sums[i]);
+            }
+        }
+        if (other.hasEmptyKey) {
+            add(EMPTY, other.emptyKeySum);
+        }
+    }
+
+    /**
+     * Връща сумите, подредени по ключ.
+     */
+    TreeMap<Long, Long> toMap() {
+        TreeMap<Long, Long> map = new TreeMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                map.put(keys[i], sums[i]);
+            }
+        }
+        if (hasEmptyKey) {
+            map.put(EMPTY, emptyKeySum);
+        }
+        return map;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldSums = sums;
+        keys = new long[oldKeys.length * 2];
+        sums = new long[oldSums.length * 2];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                add(oldKeys[i], oldSums[i]);
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,192 @@
+package analytics;
+
+import model.Product;
+import model.Receipt;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Индекс на касовите бележки за бързо филтриране в справките. За всеки магазин, касиер, ден и продукт пази
+ * {@link RoaringBitmap} с ID-тата на касовите бележки, така че търсене като "бележките на касиер 7 в магазин 3
+ * през последната седмица, съдържащи продукт 42" е сечение на няколко компресирани множества, без да се
+ * преглеждат самите касови бележки. Тъй като ID-тата на касовите бележки са поредни номера, множествата са плътни
+ * и заемат малко памет.
+ * Всички методи са синхронизирани, така че индексът може да се допълва и използва от няколко нишки.
+ */
+public class ReceiptBitmapIndex {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private RoaringBitmap all = new RoaringBitmap();
+    private final Map<Integer, RoaringBitmap> byStore = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> byCashier = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> byProduct = new HashMap<>();
+    // Ключът е броят дни от 1970-01-01, за да може период да се обходи с subMap
+    private final NavigableMap<Integer, RoaringBitmap> byDay = new TreeMap<>();
+    private int lastReceiptId;
+
+    /**
+     * Добавя касова бележка в индекса. Повторното добавяне на една и съща бележка не променя индекса.
+     *
+     * @param receipt Записана касова бележка (с ID).
+     */
+    public synchronized void add(Receipt receipt) {
+        int id = receipt.getId();
+        all.add(id);
+        bitmapFor(byStore, receipt.getStore()).add(id);
+        bitmapFor(byCashier, receipt.getCashier()).add(id);
+        if (receipt.getDateTime() != null) {
+            bitmapFor(byDay, (int) receipt.getDateTime().toLocalDate().toEpochDay()).add(id);
+        }
+        if (receipt.getPurchasedProducts() != null) {
+            for (Product product : receipt.getPurchasedProducts().keySet()) {
+                bitmapFor(byProduct, product.getId()).add(id);
+            }
+        }
+        lastReceiptId = Math.max(lastReceiptId, id);
+    }
+
+    /**
+     * Намира касовите бележки, отговарящи на филтъра. Дните от периода се обединяват, след което множествата
+     * на всички условия се пресичат, като се започва от най-малкото.
+     *
+     * @param query Филтърът.
+     * @return Ново множество с ID-тата на намерените касови бележки.
+     */
+    public synchronized RoaringBitmap query(ReceiptQuery query) {
+        List<RoaringBitmap> conditions = new ArrayList<>();
+        if (query.getStoreId() != null) {
+            conditions.add(byStore.get(query.getStoreId()));
+        }
+        if (query.getCashierId() != null) {
+            conditions.add(byCashier.get(query.getCashierId()));
+        }
+        if (query.getProductId() != null) {
+            conditions.add(byProduct.get(query.getProductId()));
+        }
+        if (conditions.contains(null)) {
+            return new RoaringBitmap();
+        }
+        if (query.hasPeriod()) {
+            // Обединението на дните е ново множество и може да бъде върнато без копиране
+            RoaringBitmap period = period(query);
+            conditions.add(period);
+            if (conditions.size() == 1) {
+                return period;
+            }
+        }
+        if (conditions.isEmpty()) {
+            return all.copy();
+        }
+        if (conditions.size() == 1) {
+            return conditions.get(0).copy();
+        }
+
+        conditions.sort(Comparator.comparingLong(RoaringBitmap::getCardinality));
+        RoaringBitmap result = RoaringBitmap.and(conditions.get(0), conditions.get(1));
+        for (int i = 2; i < conditions.size() && !result.isEmpty(); i++) {
+            result = RoaringBitmap.and(result, conditions.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Връща броя на касовите бележки в индекса.
+     *
+     * @return Брой касови бележки.
+     */
+    public synchronized long size() {
+        return all.getCardinality();
+    }
+
+    /**
+     * Връща най-голямото ID на касова бележка в индекса.
+     *
+     * @return Най-голямото ID или 0, ако индексът е празен.
+     */
+    public synchronized int getLastReceiptId() {
+        return lastReceiptId;
+    }
+
+    /**
+     * Връща приблизителния размер на индекса в паметта.
+     *
+     * @return Размер в байтове.
+     */
+    public synchronized long getSizeInBytes() {
+        long bytes = all.getSizeInBytes();
+        for (Map<Integer, RoaringBitmap> dimension : List.of(byStore, byCashier, byProduct, byDay)) {
+            for (RoaringBitmap bitmap : dimension.values()) {
+                bytes += bitmap.getSizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Записва индекса в двоичен формат.
+     *
+     * @return Записаният индекс.
+     */
+    public synchronized byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(lastReceiptId);
+            all.serialize(out);
+            for (Map<Integer, RoaringBitmap> dimension : List.of(byStore, byCashier, byProduct, byDay)) {
+                out.writeInt(dimension.size());
+                for (Map.Entry<Integer, RoaringBitmap> entry : dimension.entrySet()) {
+                    out.writeInt(entry.getKey());
+                    entry.getValue().serialize(out);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Чете индекс, записан с {@link #toBytes()}.
+     *
+     * @param data Записаният индекс.
+     * @return Прочетеният индекс.
+     * @throws IllegalArgumentException ако данните не са валиден индекс.
+     */
+    public static ReceiptBitmapIndex fromBytes(byte[] data) {
+        ReceiptBitmapIndex index = new ReceiptBitmapIndex();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Неподдържана версия на индекса на касовите бележки: " + version);
+            }
+            index.lastReceiptId = in.readInt();
+            index.all = RoaringBitmap.deserialize(in);
+            for (Map<Integer, RoaringBitmap> dimension : List.of(index.byStore, index.byCashier, index.byProduct, index.byDay)) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    dimension.put(in.readInt(), RoaringBitmap.deserialize(in));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Невалиден индекс на касовите бележки: " + e.getMessage(), e);
+        }
+        return index;
+    }
+
+    private RoaringBitmap period(ReceiptQuery query) {
+        int from = query.getFromDate() != null ? (int) query.getFromDate().toEpochDay() : Integer.MIN_VALUE;
+        int to = query.getToDate() != null ? (int) query.getToDate().toEpochDay() : Integer.MAX_VALUE;
+        RoaringBitmap result = new RoaringBitmap();
+        for (RoaringBitmap day : byDay.subMap(from, true, to, true).values()) {
+            result.addAll(day);
+        }
+        return result;
+    }
+
+    private static RoaringBitmap bitmapFor(Map<Integer, RoaringBitmap> dimension, int key) {
+        return dimension.computeIfAbsent(key, k -> new RoaringBitmap());
+    }
+}
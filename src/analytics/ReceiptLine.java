@@ -0,0 +1,91 @@
+package analytics;
+
+import model.Money;
+
+/**
+ * Изглед към един ред (продукт от касова бележка) в {@link ReceiptLineStore}, подаван на филтрите,
+ * ключовете и мерките при обхождане. Един обект се използва повторно за всички редове от обхождането,
+ * затова не трябва да бъде запазван извън извикването.
+ */
+public final class ReceiptLine {
+
+    private LineChunk chunk;
+    private int row;
+
+    ReceiptLine() {
+    }
+
+    void moveTo(LineChunk chunk, int row) {
+        this.chunk = chunk;
+        this.row = row;
+    }
+
+    void moveTo(int row) {
+        this.row = row;
+    }
+
+    public int receiptId() {
+        return chunk.receiptIds[row];
+    }
+
+    public int storeId() {
+        return chunk.storeIds[row];
+    }
+
+    public int cashierId() {
+        return chunk.cashierIds[row];
+    }
+
+    public int productId() {
+        return chunk.productIds[row];
+    }
+
+    public int quantity() {
+        return chunk.quantities[row];
+    }
+
+    /**
+     * Връща единичната цена, по която е продаден продуктът.
+     *
+     * @return Единична цена в стотинки.
+     */
+    public long unitPriceCents() {
+        return chunk.priceCents[row];
+    }
+
+    /**
+     * Връща сумата за реда (единична цена по количество).
+     *
+     * @return Сума в стотинки.
+     */
+    public long amountCents() {
+        return Money.multiply(chunk.priceCents[row], chunk.quantities[row]);
+    }
+
+    /**
+     * Връща момента на покупката като брой минути от 1970-01-01 00:00.
+     *
+     * @return Минута на покупката.
+     */
+    public int epochMinute() {
+        return chunk.epochMinutes[row];
+    }
+
+    /**
+     * Връща часа на покупката като брой часове от 1970-01-01 00:00.
+     *
+     * @return Час на покупката.
+     */
+    public int epochHour() {
+        return Math.floorDiv(chunk.epochMinutes[row], 60);
+    }
+
+    /**
+     * Връща деня на покупката като брой дни от 1970-01-01.
+     *
+     * @return Ден на покупката.
+     */
+    public int epochDay() {
+        return Math.floorDiv(chunk.epochMinutes[row], 24 * 60);
+    }
+}
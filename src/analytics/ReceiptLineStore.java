@@ -0,0 +1,170 @@
+package analytics;
+
+import model.Product;
+import model.Receipt;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Колонно хранилище в паметта на редовете от касовите бележки (по един ред за всеки закупен продукт).
+ * Вместо обекти {@link Receipt} с {@code Map<Product, Integer>} пази масиви от примитивни стойности за всяка колона:
+ * ID на касовата бележка, магазин, касиер, продукт, количество, единична цена в стотинки и минута на покупката.
+ * Справки като "приходи по категория за всеки час" или "продадени бройки по продукт и магазин" обхождат
+ * последователно масивите, без да следват указатели и без да опаковат количествата в обекти.
+ * <p>
+ * Редовете се пазят в части от по {@value LineChunk#CAPACITY} реда, които се обхождат паралелно
+ * с fork/join. Добавянето е синхронизирано, а обхождането може да върви едновременно с него
+ * и вижда редовете, добавени преди началото му.
+ * <pre>{@code
+ * Map<Long, Long> revenueByStore = lines.sumBy(ReceiptLine::storeId, ReceiptLine::amountCents, line -> true);
+ * }</pre>
+ */
+public class ReceiptLineStore {
+
+    private final ForkJoinPool pool;
+    private volatile LineChunk[] chunks = {new LineChunk()};
+
+    /**
+     * Конструктор, който обхожда редовете в общия {@link ForkJoinPool}.
+     */
+    public ReceiptLineStore() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Конструктор с избран {@link ForkJoinPool} за паралелното обхождане.
+     *
+     * @param pool Нишките за обхождане.
+     */
+    public ReceiptLineStore(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Добавя редовете на касова бележка.
+     *
+     * @param receipt Записана касова бележка (с ID).
+     */
+    public synchronized void add(Receipt receipt) {
+        int epochMinute = EpochMinutes.of(receipt.getDateTime());
+        for (Map.Entry<Product, Integer> entry : receipt.getPurchasedProducts().entrySet()) {
+            Product product = entry.getKey();
+            LineChunk chunk = chunks[chunks.length - 1];
+            if (chunk.isFull()) {
+                chunk = new LineChunk();
+                LineChunk[] extended = Arrays.copyOf(chunks, chunks.length + 1);
+                extended[extended.length - 1] = chunk;
+                chunks = extended;
+            }
+            chunk.add(receipt.getId(), receipt.getStore(), receipt.getCashier(), product.getId(), entry.getValue(),
+                    receipt.getUnitPriceCents(product), epochMinute);
+        }
+    }
+
+    /**
+     * Връща броя на редовете.
+     *
+     * @return Брой редове.
+     */
+    public long size() {
+        LineChunk[] snapshot = chunks;
+        return (long) (snapshot.length - 1) * LineChunk.CAPACITY + snapshot[snapshot.length - 1].size();
+    }
+
+    /**
+     * Сумира мярка за редовете, отговарящи на филтъра.
+     *
+     * @param measure Стойността, която се сумира, например {@code ReceiptLine::quantity}.
+     * @param filter  Филтър на редовете.
+     * @return Сумата.
+     */
+    public long sum(ToLongFunction<ReceiptLine> measure, Predicate<ReceiptLine> filter) {
+        return sumBy(line -> 0L, measure, filter).getOrDefault(0L, 0L);
+    }
+
+    /**
+     * Брои редовете, отговарящи на филтъра.
+     *
+     * @param filter Филтър на редовете.
+     * @return Брой редове.
+     */
+    public long count(Predicate<ReceiptLine> filter) {
+        return sum(line -> 1L, filter);
+    }
+
+    /**
+     * Групира редовете, отговарящи на филтъра, по ключ и сумира мярка за всяка група.
+     * Частите се обхождат паралелно, като всяка задача събира сумите си в отделна таблица, а таблиците
+     * се обединяват накрая.
+     *
+     * @param key     Ключът на групата, например {@code ReceiptLine::storeId} или {@code ReceiptLine::epochHour}.
+     * @param measure Стойността, която се сумира, например {@code ReceiptLine::amountCents}.
+     * @param filter  Филтър на редовете.
+     * @return Сумите по ключ, подредени по ключ.
+     */
+    public Map<Long, Long> sumBy(ToLongFunction<ReceiptLine> key, ToLongFunction<ReceiptLine> measure,
+                                 Predicate<ReceiptLine> filter) {
+        LineChunk[] snapshot = chunks;
+        int[] sizes = new int[snapshot.length];
+        for (int i = 0; i < snapshot.length; i++) {
+            sizes[i] = snapshot[i].size();
+        }
+        return pool.invoke(new ScanTask(snapshot, sizes, 0, snapshot.length, key, measure, filter)).toMap();
+    }
+
+    /**
+     * Обхожда част от масива с части. Ако частите са повече от една, задачата се разделя на две.
+     */
+    private static class ScanTask extends RecursiveTask<LongSumMap> {
+
+        private final LineChunk[] chunks;
+        private final int[] sizes;
+        private final int from;
+        private final int to;
+        private final ToLongFunction<ReceiptLine> key;
+        private final ToLongFunction<ReceiptLine> measure;
+        private final Predicate<ReceiptLine> filter;
+
+        ScanTask(LineChunk[] chunks, int[] sizes, int from, int to, ToLongFunction<ReceiptLine> key,
+                 ToLongFunction<ReceiptLine> measure, Predicate<ReceiptLine> filter) {
+            this.chunks = chunks;
+            this.sizes = sizes;
+            this.from = from;
+            this.to = to;
+            this.key = key;
+            this.measure = measure;
+            this.filter = filter;
+        }
+
+        @Override
+        protected LongSumMap compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                ScanTask left = new ScanTask(chunks, sizes, from, middle, key, measure, filter);
+                ScanTask right = new ScanTask(chunks, sizes, middle, to, key, measure, filter);
+                left.fork();
+                LongSumMap result = right.compute();
+                result.addAll(left.join());
+                return result;
+            }
+
+            LongSumMap result = new LongSumMap();
+            ReceiptLine line = new ReceiptLine();
+            for (int c = from; c < to; c++) {
+                line.moveTo(chunks[c], 0);
+                for (int row = 0; row < sizes[c]; row++) {
+                    line.moveTo(row);
+                    if (filter.test(line)) {
+                        result.add(key.applyAsLong(line), measure.applyAsLong(line));
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
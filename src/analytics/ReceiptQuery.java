@@ -0,0 +1,129 @@
+package analytics;
+
+import java.time.LocalDate;
+
+/**
+ * Филтър за търсене на касови бележки в {@link ReceiptBitmapIndex}. Незададените условия не ограничават
+ * резултата, а зададените се комбинират с "и".
+ * <pre>{@code
+ * new ReceiptQuery().store(3).cashier(7).between(from, to).product(42)
+ * }</pre>
+ */
+public class ReceiptQuery {
+
+    private Integer storeId;
+    private Integer cashierId;
+    private Integer productId;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    /**
+     * Ограничава търсенето до касовите бележки на даден магазин.
+     *
+     * @param storeId ID на магазина.
+     * @return Същият филтър.
+     */
+    public ReceiptQuery store(int storeId) {
+        this.storeId = storeId;
+        return this;
+    }
+
+    /**
+     * Ограничава търсенето до касовите бележки на даден касиер.
+     *
+     * @param cashierId ID на касиера.
+     * @return Същият филтър.
+     */
+    public ReceiptQuery cashier(int cashierId) {
+        this.cashierId = cashierId;
+        return this;
+    }
+
+    /**
+     * Ограничава търсенето до касовите бележки, съдържащи даден продукт.
+     *
+     * @param productId ID на продукта.
+     * @return Същият филтър.
+     */
+    public ReceiptQuery product(int productId) {
+        this.productId = productId;
+        return this;
+    }
+
+    /**
+     * Ограничава търсенето до касовите бележки от даден период.
+     *
+     * @param fromDate Първият ден (включително) или null за период без начало.
+     * @param toDate   Последният ден (включително) или null за период без край.
+     * @return Същият филтър.
+     * @throws IllegalArgumentException ако началото е след края.
+     */
+    public ReceiptQuery between(LocalDate fromDate, LocalDate toDate) {
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("Началната дата " + fromDate + " е след крайната дата " + toDate);
+        }
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        return this;
+    }
+
+    /**
+     * Връща ID на магазина, по който се търси.
+     *
+     * @return ID на магазина или null, ако не е зададен.
+     */
+    public Integer getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * Връща ID на касиера, по който се търси.
+     *
+     * @return ID на касиера или null, ако не е зададен.
+     */
+    public Integer getCashierId() {
+        return cashierId;
+    }
+
+    /**
+     * Връща ID на продукта, по който се търси.
+     *
+     * @return ID на продукта или null, ако не е зададен.
+     */
+    public Integer getProductId() {
+        return productId;
+    }
+
+    /**
+     * Връща първия ден от периода.
+     *
+     * @return Първият ден (включително) или null за период без начало.
+     */
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    /**
+     * Връща последния ден от периода.
+     *
+     * @return Последният ден (включително) или null за период без край.
+     */
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    /**
+     * Проверява дали е зададен период.
+     *
+     * @return true, ако е зададено начало или край на периода.
+     */
+    public boolean hasPeriod() {
+        return fromDate != null || toDate != null;
+    }
+
+    @Override
+    public String toString() {
+        return "ReceiptQuery{storeId=" + storeId + ", cashierId=" + cashierId + ", productId=" + productId +
+                ", fromDate=" + fromDate + ", toDate=" + toDate + "}";
+    }
+}
@@ -0,0 +1,313 @@
+package analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Компресирано множество от неотрицателни цели числа (например ID-тата на касовите бележки).
+ * Числата се разделят на блокове по горните 16 бита, а всеки блок пази долните 16 бита в контейнер -
+ * сортиран масив, ако стойностите са малко, или битова карта, ако са много. Така и редките, и плътните
+ * множества заемат малко памет, а сечението и обединението се изчисляват блок по блок.
+ * Класът не е безопасен за едновременна употреба от няколко нишки.
+ */
+public class RoaringBitmap {
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    /**
+     * Конструктор за създаване на празно множество.
+     */
+    public RoaringBitmap() {
+        this(new char[4], new Container[4], 0);
+    }
+
+    private RoaringBitmap(char[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    /**
+     * Създава множество от дадени стойности.
+     *
+     * @param values Стойности в произволен ред.
+     * @return Новото множество.
+     */
+    public static RoaringBitmap of(int... values) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Добавя стойност в множеството.
+     *
+     * @param value Неотрицателно цяло число.
+     * @throws IllegalArgumentException ако стойността е отрицателна.
+     */
+    public void add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Стойността не може да бъде отрицателна: " + value);
+        }
+        char key = (char) (value >>> 16);
+        int position = Arrays.binarySearch(keys, 0, size, key);
+        if (position >= 0) {
+            containers[position] = containers[position].add((char) value);
+            return;
+        }
+        insertAt(-position - 1, key, new ArrayContainer().add((char) value));
+    }
+
+    /**
+     * Проверява дали стойност е в множеството.
+     *
+     * @param value Стойността.
+     * @return true, ако стойността е в множеството, false в противен случай.
+     */
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int position = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return position >= 0 && containers[position].contains((char) value);
+    }
+
+    /**
+     * Връща броя на стойностите в множеството.
+     *
+     * @return Брой стойности.
+     */
+    public long getCardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * Проверява дали множеството е празно.
+     *
+     * @return true, ако множеството е празно, false в противен случай.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Връща приблизителния размер на множеството в паметта.
+     *
+     * @return Размер в байтове.
+     */
+    public long getSizeInBytes() {
+        long bytes = 6L * keys.length;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Връща сечението на две множества като ново множество.
+     *
+     * @param first  Първото множество.
+     * @param second Второто множество.
+     * @return Стойностите, които са и в двете множества.
+     */
+    public static RoaringBitmap and(RoaringBitmap first, RoaringBitmap second) {
+        int capacity = Math.max(1, Math.min(first.size, second.size));
+        RoaringBitmap result = new RoaringBitmap(new char[capacity], new Container[capacity], 0);
+        int i = 0;
+        int j = 0;
+        while (i < first.size && j < second.size) {
+            if (first.keys[i] < second.keys[j]) {
+                i++;
+            } else if (first.keys[i] > second.keys[j]) {
+                j++;
+            } else {
+                Container container = first.containers[i].and(second.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.insertAt(result.size, first.keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Връща обединението на две множества като ново множество.
+     *
+     * @param first  Първото множество.
+     * @param second Второто множество.
+     * @return Стойностите, които са в поне едно от множествата.
+     */
+    public static RoaringBitmap or(RoaringBitmap first, RoaringBitmap second) {
+        int capacity = Math.max(1, first.size + second.size);
+        RoaringBitmap result = new RoaringBitmap(new char[capacity], new Container[capacity], 0);
+        int i = 0;
+        int j = 0;
+        while (i < first.size || j < second.size) {
+            if (j == second.size || (i < first.size && first.keys[i] < second.keys[j])) {
+                result.insertAt(result.size, first.keys[i], first.containers[i].copy());
+                i++;
+            } else if (i == first.size || first.keys[i] > second.keys[j]) {
+                result.insertAt(result.size, second.keys[j], second.containers[j].copy());
+                j++;
+            } else {
+                result.insertAt(result.size, first.keys[i], first.containers[i].or(second.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Добавя всички стойности на друго множество в това множество.
+     * При обединяване на много множества е по-бързо от {@link #or(RoaringBitmap, RoaringBitmap)},
+     * защото не копира натрупания резултат всеки път.
+     *
+     * @param other Множеството, чиито стойности се добавят.
+     */
+    public void addAll(RoaringBitmap other) {
+        for (int j = 0; j < other.size; j++) {
+            char key = other.keys[j];
+            int position = size > 0 && keys[size - 1] < key ? -size - 1 : Arrays.binarySearch(keys, 0, size, key);
+            if (position >= 0) {
+                containers[position] = containers[position].or(other.containers[j]);
+            } else {
+                insertAt(-position - 1, key, other.containers[j].copy());
+            }
+        }
+    }
+
+    /**
+     * Връща копие на множеството.
+     *
+     * @return Ново множество със същите стойности.
+     */
+    public RoaringBitmap copy() {
+        Container[] copies = new Container[Math.max(1, size)];
+        for (int i = 0; i < size; i++) {
+            copies[i] = containers[i].copy();
+        }
+        return new RoaringBitmap(Arrays.copyOf(keys, copies.length), copies, size);
+    }
+
+    /**
+     * Подава всички стойности във възходящ ред.
+     *
+     * @param consumer Получател на стойностите.
+     */
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    /**
+     * Връща всички стойности във възходящ ред.
+     *
+     * @return Нов масив със стойностите.
+     */
+    public int[] toArray() {
+        return toArray(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Връща най-много {@code limit} от най-малките стойности във възходящ ред.
+     *
+     * @param limit Максимален брой стойности.
+     * @return Нов масив със стойностите.
+     */
+    public int[] toArray(int limit) {
+        int[] values = new int[(int) Math.min(limit, getCardinality())];
+        int[] count = {0};
+        for (int i = 0; i < size && count[0] < values.length; i++) {
+            containers[i].forEach(keys[i] << 16, value -> {
+                if (count[0] < values.length) {
+                    values[count[0]++] = value;
+                }
+            });
+        }
+        return values;
+    }
+
+    /**
+     * Записва множеството в поток.
+     *
+     * @param out Потокът.
+     * @throws IOException при грешка при записа.
+     */
+    public void serialize(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeChar(keys[i]);
+            containers[i].write(out);
+        }
+    }
+
+    /**
+     * Чете множество, записано с {@link #serialize(DataOutput)}.
+     *
+     * @param in Потокът.
+     * @return Прочетеното множество.
+     * @throws IOException при грешка при четенето или невалидни данни.
+     */
+    public static RoaringBitmap deserialize(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0 || size > 65536) {
+            throw new IOException("Невалиден брой блокове: " + size);
+        }
+        char[] keys = new char[Math.max(1, size)];
+        Container[] containers = new Container[keys.length];
+        for (int i = 0; i < size; i++) {
+            keys[i] = in.readChar();
+            containers[i] = Container.read(in);
+        }
+        return new RoaringBitmap(keys, containers, size);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RoaringBitmap other) || getCardinality() != other.getCardinality()) {
+            return false;
+        }
+        return Arrays.equals(toArray(), other.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return "RoaringBitmap{cardinality=" + getCardinality() + ", blocks=" + size + "}";
+    }
+
+    private void insertAt(int position, char key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, keys.length * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, position, keys, position + 1, size - position);
+        System.arraycopy(containers, position, containers, position + 1, size - position);
+        keys[position] = key;
+        containers[position] = container;
+        size++;
+    }
+}
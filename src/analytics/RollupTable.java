@@ -0,0 +1,150 @@
+package analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Хеш-таблица с отворено адресиране от неотрицателен ключ към {@value #METRICS} суми (брой касови бележки,
+ * приходи, бройки и разходи) за един интервал от време на {@link SalesRollup}. Сумите се пазят в общ масив,
+ * за да не се създават обекти за всеки ключ.
+ */
+class RollupTable {
+
+    static final int METRICS = 4;
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    RollupTable() {
+        this(8);
+    }
+
+    private RollupTable(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity * METRICS];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    void add(long key, long count, long revenueCents, long units, long costCents) {
+        int slot = slot(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                grow();
+                slot = slot(key);
+            }
+        }
+        int offset = slot * METRICS;
+        values[offset] += count;
+        values[offset + 1] += revenueCents;
+        values[offset + 2] += units;
+        values[offset + 3] += costCents;
+    }
+
+    /**
+     * Добавя към {@code totals} сумите на ключовете, които отговарят на филтъра.
+     */
+    void sumInto(long[] totals, LongPredicate filter) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY && filter.test(keys[slot])) {
+                for (int metric = 0; metric < METRICS; metric++) {
+                    totals[metric] += values[slot * METRICS + metric];
+                }
+            }
+        }
+    }
+
+    /**
+     * Добавя в {@code target} ключовете, които отговарят на филтъра, заедно със сумите им.
+     */
+    void addInto(RollupTable target, LongPredicate filter) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY && filter.test(keys[slot])) {
+                int offset = slot * METRICS;
+                target.add(keys[slot], values[offset], values[offset + 1], values[offset + 2], values[offset + 3]);
+            }
+        }
+    }
+
+    /**
+     * Подава всеки ключ и сумите му.
+     */
+    void forEach(Visitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                int offset = slot * METRICS;
+                visitor.visit(keys[slot], values[offset], values[offset + 1], values[offset + 2], values[offset + 3]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                out.writeLong(keys[slot]);
+                for (int metric = 0; metric < METRICS; metric++) {
+                    out.writeLong(values[slot * METRICS + metric]);
+                }
+            }
+        }
+    }
+
+    static RollupTable read(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Невалиден брой ключове: " + count);
+        }
+        RollupTable table = new RollupTable(Math.max(8, Integer.highestOneBit(Math.max(1, count)) * 4));
+        for (int i = 0; i < count; i++) {
+            long key = in.readLong();
+            if (key < 0) {
+                throw new IOException("Невалиден ключ: " + key);
+            }
+            table.add(key, in.readLong(), in.readLong(), in.readLong(), in.readLong());
+        }
+        return table;
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int offset = i * METRICS;
+                add(oldKeys[i], oldValues[offset], oldValues[offset + 1], oldValues[offset + 2], oldValues[offset + 3]);
+            }
+        }
+    }
+
+    interface Visitor {
+        void visit(long key, long count, long revenueCents, long units, long costCents);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,423 @@
+package analytics;
+
+import model.Money;
+import model.Product;
+import model.ProductCategory;
+import model.Receipt;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/**
+ * Предварително обобщени продажби (брой касови бележки, приходи, бройки и разходи) по магазин, касиер и категория
+ * за интервали от една минута, един час и един ден. Всяка касова бележка се добавя и в трите интервала, в които попада:
+ * <ul>
+ *     <li>минутните интервали са в кръгов буфер за последните {@code minuteSlots} минути;</li>
+ *     <li>часовите интервали се пазят за последните {@code hourDays} дни, след което се изхвърлят;</li>
+ *     <li>дневните интервали се пазят винаги и се записват по месеци.</li>
+ * </ul>
+ * Заявка за период събира най-едрите интервали, които се съдържат в него - цели дни, след това цели часове и минути
+ * в краищата. Ако за края на периода вече няма минутни или часови интервали, периодът се разширява до часа или деня,
+ * в който е краят, като действителният период се връща в {@link SalesTotals}. Същите интервали се използват
+ * и за класирането на касиерите в {@link #queryCashiers}.
+ * Всички методи са синхронизирани.
+ */
+public class SalesRollup {
+
+    private static final int MINUTES_PER_HOUR = 60;
+    private static final int MINUTES_PER_DAY = 24 * MINUTES_PER_HOUR;
+    private static final int FORMAT_VERSION = 1;
+    // Ключ на сумите за всички категории - категориите се кодират като ordinal() + 1
+    private static final int ALL_CATEGORIES = 0;
+
+    private final int minuteSlots;
+    private final int hourRetention;
+    private final RollupTable[] minutes;
+    private final int[] minuteNumbers;
+    private final TreeMap<Integer, RollupTable> hours = new TreeMap<>();
+    private final TreeMap<Integer, RollupTable> days = new TreeMap<>();
+    private final Set<Integer> dirtyMonths = new HashSet<>();
+    private int latestMinute = Integer.MIN_VALUE;
+    private int lastReceiptId;
+
+    /**
+     * Конструктор за създаване на празна структура.
+     *
+     * @param minuteSlots Брой пазени минутни интервали (поне 60).
+     * @param hourDays    Брой дни, за които се пазят часовите интервали (поне 1).
+     * @throws IllegalArgumentException ако някоя от стойностите е твърде малка.
+     */
+    public SalesRollup(int minuteSlots, int hourDays) {
+        if (minuteSlots < MINUTES_PER_HOUR || hourDays < 1) {
+            throw new IllegalArgumentException("Минутните интервали трябва да бъдат поне 60, а дните с часови интервали - поне 1");
+        }
+        this.minuteSlots = minuteSlots;
+        this.hourRetention = hourDays * 24;
+        this.minutes = new RollupTable[minuteSlots];
+        this.minuteNumbers = new int[minuteSlots];
+    }
+
+    /**
+     * Добавя касова бележка в минутния, часовия и дневния интервал на покупката.
+     * Интервалите, които вече не се пазят, се пропускат.
+     *
+     * @param receipt Касовата бележка.
+     */
+    public synchronized void add(Receipt receipt) {
+        int minute = EpochMinutes.of(receipt.getDateTime());
+        if (minute > latestMinute) {
+            advance(minute);
+        }
+
+        // Сумите общо за касовата бележка (на позиция ALL_CATEGORIES) и за всяка категория в нея
+        long[] categoryTotals = new long[(ProductCategory.values().length + 1) * RollupTable.METRICS];
+        for (Map.Entry<Product, Integer> line : receipt.getPurchasedProducts().entrySet()) {
+            Product product = line.getKey();
+            int quantity = line.getValue();
+            long revenue = Money.multiply(receipt.getUnitPriceCents(product), quantity);
+            long cost = Money.multiply(product.getUnitPurchasePriceCents(), quantity);
+            addLine(categoryTotals, ALL_CATEGORIES, revenue, quantity, cost);
+            if (product.getCategory() != null) {
+                addLine(categoryTotals, product.getCategory().ordinal() + 1, revenue, quantity, cost);
+            }
+        }
+        categoryTotals[0] = 1;
+
+        RollupTable minuteTable = minute > latestMinute - minuteSlots ? minuteTable(minute) : null;
+        int hour = Math.floorDiv(minute, MINUTES_PER_HOUR);
+        RollupTable hourTable = hour > Math.floorDiv(latestMinute, MINUTES_PER_HOUR) - hourRetention
+                ? hours.computeIfAbsent(hour, h -> new RollupTable()) : null;
+        int day = Math.floorDiv(minute, MINUTES_PER_DAY);
+        RollupTable dayTable = days.computeIfAbsent(day, d -> new RollupTable());
+        for (int category = 0; category * RollupTable.METRICS < categoryTotals.length; category++) {
+            int offset = category * RollupTable.METRICS;
+            if (categoryTotals[offset] == 0) {
+                continue;
+            }
+            long key = key(receipt.getStore(), receipt.getCashier(), category);
+            long revenue = categoryTotals[offset + 1];
+            long units = categoryTotals[offset + 2];
+            long cost = categoryTotals[offset + 3];
+            if (minuteTable != null) {
+                minuteTable.add(key, 1, revenue, units, cost);
+            }
+            if (hourTable != null) {
+                hourTable.add(key, 1, revenue, units, cost);
+            }
+            dayTable.add(key, 1, revenue, units, cost);
+        }
+        dirtyMonths.add(monthOf(day));
+        lastReceiptId = Math.max(lastReceiptId, receipt.getId());
+    }
+
+    /**
+     * Връща обобщените продажби за период.
+     *
+     * @param storeId   ID на магазина или null за всички магазини.
+     * @param cashierId ID на касиера или null за всички касиери.
+     * @param category  Категорията или null за всички категории.
+     * @param from      Начало на периода (включително), закръглено до минута.
+     * @param to        Край на периода (без него), закръглен до минута.
+     * @return Сумите и действителният период.
+     * @throws IllegalArgumentException ако началото не е преди края.
+     */
+    public synchronized SalesTotals query(Integer storeId, Integer cashierId, ProductCategory category,
+                                          LocalDateTime from, LocalDateTime to) {
+        int categoryKey = category != null ? category.ordinal() + 1 : ALL_CATEGORIES;
+        LongPredicate filter = key -> (int) (key & 0xFF) == categoryKey
+                && (storeId == null || (int) (key >>> 40) == storeId)
+                && (cashierId == null || (int) ((key >>> 8) & 0xFFFFFFFFL) == cashierId);
+        long[] totals = new long[RollupTable.METRICS];
+        return collect(from, to, totals, table -> table.sumInto(totals, filter));
+    }
+
+    /**
+     * Връща продажбите на всеки касиер за период, събрани от същите интервали като {@link #query}.
+     * Касиер, който е продавал в няколко магазина, има отделен ред за всеки магазин.
+     *
+     * @param storeId ID на магазина или null за всички магазини.
+     * @param from    Начало на периода (включително), закръглено до минута.
+     * @param to      Край на периода (без него), закръглен до минута.
+     * @return Продажбите по касиер и общо за периода.
+     * @throws IllegalArgumentException ако началото не е преди края.
+     */
+    public synchronized CashierLeaderboard queryCashiers(Integer storeId, LocalDateTime from, LocalDateTime to) {
+        LongPredicate filter = key -> (int) (key & 0xFF) == ALL_CATEGORIES
+                && (storeId == null || (int) (key >>> 40) == storeId);
+        long[] totals = new long[RollupTable.METRICS];
+        RollupTable byCashier = new RollupTable();
+        SalesTotals window = collect(from, to, totals, table -> {
+            table.sumInto(totals, filter);
+            table.addInto(byCashier, filter);
+        });
+
+        List<CashierStats> cashiers = new ArrayList<>(byCashier.size());
+        byCashier.forEach((key, count, revenueCents, units, costCents) -> cashiers.add(new CashierStats(
+                (int) (key >>> 40), (int) ((key >>> 8) & 0xFFFFFFFFL), count, revenueCents, units)));
+        return new CashierLeaderboard(window, cashiers);
+    }
+
+    /**
+     * Връща ID на последната добавена касова бележка.
+     *
+     * @return Най-голямото добавено ID или 0.
+     */
+    public synchronized int getLastReceiptId() {
+        return lastReceiptId;
+    }
+
+    /**
+     * Връща броя на дните с продажби.
+     *
+     * @return Брой дневни интервали.
+     */
+    public synchronized int getDayCount() {
+        return days.size();
+    }
+
+    /**
+     * Връща броя на пазените часови интервали.
+     *
+     * @return Брой часови интервали.
+     */
+    public synchronized int getHourCount() {
+        return hours.size();
+    }
+
+    /**
+     * Връща променените след последното извикване месеци с дневните им интервали в двоичен формат
+     * и ги отбелязва като записани.
+     *
+     * @return Частите по месец.
+     */
+    public synchronized Map<YearMonth, byte[]> drainDirtyMonths() {
+        Map<YearMonth, byte[]> partitions = new TreeMap<>();
+        for (int month : dirtyMonths) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                SortedMap<Integer, RollupTable> monthDays = days.subMap(firstDay(month), firstDay(month + 1));
+                out.writeInt(monthDays.size());
+                for (Map.Entry<Integer, RollupTable> day : monthDays.entrySet()) {
+                    out.writeInt(day.getKey());
+                    day.getValue().write(out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            partitions.put(YearMonth.of(month / 12, month % 12 + 1), bytes.toByteArray());
+        }
+        dirtyMonths.clear();
+        return partitions;
+    }
+
+    /**
+     * Връща минутните и часовите интервали, последната добавена касова бележка и списъка с месеци в двоичен формат.
+     *
+     * @return Записаното състояние.
+     */
+    public synchronized byte[] manifest() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(minuteSlots);
+            out.writeInt(hourRetention);
+            out.writeInt(lastReceiptId);
+            out.writeInt(latestMinute);
+            Set<Integer> months = new TreeSet<>();
+            for (int day : days.keySet()) {
+                months.add(monthOf(day));
+            }
+            out.writeInt(months.size());
+            for (int month : months) {
+                out.writeInt(month);
+            }
+            List<Integer> minuteSlotsInUse = new ArrayList<>();
+            for (int slot = 0; slot < minuteSlots; slot++) {
+                if (minutes[slot] != null && minuteAvailable(minuteNumbers[slot])) {
+                    minuteSlotsInUse.add(slot);
+                }
+            }
+            out.writeInt(minuteSlotsInUse.size());
+            for (int slot : minuteSlotsInUse) {
+                out.writeInt(minuteNumbers[slot]);
+                minutes[slot].write(out);
+            }
+            out.writeInt(hours.size());
+            for (Map.Entry<Integer, RollupTable> hour : hours.entrySet()) {
+                out.writeInt(hour.getKey());
+                hour.getValue().write(out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Създава структура от записаното състояние, като зарежда всички месеци.
+     *
+     * @param manifest    Данните, върнати от {@link #manifest()}.
+     * @param minuteSlots Брой пазени минутни интервали - трябва да съвпада със записания.
+     * @param hourDays    Брой дни с часови интервали - трябва да съвпада със записания.
+     * @param monthLoader Връща записаната част за даден месец или null.
+     * @return Структурата.
+     * @throws IllegalArgumentException ако данните не са валидни, липсва месец или размерите са различни.
+     */
+    public static SalesRollup restore(byte[] manifest, int minuteSlots, int hourDays, Function<YearMonth, byte[]> monthLoader) {
+        SalesRollup rollup = new SalesRollup(minuteSlots, hourDays);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(manifest))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Неподдържана версия на обобщените продажби: " + version);
+            }
+            if (in.readInt() != rollup.minuteSlots || in.readInt() != rollup.hourRetention) {
+                throw new IllegalArgumentException("Обобщените продажби са записани с други размери на интервалите");
+            }
+            rollup.lastReceiptId = in.readInt();
+            rollup.latestMinute = in.readInt();
+            int monthCount = in.readInt();
+            for (int i = 0; i < monthCount; i++) {
+                int month = in.readInt();
+                YearMonth yearMonth = YearMonth.of(month / 12, month % 12 + 1);
+                byte[] data = monthLoader.apply(yearMonth);
+                if (data == null) {
+                    throw new IllegalArgumentException("Липсват обобщените продажби за " + yearMonth);
+                }
+                try (DataInputStream monthIn = new DataInputStream(new ByteArrayInputStream(data))) {
+                    int dayCount = monthIn.readInt();
+                    for (int j = 0; j < dayCount; j++) {
+                        rollup.days.put(monthIn.readInt(), RollupTable.read(monthIn));
+                    }
+                }
+            }
+            int minuteCount = in.readInt();
+            for (int i = 0; i < minuteCount; i++) {
+                int minute = in.readInt();
+                int slot = Math.floorMod(minute, minuteSlots);
+                rollup.minuteNumbers[slot] = minute;
+                rollup.minutes[slot] = RollupTable.read(in);
+            }
+            int hourCount = in.readInt();
+            for (int i = 0; i < hourCount; i++) {
+                rollup.hours.put(in.readInt(), RollupTable.read(in));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Невалидни обобщени продажби: " + e.getMessage(), e);
+        }
+        return rollup;
+    }
+
+    /**
+     * Подава на {@code visitor} най-едрите интервали, които покриват периода, и връща действителния период
+     * с броя на интервалите и сумите от {@code totals}.
+     */
+    private SalesTotals collect(LocalDateTime from, LocalDateTime to, long[] totals, Consumer<RollupTable> visitor) {
+        int start = EpochMinutes.of(from);
+        int end = EpochMinutes.of(to);
+        if (start >= end) {
+            throw new IllegalArgumentException("Началото на периода " + from + " трябва да бъде преди края " + to);
+        }
+        if (!minuteAvailable(start)) {
+            start = hourAvailable(Math.floorDiv(start, MINUTES_PER_HOUR))
+                    ? floor(start, MINUTES_PER_HOUR) : floor(start, MINUTES_PER_DAY);
+        }
+        int dayBuckets = 0;
+        int hourBuckets = 0;
+        int minuteBuckets = 0;
+        int cursor = start;
+        while (cursor < end) {
+            int hour = Math.floorDiv(cursor, MINUTES_PER_HOUR);
+            if (cursor % MINUTES_PER_DAY == 0 && cursor + MINUTES_PER_DAY <= end) {
+                visit(days.get(cursor / MINUTES_PER_DAY), visitor);
+                cursor += MINUTES_PER_DAY;
+                dayBuckets++;
+            } else if (cursor % MINUTES_PER_HOUR == 0 && hourAvailable(hour)
+                    && (cursor + MINUTES_PER_HOUR <= end || !minuteAvailable(cursor))) {
+                visit(hours.get(hour), visitor);
+                cursor += MINUTES_PER_HOUR;
+                hourBuckets++;
+            } else if (minuteAvailable(cursor)) {
+                int slot = Math.floorMod(cursor, minuteSlots);
+                if (minuteNumbers[slot] == cursor) {
+                    visit(minutes[slot], visitor);
+                }
+                cursor++;
+                minuteBuckets++;
+            } else {
+                // Няма по-дребни интервали за края на периода, затова се взима целият ден
+                visit(days.get(Math.floorDiv(cursor, MINUTES_PER_DAY)), visitor);
+                cursor = floor(cursor, MINUTES_PER_DAY) + MINUTES_PER_DAY;
+                dayBuckets++;
+            }
+        }
+        return new SalesTotals(EpochMinutes.toDateTime(start), EpochMinutes.toDateTime(cursor), totals,
+                dayBuckets, hourBuckets, minuteBuckets);
+    }
+
+    /**
+     * Минутата се пази, ако целият ѝ час е в кръговия буфер, за да могат заявките да преминават от часове към минути.
+     */
+    private boolean minuteAvailable(int minute) {
+        return latestMinute != Integer.MIN_VALUE && floor(minute, MINUTES_PER_HOUR) > latestMinute - minuteSlots;
+    }
+
+    /**
+     * Часът се пази, ако целият му ден е в пазените часове, за да могат заявките да преминават от дни към часове.
+     */
+    private boolean hourAvailable(int hour) {
+        return latestMinute != Integer.MIN_VALUE
+                && floor(hour, 24) > Math.floorDiv(latestMinute, MINUTES_PER_HOUR) - hourRetention;
+    }
+
+    private RollupTable minuteTable(int minute) {
+        int slot = Math.floorMod(minute, minuteSlots);
+        if (minutes[slot] == null || minuteNumbers[slot] != minute) {
+            minutes[slot] = new RollupTable();
+            minuteNumbers[slot] = minute;
+        }
+        return minutes[slot];
+    }
+
+    private void advance(int minute) {
+        latestMinute = minute;
+        int oldestHour = Math.floorDiv(minute, MINUTES_PER_HOUR) - hourRetention;
+        hours.headMap(oldestHour, true).clear();
+    }
+
+    private static void addLine(long[] totals, int category, long revenue, long units, long cost) {
+        int offset = category * RollupTable.METRICS;
+        totals[offset] = 1;
+        totals[offset + 1] += revenue;
+        totals[offset + 2] += units;
+        totals[offset + 3] += cost;
+    }
+
+    private static void visit(RollupTable table, Consumer<RollupTable> visitor) {
+        if (table != null) {
+            visitor.accept(table);
+        }
+    }
+
+    private static long key(int storeId, int cashierId, int category) {
+        return ((long) storeId << 40) | ((cashierId & 0xFFFFFFFFL) << 8) | category;
+    }
+
+    private static int floor(int value, int unit) {
+        return Math.floorDiv(value, unit) * unit;
+    }
+
+    private static int monthOf(int day) {
+        YearMonth month = YearMonth.from(LocalDate.ofEpochDay(day));
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static int firstDay(int month) {
+        return (int) YearMonth.of(month / 12, month % 12 + 1).atDay(1).toEpochDay();
+    }
+}
@@ -0,0 +1,124 @@
+package analytics;
+
+import java.time.LocalDateTime;
+
+/**
+ * Обобщени продажби за период от {@link SalesRollup}: брой касови бележки, приходи, продадени бройки и разходи
+ * за стоките, заедно с действителния период и броя на използваните дневни, часови и минутни интервали.
+ */
+public class SalesTotals {
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final long receiptCount;
+    private final long revenueCents;
+    private final long units;
+    private final long costCents;
+    private final int dayBuckets;
+    private final int hourBuckets;
+    private final int minuteBuckets;
+
+    /**
+     * Конструктор за създаване на резултат.
+     *
+     * @param from          Начало на обхванатия период (включително).
+     * @param to            Край на обхванатия период (без него).
+     * @param totals        Сумите в реда брой касови бележки, приходи, бройки, разходи.
+     * @param dayBuckets    Брой използвани дневни интервали.
+     * @param hourBuckets   Брой използвани часови интервали.
+     * @param minuteBuckets Брой използвани минутни интервали.
+     */
+    SalesTotals(LocalDateTime from, LocalDateTime to, long[] totals, int dayBuckets, int hourBuckets, int minuteBuckets) {
+        this.from = from;
+        this.to = to;
+        this.receiptCount = totals[0];
+        this.revenueCents = totals[1];
+        this.units = totals[2];
+        this.costCents = totals[3];
+        this.dayBuckets = dayBuckets;
+        this.hourBuckets = hourBuckets;
+        this.minuteBuckets = minuteBuckets;
+    }
+
+    /**
+     * Връща началото на обхванатия период. То може да бъде преди поискания момент, ако за него вече се пазят
+     * само часови или дневни интервали.
+     *
+     * @return Началото (включително).
+     */
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    /**
+     * Връща края на обхванатия период. Той може да бъде след поискания момент по същата причина като началото.
+     *
+     * @return Краят (без него).
+     */
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    /**
+     * Връща броя на касовите бележки за периода.
+     *
+     * @return Брой касови бележки.
+     */
+    public long getReceiptCount() {
+        return receiptCount;
+    }
+
+    /**
+     * Връща приходите за периода.
+     *
+     * @return Приходи в стотинки.
+     */
+    public long getRevenueCents() {
+        return revenueCents;
+    }
+
+    /**
+     * Връща броя на продадените бройки за периода.
+     *
+     * @return Брой бройки.
+     */
+    public long getUnits() {
+        return units;
+    }
+
+    /**
+     * Връща разходите за продадените стоки по покупни цени.
+     *
+     * @return Разходи в стотинки.
+     */
+    public long getCostCents() {
+        return costCents;
+    }
+
+    /**
+     * Връща броя на дневните интервали, от които е събран периодът.
+     *
+     * @return Брой дневни интервали.
+     */
+    public int getDayBuckets() {
+        return dayBuckets;
+    }
+
+    /**
+     * Връща броя на часовите интервали, от които е събран периодът.
+     *
+     * @return Брой часови интервали.
+     */
+    public int getHourBuckets() {
+        return hourBuckets;
+    }
+
+    /**
+     * Връща броя на минутните интервали, от които е събран периодът.
+     *
+     * @return Брой минутни интервали.
+     */
+    public int getMinuteBuckets() {
+        return minuteBuckets;
+    }
+}
@@ -0,0 +1,229 @@
+package analytics;
+
+import java.util.*;
+
+/**
+ * Скица Space-Saving за най-често срещаните елементи в поток (например най-продаваните продукти).
+ * Пази най-много {@code capacity} брояча независимо от броя на различните елементи. Когато броячите са заети,
+ * нов елемент заема брояча с най-малък брой, като наследява броя му като възможна грешка.
+ * Затова всеки брой е горна граница на истинския, надценена с най-много {@code error},
+ * а всеки елемент без брояч се е срещал най-много {@link #getFloor()} пъти.
+ * Броячите се пазят в двоична пирамида по брой, така че добавянето е O(log capacity).
+ * Класът не е безопасен за едновременна употреба от няколко нишки.
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+    private final Map<Integer, Integer> positions = new HashMap<>();
+    private int[] items;
+    private long[] counts;
+    private long[] errors;
+    private int size;
+    private long total;
+    // Горна граница на броя на елементите без брояч, когато скицата е получена чрез обединяване
+    private long mergedFloor;
+
+    /**
+     * Конструктор за създаване на празна скица.
+     *
+     * @param capacity Максимален брой броячи.
+     * @throws IllegalArgumentException ако броят на броячите не е положителен.
+     */
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Броят на броячите трябва да бъде положителен");
+        }
+        this.capacity = capacity;
+        int initial = Math.min(capacity, 16);
+        items = new int[initial];
+        counts = new long[initial];
+        errors = new long[initial];
+    }
+
+    /**
+     * Отчита елемент с дадено тегло (например продадено количество).
+     *
+     * @param item   ID на елемента.
+     * @param weight Тегло.
+     * @throws IllegalArgumentException ако теглото не е положително.
+     */
+    public void add(int item, long weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Теглото трябва да бъде положително");
+        }
+        total += weight;
+        Integer position = positions.get(item);
+        if (position != null) {
+            counts[position] += weight;
+            siftDown(position);
+        } else if (size < capacity) {
+            ensureCapacity();
+            place(size, item, weight, 0);
+            positions.put(item, size);
+            size++;
+            siftUp(size - 1);
+        } else {
+            // Най-малкият брояч се заема от новия елемент
+            positions.remove(items[0]);
+            long minimum = counts[0];
+            place(0, item, minimum + weight, minimum);
+            positions.put(item, 0);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Връща най-много {@code n} елемента с най-голям брой в низходящ ред.
+     *
+     * @param n Брой елементи.
+     * @return Елементите с броя и грешката им.
+     */
+    public List<HeavyHitter> top(int n) {
+        List<HeavyHitter> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new HeavyHitter(items[i], counts[i], errors[i]));
+        }
+        result.sort(Comparator.comparingLong(HeavyHitter::getCount).reversed()
+                .thenComparingInt(HeavyHitter::getItem));
+        return result.size() > n ? new ArrayList<>(result.subList(0, n)) : result;
+    }
+
+    /**
+     * Връща горната граница на броя на елемент, който няма брояч.
+     *
+     * @return 0, ако всички срещнати елементи имат броячи.
+     */
+    public long getFloor() {
+        return Math.max(mergedFloor, size == capacity ? counts[0] : 0);
+    }
+
+    /**
+     * Връща сумата на теглата на всички отчетени елементи.
+     *
+     * @return Сума на теглата.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+/**
+ * Връща броя на следените елементи.
+ *
+ * @return Брой броячи в употреба.
+ */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Връща най-големия брой следени елементи.
+     *
+     * @return Брой броячи.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Обединява няколко скици (например за съседни периоди) в нова скица. Броят на елемент, който няма брояч
+     * в някоя от скиците, се оценява с {@link #getFloor()} на тази скица, което се добавя и към грешката.
+     * Ако различните елементи са повече от {@code capacity}, се запазват тези с най-голям брой.
+     *
+     * @param sketches Скиците за обединяване.
+     * @param capacity Максимален брой броячи на резултата.
+     * @return Обединената скица.
+     */
+    public static SpaceSaving merge(Collection<SpaceSaving> sketches, int capacity) {
+        Map<Integer, long[]> merged = new HashMap<>();
+        long total = 0;
+        long floors = 0;
+        for (SpaceSaving sketch : sketches) {
+            total += sketch.total;
+            floors += sketch.getFloor();
+        }
+        long floorSum = floors;
+        for (SpaceSaving sketch : sketches) {
+            long floor = sketch.getFloor();
+            for (int i = 0; i < sketch.size; i++) {
+                // Останалите скици добавят своята граница, ако елементът не е в тях (изважда се, ако е)
+                long[] value = merged.computeIfAbsent(sketch.items[i], k -> new long[]{floorSum, floorSum});
+                value[0] += sketch.counts[i] - floor;
+                value[1] += sketch.errors[i] - floor;
+            }
+        }
+
+        List<Map.Entry<Integer, long[]>> entries = new ArrayList<>(merged.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        SpaceSaving result = new SpaceSaving(capacity);
+        result.total = total;
+        result.mergedFloor = floorSum;
+        for (int i = 0; i < entries.size(); i++) {
+            Map.Entry<Integer, long[]> entry = entries.get(i);
+            if (i >= capacity) {
+                result.mergedFloor = Math.max(result.mergedFloor, entry.getValue()[0]);
+                continue;
+            }
+            result.ensureCapacity();
+            result.place(result.size, entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+            result.positions.put(entry.getKey(), result.size);
+            result.size++;
+            result.siftUp(result.size - 1);
+        }
+        return result;
+    }
+
+    private void ensureCapacity() {
+        if (size == items.length) {
+            int length = Math.min(capacity, items.length * 2);
+            items = Arrays.copyOf(items, length);
+            counts = Arrays.copyOf(counts, length);
+            errors = Arrays.copyOf(errors, length);
+        }
+    }
+
+    private void place(int position, int item, long count, long error) {
+        items[position] = item;
+        counts[position] = count;
+        errors[position] = error;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[parent] <= counts[position]) {
+                break;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int first, int second) {
+        int item = items[first];
+        long count = counts[first];
+        long error = errors[first];
+        place(first, items[second], counts[second], errors[second]);
+        place(second, item, count, error);
+        positions.put(items[first], first);
+        positions.put(items[second], second);
+    }
+}
@@ -0,0 +1,78 @@
+package analytics;
+
+import java.util.List;
+
+/**
+ * Отговор на заявка за най-често срещаните елементи в даден период.
+ */
+public class TopNResult {
+
+    private final List<HeavyHitter> items;
+    private final long total;
+    private final long maxUntrackedCount;
+    private final int fromMinute;
+    private final int toMinute;
+
+    /**
+     * Конструктор за създаване на отговор.
+     *
+     * @param items             Елементите в низходящ ред по брой.
+     * @param total             Сумата на теглата на всички елементи в периода.
+     * @param maxUntrackedCount Горна граница на броя на елемент, който не е в отговора.
+     * @param fromMinute        Начало на периода в минути от 1970-01-01 00:00 (включително).
+     * @param toMinute          Край на периода в минути от 1970-01-01 00:00 (без него).
+     */
+    public TopNResult(List<HeavyHitter> items, long total, long maxUntrackedCount, int fromMinute, int toMinute) {
+        this.items = items;
+        this.total = total;
+        this.maxUntrackedCount = maxUntrackedCount;
+        this.fromMinute = fromMinute;
+        this.toMinute = toMinute;
+    }
+
+    /**
+     * Връща най-често срещаните елементи.
+     *
+     * @return Елементите в низходящ ред по брой.
+     */
+    public List<HeavyHitter> getItems() {
+        return items;
+    }
+
+/**
+ * Връща сумата на теглата на всички елементи в периода.
+ *
+ * @return Сума на теглата.
+ */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Връща горната граница на броя на елемент, който не е в отговора. Елемент с по-голям гарантиран брой
+     * от тази граница със сигурност е сред най-често срещаните.
+     *
+     * @return Горна граница на броя.
+     */
+    public long getMaxUntrackedCount() {
+        return maxUntrackedCount;
+    }
+
+    /**
+     * Връща началото на периода.
+     *
+     * @return Начало в минути от 1970-01-01 00:00 (включително).
+     */
+    public int getFromMinute() {
+        return fromMinute;
+    }
+
+    /**
+     * Връща края на периода.
+     *
+     * @return Край в минути от 1970-01-01 00:00 (без него).
+     */
+    public int getToMinute() {
+        return toMinute;
+    }
+}
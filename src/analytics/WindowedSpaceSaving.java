@@ -0,0 +1,126 @@
+package analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Най-често срещаните елементи по периоди от време. Времето се разделя на интервали от {@code bucketMinutes} минути,
+ * като за всеки от последните {@code bucketCount} интервала се пази отделна скица {@link SpaceSaving}.
+ * Заявка за период обединява скиците на интервалите в него:
+ * <ul>
+ *     <li>плъзгащ се прозорец - последните {@code minutes} минути до даден момент;</li>
+ *     <li>фиксиран прозорец - подравненият период с дължина {@code minutes} (например текущият час), съдържащ даден момент.</li>
+ * </ul>
+ * Паметта е ограничена до {@code bucketCount * capacity} брояча. Събития, по-стари от пазените интервали, се пропускат.
+ * Всички методи са синхронизирани.
+ */
+public class WindowedSpaceSaving {
+
+    private final int capacity;
+    private final int bucketMinutes;
+    private final SpaceSaving[] buckets;
+    private final long[] bucketNumbers;
+    private long latestBucket = Long.MIN_VALUE;
+    private long droppedEvents;
+
+    /**
+     * Конструктор за създаване на празна структура.
+     *
+     * @param capacity      Брой броячи на скицата за всеки интервал.
+     * @param bucketMinutes Дължина на интервала в минути.
+     * @param bucketCount   Брой пазени интервали.
+     * @throws IllegalArgumentException ако някоя от стойностите не е положителна.
+     */
+    public WindowedSpaceSaving(int capacity, int bucketMinutes, int bucketCount) {
+        if (capacity <= 0 || bucketMinutes <= 0 || bucketCount <= 0) {
+            throw new IllegalArgumentException("Броят на броячите, дължината и броят на интервалите трябва да бъдат положителни");
+        }
+        this.capacity = capacity;
+        this.bucketMinutes = bucketMinutes;
+        this.buckets = new SpaceSaving[bucketCount];
+        this.bucketNumbers = new long[bucketCount];
+    }
+
+    /**
+     * Отчита елемент с дадено тегло в даден момент.
+     *
+     * @param item        ID на елемента.
+     * @param weight      Тегло (например продадено количество).
+     * @param epochMinute Момент в минути от 1970-01-01 00:00.
+     */
+    public synchronized void add(int item, long weight, int epochMinute) {
+        long bucket = Math.floorDiv(epochMinute, bucketMinutes);
+        if (latestBucket != Long.MIN_VALUE && bucket <= latestBucket - buckets.length) {
+            droppedEvents++;
+            return;
+        }
+        latestBucket = Math.max(latestBucket, bucket);
+        int slot = (int) Math.floorMod(bucket, (long) buckets.length);
+        if (buckets[slot] == null || bucketNumbers[slot] != bucket) {
+            buckets[slot] = new SpaceSaving(capacity);
+            bucketNumbers[slot] = bucket;
+        }
+        buckets[slot].add(item, weight);
+    }
+
+    /**
+     * Връща най-често срещаните елементи в плъзгащ се прозорец - последните {@code minutes} минути
+     * преди края на интервала, съдържащ {@code endMinute}.
+     *
+     * @param n         Брой елементи.
+     * @param endMinute Краят на прозореца в минути от 1970-01-01 00:00.
+     * @param minutes   Дължина на прозореца.
+     * @return Отговорът с границите на грешката.
+     * @throws IllegalArgumentException ако дължината не е кратна на интервала или е по-голяма от пазения период.
+     */
+    public synchronized TopNResult topSliding(int n, int endMinute, int minutes) {
+        int bucketsInWindow = bucketsFor(minutes);
+        long lastBucket = Math.floorDiv(endMinute, bucketMinutes);
+        return top(n, lastBucket - bucketsInWindow + 1, lastBucket);
+    }
+
+    /**
+     * Връща най-често срещаните елементи във фиксиран прозорец - подравненият по началото на 1970-01-01
+     * период с дължина {@code minutes}, който съдържа {@code atMinute}.
+     *
+     * @param n        Брой елементи.
+     * @param atMinute Момент в прозореца в минути от 1970-01-01 00:00.
+     * @param minutes  Дължина на прозореца, например 60 за часа.
+     * @return Отговорът с границите на грешката.
+     * @throws IllegalArgumentException ако дължината не е кратна на интервала или е по-голяма от пазения период.
+     */
+    public synchronized TopNResult topTumbling(int n, int atMinute, int minutes) {
+        int bucketsInWindow = bucketsFor(minutes);
+        long firstBucket = Math.floorDiv(atMinute, minutes) * (long) minutes / bucketMinutes;
+        return top(n, firstBucket, firstBucket + bucketsInWindow - 1);
+    }
+
+    /**
+     * Връща броя на събитията, пропуснати, защото са по-стари от пазените интервали.
+     *
+     * @return Брой пропуснати събития.
+     */
+    public synchronized long getDroppedEvents() {
+        return droppedEvents;
+    }
+
+    private int bucketsFor(int minutes) {
+        if (minutes <= 0 || minutes % bucketMinutes != 0 || minutes / bucketMinutes > buckets.length) {
+            throw new IllegalArgumentException("Дължината на прозореца трябва да бъде кратна на " + bucketMinutes +
+                    " минути и най-много " + (long) bucketMinutes * buckets.length + " минути");
+        }
+        return minutes / bucketMinutes;
+    }
+
+    private TopNResult top(int n, long firstBucket, long lastBucket) {
+        List<SpaceSaving> sketches = new ArrayList<>();
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] != null && bucketNumbers[i] >= firstBucket && bucketNumbers[i] <= lastBucket) {
+                sketches.add(buckets[i]);
+            }
+        }
+        SpaceSaving merged = sketches.size() == 1 ? sketches.get(0) : SpaceSaving.merge(sketches, capacity);
+        return new TopNResult(merged.top(n), merged.getTotal(), merged.getFloor(),
+                (int) (firstBucket * bucketMinutes), (int) ((lastBucket + 1) * bucketMinutes));
+    }
+}
@@ -0,0 +1,140 @@
+package batch;
+
+import model.Cart;
+import util.CartParser;
+import util.DataInitializer;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Пакетно изпълнение на покупки от файл, например при въвеждане на продажби от магазин, който е бил без връзка,
+ * или при повторно изпълнение на реален трафик за тестове.
+ * Файлът се чете ред по ред, като всеки ред е една покупка във формата на {@link CartParser}.
+ * Празните редове и редовете, започващи с {@code #}, се пропускат.
+ * Покупките се разпределят по магазин между няколко работни нишки, така че покупките от един магазин
+ * се изпълняват в реда от файла. Всяка работна нишка записва покупките на групи чрез {@link service.CheckoutBatch}.
+ * Неуспешните покупки не спират изпълнението, а се събират в отчета.
+ */
+public class BatchReplayer {
+
+    private final ReplayConfig config;
+
+    /**
+     * Конструктор за създаване на пакетно изпълнение с дадени настройки.
+     *
+     * @param config Настройките.
+     */
+    public BatchReplayer(ReplayConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Стартира пакетното изпълнение от командния ред: {@code java Main replay file=<път> [ключ=стойност ...]}.
+     *
+     * @param args Настройки във формат {@code ключ=стойност}.
+     */
+    public static void main(String[] args) {
+        ReplayConfig config = ReplayConfig.fromArgs(args);
+        DataInitializer.initializeData();
+
+        System.out.printf("Изпълнение на покупките от %s с %d работни нишки...%n", config.getFile(), config.getWorkers());
+        try (Reader reader = new FileReader(config.getFile(), StandardCharsets.UTF_8)) {
+            ReplayReport report = new BatchReplayer(config).run(reader);
+            boolean toFile = config.getFailuresFile() != null;
+            if (toFile) {
+                writeFailures(report.getFailures(), config.getFailuresFile());
+            }
+            report.print(System.out, !toFile);
+            if (toFile && !report.getFailures().isEmpty()) {
+                System.out.println("Неуспешните покупки са записани в " + config.getFailuresFile());
+            }
+        } catch (IOException e) {
+            System.err.println("Грешка при четене на файла с покупки: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Изпълнението е прекъснато.");
+        }
+    }
+
+    /**
+     * Изпълнява покупките от даден поток.
+     *
+     * @param input Потокът с покупки, по една на ред.
+     * @return Резултатът от изпълнението.
+     * @throws IOException          ако потокът не може да бъде прочетен.
+     * @throws InterruptedException ако нишката бъде прекъсната, докато чака работните нишки.
+     */
+    public ReplayReport run(Reader input) throws IOException, InterruptedException {
+        int workerCount = config.getWorkers();
+        Queue<ReplayFailure> failures = new ConcurrentLinkedQueue<>();
+        List<BlockingQueue<PurchaseCommand>> queues = new ArrayList<>();
+        List<ReplayWorker> workers = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < workerCount; i++) {
+            BlockingQueue<PurchaseCommand> queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+            ReplayWorker worker = new ReplayWorker(queue, failures, config.getBatchSize());
+            queues.add(queue);
+            workers.add(worker);
+            threads.add(Thread.ofVirtual().name("replay-" + i).start(worker));
+        }
+
+        long commands = 0;
+        try (BufferedReader reader = new BufferedReader(input)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                commands++;
+
+                Cart cart;
+                try {
+                    cart = CartParser.parse(trimmed);
+                } catch (IllegalArgumentException e) {
+                    failures.add(new ReplayFailure(lineNumber, ReplayFailure.INVALID_COMMAND, e.getMessage()));
+                    continue;
+                }
+                queues.get(Math.floorMod(cart.getStoreId(), workerCount)).put(new PurchaseCommand(lineNumber, cart));
+            }
+        } finally {
+            for (BlockingQueue<PurchaseCommand> queue : queues) {
+                queue.put(ReplayWorker.END);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long successful = workers.stream().mapToLong(ReplayWorker::getSuccessful).sum();
+        long flushes = workers.stream().mapToLong(ReplayWorker::getFlushes).sum();
+        List<ReplayFailure> sortedFailures = new ArrayList<>(failures);
+        Collections.sort(sortedFailures);
+        return new ReplayReport(commands, successful, flushes, sortedFailures, elapsed);
+    }
+
+    private static void writeFailures(List<ReplayFailure> failures, String file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            for (ReplayFailure failure : failures) {
+                writer.println(failure);
+            }
+        }
+    }
+}
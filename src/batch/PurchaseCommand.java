@@ -0,0 +1,41 @@
+package batch;
+
+import model.Cart;
+
+/**
+ * Една покупка от файла заедно с номера на реда, на който е записана.
+ */
+public class PurchaseCommand {
+
+    private final long lineNumber;
+    private final Cart cart;
+
+    /**
+     * Конструктор за създаване на команда за покупка.
+     *
+     * @param lineNumber Номер на реда във файла (от 1).
+     * @param cart       Количката.
+     */
+    public PurchaseCommand(long lineNumber, Cart cart) {
+        this.lineNumber = lineNumber;
+        this.cart = cart;
+    }
+
+    /**
+     * Връща номера на реда във файла.
+     *
+     * @return Номер на реда.
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Връща количката.
+     *
+     * @return Количката.
+     */
+    public Cart getCart() {
+        return cart;
+    }
+}
@@ -0,0 +1,157 @@
+package batch;
+
+/**
+ * Настройки на пакетното изпълнение на покупки от файл.
+ * Всяка настройка може да бъде зададена от командния ред във формат {@code ключ=стойност},
+ * например {@code file=sales.jsonl workers=8 batchSize=2000}.
+ */
+public class ReplayConfig {
+
+    private String file;
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private int batchSize = 1000;
+    private int queueCapacity = 10_000;
+    private String failuresFile;
+
+    /**
+     * Създава настройки от аргументите на командния ред.
+     *
+     * @param args Аргументи във формат {@code ключ=стойност}.
+     * @return Настройките.
+     * @throws IllegalArgumentException ако някой аргумент е в невалиден формат, с непознат ключ или с невалидна стойност,
+     *                                  или ако не е зададен файл с покупки.
+     */
+    public static ReplayConfig fromArgs(String[] args) {
+        ReplayConfig config = new ReplayConfig();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Невалиден аргумент: " + arg + ". Очакван формат: ключ=стойност");
+            }
+            String key = arg.substring(0, separator);
+            String value = arg.substring(separator + 1);
+            try {
+                switch (key) {
+                    case "file" -> config.setFile(value);
+                    case "workers" -> config.setWorkers(Integer.parseInt(value));
+                    case "batchSize" -> config.setBatchSize(Integer.parseInt(value));
+                    case "queueCapacity" -> config.setQueueCapacity(Integer.parseInt(value));
+                    case "failures" -> config.setFailuresFile(value);
+                    default -> throw new IllegalArgumentException("Непозната настройка: " + key);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Невалидна стойност за " + key + ": " + value);
+            }
+        }
+        if (config.getFile() == null) {
+            throw new IllegalArgumentException("Не е зададен файл с покупки (file=<път>)");
+        }
+        return config;
+    }
+
+    /**
+     * Връща пътя до файла с покупки.
+     *
+     * @return Път до файла.
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Задава пътя до файла с покупки. Всеки ред от файла е една покупка във формата на {@link util.CartParser}.
+     *
+     * @param file Път до файла.
+     * @throws IllegalArgumentException ако пътят е празен.
+     */
+    public void setFile(String file) {
+        if (file == null || file.isBlank()) {
+            throw new IllegalArgumentException("Пътят до файла с покупки не може да бъде празен");
+        }
+        this.file = file;
+    }
+
+    /**
+     * Връща броя на работните нишки. Покупките от един магазин се изпълняват винаги от една и съща нишка.
+     *
+     * @return Брой работни нишки.
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Задава броя на работните нишки.
+     *
+     * @param workers Брой работни нишки.
+     * @throws IllegalArgumentException ако броят не е положителен.
+     */
+    public void setWorkers(int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Броят на работните нишки трябва да бъде положителен");
+        }
+        this.workers = workers;
+    }
+
+    /**
+     * Връща броя на покупките, след които всяка работна нишка записва извършените покупки.
+     *
+     * @return Брой покупки в едно записване.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Задава броя на покупките, след които всяка работна нишка записва извършените покупки.
+     *
+     * @param batchSize Брой покупки в едно записване.
+     * @throws IllegalArgumentException ако броят не е положителен.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Броят на покупките в едно записване трябва да бъде положителен");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Връща капацитета на опашката на всяка работна нишка. Когато опашката е пълна, четенето на файла изчаква.
+     *
+     * @return Капацитет на опашката.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Задава капацитета на опашката на всяка работна нишка.
+     *
+     * @param queueCapacity Капацитет на опашката.
+     * @throws IllegalArgumentException ако капацитетът не е положителен.
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Капацитетът на опашката трябва да бъде положителен");
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Връща пътя до файла, в който се записват неуспешните покупки.
+     *
+     * @return Път до файла или null, ако неуспешните покупки се отпечатват в отчета.
+     */
+    public String getFailuresFile() {
+        return failuresFile;
+    }
+
+    /**
+     * Задава пътя до файла, в който се записват неуспешните покупки.
+     *
+     * @param failuresFile Път до файла или null.
+     */
+    public void setFailuresFile(String failuresFile) {
+        this.failuresFile = failuresFile;
+    }
+}
@@ -0,0 +1,73 @@
+package batch;
+
+/**
+ * Неуспешна покупка от файла: номер на реда, причина и съобщение.
+ * Причината е името на {@link service.CheckoutFailure}, {@value #INVALID_COMMAND} за ред, който не може да бъде
+ * прочетен, или {@value #ERROR} за неочаквана грешка.
+ */
+public class ReplayFailure implements Comparable<ReplayFailure> {
+
+    /**
+     * Причина за ред, който не е валидна покупка.
+     */
+    public static final String INVALID_COMMAND = "INVALID_COMMAND";
+
+    /**
+     * Причина за неочаквана грешка при изпълнение или записване на покупката.
+     */
+    public static final String ERROR = "ERROR";
+
+    private final long lineNumber;
+    private final String reason;
+    private final String message;
+
+    /**
+     * Конструктор за създаване на неуспешна покупка.
+     *
+     * @param lineNumber Номер на реда във файла.
+     * @param reason     Причина.
+     * @param message    Съобщение.
+     */
+    public ReplayFailure(long lineNumber, String reason, String message) {
+        this.lineNumber = lineNumber;
+        this.reason = reason;
+        this.message = message;
+    }
+
+    /**
+     * Връща номера на реда във файла.
+     *
+     * @return Номер на реда.
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Връща причината за неуспеха.
+     *
+     * @return Причина.
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Връща съобщението за неуспеха.
+     *
+     * @return Съобщение.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public int compareTo(ReplayFailure other) {
+        return Long.compare(lineNumber, other.lineNumber);
+    }
+
+    @Override
+    public String toString() {
+        return "Ред " + lineNumber + ": " + reason + " - " + message;
+    }
+}
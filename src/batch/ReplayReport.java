@@ -0,0 +1,130 @@
+package batch;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Резултат от пакетното изпълнение на покупки - брой прочетени, успешни и неуспешни покупки и пропускателна способност.
+ */
+public class ReplayReport {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final long commands;
+    private final long successful;
+    private final long flushes;
+    private final List<ReplayFailure> failures;
+    private final long elapsedNanos;
+
+    /**
+     * Конструктор за създаване на резултат.
+     *
+     * @param commands     Брой прочетени покупки (непразни редове).
+     * @param successful   Брой успешно изпълнени и записани покупки.
+     * @param flushes      Брой записвания.
+     * @param failures     Неуспешните покупки, подредени по номер на реда.
+     * @param elapsedNanos Продължителност в наносекунди.
+     */
+    public ReplayReport(long commands, long successful, long flushes, List<ReplayFailure> failures, long elapsedNanos) {
+        this.commands = commands;
+        this.successful = successful;
+        this.flushes = flushes;
+        this.failures = List.copyOf(failures);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Връща броя на прочетените покупки.
+     *
+     * @return Брой покупки.
+     */
+    public long getCommands() {
+        return commands;
+    }
+
+    /**
+     * Връща броя на успешно изпълнените и записани покупки.
+     *
+     * @return Брой успешни покупки.
+     */
+    public long getSuccessful() {
+        return successful;
+    }
+
+    /**
+     * Връща броя на записванията.
+     *
+     * @return Брой записвания.
+     */
+    public long getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * Връща неуспешните покупки, подредени по номер на реда.
+     *
+     * @return Списък с неуспешни покупки.
+     */
+    public List<ReplayFailure> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Връща продължителността на изпълнението.
+     *
+     * @return Продължителност в наносекунди.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Връща броя на прочетените покупки в секунда.
+     *
+     * @return Покупки в секунда.
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : commands / (elapsedNanos / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Връща броя на неуспешните покупки по причина.
+     *
+     * @return Речник причина -> брой, подреден по причина.
+     */
+    public Map<String, Long> getFailuresByReason() {
+        Map<String, Long> byReason = new TreeMap<>();
+        for (ReplayFailure failure : failures) {
+            byReason.merge(failure.getReason(), 1L, Long::sum);
+        }
+        return byReason;
+    }
+
+    /**
+     * Отпечатва обобщението на резултата.
+     *
+     * @param out           Потокът, в който се отпечатва.
+     * @param printFailures Дали да се отпечата и всяка неуспешна покупка.
+     */
+    public void print(PrintStream out, boolean printFailures) {
+        out.printf("Прочетени покупки: %d%n", commands);
+        out.printf("Успешни: %d%n", successful);
+        out.printf("Неуспешни: %d%n", failures.size());
+        for (Map.Entry<String, Long> entry : getFailuresByReason().entrySet()) {
+            out.printf("  %-22s %d%n", entry.getKey(), entry.getValue());
+        }
+        out.printf("Записвания: %d%n", flushes);
+        out.printf("Време: %.2f с%n", elapsedNanos / NANOS_PER_SECOND);
+        out.printf("Пропускателна способност: %.1f покупки/с%n", getThroughput());
+
+        if (printFailures && !failures.isEmpty()) {
+            out.println();
+            out.println("Неуспешни покупки:");
+            for (ReplayFailure failure : failures) {
+                out.println(failure);
+            }
+        }
+    }
+}
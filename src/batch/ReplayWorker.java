@@ -0,0 +1,124 @@
+package batch;
+
+import service.CheckoutBatch;
+import service.CheckoutResult;
+import service.ServiceFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Работна нишка, която изпълнява поред покупките от своята опашка и ги записва на групи.
+ * Всички покупки от един магазин попадат в една и съща работна нишка, така че редът им се запазва.
+ */
+public class ReplayWorker implements Runnable {
+
+    /**
+     * Команда, която означава край на файла.
+     */
+    static final PurchaseCommand END = new PurchaseCommand(-1, null);
+
+    private final BlockingQueue<PurchaseCommand> queue;
+    private final Queue<ReplayFailure> failures;
+    private final int batchSize;
+    private final CheckoutBatch batch = new CheckoutBatch();
+    private final List<Long> pendingLines = new ArrayList<>();
+
+    private long successful;
+    private long flushes;
+
+    /**
+     * Конструктор за създаване на работна нишка.
+     *
+     * @param queue     Опашката с покупки.
+     * @param failures  Обща за всички работни нишки опашка, в която се добавят неуспешните покупки.
+     * @param batchSize Брой покупки, след които се записва.
+     */
+    public ReplayWorker(BlockingQueue<PurchaseCommand> queue, Queue<ReplayFailure> failures, int batchSize) {
+        this.queue = queue;
+        this.failures = failures;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                PurchaseCommand command = queue.take();
+                if (command == END) {
+                    break;
+                }
+                process(command);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            flush();
+        }
+    }
+
+    /**
+     * Изпълнява една покупка. Неуспешните покупки се добавят към общата опашка и изпълнението продължава.
+     *
+     * @param command Покупката.
+     */
+    public void process(PurchaseCommand command) {
+        try {
+            CheckoutResult result = ServiceFactory.getCheckoutService().checkout(command.getCart(), batch);
+            if (!result.isSuccessful()) {
+                failures.add(new ReplayFailure(command.getLineNumber(), result.getFailure().name(), result.getMessage()));
+                return;
+            }
+        } catch (RuntimeException e) {
+            failures.add(new ReplayFailure(command.getLineNumber(), ReplayFailure.ERROR, String.valueOf(e.getMessage())));
+            return;
+        }
+
+        pendingLines.add(command.getLineNumber());
+        if (batch.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Записва извършените, но още незаписани покупки. Ако записването е неуспешно,
+     * всички покупки от групата се отбелязват като неуспешни, а промените по наличностите
+     * и балансите им се отменят от {@link CheckoutBatch#flush()}.
+     */
+    public void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            batch.flush();
+            successful += pendingLines.size();
+            flushes++;
+        } catch (RuntimeException e) {
+            for (long lineNumber : pendingLines) {
+                failures.add(new ReplayFailure(lineNumber, ReplayFailure.ERROR, "Грешка при записване: " + e.getMessage()));
+            }
+        } finally {
+            pendingLines.clear();
+        }
+    }
+
+    /**
+     * Връща броя на успешно изпълнените и записани покупки.
+     *
+     * @return Брой успешни покупки.
+     */
+    public long getSuccessful() {
+        return successful;
+    }
+
+    /**
+     * Връща броя на записванията.
+     *
+     * @return Брой записвания.
+     */
+    public long getFlushes() {
+        return flushes;
+    }
+}
@@ -0,0 +1,178 @@
+package dao;
+
+import model.Receipt;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Индекс на касовите бележки по клиент - за всеки клиент сортиран масив от ID-та на касовите му бележки.
+ * Тъй като ID-тата на касовите бележки нарастват с времето, масивът подрежда покупките на клиента по време,
+ * а последните N покупки са последните N елемента, без да се преглеждат касовите бележки на останалите клиенти.
+ * Индексът на всички клиенти се записва в един файл като двойки (ID на клиент, ID на касова бележка) по 4 байта,
+ * към който новите касови бележки се добавят в края.
+ */
+public class ClientReceiptIndex {
+
+    /**
+     * Име на индекса във {@link FileStorage}.
+     */
+    public static final String INDEX_NAME = "client-receipts";
+    private static final String INDEX_KEY = "all";
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final Map<Integer, ReceiptIds> byClient = new HashMap<>();
+    private int size;
+    // Двойки (клиент, касова бележка), които още не са добавени във файла
+    private int[] pending = new int[0];
+    private int pendingSize;
+
+    /**
+     * Зарежда индекса. Ако индексът още не е записан, той се създава от касовите бележки и се записва.
+     *
+     * @param receipts Връща всички касови бележки, ако индексът трябва да бъде създаден.
+     * @return Индексът.
+     */
+    public static ClientReceiptIndex load(Supplier<? extends Collection<Receipt>> receipts) {
+        ClientReceiptIndex index = new ClientReceiptIndex();
+        int[] pairs = FileStorage.readIntIndex(INDEX_NAME, INDEX_KEY);
+        if (pairs != null) {
+            // Непълна двойка в края (от прекъснат запис) се пропуска
+            for (int i = 0; i + 1 < pairs.length; i += 2) {
+                index.insert(pairs[i], pairs[i + 1]);
+            }
+            return index;
+        }
+
+        for (Receipt receipt : receipts.get()) {
+            index.insert(receipt.getClient(), receipt.getId());
+        }
+        FileStorage.writeIntIndex(INDEX_NAME, INDEX_KEY, index.allPairs());
+        return index;
+    }
+
+    /**
+     * Добавя касова бележка към покупките на клиента ѝ. Добавената двойка се записва при {@link #flush()}.
+     *
+     * @param receipt Касовата бележка (с ID).
+     * @return true, ако касовата бележка е добавена, false ако вече е в индекса.
+     */
+    public synchronized boolean add(Receipt receipt) {
+        if (!insert(receipt.getClient(), receipt.getId())) {
+            return false;
+        }
+        if (pendingSize + 2 > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(16, pending.length * 2));
+        }
+        pending[pendingSize++] = receipt.getClient();
+        pending[pendingSize++] = receipt.getId();
+        return true;
+    }
+
+    /**
+     * Връща броя на касовите бележки на клиент.
+     *
+     * @param clientId ID на клиента.
+     * @return Брой касови бележки.
+     */
+    public synchronized int count(int clientId) {
+        ReceiptIds ids = byClient.get(clientId);
+        return ids != null ? ids.size : 0;
+    }
+
+    /**
+     * Връща страница от касовите бележки на клиент, започвайки от най-новата.
+     * Времето не зависи от общия брой касови бележки, а само от размера на страницата.
+     *
+     * @param clientId ID на клиента.
+     * @param offset   Брой пропуснати най-нови касови бележки.
+     * @param limit    Най-голям брой върнати касови бележки.
+     * @return ID-тата на касовите бележки от най-новата към най-старата.
+     * @throws IllegalArgumentException ако offset е отрицателен или limit не е положителен.
+     */
+    public synchronized int[] newestFirst(int clientId, int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException("Отместването не може да бъде отрицателно, а броят трябва да бъде положителен");
+        }
+        ReceiptIds ids = byClient.get(clientId);
+        int available = ids != null ? Math.max(0, ids.size - offset) : 0;
+        int[] page = new int[Math.min(limit, available)];
+        for (int i = 0; i < page.length; i++) {
+            page[i] = ids.values[ids.size - offset - 1 - i];
+        }
+        return page;
+    }
+
+    /**
+     * Връща броя на касовите бележки в индекса.
+     *
+     * @return Брой касови бележки за всички клиенти.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Добавя новите двойки в края на файла на индекса.
+     */
+    public void flush() {
+        int[] values;
+        synchronized (this) {
+            if (pendingSize == 0) {
+                return;
+            }
+            values = Arrays.copyOf(pending, pendingSize);
+            pendingSize = 0;
+        }
+        FileStorage.appendToIntIndex(INDEX_NAME, INDEX_KEY, values);
+    }
+
+    private boolean insert(int clientId, int receiptId) {
+        ReceiptIds ids = byClient.computeIfAbsent(clientId, id -> new ReceiptIds());
+        if (ids.size > 0 && ids.values[ids.size - 1] >= receiptId) {
+            int position = Arrays.binarySearch(ids.values, 0, ids.size, receiptId);
+            if (position >= 0) {
+                return false;
+            }
+            ids.insertAt(-position - 1, receiptId);
+        } else {
+            ids.insertAt(ids.size, receiptId);
+        }
+        size++;
+        return true;
+    }
+
+    private int[] allPairs() {
+        int[] pairs = new int[size * 2];
+        int position = 0;
+        for (Map.Entry<Integer, ReceiptIds> entry : byClient.entrySet()) {
+            ReceiptIds ids = entry.getValue();
+            for (int i = 0; i < ids.size; i++) {
+                pairs[position++] = entry.getKey();
+                pairs[position++] = ids.values[i];
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Сортираните ID-та на касовите бележки на един клиент.
+     */
+    private static class ReceiptIds {
+
+        private int[] values = new int[INITIAL_CAPACITY];
+        private int size;
+
+        private void insertAt(int position, int receiptId) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            System.arraycopy(values, position, values, position + 1, size - position);
+            values[position] = receiptId;
+            size++;
+        }
+    }
+}
@@ -3,26 +3,45 @@ package dao;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import metrics.LookupEvent;
+import metrics.Metrics;
+import metrics.StorageEvent;
 
 import java.io.*;
 import java.lang.reflect.Field;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * Клас за съхранение на обекти във файлове, организирани по тип, записани в JSON формат в текстови файлове.
  * с автоматично генерирани имена на файлове
+ * Директорията за данни може да бъде сменена със системното свойство {@code store.dataDir}.
+ * Всички операции с колекциите се изпълняват последователно под общо заключване, така че класът може
+ * да се използва от няколко нишки едновременно. Използва се {@link ReentrantLock}, а не {@code synchronized},
+ * за да не се блокират нишките носители на виртуалните нишки по време на запис във файл.
  */
 public class FileStorage {
-    private static final String DATA_DIR = "data/";
+    private static final String DATA_DIR = System.getProperty("store.dataDir", "data") + "/";
+    private static final ReentrantLock LOCK = new ReentrantLock();
     private static final String FILE_EXTENSION = ".txt";
+    private static final String JOURNAL_DIR = "journal/";
+    private static final String JOURNAL_EXTENSION = ".log";
+    private static final String INDEX_DIR = "index/";
+    private static final String INDEX_EXTENSION = ".idx";
     private static final Map<Class<?>, String> TYPE_TO_FILENAME = new HashMap<>();
     private static final Map<Class<?>, String> TYPE_TO_CUSTOM_DIR = new HashMap<>();
     private static final Map<Class<?>, Boolean> TYPE_TO_SEPARATE_FILES = new HashMap<>();
+    private static final Map<Class<?>, Consumer<List<?>>> TYPE_TO_JOURNAL_REPLAY = new HashMap<>();
     private static final Map<Class<?>, List<?>> CACHED_COLLECTIONS = new ConcurrentHashMap<>();
     private static final Map<Class<?>, AtomicLong> idCounters = new ConcurrentHashMap<>();
 
@@ -35,6 +54,31 @@ public class FileStorage {
             .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
             .create();
 
+    /**
+     * Връща директорията, в която се записват данните.
+     *
+     * @return Директорията за данни, завършваща с "/".
+     */
+    public static String getDataDir() {
+        return DATA_DIR;
+    }
+
+    /**
+     * Изпълнява действие, докато държи заключването на хранилището.
+     * Използва се, когато обекти от кеша се променят и записват заедно, за да не бъдат записани
+     * от друга нишка, докато промяната е наполовина извършена.
+     *
+     * @param action Действието за изпълнение.
+     */
+    public static void atomically(Runnable action) {
+        LOCK.lock();
+        try {
+            action.run();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
     /**
      * Регистрира даден тип обект с персонализирано име на файл.
      * Ако не регистрирате типа, ще се използва автоматично генерирано име.
@@ -51,6 +95,89 @@ public class FileStorage {
         TYPE_TO_SEPARATE_FILES.put(type, separateFiles);
     }
 
+    /**
+     * Регистрира дневник с промени за даден тип обект. Промените по отделен обект се добавят като редове текст
+     * с {@link #appendToJournal(Class, Object, Collection)}, без колекцията да се записва изцяло.
+     * След зареждане на колекцията от файл се извиква {@code replay}, който прилага дневниците към заредените обекти.
+     * При всеки пълен запис на колекцията дневниците на типа се изтриват, тъй като записаната колекция вече съдържа промените.
+     *
+     * @param type   Типът на обектите
+     * @param replay Действие, което прилага дневниците към заредената колекция
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void registerJournal(Class<T> type, Consumer<List<T>> replay) {
+        LOCK.lock();
+        try {
+            TYPE_TO_JOURNAL_REPLAY.put(type, collection -> replay.accept((List<T>) collection));
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Добавя редове в края на дневника на даден обект, без да записва колекцията.
+     *
+     * @param type  Типът на обекта
+     * @param id    Идентификатор на обекта
+     * @param lines Редовете за добавяне (без знак за нов ред)
+     */
+    public static <T> void appendToJournal(Class<T> type, Object id, Collection<String> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        LOCK.lock();
+        long start = Metrics.startTimer();
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        long bytes = 0;
+        try {
+            StringBuilder text = new StringBuilder();
+            for (String line : lines) {
+                text.append(line).append('\n');
+            }
+            byte[] data = text.toString().getBytes(StandardCharsets.UTF_8);
+
+            File dirFile = new File(DATA_DIR + JOURNAL_DIR);
+            if (!dirFile.exists()) {
+                dirFile.mkdirs();
+            }
+            try (OutputStream out = new FileOutputStream(getJournalFile(type, id), true)) {
+                out.write(data);
+            }
+            bytes = data.length;
+        } catch (IOException e) {
+            System.err.println("Error appending to journal " + type.getSimpleName() + "_" + id +
+                    ": " + e.getMessage());
+        } finally {
+            recordStorageTime("append", type, start);
+            commitStorageEvent(event, "append", type, lines.size(), bytes);
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Прочита всички редове от дневника на даден обект.
+     *
+     * @param type Типът на обекта
+     * @param id   Идентификатор на обекта
+     * @return Редовете в реда на добавяне или празен списък, ако обектът няма дневник
+     */
+    public static <T> List<String> readJournal(Class<T> type, Object id) {
+        LOCK.lock();
+        try {
+            File file = getJournalFile(type, id);
+            if (!file.exists()) {
+                return List.of();
+            }
+            return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Грешка при четене на дневник " + type.getSimpleName() + "_" + id +
+                    ": " + e.getMessage(), e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
 
     /**
      * Зарежда колекция от обекти от даден тип, ако не е заредена в кеша, я зарежда от файл.
@@ -60,10 +187,15 @@ public class FileStorage {
      */
     @SuppressWarnings("unchecked")
     public static <T> ArrayList<T> getCollection(Class<T> type) {
-        if (!CACHED_COLLECTIONS.containsKey(type)) {
-            loadCollection(type);
+        LOCK.lock();
+        try {
+            if (!CACHED_COLLECTIONS.containsKey(type)) {
+                loadCollection(type);
+            }
+            return (ArrayList<T>) CACHED_COLLECTIONS.getOrDefault(type, new ArrayList<>());
+        } finally {
+            LOCK.unlock();
         }
-        return (ArrayList<T>) CACHED_COLLECTIONS.getOrDefault(type, new ArrayList<>());
     }
 
     /**
@@ -75,58 +207,166 @@ public class FileStorage {
      * @param <T>    Типът на обекта
      */
     public static <T> void addObject(T object) {
-        Class<?> type = object.getClass();
+        LOCK.lock();
         try {
-            Field idField = type.getDeclaredField("id");
-            idField.setAccessible(true);
-            Object value = idField.get(object);
+            Class<?> type = object.getClass();
+            try {
+                Field idField = type.getDeclaredField("id");
+                idField.setAccessible(true);
+                Object value = idField.get(object);
 
-            List<T> collection = getCollection((Class<T>) type);
+                List<T> collection = getCollection((Class<T>) type);
 
-            if (value instanceof Number && ((Number) value).longValue() != 0L) {
-                long objectId = ((Number) value).longValue();
-                for (T item : collection) {
-                    Object itemId = idField.get(item);
-                    if (itemId instanceof Number && ((Number) itemId).longValue() == objectId) {
-                        throw new IllegalArgumentException("Обект с ID " + objectId + " вече съществува в колекцията.");
-                    }
-                }
-            } else {
-                long maxId = 0;
-                try {
+                if (value instanceof Number && ((Number) value).longValue() != 0L) {
+                    long objectId = ((Number) value).longValue();
                     for (T item : collection) {
                         Object itemId = idField.get(item);
-                        if (itemId instanceof Number) {
-                            long id = ((Number) itemId).longValue();
-                            if (id > maxId) {
-                                maxId = id;
+                        if (itemId instanceof Number && ((Number) itemId).longValue() == objectId) {
+                            throw new IllegalArgumentException("Обект с ID " + objectId + " вече съществува в колекцията.");
+                        }
+                    }
+                } else {
+                    long maxId = 0;
+                    try {
+                        for (T item : collection) {
+                            Object itemId = idField.get(item);
+                            if (itemId instanceof Number) {
+                                long id = ((Number) itemId).longValue();
+                                if (id > maxId) {
+                                    maxId = id;
+                                }
                             }
                         }
+                    } catch (IllegalAccessException e) {
+                        throw new RuntimeException("Не може да се достъпи полето 'id' на обекта", e);
+                    }
+
+                    long newId = maxId + 1;
+                    AtomicLong counter = idCounters.computeIfAbsent(type, k -> new AtomicLong(newId));
+
+                    if (idField.getType().equals(int.class) || idField.getType().equals(Integer.class)) {
+                        idField.set(object, (int) newId);
+                    } else if (idField.getType().equals(long.class) || idField.getType().equals(Long.class)) {
+                        idField.set(object, newId);
                     }
-                } catch (IllegalAccessException e) {
-                    throw new RuntimeException("Не може да се достъпи полето 'id' на обекта", e);
                 }
 
-                long newId = maxId + 1;
-                AtomicLong counter = idCounters.computeIfAbsent(type, k -> new AtomicLong(newId));
+                collection.add(object);
+                CACHED_COLLECTIONS.put(type, collection);
 
-                if (idField.getType().equals(int.class) || idField.getType().equals(Integer.class)) {
-                    idField.set(object, (int) newId);
-                } else if (idField.getType().equals(long.class) || idField.getType().equals(Long.class)) {
-                    idField.set(object, newId);
+                // При отделни файлове е достатъчно да се запише само новият обект, а не всички останали
+                if (Boolean.TRUE.equals(TYPE_TO_SEPARATE_FILES.get(type))) {
+                    saveIndividualObjectAsSeparateFile(object);
+                } else {
+                    saveCollection(type);
                 }
+
+            } catch (Exception e) {
+                throw new RuntimeException("Неуспешно записване на обект от тип " + type.getSimpleName(), e);
             }
+        } finally {
+            LOCK.unlock();
+        }
+    }
 
-            collection.add(object);
-            CACHED_COLLECTIONS.put(type, collection);
-            saveCollection(type);
+    /**
+     * Добавя много обекти от един и същи тип наведнъж и записва колекцията само веднъж.
+     * На обектите без ID (нула) се задават последователни идентификатори след най-големия съществуващ.
+     * При отделни файлове за всеки обект се записват само новите файлове, паралелно.
+     *
+     * @param type    Типът на обектите
+     * @param objects Обектите, които трябва да бъдат добавени
+     * @throws IllegalArgumentException ако обект с някое от зададените ID вече съществува
+     */
+    public static <T> void addObjects(Class<T> type, Collection<T> objects) {
+        if (objects.isEmpty()) {
+            return;
+        }
 
+        LOCK.lock();
+        try {
+            Field idField = type.getDeclaredField("id");
+            idField.setAccessible(true);
+            List<T> collection = getCollection(type);
+
+            Set<Long> existingIds = new HashSet<>();
+            long maxId = 0;
+            for (T item : collection) {
+                if (idField.get(item) instanceof Number itemId) {
+                    existingIds.add(itemId.longValue());
+                    maxId = Math.max(maxId, itemId.longValue());
+                }
+            }
+            for (T object : objects) {
+                if (idField.get(object) instanceof Number objectId && objectId.longValue() != 0L) {
+                    if (!existingIds.add(objectId.longValue())) {
+                        throw new IllegalArgumentException("Обект с ID " + objectId + " вече съществува в колекцията.");
+                    }
+                    maxId = Math.max(maxId, objectId.longValue());
+                }
+            }
+            for (T object : objects) {
+                Object value = idField.get(object);
+                if (!(value instanceof Number) || ((Number) value).longValue() == 0L) {
+                    setId(idField, object, ++maxId);
+                }
+            }
+
+            collection.addAll(objects);
             if (Boolean.TRUE.equals(TYPE_TO_SEPARATE_FILES.get(type))) {
-                saveIndividualObjectAsSeparateFile(object);
+                new File(getDirectoryForType(type)).mkdirs();
+                objects.parallelStream().forEach(FileStorage::saveIndividualObjectAsSeparateFile);
+            } else {
+                saveCollection(type);
             }
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException("Неуспешно записване на обекти от тип " + type.getSimpleName(), e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Неуспешно записване на обект от тип " + type.getSimpleName(), e);
+    /**
+     * Записва много обекти от тип, който се съхранява в отделни файлове, без да зарежда колекцията в кеша.
+     * Използва се при генериране на големи количества данни, които не се побират в паметта наведнъж.
+     * Обектите трябва да имат зададени уникални ID. Кешът за типа се изчиства и колекцията
+     * се зарежда наново от файловете при следващото използване.
+     *
+     * @param type    Типът на обектите
+     * @param objects Обектите, които трябва да бъдат записани
+     * @throws IllegalArgumentException ако типът не се съхранява в отделни файлове или някой обект няма ID
+     */
+    public static <T> void appendObjects(Class<T> type, Collection<T> objects) {
+        if (!Boolean.TRUE.equals(TYPE_TO_SEPARATE_FILES.get(type))) {
+            throw new IllegalArgumentException("Обектите от тип " + type.getSimpleName() + " не се съхраняват в отделни файлове");
+        }
+
+        LOCK.lock();
+        try {
+            Field idField = type.getDeclaredField("id");
+            idField.setAccessible(true);
+            for (T object : objects) {
+                Object value = idField.get(object);
+                if (!(value instanceof Number) || ((Number) value).longValue() <= 0L) {
+                    throw new IllegalArgumentException("Обектите от тип " + type.getSimpleName() + " трябва да имат зададен ID");
+                }
+            }
+
+            CACHED_COLLECTIONS.remove(type);
+            new File(getDirectoryForType(type)).mkdirs();
+            objects.parallelStream().forEach(FileStorage::saveIndividualObjectAsSeparateFile);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException("Неуспешно записване на обекти от тип " + type.getSimpleName(), e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    private static void setId(Field idField, Object object, long id) throws IllegalAccessException {
+        if (idField.getType().equals(int.class) || idField.getType().equals(Integer.class)) {
+            idField.set(object, (int) id);
+        } else if (idField.getType().equals(long.class) || idField.getType().equals(Long.class)) {
+            idField.set(object, id);
         }
     }
 
@@ -138,22 +378,79 @@ public class FileStorage {
      * @return true ако обектът е актуализиран, false ако не е намерен
      */
     public static <T> boolean updateObject(T object, MatcherFunction<T> matcher) {
-        Class<?> type = object.getClass();
-        List<T> collection = getCollection((Class<T>) type);
+        LOCK.lock();
+        try {
+            Class<?> type = object.getClass();
+            List<T> collection = getCollection((Class<T>) type);
 
-        for (int i = 0; i < collection.size(); i++) {
-            if (matcher.matches(collection.get(i))) {
-                collection.set(i, object);
-                saveCollection(type);
+            for (int i = 0; i < collection.size(); i++) {
+                if (matcher.matches(collection.get(i))) {
+                    collection.set(i, object);
+                    saveCollection(type);
 
-                if (Boolean.TRUE.equals(TYPE_TO_SEPARATE_FILES.get(type))) {
-                    saveIndividualObjectAsSeparateFile(object);
+                    if (Boolean.TRUE.equals(TYPE_TO_SEPARATE_FILES.get(type))) {
+                        saveIndividualObjectAsSeparateFile(object);
+                    }
+
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Актуализира няколко обекта от един и същи тип наведнъж и записва колекцията само веднъж.
+     * Обектите се съпоставят по полето "id". Обекти, които не съществуват в колекцията, се пропускат.
+     * При отделни файлове за всеки обект се записват само файловете на актуализираните обекти.
+     *
+     * @param type    Типът на обектите
+     * @param objects Обектите, които трябва да бъдат актуализирани
+     * @return Броят на актуализираните обекти
+     */
+    public static <T> int updateObjects(Class<T> type, Collection<T> objects) {
+        LOCK.lock();
+        try {
+            if (objects.isEmpty()) {
+                return 0;
+            }
+
+            List<T> collection = getCollection(type);
+            try {
+                Field idField = type.getDeclaredField("id");
+                idField.setAccessible(true);
+
+                Map<Object, T> objectsById = new HashMap<>();
+                for (T object : objects) {
+                    objectsById.put(idField.get(object), object);
                 }
 
-                return true;
+                boolean separateFiles = Boolean.TRUE.equals(TYPE_TO_SEPARATE_FILES.get(type));
+                int updatedCount = 0;
+                for (int i = 0; i < collection.size() && updatedCount < objectsById.size(); i++) {
+                    T replacement = objectsById.get(idField.get(collection.get(i)));
+                    if (replacement != null) {
+                        collection.set(i, replacement);
+                        updatedCount++;
+                        // При отделни файлове е достатъчно да се запишат само актуализираните обекти
+                        if (separateFiles) {
+                            saveIndividualObjectAsSeparateFile(replacement);
+                        }
+                    }
+                }
+
+                if (updatedCount > 0 && !separateFiles) {
+                    saveCollection(type);
+                }
+                return updatedCount;
+            } catch (NoSuchFieldException | IllegalAccessException e) {
+                throw new RuntimeException("Неуспешно актуализиране на обекти от тип " + type.getSimpleName(), e);
             }
+        } finally {
+            LOCK.unlock();
         }
-        return false;
     }
 
 
@@ -164,20 +461,120 @@ public class FileStorage {
      * @param id   Идентификатор на обекта, който трябва да бъде намерен - може да бъде Integer или Long
      */
     public static <T> Optional<T> findObjectById(Class<T> type, Object id) {
-        List<T> collection = getCollection(type);
-        for (T object : collection) {
-            try {
-                Field idField = type.getDeclaredField("id");
-                idField.setAccessible(true);
-                Object objectId = idField.get(object);
-                if (objectId != null && objectId.equals(id)) {
-                    return Optional.of(object);
+        LookupEvent event = new LookupEvent();
+        event.begin();
+        LOCK.lock();
+        try {
+            List<T> collection = getCollection(type);
+            int scanned = 0;
+            T found = null;
+            for (T object : collection) {
+                scanned++;
+                try {
+                    Field idField = type.getDeclaredField("id");
+                    idField.setAccessible(true);
+                    Object objectId = idField.get(object);
+                    if (objectId != null && objectId.equals(id)) {
+                        found = object;
+                        break;
+                    }
+                } catch (NoSuchFieldException | IllegalAccessException e) {
+                    System.err.println("Error accessing 'id' field in " + type.getSimpleName() + ": " + e.getMessage());
                 }
-            } catch (NoSuchFieldException | IllegalAccessException e) {
-                System.err.println("Error accessing 'id' field in " + type.getSimpleName() + ": " + e.getMessage());
             }
+            if (event.shouldCommit()) {
+                event.entityType = type.getSimpleName();
+                event.id = String.valueOf(id);
+                event.entityCount = collection.size();
+                event.scanned = scanned;
+                event.found = found != null;
+                event.commit();
+            }
+            return Optional.ofNullable(found);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Прочита обект от неговия отделен файл по ID, без да зарежда и да обхожда цялата колекция.
+     * Тъй като обектите в отделни файлове се записват при всяко добавяне и актуализиране,
+     * файлът съдържа същите данни като кеша, но върнатият обект е ново копие.
+     *
+     * @param type Типът на обекта
+     * @param id   Идентификатор на обекта
+     * @return Обектът или празен Optional, ако файлът не съществува
+     * @throws IllegalArgumentException ако типът не се съхранява в отделни файлове
+     */
+    public static <T> Optional<T> readSeparateObject(Class<T> type, Object id) {
+        if (!Boolean.TRUE.equals(TYPE_TO_SEPARATE_FILES.get(type))) {
+            throw new IllegalArgumentException("Обектите от тип " + type.getSimpleName() + " не се съхраняват в отделни файлове");
+        }
+        LOCK.lock();
+        long start = Metrics.startTimer();
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        long bytes = 0;
+        try {
+            File file = new File(getDirectoryForType(type) + type.getSimpleName() + "_" + id + FILE_EXTENSION);
+            if (!file.exists()) {
+                return Optional.empty();
+            }
+            bytes = file.length();
+            try (Reader reader = new FileReader(file)) {
+                return Optional.ofNullable(gson.fromJson(reader, type));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Грешка при четене на файл " + type.getSimpleName() + "_" + id +
+                    ": " + e.getMessage(), e);
+        } finally {
+            recordStorageTime("loadFile", type, start);
+            commitStorageEvent(event, "loadFile", type, 1, bytes);
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Връща ID-тата на обектите от даден тип, записани в отделни файлове, по имената на файловете в директорията,
+     * без да ги чете. Така се намират и обекти след липсващ файл (например изтрит или незаписан при прекъсване).
+     *
+     * @param type    Типът на обектите
+     * @param afterId Връщат се само ID-тата, по-големи от това
+     * @return ID-тата във възходящ ред
+     * @throws IllegalArgumentException ако типът не се съхранява в отделни файлове
+     */
+    public static <T> int[] listSeparateIds(Class<T> type, int afterId) {
+        if (!Boolean.TRUE.equals(TYPE_TO_SEPARATE_FILES.get(type))) {
+            throw new IllegalArgumentException("Обектите от тип " + type.getSimpleName() + " не се съхраняват в отделни файлове");
+        }
+        LOCK.lock();
+        try {
+            String prefix = type.getSimpleName() + "_";
+            String[] names = new File(getDirectoryForType(type)).list();
+            if (names == null) {
+                return new int[0];
+            }
+            int[] ids = new int[names.length];
+            int count = 0;
+            for (String name : names) {
+                if (!name.startsWith(prefix) || !name.endsWith(FILE_EXTENSION)) {
+                    continue;
+                }
+                try {
+                    int id = Integer.parseInt(name.substring(prefix.length(), name.length() - FILE_EXTENSION.length()));
+                    if (id > afterId) {
+                        ids[count++] = id;
+                    }
+                } catch (NumberFormatException e) {
+                    // Файлове с други имена (например временни) се пропускат
+                }
+            }
+            int[] result = Arrays.copyOf(ids, count);
+            Arrays.sort(result);
+            return result;
+        } finally {
+            LOCK.unlock();
         }
-        return Optional.empty();
     }
 
     /**
@@ -214,10 +611,15 @@ public class FileStorage {
      *
      * @param object Обектът, който трябва да бъде запазен
      * @param <T>    Типът на обекта
+     * @return Броят на записаните байтове, ако се записва JFR събитие {@link StorageEvent}, в противен случай 0
      */
-    private static <T> void saveIndividualObjectAsSeparateFile(T object) {
+    private static <T> long saveIndividualObjectAsSeparateFile(T object) {
+        long start = Metrics.startTimer();
+        StorageEvent event = new StorageEvent();
+        event.begin();
         Class<?> type = object.getClass();
         String dir = getDirectoryForType(type);
+        long bytes = 0;
 
         try {
             File dirFile = new File(dir);
@@ -234,10 +636,17 @@ public class FileStorage {
             try (Writer writer = new FileWriter(dir + fileName)) {
                 gson.toJson(object, writer);
             }
+            if (event.isEnabled()) {
+                bytes = new File(dir + fileName).length();
+            }
         } catch (IOException | NoSuchFieldException | IllegalAccessException e) {
             System.err.println("Error saving individual object " + type.getSimpleName() +
                     ": " + e.getMessage());
+        } finally {
+            recordStorageTime("saveFile", type, start);
+            commitStorageEvent(event, "saveFile", type, 1, bytes);
         }
+        return bytes;
     }
 
 
@@ -248,10 +657,14 @@ public class FileStorage {
      * @param type Типът на обектите, които трябва да бъдат заредени
      */
     private static <T> void loadCollection(Class<T> type) {
+        long start = Metrics.startTimer();
+        StorageEvent event = new StorageEvent();
+        event.begin();
         String dir = getDirectoryForType(type);
         String fileName = getFileNameForType(type);
         File file = new File(dir + fileName);
         List<T> collection = new ArrayList<>();
+        long bytes = 0;
 
         if (Boolean.TRUE.equals(TYPE_TO_SEPARATE_FILES.get(type))) {
             File directory = new File(dir);
@@ -261,6 +674,9 @@ public class FileStorage {
 
                 if (files != null) {
                     for (File individualFile : files) {
+                        if (event.isEnabled()) {
+                            bytes += individualFile.length();
+                        }
                         try (Reader reader = new FileReader(individualFile)) {
                             T obj = gson.fromJson(reader, type);
                             if (obj != null) {
@@ -274,6 +690,9 @@ public class FileStorage {
                 }
             }
         } else if (file.exists()) {
+            if (event.isEnabled()) {
+                bytes = file.length();
+            }
             try (Reader reader = new FileReader(file)) {
                 Type listType = TypeToken.getParameterized(ArrayList.class, type).getType();
                 collection = gson.fromJson(reader, listType);
@@ -286,7 +705,20 @@ public class FileStorage {
             }
         }
 
+        Consumer<List<?>> replay = TYPE_TO_JOURNAL_REPLAY.get(type);
+        if (replay != null) {
+            replay.accept(collection);
+        }
+
         CACHED_COLLECTIONS.put(type, collection);
+        recordStorageTime("load", type, start);
+        commitStorageEvent(event, "load", type, collection.size(), bytes);
+        if (Metrics.isEnabled()) {
+            Metrics.gauge("storage.cached." + type.getSimpleName(), () -> {
+                List<?> cached = CACHED_COLLECTIONS.get(type);
+                return cached != null ? cached.size() : 0;
+            });
+        }
     }
 
     /**
@@ -302,6 +734,10 @@ public class FileStorage {
         if (collection == null) {
             return;
         }
+        long start = Metrics.startTimer();
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        long bytes = 0;
 
         if (Boolean.TRUE.equals(TYPE_TO_SEPARATE_FILES.get(type))) {
             String dir = getDirectoryForType(type);
@@ -311,7 +747,7 @@ public class FileStorage {
             }
 
             for (T object : collection) {
-                saveIndividualObjectAsSeparateFile(object);
+                bytes += saveIndividualObjectAsSeparateFile(object);
             }
         } else {
             String dir = getDirectoryForType(type);
@@ -326,11 +762,239 @@ public class FileStorage {
                 try (Writer writer = new FileWriter(dir + fileName)) {
                     gson.toJson(collection, writer);
                 }
+                if (event.isEnabled()) {
+                    bytes = new File(dir + fileName).length();
+                }
+                clearJournals(type);
             } catch (IOException e) {
                 System.err.println("Error saving collection " + type.getSimpleName() +
                         ": " + e.getMessage());
             }
         }
+        recordStorageTime("save", type, start);
+        commitStorageEvent(event, "save", type, collection.size(), bytes);
+    }
+
+    /**
+     * Прочита индекс от цели числа, записан с {@link #writeIntIndex(String, Object, int[])}
+     * и {@link #appendToIntIndex(String, Object, int[])}.
+     *
+     * @param indexName Име на индекса
+     * @param key       Ключ в индекса, например ID на магазин
+     * @return Числата в реда на записване или null, ако индексът не съществува
+     */
+    public static int[] readIntIndex(String indexName, Object key) {
+        LOCK.lock();
+        long start = Metrics.startTimer();
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        int[] values = null;
+        try {
+            File file = getIndexFile(indexName, key);
+            if (!file.exists()) {
+                return null;
+            }
+            byte[] data = Files.readAllBytes(file.toPath());
+            // Непълно число в края (от прекъснат запис) се пропуска
+            values = new int[data.length / Integer.BYTES];
+            ByteBuffer.wrap(data, 0, values.length * Integer.BYTES).asIntBuffer().get(values);
+            return values;
+        } catch (IOException e) {
+            throw new RuntimeException("Грешка при четене на индекс " + indexName + "_" + key +
+                    ": " + e.getMessage(), e);
+        } finally {
+            recordIndexTime("loadIndex", indexName, start);
+            int count = values != null ? values.length : 0;
+            commitIndexEvent(event, "loadIndex", indexName, count, (long) count * Integer.BYTES);
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Записва индекс от цели числа, като заменя съществуващия. Всяко число заема 4 байта.
+     *
+     * @param indexName Име на индекса
+     * @param key       Ключ в индекса, например ID на магазин
+     * @param values    Числата за записване
+     */
+    public static void writeIntIndex(String indexName, Object key, int[] values) {
+        writeIntIndex(indexName, key, values, false);
+    }
+
+    /**
+     * Добавя цели числа в края на индекс, без да го записва отново.
+     *
+     * @param indexName Име на индекса
+     * @param key       Ключ в индекса, например ID на магазин
+     * @param values    Числата за добавяне
+     */
+    public static void appendToIntIndex(String indexName, Object key, int[] values) {
+        if (values.length > 0) {
+            writeIntIndex(indexName, key, values, true);
+        }
+    }
+
+    private static void writeIntIndex(String indexName, Object key, int[] values, boolean append) {
+        String operation = append ? "appendIndex" : "saveIndex";
+        LOCK.lock();
+        long start = Metrics.startTimer();
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(values.length * Integer.BYTES);
+            buffer.asIntBuffer().put(values);
+
+            File dirFile = new File(DATA_DIR + INDEX_DIR);
+            if (!dirFile.exists()) {
+                dirFile.mkdirs();
+            }
+            try (OutputStream out = new FileOutputStream(getIndexFile(indexName, key), append)) {
+                out.write(buffer.array());
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving index " + indexName + "_" + key + ": " + e.getMessage());
+        } finally {
+            recordIndexTime(operation, indexName, start);
+            commitIndexEvent(event, operation, indexName, values.length, (long) values.length * Integer.BYTES);
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Прочита индекс в двоичен формат, записан с {@link #writeIndexData(String, Object, byte[])}.
+     *
+     * @param indexName Име на индекса
+     * @param key       Ключ в индекса
+     * @return Съдържанието на индекса или null, ако индексът не съществува
+     */
+    public static byte[] readIndexData(String indexName, Object key) {
+        LOCK.lock();
+        long start = Metrics.startTimer();
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        byte[] data = null;
+        try {
+            File file = getIndexFile(indexName, key);
+            if (!file.exists()) {
+                return null;
+            }
+            data = Files.readAllBytes(file.toPath());
+            return data;
+        } catch (IOException e) {
+            throw new RuntimeException("Грешка при четене на индекс " + indexName + "_" + key +
+                    ": " + e.getMessage(), e);
+        } finally {
+            recordIndexTime("loadIndex", indexName, start);
+            commitIndexEvent(event, "loadIndex", indexName, 1, data != null ? data.length : 0);
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Записва индекс в двоичен формат, като заменя съществуващия. Данните се записват във временен файл,
+     * който след това заменя индекса, така че прекъснат запис не поврежда предишната версия.
+     *
+     * @param indexName Име на индекса
+     * @param key       Ключ в индекса
+     * @param data      Съдържанието на индекса
+     */
+    public static void writeIndexData(String indexName, Object key, byte[] data) {
+        LOCK.lock();
+        long start = Metrics.startTimer();
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        try {
+            File dirFile = new File(DATA_DIR + INDEX_DIR);
+            if (!dirFile.exists()) {
+                dirFile.mkdirs();
+            }
+            File file = getIndexFile(indexName, key);
+            File tempFile = new File(file.getPath() + ".tmp");
+            Files.write(tempFile.toPath(), data);
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("Error saving index " + indexName + "_" + key + ": " + e.getMessage());
+        } finally {
+            recordIndexTime("saveIndex", indexName, start);
+            commitIndexEvent(event, "saveIndex", indexName, 1, data.length);
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Връща файла на индекс с даден ключ.
+     */
+    private static File getIndexFile(String indexName, Object key) {
+        return new File(DATA_DIR + INDEX_DIR + indexName + "_" + key + INDEX_EXTENSION);
+    }
+
+    /**
+     * Записва времето за операция с индекс в хистограмата {@code storage.<операция>.<индекс>}.
+     */
+    private static void recordIndexTime(String operation, String indexName, long start) {
+        if (Metrics.isEnabled()) {
+            Metrics.stopTimer(Metrics.histogram("storage." + operation + "." + indexName), start);
+        }
+    }
+
+    /**
+     * Записва JFR събитие за операция с индекс, ако събитието е включено в текущия запис.
+     */
+    private static void commitIndexEvent(StorageEvent event, String operation, String indexName, int count, long bytes) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.entityType = indexName;
+            event.entityCount = count;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Връща файла с дневника на даден обект.
+     */
+    private static File getJournalFile(Class<?> type, Object id) {
+        return new File(DATA_DIR + JOURNAL_DIR + type.getSimpleName() + "_" + id + JOURNAL_EXTENSION);
+    }
+
+    /**
+     * Изтрива дневниците на даден тип след пълен запис на колекцията, ако типът има регистриран дневник.
+     */
+    private static void clearJournals(Class<?> type) {
+        if (!TYPE_TO_JOURNAL_REPLAY.containsKey(type)) {
+            return;
+        }
+        File[] files = new File(DATA_DIR + JOURNAL_DIR).listFiles((d, name) ->
+                name.startsWith(type.getSimpleName() + "_") && name.endsWith(JOURNAL_EXTENSION));
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    System.err.println("Error deleting journal " + file.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * Записва времето за операция с хранилището в хистограмата {@code storage.<операция>.<тип>}.
+     */
+    private static void recordStorageTime(String operation, Class<?> type, long start) {
+        if (Metrics.isEnabled()) {
+            Metrics.stopTimer(Metrics.histogram("storage." + operation + "." + type.getSimpleName()), start);
+        }
+    }
+
+    /**
+     * Записва JFR събитие за операция с хранилището, ако събитието е включено в текущия запис.
+     */
+    private static void commitStorageEvent(StorageEvent event, String operation, Class<?> type, long entityCount, long bytes) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.entityType = type.getSimpleName();
+            event.entityCount = entityCount;
+            event.bytes = bytes;
+            event.commit();
+        }
     }
 
     /**
@@ -0,0 +1,248 @@
+package dao;
+
+import model.Receipt;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Индекс на касовите бележки на един магазин - сортиран масив от ID-та на касови бележки.
+ * Записва се отделно от магазина във файл с по 4 байта за касова бележка, така че размерът на записа
+ * на магазина не зависи от броя на продажбите. Тъй като ID-тата на новите касови бележки нарастват,
+ * новите бележки се добавят в края на масива и в края на файла.
+ */
+public class StoreReceiptIndex {
+
+    /**
+     * Име на индекса във {@link FileStorage}.
+     */
+    public static final String INDEX_NAME = "receipts";
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] ids;
+    private int size;
+    // Брой ID-та от началото на масива, които вече са записани във файла
+    private int persistedSize;
+    private boolean rewriteRequired;
+
+    /**
+     * Конструктор за създаване на празен индекс, който при първото записване създава нов файл.
+     */
+    public StoreReceiptIndex() {
+        this(new int[INITIAL_CAPACITY], 0, false);
+    }
+
+    private StoreReceiptIndex(int[] sortedIds, int size, boolean persisted) {
+        this.ids = sortedIds;
+        this.size = size;
+        this.persistedSize = persisted ? size : 0;
+        this.rewriteRequired = !persisted;
+    }
+
+    /**
+     * Създава индекс с дадени ID-та на касови бележки, който при първото записване заменя файла.
+     *
+     * @param receiptIds ID-та на касови бележки в произволен ред.
+     * @return Новият индекс.
+     */
+    public static StoreReceiptIndex of(Collection<Integer> receiptIds) {
+        int[] values = receiptIds.stream().mapToInt(Integer::intValue).toArray();
+        int size = sortDistinct(values);
+        return new StoreReceiptIndex(values, size, false);
+    }
+
+    /**
+     * Зарежда индекса на даден магазин. Ако индексът още не е записан (например за данни от по-стара версия),
+     * той се създава от ID-тата на касовите бележки от записа на магазина, а ако и те липсват -
+     * от касовите бележки на магазина, и се записва.
+     *
+     * @param storeId        ID на магазина.
+     * @param legacyReceipts ID-тата на касовите бележки от записа на магазина от по-стара версия или null.
+     * @param receipts       Връща всички касови бележки, ако индексът трябва да бъде възстановен от тях.
+     * @return Индексът на магазина.
+     */
+    public static StoreReceiptIndex load(int storeId, Collection<Integer> legacyReceipts,
+                                         Supplier<? extends Collection<Receipt>> receipts) {
+        int[] values = FileStorage.readIntIndex(INDEX_NAME, storeId);
+        if (values != null) {
+            // Едновременни записи могат да разменят реда на добавените части
+            int size = sortDistinct(values);
+            return new StoreReceiptIndex(values, size, size == values.length);
+        }
+
+        StoreReceiptIndex index;
+        if (legacyReceipts != null) {
+            // Касовите бележки от по-стара версия нямат ID на магазин, затова се взимат от записа на магазина
+            index = of(legacyReceipts);
+        } else {
+            int[] receiptIds = receipts.get().stream()
+                    .filter(receipt -> receipt.getStore() == storeId)
+                    .mapToInt(Receipt::getId)
+                    .sorted()
+                    .toArray();
+            index = new StoreReceiptIndex(receiptIds, receiptIds.length, false);
+        }
+        index.flush(storeId);
+        return index;
+    }
+
+    /**
+     * Добавя ID на касова бележка в индекса.
+     *
+     * @param receiptId ID на касовата бележка.
+     * @return true, ако ID-то е добавено, false ако вече е в индекса.
+     */
+    public synchronized boolean add(int receiptId) {
+        if (size > 0 && ids[size - 1] >= receiptId) {
+            int position = Arrays.binarySearch(ids, 0, size, receiptId);
+            if (position >= 0) {
+                return false;
+            }
+            insertAt(-position - 1, receiptId);
+            return true;
+        }
+        insertAt(size, receiptId);
+        return true;
+    }
+
+    /**
+     * Премахва ID на касова бележка от индекса.
+     *
+     * @param receiptId ID на касовата бележка.
+     * @return true, ако ID-то е премахнато, false ако не е в индекса.
+     */
+    public synchronized boolean remove(int receiptId) {
+        int position = Arrays.binarySearch(ids, 0, size, receiptId);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+        if (position < persistedSize) {
+            rewriteRequired = true;
+        }
+        return true;
+    }
+
+    /**
+     * Проверява дали ID на касова бележка е в индекса.
+     *
+     * @param receiptId ID на касовата бележка.
+     * @return true, ако ID-то е в индекса, false в противен случай.
+     */
+    public synchronized boolean contains(int receiptId) {
+        return Arrays.binarySearch(ids, 0, size, receiptId) >= 0;
+    }
+
+    /**
+     * Връща броя на касовите бележки в индекса.
+     *
+     * @return Брой касови бележки.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Връща всички ID-та на касови бележки във възходящ ред.
+     *
+     * @return Нов масив с ID-тата.
+     */
+    public synchronized int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Връща ID-тата на касовите бележки в даден интервал във възходящ ред.
+     * Тъй като ID-тата нарастват с времето, интервалът от ID-та отговаря на период от време.
+     *
+     * @param fromId Начало на интервала (включително).
+     * @param toId   Край на интервала (без него).
+     * @return Нов масив с ID-тата в интервала.
+     */
+    public synchronized int[] range(int fromId, int toId) {
+        int from = lowerBound(fromId);
+        int to = Math.max(from, lowerBound(toId));
+        return Arrays.copyOfRange(ids, from, to);
+    }
+
+    /**
+     * Връща броя на касовите бележки в даден интервал от ID-та.
+     *
+     * @param fromId Начало на интервала (включително).
+     * @param toId   Край на интервала (без него).
+     * @return Брой касови бележки в интервала.
+     */
+    public synchronized int countInRange(int fromId, int toId) {
+        return Math.max(0, lowerBound(toId) - lowerBound(fromId));
+    }
+
+    /**
+     * Записва промените в индекса на даден магазин. Ако са добавяни само ID-та, по-големи от записаните,
+     * новите ID-та се добавят в края на файла, в противен случай файлът се записва отново.
+     *
+     * @param storeId ID на магазина.
+     */
+    public void flush(int storeId) {
+        int[] values;
+        boolean rewrite;
+        synchronized (this) {
+            if (!rewriteRequired && persistedSize == size) {
+                return;
+            }
+            rewrite = rewriteRequired;
+            values = rewrite ? Arrays.copyOf(ids, size) : Arrays.copyOfRange(ids, persistedSize, size);
+            persistedSize = size;
+            rewriteRequired = false;
+        }
+
+        if (rewrite) {
+            FileStorage.writeIntIndex(INDEX_NAME, storeId, values);
+        } else {
+            FileStorage.appendToIntIndex(INDEX_NAME, storeId, values);
+        }
+    }
+
+    private void insertAt(int position, int receiptId) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(INITIAL_CAPACITY, ids.length * 2));
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = receiptId;
+        size++;
+        if (position < persistedSize) {
+            rewriteRequired = true;
+        }
+    }
+
+    private int lowerBound(int receiptId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ids[middle] < receiptId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Сортира масива и премахва повтарящите се стойности, като ги оставя в началото му.
+     *
+     * @return Броят на различните стойности.
+     */
+    private static int sortDistinct(int[] values) {
+        Arrays.sort(values);
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (size == 0 || values[size - 1] != values[i]) {
+                values[size++] = values[i];
+            }
+        }
+        return size;
+    }
+}
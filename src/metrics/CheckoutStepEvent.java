@@ -0,0 +1,30 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR събитие за една стъпка от покупката.
+ */
+@Name("store.CheckoutStep")
+@Label("Стъпка от покупката")
+@Category({"Store", "Покупка"})
+@Description("cartBuild, receiptWrite, stockUpdate или payment")
+public class CheckoutStepEvent extends Event {
+
+    @Label("Стъпка")
+    public String step;
+
+    @Label("ID на магазин")
+    public int storeId;
+
+    @Label("ID на клиент")
+    public int clientId;
+
+    @Label("Брой продукти")
+    @Description("Брой редове в количката")
+    public int entityCount;
+}
@@ -0,0 +1,51 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Брояч, който може само да се увеличава. Подходящ за често обновяване от много нишки.
+ */
+public class Counter implements CounterMBean {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Конструктор за създаване на брояч.
+     *
+     * @param name Име на брояча.
+     */
+    public Counter(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Връща името на брояча.
+     *
+     * @return Име на брояча.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Увеличава брояча с 1.
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Увеличава брояча с дадена стойност.
+     *
+     * @param delta Стойност, с която се увеличава броячът.
+     */
+    public void add(long delta) {
+        count.add(delta);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+}
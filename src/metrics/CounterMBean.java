@@ -0,0 +1,14 @@
+package metrics;
+
+/**
+ * JMX интерфейс на {@link Counter}.
+ */
+public interface CounterMBean {
+
+    /**
+     * Връща текущата стойност на брояча.
+     *
+     * @return Стойност на брояча.
+     */
+    long getCount();
+}
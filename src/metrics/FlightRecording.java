@@ -0,0 +1,63 @@
+package metrics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * Стартиране на запис с Java Flight Recorder, който включва събитията на приложението
+ * ({@link StorageEvent}, {@link LookupEvent} и {@link CheckoutStepEvent}) без праг за продължителност.
+ * Записът се стартира, ако JVM е стартирана с {@code -Dstore.jfr.file=<файл>}, и се записва във файла при спиране на JVM.
+ */
+public final class FlightRecording {
+
+    private static Recording recording;
+
+    // Частен конструктор, за да предотвратим създаването на инстанции
+    private FlightRecording() {
+    }
+
+    /**
+     * Стартира запис, ако е зададено свойството {@code store.jfr.file}. Повторното извикване не прави нищо.
+     *
+     * @return true, ако записът е стартиран, false в противен случай.
+     */
+    public static synchronized boolean startIfConfigured() {
+        String file = System.getProperty("store.jfr.file");
+        if (file == null || file.isBlank() || recording != null) {
+            return false;
+        }
+        try {
+            recording = start(Path.of(file));
+            return true;
+        } catch (IOException | ParseException e) {
+            System.err.println("Грешка при стартиране на JFR запис: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Стартира запис с настройките {@code default} на JFR и събитията на приложението.
+     * Записът се записва в дадения файл при спирането му или при спиране на JVM.
+     *
+     * @param destination Файлът, в който се записва записът.
+     * @return Стартираният запис.
+     * @throws IOException    ако файлът не може да бъде създаден.
+     * @throws ParseException ако настройките на JFR не могат да бъдат прочетени.
+     */
+    public static Recording start(Path destination) throws IOException, ParseException {
+        Recording newRecording = new Recording(Configuration.getConfiguration("default"));
+        newRecording.setName("store");
+        newRecording.enable(StorageEvent.class).withoutThreshold();
+        newRecording.enable(LookupEvent.class).withoutThreshold();
+        newRecording.enable(CheckoutStepEvent.class).withoutThreshold();
+        newRecording.setToDisk(true);
+        newRecording.setDestination(destination);
+        newRecording.setDumpOnExit(true);
+        newRecording.start();
+        return newRecording;
+    }
+}
@@ -0,0 +1,37 @@
+package metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Показател, чиято стойност се изчислява при всяко прочитане, например размер на колекция.
+ */
+public class Gauge implements GaugeMBean {
+
+    private final String name;
+    private final LongSupplier supplier;
+
+    /**
+     * Конструктор за създаване на показател.
+     *
+     * @param name     Име на показателя.
+     * @param supplier Функция, която връща текущата стойност.
+     */
+    public Gauge(String name, LongSupplier supplier) {
+        this.name = name;
+        this.supplier = supplier;
+    }
+
+    /**
+     * Връща името на показателя.
+     *
+     * @return Име на показателя.
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getValue() {
+        return supplier.getAsLong();
+    }
+}
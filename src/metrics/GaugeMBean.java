@@ -0,0 +1,14 @@
+package metrics;
+
+/**
+ * JMX интерфейс на {@link Gauge}.
+ */
+public interface GaugeMBean {
+
+    /**
+     * Връща текущата стойност на показателя.
+     *
+     * @return Стойност на показателя.
+     */
+    long getValue();
+}
@@ -0,0 +1,153 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Хистограма на времена (в наносекунди) с логаритмично-линейни интервали, подобно на HdrHistogram.
+ * Всяка степен на двойката е разделена на {@value #SUB_BUCKETS} равни интервала, така че относителната
+ * грешка на персентилите е под 4% при постоянна памет. Записът не използва заключване.
+ */
+public class Histogram implements HistogramMBean {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Конструктор за създаване на празна хистограма.
+     *
+     * @param name Име на хистограмата.
+     */
+    public Histogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Връща името на хистограмата.
+     *
+     * @return Име на хистограмата.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Записва стойност. Отрицателните стойности се записват като 0.
+     *
+     * @param value Стойност в наносекунди.
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(bucketIndex(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * Връща броя на записаните стойности.
+     *
+     * @return Брой стойности.
+     */
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Връща средната стойност в милисекунди.
+     *
+     * @return Средна стойност или 0, ако няма записани стойности.
+     */
+    @Override
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : sum.sum() / NANOS_PER_MILLI / n;
+    }
+
+    /**
+     * Връща най-голямата записана стойност в милисекунди.
+     *
+     * @return Най-голямата стойност.
+     */
+    @Override
+    public double getMaxMillis() {
+        return max.get() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double get50thPercentileMillis() {
+        return getPercentile(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double get95thPercentileMillis() {
+        return getPercentile(95) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double get99thPercentileMillis() {
+        return getPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Връща персентил на записаните стойности. Резултатът е горната граница на интервала, в който попада
+     * персентилът, но не повече от най-голямата записана стойност.
+     *
+     * @param percentile Персентил между 0 и 100.
+     * @return Стойността на персентила в наносекунди или 0, ако няма записани стойности.
+     * @throws IllegalArgumentException ако персентилът е извън интервала от 0 до 100.
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Персентилът трябва да бъде между 0 и 100");
+        }
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        long lowerBound = (1L << exponent) + (subBucket << (exponent - SUB_BUCKET_BITS));
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
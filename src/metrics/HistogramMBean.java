@@ -0,0 +1,49 @@
+package metrics;
+
+/**
+ * JMX интерфейс на {@link Histogram}.
+ */
+public interface HistogramMBean {
+
+    /**
+     * Връща броя на записаните стойности.
+     *
+     * @return Брой стойности.
+     */
+    long getCount();
+
+    /**
+     * Връща средната стойност в милисекунди.
+     *
+     * @return Средна стойност.
+     */
+    double getMeanMillis();
+
+    /**
+     * Връща най-голямата стойност в милисекунди.
+     *
+     * @return Най-голямата стойност.
+     */
+    double getMaxMillis();
+
+    /**
+     * Връща 50-ия персентил (медианата) в милисекунди.
+     *
+     * @return 50-и персентил.
+     */
+    double get50thPercentileMillis();
+
+    /**
+     * Връща 95-ия персентил в милисекунди.
+     *
+     * @return 95-и персентил.
+     */
+    double get95thPercentileMillis();
+
+    /**
+     * Връща 99-ия персентил в милисекунди.
+     *
+     * @return 99-и персентил.
+     */
+    double get99thPercentileMillis();
+}
@@ -0,0 +1,33 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR събитие за търсене на обект по ID в хранилището.
+ */
+@Name("store.Lookup")
+@Label("Търсене по ID")
+@Category({"Store", "Хранилище"})
+@Description("Търсене на обект по ID в кешираната колекция на FileStorage")
+public class LookupEvent extends Event {
+
+    @Label("Тип")
+    public String entityType;
+
+    @Label("ID")
+    public String id;
+
+    @Label("Брой обекти")
+    @Description("Брой обекти в колекцията")
+    public long entityCount;
+
+    @Label("Прегледани обекти")
+    public long scanned;
+
+    @Label("Намерен")
+    public boolean found;
+}
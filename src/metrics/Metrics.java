@@ -0,0 +1,214 @@
+package metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Регистър на показателите за работата на приложението (броячи, показатели и хистограми на времена).
+ * Показателите се събират само ако JVM е стартирана с {@code -Dstore.metrics.enabled=true}.
+ * Тогава всеки показател се регистрира и като JMX MBean в домейна {@value #JMX_DOMAIN}
+ * и може да бъде разгледан с JConsole или VisualVM.
+ * Когато събирането е изключено, методите {@link #startTimer()}, {@link #stopTimer(Histogram, long)}
+ * и {@link #increment(Counter)} само проверяват една константа и не правят нищо друго.
+ */
+public final class Metrics {
+
+    /**
+     * JMX домейн, в който се регистрират показателите.
+     */
+    public static final String JMX_DOMAIN = "store.metrics";
+
+    private static final boolean ENABLED = Boolean.getBoolean("store.metrics.enabled");
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Gauge> GAUGES = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    private static ScheduledExecutorService dumpExecutor;
+
+    // Частен конструктор, за да предотвратим създаването на инстанции
+    private Metrics() {
+    }
+
+    /**
+     * Проверява дали събирането на показатели е включено.
+     *
+     * @return true, ако показателите се събират, false в противен случай.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Връща брояча с дадено име, като го създава, ако не съществува.
+     *
+     * @param name Име на брояча.
+     * @return Броячът.
+     */
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, key -> register("Counter", key, new Counter(key)));
+    }
+
+    /**
+     * Регистрира показател, чиято стойност се изчислява при всяко прочитане.
+     * Ако вече има показател със същото име, той се заменя.
+     *
+     * @param name     Име на показателя.
+     * @param supplier Функция, която връща текущата стойност.
+     * @return Показателят.
+     */
+    public static Gauge gauge(String name, LongSupplier supplier) {
+        Gauge gauge = new Gauge(name, supplier);
+        GAUGES.compute(name, (key, previous) -> {
+            if (previous != null) {
+                unregister("Gauge", key);
+            }
+            return register("Gauge", key, gauge);
+        });
+        return gauge;
+    }
+
+    /**
+     * Връща хистограмата с дадено име, като я създава, ако не съществува.
+     *
+     * @param name Име на хистограмата.
+     * @return Хистограмата.
+     */
+    public static Histogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, key -> register("Histogram", key, new Histogram(key)));
+    }
+
+    /**
+     * Връща началния момент за измерване на време.
+     *
+     * @return Текущото време в наносекунди или 0, ако събирането на показатели е изключено.
+     */
+    public static long startTimer() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Записва в хистограмата времето, изминало от даден начален момент.
+     *
+     * @param histogram Хистограмата.
+     * @param start     Началният момент, върнат от {@link #startTimer()}.
+     */
+    public static void stopTimer(Histogram histogram, long start) {
+        if (ENABLED) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Увеличава брояча с 1.
+     *
+     * @param counter Броячът.
+     */
+    public static void increment(Counter counter) {
+        if (ENABLED) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * Връща текстов отчет за всички показатели, подредени по име.
+     *
+     * @return Текстовият отчет.
+     */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder();
+        for (Counter counter : new TreeMap<>(COUNTERS).values()) {
+            sb.append(String.format(Locale.ROOT, "%-50s count=%d%n", counter.getName(), counter.getCount()));
+        }
+        for (Gauge gauge : new TreeMap<>(GAUGES).values()) {
+            sb.append(String.format(Locale.ROOT, "%-50s value=%d%n", gauge.getName(), gauge.getValue()));
+        }
+        for (Histogram histogram : new TreeMap<>(HISTOGRAMS).values()) {
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            sb.append(String.format(Locale.ROOT, "%-50s count=%d mean=%.3fms p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms%n",
+                    histogram.getName(), histogram.getCount(), histogram.getMeanMillis(),
+                    histogram.get50thPercentileMillis(), histogram.get95thPercentileMillis(),
+                    histogram.get99thPercentileMillis(), histogram.getMaxMillis()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Започва периодично добавяне на текстовия отчет към файл, ако събирането на показатели е включено.
+     * Интервалът се задава с {@code -Dstore.metrics.dumpIntervalSeconds} (по подразбиране 60, 0 изключва отчета),
+     * а файлът с {@code -Dstore.metrics.dumpFile} (по подразбиране metrics.txt).
+     * Повторното извикване не прави нищо.
+     */
+    public static synchronized void startPeriodicDump() {
+        long interval = Long.getLong("store.metrics.dumpIntervalSeconds", 60);
+        if (!ENABLED || interval <= 0 || dumpExecutor != null) {
+            return;
+        }
+        String file = System.getProperty("store.metrics.dumpFile", "metrics.txt");
+
+        dumpExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumpExecutor.scheduleAtFixedRate(() -> appendDump(file), interval, interval, TimeUnit.SECONDS);
+    }
+
+    private static void appendDump(String file) {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file, true))) {
+            writer.println("=== " + LocalDateTime.now() + " ===");
+            writer.print(dump());
+        } catch (IOException e) {
+            System.err.println("Грешка при записване на показателите: " + e.getMessage());
+        }
+    }
+
+    private static <T> T register(String type, String name, T metric) {
+        if (ENABLED) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName objectName = objectName(type, name);
+                if (!server.isRegistered(objectName)) {
+                    server.registerMBean(metric, objectName);
+                }
+            } catch (JMException e) {
+                System.err.println("Грешка при регистриране на показател " + name + " в JMX: " + e.getMessage());
+            }
+        }
+        return metric;
+    }
+
+    private static void unregister(String type, String name) {
+        if (ENABLED) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName objectName = objectName(type, name);
+                if (server.isRegistered(objectName)) {
+                    server.unregisterMBean(objectName);
+                }
+            } catch (JMException e) {
+                System.err.println("Грешка при премахване на показател " + name + " от JMX: " + e.getMessage());
+            }
+        }
+    }
+
+    private static ObjectName objectName(String type, String name) throws JMException {
+        return new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+    }
+}
@@ -0,0 +1,32 @@
+package metrics;
+
+/**
+ * Хистограми на времената за изпълнение на методите на една услуга, която имплементира {@code DataService}.
+ * Имената им са във вида {@code service.<услуга>.<метод>}.
+ */
+public class ServiceMetrics {
+
+    public final Histogram createEntity;
+    public final Histogram updateEntity;
+    public final Histogram findEntityById;
+    public final Histogram getAllEntities;
+    public final Histogram findEntityByFilter;
+    public final Histogram findEntitiesByFilter;
+    public final Histogram validateEntity;
+
+    /**
+     * Конструктор, който създава или намира хистограмите за дадена услуга.
+     *
+     * @param serviceName Име на услугата.
+     */
+    public ServiceMetrics(String serviceName) {
+        String prefix = "service." + serviceName + ".";
+        createEntity = Metrics.histogram(prefix + "createEntity");
+        updateEntity = Metrics.histogram(prefix + "updateEntity");
+        findEntityById = Metrics.histogram(prefix + "findEntityById");
+        getAllEntities = Metrics.histogram(prefix + "getAllEntities");
+        findEntityByFilter = Metrics.histogram(prefix + "findEntityByFilter");
+        findEntitiesByFilter = Metrics.histogram(prefix + "findEntitiesByFilter");
+        validateEntity = Metrics.histogram(prefix + "validateEntity");
+    }
+}
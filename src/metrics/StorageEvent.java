@@ -0,0 +1,33 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR събитие за четене или запис на колекция или на отделен файл от хранилището.
+ * Продължителността на събитието е времето за сериализация и за работа с диска.
+ */
+@Name("store.Storage")
+@Label("Операция с хранилището")
+@Category({"Store", "Хранилище"})
+@Description("Зареждане или записване на колекция или на отделен файл от FileStorage")
+public class StorageEvent extends Event {
+
+    @Label("Операция")
+    @Description("load, save или saveFile")
+    public String operation;
+
+    @Label("Тип")
+    public String entityType;
+
+    @Label("Брой обекти")
+    public long entityCount;
+
+    @Label("Байтове")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,109 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Представлява количка за пазаруване - магазин, клиент, каса и избрани продукти с количества.
+ */
+public class Cart {
+
+    private final int storeId;
+    private final int clientId;
+    private final int cashDeskId;
+    private final Map<Integer, Integer> lines = new LinkedHashMap<>();
+    private LocalDateTime dateTime;
+
+    /**
+     * Конструктор за създаване на празна количка.
+     *
+     * @param storeId    ID на магазина.
+     * @param clientId   ID на клиента.
+     * @param cashDeskId ID на касата, на която ще се плати.
+     */
+    public Cart(int storeId, int clientId, int cashDeskId) {
+        this.storeId = storeId;
+        this.clientId = clientId;
+        this.cashDeskId = cashDeskId;
+    }
+
+    /**
+     * Връща ID на магазина.
+     *
+     * @return ID на магазина.
+     */
+    public int getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * Връща ID на клиента.
+     *
+     * @return ID на клиента.
+     */
+    public int getClientId() {
+        return clientId;
+    }
+
+    /**
+     * Връща ID на касата.
+     *
+     * @return ID на касата.
+     */
+    public int getCashDeskId() {
+        return cashDeskId;
+    }
+
+    /**
+     * Връща момента на покупката, ако е зададен.
+     *
+     * @return Момент на покупката или null, ако покупката е в момента на плащане.
+     */
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    /**
+     * Задава момента на покупката, например при въвеждане на покупки, извършени без връзка със системата.
+     * Ако не е зададен, касовата бележка получава момента на плащане.
+     *
+     * @param dateTime Момент на покупката или null.
+     */
+    public void setDateTime(LocalDateTime dateTime) {
+        this.dateTime = dateTime;
+    }
+
+    /**
+     * Добавя продукт в количката. Ако продуктът вече е в количката, количествата се събират.
+     *
+     * @param productId ID на продукта.
+     * @param quantity  Количество.
+     * @throws IllegalArgumentException ако количеството не е положително.
+     */
+    public void addLine(int productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Количеството на продукт с ID " + productId + " трябва да бъде положително");
+        }
+        lines.merge(productId, quantity, Integer::sum);
+    }
+
+    /**
+     * Връща избраните продукти (ID на продукт -> количество) в реда на добавяне.
+     *
+     * @return Речник с избраните продукти, който не може да бъде променян.
+     */
+    public Map<Integer, Integer> getLines() {
+        return Collections.unmodifiableMap(lines);
+    }
+
+    /**
+     * Проверява дали количката е празна.
+     *
+     * @return true, ако няма избрани продукти, false в противен случай.
+     */
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+}
@@ -1,5 +1,7 @@
 package model;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.io.Serial;
 import java.io.Serializable;
 
@@ -12,7 +14,8 @@ public class Cashier implements Serializable {
 
     private int id;
     private String name;
-    private double salary;
+    @JsonAdapter(Money.JsonAdapter.class)
+    private long salary;
 
     /**
      * Конструктор за създаване на касиер с име и заплата. ID-то се генерира автоматично.
@@ -22,7 +25,7 @@ public class Cashier implements Serializable {
      */
     public Cashier(String name, double salary) {
         this.name = name;
-        this.salary = salary;
+        this.salary = Money.fromDouble(salary);
     }
 
     /**
@@ -67,7 +70,7 @@ public class Cashier implements Serializable {
      * @return Заплата на касиера.
      */
     public double getSalary() {
-        return salary;
+        return Money.toDouble(salary);
     }
 
     /**
@@ -76,6 +79,24 @@ public class Cashier implements Serializable {
      * @param salary Нова заплата на касиера.
      */
     public void setSalary(double salary) {
-        this.salary = salary;
+        this.salary = Money.fromDouble(salary);
+    }
+
+    /**
+     * Връща заплатата на касиера в стотинки.
+     *
+     * @return Заплата на касиера в стотинки.
+     */
+    public long getSalaryCents() {
+        return salary;
+    }
+
+    /**
+     * Задава заплатата на касиера в стотинки.
+     *
+     * @param salaryCents Нова заплата на касиера в стотинки.
+     */
+    public void setSalaryCents(long salaryCents) {
+        this.salary = salaryCents;
     }
 }
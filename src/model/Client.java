@@ -1,5 +1,7 @@
 package model;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.io.Serial;
 import java.io.Serializable;
 
@@ -12,7 +14,8 @@ public class Client implements Serializable {
 
     private int id;
     private String name;
-    private double balance;
+    @JsonAdapter(Money.JsonAdapter.class)
+    private long balance;
 
     /**
      * Конструктор за създаване на клиент с име и баланс. ID-то се генерира автоматично.
@@ -22,7 +25,7 @@ public class Client implements Serializable {
      */
     public Client(String name, double balance) {
         this.name = name;
-        this.balance = balance;
+        this.balance = Money.fromDouble(balance);
     }
 
     /**
@@ -67,7 +70,7 @@ public class Client implements Serializable {
      * @return Баланс на клиента.
      */
     public double getBalance() {
-        return balance;
+        return Money.toDouble(balance);
     }
 
     /**
@@ -76,7 +79,25 @@ public class Client implements Serializable {
      * @param balance Нов баланс на клиента.
      */
     public void setBalance(double balance) {
-        this.balance = balance;
+        this.balance = Money.fromDouble(balance);
+    }
+
+    /**
+     * Връща баланса на клиента в стотинки.
+     *
+     * @return Баланс на клиента в стотинки.
+     */
+    public long getBalanceCents() {
+        return balance;
+    }
+
+    /**
+     * Задава баланса на клиента в стотинки.
+     *
+     * @param balanceCents Нов баланс на клиента в стотинки.
+     */
+    public void setBalanceCents(long balanceCents) {
+        this.balance = balanceCents;
     }
 
 }
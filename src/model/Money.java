@@ -0,0 +1,113 @@
+package model;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Помощен клас за работа с парични суми, представени като цял брой стотинки в {@code long}.
+ * Всички операции са върху примитивни стойности и не създават обекти, така че сумирането
+ * на голям брой суми е точно и не натрупва грешки от закръгляване, както при {@code double}.
+ */
+public final class Money {
+
+    /**
+     * Брой знаци след десетичната запетая.
+     */
+    public static final int FRACTION_DIGITS = 2;
+
+    /**
+     * Брой най-малки единици (стотинки) в една парична единица.
+     */
+    public static final long UNIT = 100;
+
+    // Частен конструктор, за да предотвратим създаването на инстанции
+    private Money() {
+    }
+
+    /**
+     * Преобразува сума в парични единици към брой стотинки, като закръглява до най-близката стотинка.
+     *
+     * @param amount Сумата в парични единици (например 1.25).
+     * @return Сумата в стотинки (например 125).
+     */
+    public static long fromDouble(double amount) {
+        return Math.round(amount * UNIT);
+    }
+
+    /**
+     * Преобразува сума в стотинки към парични единици.
+     *
+     * @param cents Сумата в стотинки.
+     * @return Сумата в парични единици.
+     */
+    public static double toDouble(long cents) {
+        return (double) cents / UNIT;
+    }
+
+    /**
+     * Умножава единична цена по количество.
+     *
+     * @param cents    Единичната цена в стотинки.
+     * @param quantity Количеството.
+     * @return Общата сума в стотинки.
+     * @throws ArithmeticException при препълване.
+     */
+    public static long multiply(long cents, long quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    /**
+     * Изчислява процент от сума, закръглен до най-близката стотинка.
+     *
+     * @param cents   Сумата в стотинки.
+     * @param percent Процентът.
+     * @return Процентът от сумата в стотинки.
+     */
+    public static long percentOf(long cents, double percent) {
+        return Math.round(cents * percent / 100);
+    }
+
+    /**
+     * Форматира сума в стотинки като десетично число с два знака след запетаята (например "12.05").
+     *
+     * @param cents Сумата в стотинки.
+     * @return Форматираната сума.
+     */
+    public static String format(long cents) {
+        return BigDecimal.valueOf(cents, FRACTION_DIGITS).toPlainString();
+    }
+
+    /**
+     * Адаптер за Gson, който записва сумите в стотинки като десетични числа в парични единици.
+     * Така форматът на файловете остава същият като при старите полета от тип {@code double},
+     * а при четене старите стойности се закръглят до най-близката стотинка.
+     */
+    public static class JsonAdapter extends TypeAdapter<Long> {
+        @Override
+        public void write(JsonWriter out, Long cents) throws IOException {
+            if (cents == null) {
+                out.nullValue();
+                return;
+            }
+            out.value(BigDecimal.valueOf(cents, FRACTION_DIGITS));
+        }
+
+        @Override
+        public Long read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return 0L;
+            }
+            return new BigDecimal(in.nextString())
+                    .movePointRight(FRACTION_DIGITS)
+                    .setScale(0, RoundingMode.HALF_UP)
+                    .longValueExact();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package model;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.io.Serial;
 import java.io.Serializable;
 import java.time.LocalDate;
@@ -13,8 +15,10 @@ public class Product implements Serializable {
 
     private int id;
     private String name;
-    private double unitPurchasePrice;
-    private double unitSalePrice;
+    @JsonAdapter(Money.JsonAdapter.class)
+    private long unitPurchasePrice;
+    @JsonAdapter(Money.JsonAdapter.class)
+    private long unitSalePrice;
     private ProductCategory category;
     private LocalDate expirationDate;
 
@@ -29,7 +33,7 @@ public class Product implements Serializable {
      */
     public Product(String name, double unitPurchasePrice, ProductCategory category, LocalDate expirationDate) {
         this.name = name;
-        this.unitPurchasePrice = unitPurchasePrice;
+        this.unitPurchasePrice = Money.fromDouble(unitPurchasePrice);
         this.category = category;
         this.expirationDate = expirationDate;
     }
@@ -76,7 +80,7 @@ public class Product implements Serializable {
      * @return Покупна цена на продукта.
      */
     public double getUnitPurchasePrice() {
-        return unitPurchasePrice;
+        return Money.toDouble(unitPurchasePrice);
     }
 
     /**
@@ -85,7 +89,25 @@ public class Product implements Serializable {
      * @param unitPurchasePrice Нова покупна цена на продукта.
      */
     public void setUnitPurchasePrice(double unitPurchasePrice) {
-        this.unitPurchasePrice = unitPurchasePrice;
+        this.unitPurchasePrice = Money.fromDouble(unitPurchasePrice);
+    }
+
+    /**
+     * Връща покупната цена на продукта в стотинки.
+     *
+     * @return Покупна цена на продукта в стотинки.
+     */
+    public long getUnitPurchasePriceCents() {
+        return unitPurchasePrice;
+    }
+
+    /**
+     * Задава покупната цена на продукта в стотинки.
+     *
+     * @param unitPurchasePriceCents Нова покупна цена на продукта в стотинки.
+     */
+    public void setUnitPurchasePriceCents(long unitPurchasePriceCents) {
+        this.unitPurchasePrice = unitPurchasePriceCents;
     }
 
     /**
@@ -140,7 +162,7 @@ public class Product implements Serializable {
      * @return Продажна цена на продукта.
      */
     public double getUnitSalePrice() {
-        return unitSalePrice;
+        return Money.toDouble(unitSalePrice);
     }
 
     /**
@@ -149,7 +171,25 @@ public class Product implements Serializable {
      * @param unitSalePrice Нова продажна цена на продукта.
      */
     public void setUnitSalePrice(double unitSalePrice) {
-        this.unitSalePrice = unitSalePrice;
+        this.unitSalePrice = Money.fromDouble(unitSalePrice);
+    }
+
+    /**
+     * Връща продажната цена на продукта в стотинки.
+     *
+     * @return Продажна цена на продукта в стотинки.
+     */
+    public long getUnitSalePriceCents() {
+        return unitSalePrice;
+    }
+
+    /**
+     * Задава продажната цена на продукта в стотинки.
+     *
+     * @param unitSalePriceCents Нова продажна цена на продукта в стотинки.
+     */
+    public void setUnitSalePriceCents(long unitSalePriceCents) {
+        this.unitSalePrice = unitSalePriceCents;
     }
 
     /**
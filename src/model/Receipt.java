@@ -1,8 +1,11 @@
 package model;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.io.Serial;
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -15,9 +18,12 @@ public class Receipt implements Serializable {
     private int id;
     private int clientId;
     private int cashierId;
+    private int storeId;
     private LocalDateTime dateTime;
-    private double totalPrice;
+    @JsonAdapter(Money.JsonAdapter.class)
+    private long totalPrice;
     private Map<Product, Integer> purchasedProducts;
+    private Map<Integer, Long> unitPrices;
 
     /**
      * Конструктор за създаване на касова бележка.
@@ -35,6 +41,29 @@ public class Receipt implements Serializable {
         calculateTotalPrice();
     }
 
+    /**
+     * Конструктор за създаване на касова бележка, издадена в конкретен магазин, с единичните цени на продуктите,
+     * по които са продадени (ID на продукт -> единична цена в стотинки). Общата сума се изчислява по тези цени,
+     * а не по продажната цена, записана в самите продукти.
+     *
+     * @param clientId          ID на клиента.
+     * @param cashierId         ID на касиера.
+     * @param storeId           ID на магазина.
+     * @param dateTime          Дата и час на издаване.
+     * @param purchasedProducts Речник с хеш-таблица със закупените продукти и техните количества.
+     * @param unitPrices        Речник с хеш-таблица с единичните цени на закупените продукти в стотинки.
+     */
+    public Receipt(int clientId, int cashierId, int storeId, LocalDateTime dateTime,
+                   Map<Product, Integer> purchasedProducts, Map<Integer, Long> unitPrices) {
+        this.clientId = clientId;
+        this.cashierId = cashierId;
+        this.storeId = storeId;
+        this.dateTime = dateTime;
+        this.purchasedProducts = purchasedProducts;
+        this.unitPrices = new HashMap<>(unitPrices);
+        calculateTotalPrice();
+    }
+
     /**
      * Връща ID на касовата бележка.
      *
@@ -89,6 +118,24 @@ public class Receipt implements Serializable {
         this.cashierId = cashierId;
     }
 
+    /**
+     * Връща ID на магазина, в който е издадена касовата бележка.
+     *
+     * @return ID на магазина или 0, ако не е известен.
+     */
+    public int getStore() {
+        return storeId;
+    }
+
+    /**
+     * Задава ID на магазина, в който е издадена касовата бележка.
+     *
+     * @param storeId Ново ID на магазина.
+     */
+    public void setStore(int storeId) {
+        this.storeId = storeId;
+    }
+
     /**
      * Връща датата и часа на издаване на касовата бележка.
      *
@@ -113,6 +160,15 @@ public class Receipt implements Serializable {
      * @return Обща сума.
      */
     public double getTotalPrice() {
+        return Money.toDouble(totalPrice);
+    }
+
+    /**
+     * Връща общата сума на касовата бележка в стотинки.
+     *
+     * @return Обща сума в стотинки.
+     */
+    public long getTotalPriceCents() {
         return totalPrice;
     }
 
@@ -120,12 +176,41 @@ public class Receipt implements Serializable {
      * Изчислява общата сума на касовата бележка на базата на закупените продукти.
      */
     public void calculateTotalPrice() {
-        totalPrice = 0.0; // Reset total price
+        long total = 0;
         for (Map.Entry<Product, Integer> entry : purchasedProducts.entrySet()) {
             Product product = entry.getKey();
             int quantity = entry.getValue();
-            totalPrice += product.getUnitSalePrice() * quantity; // Assuming unitSalePrice is the price at which the product is sold
+            total += Money.multiply(getUnitPriceCents(product), quantity);
+        }
+        totalPrice = total;
+    }
+
+    /**
+     * Връща единичната цена, по която е продаден даден продукт.
+     * За касови бележки без записани единични цени се използва продажната цена на продукта.
+     *
+     * @param product Продуктът.
+     * @return Единичната цена на продукта в касовата бележка.
+     */
+    public double getUnitPrice(Product product) {
+        return Money.toDouble(getUnitPriceCents(product));
+    }
+
+    /**
+     * Връща единичната цена в стотинки, по която е продаден даден продукт.
+     * За касови бележки без записани единични цени се използва продажната цена на продукта.
+     *
+     * @param product Продуктът.
+     * @return Единичната цена на продукта в касовата бележка в стотинки.
+     */
+    public long getUnitPriceCents(Product product) {
+        if (unitPrices != null) {
+            Long unitPrice = unitPrices.get(product.getId());
+            if (unitPrice != null) {
+                return unitPrice;
+            }
         }
+        return product.getUnitSalePriceCents();
     }
 
     /**
@@ -1,5 +1,6 @@
 package model;
 
+import dao.StoreReceiptIndex;
 import service.*;
 
 import java.io.Serial;
@@ -15,11 +16,11 @@ import java.util.function.Predicate;
 public class Store implements Serializable {
     @Serial
     private static final long serialVersionUID = 1L;
+    private static final int MAX_PENDING_EVENTS = 10_000;
 
     private int id;
     private String name;
     private Set<Integer> cashiersIds = new HashSet<>();
-    private Set<Integer> receiptsIds = new HashSet<>();
     private Map<Integer, Integer> productsInStock = new HashMap<>();
     private Map<Integer, Integer> productsSold = new HashMap<>();
 
@@ -28,6 +29,18 @@ public class Store implements Serializable {
     private int daysBeforeExpirationThreshold;
     private double discountPercentNearExpiration;
 
+    // Пореден номер на последното приложено събитие - записва се заедно с магазина
+    private long eventSequence;
+    // Събития, които още не са записани в дневника на магазина
+    private transient List<StoreEvent> pendingEvents;
+    private transient boolean snapshotRequired;
+    // Касовите бележки се пазят в отделен индекс, а не в записа на магазина
+    private transient volatile StoreReceiptIndex receiptIndex;
+    // ID-тата на касовите бележки от записи на магазина от по-стара версия. Използват се само за създаване
+    // на индекса и след това се премахват, така че не се записват отново (null полетата не се записват)
+    private Set<Integer> receiptsIds;
+    private transient BitSet inStockProducts;
+
     /**
      * Конструктор за създаване на магазин.
      *
@@ -61,6 +74,17 @@ public class Store implements Serializable {
         }
     }
 
+    /**
+     * Изчислява крайната цена на продукт в стотинки, закръглена до най-близката стотинка.
+     *
+     * @param product Продуктът, за който се изчислява цената.
+     * @return Крайната цена на продукта в стотинки.
+     * @see #getProductFinalPrice(Product)
+     */
+    public long getProductFinalPriceCents(Product product) {
+        return Money.fromDouble(getProductFinalPrice(product));
+    }
+
     /**
      * Проверява дали продуктът подлежи на отстъпка поради наближаващ срок на годност.
      *
@@ -106,6 +130,7 @@ public class Store implements Serializable {
      */
     public void setName(String name) {
         this.name = name;
+        snapshotRequired = true;
     }
 
     /**
@@ -124,6 +149,7 @@ public class Store implements Serializable {
      */
     public void setCashiersIds(Set<Integer> cashiersIds) {
         this.cashiersIds = cashiersIds;
+        snapshotRequired = true;
     }
 
     /**
@@ -132,7 +158,7 @@ public class Store implements Serializable {
      * @param cashierId ID на касиера за добавяне.
      */
     public void addCashier(int cashierId) {
-        cashiersIds.add(cashierId);
+        record(StoreEvent.Type.CASHIER_ASSIGNED, cashierId, 0);
     }
 
     /**
@@ -141,25 +167,66 @@ public class Store implements Serializable {
      * @param cashierId ID на касиера за премахване.
      */
     public void removeCashier(int cashierId) {
-        cashiersIds.remove(cashierId);
+        record(StoreEvent.Type.CASHIER_REMOVED, cashierId, 0);
+    }
+
+    /**
+     * Връща индекса с касовите бележки, издадени в магазина. Индексът се зарежда при първото използване,
+     * а за магазин, който още не е записан (с ID 0), започва празен. Ако индексът още не е записан, а магазинът
+     * е прочетен от запис от по-стара версия, индексът се създава от ID-тата на касовите бележки в записа.
+     *
+     * @return Индексът с касовите бележки на магазина.
+     */
+    public StoreReceiptIndex getReceiptIndex() {
+        StoreReceiptIndex index = receiptIndex;
+        if (index != null) {
+            return index;
+        }
+        // Индексът се зарежда извън монитора на магазина, тъй като зареждането взима заключването на FileStorage.
+        // Ако две нишки го заредят едновременно, се използва зареденият първи
+        StoreReceiptIndex loaded = id == 0 ? new StoreReceiptIndex()
+                : StoreReceiptIndex.load(id, receiptsIds, () -> ServiceFactory.getReceiptService().getAllEntities());
+        synchronized (this) {
+            if (receiptIndex == null) {
+                receiptIndex = loaded;
+                receiptsIds = null;
+            }
+            return receiptIndex;
+        }
     }
 
     /**
      * Връща множество от ID-та на касовите бележки, издадени в магазина.
      *
-     * @return Множество от ID-та на касови бележки.
+     * @return Ново множество от ID-та на касови бележки - промените в него не се отразяват на магазина.
+     * @see #getReceiptIndex()
      */
     public Set<Integer> getReceiptsIds() {
+        Set<Integer> receiptsIds = new HashSet<>();
+        for (int receiptId : getReceiptIndex().toArray()) {
+            receiptsIds.add(receiptId);
+        }
         return receiptsIds;
     }
 
     /**
      * Задава множество от ID-та на касовите бележки, издадени в магазина.
+     * Индексът с касовите бележки се записва изцяло при следващото записване на магазина.
      *
      * @param receiptsIds Ново множество от ID-та на касови бележки.
      */
-    public void setReceiptsIds(Set<Integer> receiptsIds) {
-        this.receiptsIds = receiptsIds;
+    public synchronized void setReceiptsIds(Set<Integer> receiptsIds) {
+        this.receiptIndex = StoreReceiptIndex.of(receiptsIds);
+        this.receiptsIds = null;
+    }
+
+    /**
+     * Връща броя на касовите бележки, издадени в магазина.
+     *
+     * @return Брой касови бележки.
+     */
+    public int getReceiptCount() {
+        return getReceiptIndex().size();
     }
 
     /**
@@ -168,7 +235,7 @@ public class Store implements Serializable {
      * @param receiptId ID на касовата бележка за добавяне.
      */
     public void addReceipt(int receiptId) {
-        receiptsIds.add(receiptId);
+        getReceiptIndex().add(receiptId);
     }
 
     /**
@@ -177,7 +244,16 @@ public class Store implements Serializable {
      * @param receiptId ID на касовата бележка за премахване.
      */
     public void removeReceipt(int receiptId) {
-        receiptsIds.remove(receiptId);
+        getReceiptIndex().remove(receiptId);
+    }
+
+    /**
+     * Записва промените в индекса с касовите бележки на магазина, ако индексът е зареден.
+     */
+    public void flushReceiptIndex() {
+        if (receiptIndex != null) {
+            receiptIndex.flush(id);
+        }
     }
 
     /**
@@ -191,8 +267,7 @@ public class Store implements Serializable {
         if (quantity < 0) {
             throw new IllegalArgumentException("Количеството на продукт с ID " + product.getId() + " не може да бъде отрицателно");
         }
-        int currentStock = productsInStock.getOrDefault(product.getId(), 0);
-        productsInStock.put(product.getId(), currentStock + quantity);
+        record(StoreEvent.Type.STOCK_ADDED, product.getId(), quantity);
     }
 
     /**
@@ -213,7 +288,7 @@ public class Store implements Serializable {
             return false;
         }
 
-        productsInStock.put(product.getId(), currentStock - quantity);
+        record(StoreEvent.Type.STOCK_REMOVED, product.getId(), quantity);
         return true;
     }
 
@@ -228,8 +303,7 @@ public class Store implements Serializable {
         if (quantity < 0) {
             throw new IllegalArgumentException("Количеството на продукт с ID " + product.getId() + " не може да бъде отрицателно");
         }
-        int currentSold = productsSold.getOrDefault(product.getId(), 0);
-        productsSold.put(product.getId(), currentSold + quantity);
+        record(StoreEvent.Type.SOLD, product.getId(), quantity);
     }
 
     /**
@@ -250,7 +324,7 @@ public class Store implements Serializable {
             return false; // Not enough sold
         }
 
-        productsSold.put(product.getId(), currentSold - quantity);
+        record(StoreEvent.Type.SOLD_REVERSED, product.getId(), quantity);
         return true;
     }
 
@@ -280,6 +354,28 @@ public class Store implements Serializable {
      */
     public void setProductsInStock(Map<Integer, Integer> productsInStock) {
         this.productsInStock = productsInStock;
+        inStockProducts = null;
+        snapshotRequired = true;
+    }
+
+    /**
+     * Връща множеството от ID-та на продуктите с положителна наличност в магазина.
+     * Множеството се създава при първото извикване и се поддържа актуално при всяка промяна на наличностите,
+     * така че проверката дали продукт е наличен не изисква търсене в речника с наличностите.
+     *
+     * @return Множеството от ID-та на наличните продукти - не трябва да бъде променяно.
+     */
+    public BitSet getInStockProducts() {
+        if (inStockProducts == null) {
+            BitSet inStock = new BitSet();
+            for (Map.Entry<Integer, Integer> entry : productsInStock.entrySet()) {
+                if (entry.getValue() > 0) {
+                    inStock.set(entry.getKey());
+                }
+            }
+            inStockProducts = inStock;
+        }
+        return inStockProducts;
     }
 
     /**
@@ -298,6 +394,7 @@ public class Store implements Serializable {
      */
     public void setProductsSold(Map<Integer, Integer> productsSold) {
         this.productsSold = productsSold;
+        snapshotRequired = true;
     }
 
     /**
@@ -316,6 +413,7 @@ public class Store implements Serializable {
      */
     public void setMarkupPercentages(Map<ProductCategory, Double> markupPercentages) {
         this.markupPercentages = markupPercentages;
+        snapshotRequired = true;
     }
 
     /**
@@ -334,6 +432,7 @@ public class Store implements Serializable {
      */
     public void setDaysBeforeExpirationThreshold(int daysBeforeExpirationThreshold) {
         this.daysBeforeExpirationThreshold = daysBeforeExpirationThreshold;
+        snapshotRequired = true;
     }
 
     /**
@@ -352,6 +451,7 @@ public class Store implements Serializable {
      */
     public void setDiscountPercentNearExpiration(double discountPercentNearExpiration) {
         this.discountPercentNearExpiration = discountPercentNearExpiration;
+        snapshotRequired = true;
     }
 
     /**
@@ -360,12 +460,21 @@ public class Store implements Serializable {
      * @throws IllegalArgumentException ако касиер с дадено ID не е намерен при изчисляване на заплати.
      */
     public double calculateTotalSalariesExpense() {
+        return Money.toDouble(calculateTotalSalariesExpenseCents());
+    }
+
+    /**
+     * Изчислява общите разходи за заплати на касиерите в магазина в стотинки.
+     * @return Общата сума на заплатите в стотинки.
+     * @throws IllegalArgumentException ако касиер с дадено ID не е намерен при изчисляване на заплати.
+     */
+    public long calculateTotalSalariesExpenseCents() {
         CashierService cashierService = ServiceFactory.getCashierService();
-        double totalSalaries = 0;
+        long totalSalaries = 0;
         for (Integer cashierId : cashiersIds) {
             Optional<Cashier> cashierOpt = cashierService.findEntityById(cashierId);
             if (cashierOpt.isPresent()) {
-                totalSalaries += cashierOpt.get().getSalary();
+                totalSalaries += cashierOpt.get().getSalaryCents();
             } else {
                 throw new IllegalArgumentException("Касиер с ID " + cashierId + " не е намерен при изчисляване на заплати.");
             }
@@ -379,8 +488,17 @@ public class Store implements Serializable {
      * @throws IllegalArgumentException ако продукт с дадено ID не е намерен при изчисляване на разходи за стоки.
      */
     public double calculateDeliveredGoodsExpense() {
+        return Money.toDouble(calculateDeliveredGoodsExpenseCents());
+    }
+
+    /**
+     * Изчислява общите разходи за доставени стоки (продадени + налични) в стотинки.
+     * @return Общата сума на покупните цени на доставените стоки в стотинки.
+     * @throws IllegalArgumentException ако продукт с дадено ID не е намерен при изчисляване на разходи за стоки.
+     */
+    public long calculateDeliveredGoodsExpenseCents() {
         ProductService productService = ServiceFactory.getProductService();
-        double totalCost = 0;
+        long totalCost = 0;
 
         // Разходи за стоки в наличност
         for (Map.Entry<Integer, Integer> entry : productsInStock.entrySet()) {
@@ -388,7 +506,7 @@ public class Store implements Serializable {
             Integer quantity = entry.getValue();
             Optional<Product> productOpt = productService.findEntityById(productId);
             if (productOpt.isPresent()) {
-                totalCost += productOpt.get().getUnitPurchasePrice() * quantity;
+                totalCost += Money.multiply(productOpt.get().getUnitPurchasePriceCents(), quantity);
             } else {
                 throw new IllegalArgumentException("Продукт с ID " + productId + " не е намерен при изчисляване на разходи за налични стоки.");
             }
@@ -400,7 +518,7 @@ public class Store implements Serializable {
             Integer quantity = entry.getValue();
             Optional<Product> productOpt = productService.findEntityById(productId);
             if (productOpt.isPresent()) {
-                totalCost += productOpt.get().getUnitPurchasePrice() * quantity;
+                totalCost += Money.multiply(productOpt.get().getUnitPurchasePriceCents(), quantity);
             } else {
                 throw new IllegalArgumentException("Продукт с ID " + productId + " не е намерен при изчисляване на разходи за продадени стоки.");
             }
@@ -414,12 +532,20 @@ public class Store implements Serializable {
      * @throws IllegalStateException ако ReceiptService не е наличен.
      */
     public double calculateTotalIncome() {
+        return Money.toDouble(calculateTotalIncomeCents());
+    }
+
+    /**
+     * Изчислява общите приходи от продадени стоки на база издадените касови бележки в стотинки.
+     * @return Общата сума на приходите в стотинки.
+     */
+    public long calculateTotalIncomeCents() {
         ReceiptService receiptService = ServiceFactory.getReceiptService();
-        double totalIncome = 0;
-        for (Integer receiptId : receiptsIds) {
+        long totalIncome = 0;
+        for (int receiptId : getReceiptIndex().toArray()) {
             Optional<Receipt> receiptOpt = receiptService.findEntityById(receiptId);
             if (receiptOpt.isPresent()) {
-                totalIncome += receiptOpt.get().getTotalPrice();
+                totalIncome += receiptOpt.get().getTotalPriceCents();
             } else {
                 System.err.println("Касова бележка с ID " + receiptId + " не е намерена при изчисляване на приходи.");
             }
@@ -433,9 +559,17 @@ public class Store implements Serializable {
      * @return Печалбата на магазина.
      */
     public double calculateProfit() {
-        double totalIncome = calculateTotalIncome();
-        double totalSalariesExpense = calculateTotalSalariesExpense();
-        double totalGoodsExpense = calculateDeliveredGoodsExpense();
+        return Money.toDouble(calculateProfitCents());
+    }
+
+    /**
+     * Изчислява печалбата на магазина в стотинки.
+     * @return Печалбата на магазина в стотинки.
+     */
+    public long calculateProfitCents() {
+        long totalIncome = calculateTotalIncomeCents();
+        long totalSalariesExpense = calculateTotalSalariesExpenseCents();
+        long totalGoodsExpense = calculateDeliveredGoodsExpenseCents();
         return totalIncome - (totalSalariesExpense + totalGoodsExpense);
     }
 
@@ -506,6 +640,87 @@ public class Store implements Serializable {
         if (i < 0) {
             throw new IllegalArgumentException("Количеството на продукт с ID " + id + " не може да бъде отрицателно");
         }
-        productsInStock.put(id, i);
+        record(StoreEvent.Type.STOCK_SET, id, i);
+    }
+
+    /**
+     * Връща поредния номер на последното приложено към магазина събитие.
+     *
+     * @return Пореден номер на събитие или 0, ако магазинът няма събития.
+     */
+    public long getEventSequence() {
+        return eventSequence;
+    }
+
+    /**
+     * Прилага събитие към състоянието на магазина, без да го добавя към незаписаните събития.
+     * Използва се при възстановяване на магазина от последното записано състояние и дневника със събития.
+     *
+     * @param event Събитието за прилагане.
+     */
+    public void apply(StoreEvent event) {
+        int targetId = event.getTargetId();
+        int quantity = event.getQuantity();
+        switch (event.getType()) {
+            case STOCK_ADDED -> productsInStock.merge(targetId, quantity, Integer::sum);
+            case STOCK_REMOVED -> productsInStock.put(targetId, productsInStock.getOrDefault(targetId, 0) - quantity);
+            case STOCK_SET -> productsInStock.put(targetId, quantity);
+            case SOLD -> productsSold.merge(targetId, quantity, Integer::sum);
+            case SOLD_REVERSED -> productsSold.put(targetId, productsSold.getOrDefault(targetId, 0) - quantity);
+            case CASHIER_ASSIGNED -> cashiersIds.add(targetId);
+            case CASHIER_REMOVED -> cashiersIds.remove(targetId);
+        }
+        if (inStockProducts != null && (event.getType() == StoreEvent.Type.STOCK_ADDED
+                || event.getType() == StoreEvent.Type.STOCK_REMOVED || event.getType() == StoreEvent.Type.STOCK_SET)) {
+            inStockProducts.set(targetId, productsInStock.getOrDefault(targetId, 0) > 0);
+        }
+        eventSequence = event.getSequence();
+    }
+
+    /**
+     * Връща и премахва събитията, които още не са записани в дневника на магазина.
+     *
+     * @return Списък със събития в реда, в който са настъпили.
+     */
+    public List<StoreEvent> drainPendingEvents() {
+        if (pendingEvents == null || pendingEvents.isEmpty()) {
+            return List.of();
+        }
+        List<StoreEvent> events = pendingEvents;
+        pendingEvents = null;
+        return events;
+    }
+
+    /**
+     * Проверява дали магазинът трябва да бъде записан изцяло, защото е променен без събития
+     * (например чрез сетър) или незаписаните събития са станали твърде много.
+     *
+     * @return true, ако магазинът трябва да бъде записан изцяло, false в противен случай.
+     */
+    public boolean isSnapshotRequired() {
+        return snapshotRequired;
+    }
+
+    /**
+     * Отбелязва, че магазинът е записан изцяло, като премахва незаписаните събития.
+     */
+    public void markSnapshotted() {
+        pendingEvents = null;
+        snapshotRequired = false;
+    }
+
+    private void record(StoreEvent.Type type, int targetId, int quantity) {
+        StoreEvent event = new StoreEvent(eventSequence + 1, type, targetId, quantity);
+        apply(event);
+
+        // Магазин, който не се записва чрез StoreService, не трупа събития безкрайно
+        if (pendingEvents == null) {
+            pendingEvents = new ArrayList<>();
+        }
+        if (pendingEvents.size() < MAX_PENDING_EVENTS) {
+            pendingEvents.add(event);
+        } else {
+            snapshotRequired = true;
+        }
     }
 }
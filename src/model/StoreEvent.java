@@ -0,0 +1,113 @@
+package model;
+
+/**
+ * Представлява една промяна в състоянието на магазин - наличност, продадени бройки или касиери.
+ * Касовите бележки на магазина се пазят отделно в {@link dao.StoreReceiptIndex}.
+ * Събитията имат пореден номер в рамките на магазина и се записват в дневник като един кратък ред текст,
+ * например {@code "1042 SOLD 3 2"}, вместо да се записва целият магазин при всяка промяна.
+ */
+public class StoreEvent {
+
+    /**
+     * Вид на промяната.
+     */
+    public enum Type {
+        STOCK_ADDED,
+        STOCK_REMOVED,
+        STOCK_SET,
+        SOLD,
+        SOLD_REVERSED,
+        CASHIER_ASSIGNED,
+        CASHIER_REMOVED
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final int targetId;
+    private final int quantity;
+
+    /**
+     * Конструктор за създаване на събитие.
+     *
+     * @param sequence Пореден номер на събитието в рамките на магазина.
+     * @param type     Вид на промяната.
+     * @param targetId ID на продукта или касиера, за които се отнася промяната.
+     * @param quantity Количество (0 за касиери).
+     */
+    public StoreEvent(long sequence, Type type, int targetId, int quantity) {
+        this.sequence = sequence;
+        this.type = type;
+        this.targetId = targetId;
+        this.quantity = quantity;
+    }
+
+    /**
+     * Връща поредния номер на събитието.
+     *
+     * @return Пореден номер.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Връща вида на промяната.
+     *
+     * @return Вид на промяната.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Връща ID на продукта или касиера, за които се отнася промяната.
+     *
+     * @return ID на обекта.
+     */
+    public int getTargetId() {
+        return targetId;
+    }
+
+    /**
+     * Връща количеството.
+     *
+     * @return Количество.
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Връща събитието като ред за дневника във вида {@code "<номер> <вид> <ID> <количество>"}.
+     *
+     * @return Ред текст без знак за нов ред.
+     */
+    public String toLine() {
+        return sequence + " " + type + " " + targetId + " " + quantity;
+    }
+
+    /**
+     * Създава събитие от ред в дневника.
+     *
+     * @param line Ред във вида, върнат от {@link #toLine()}.
+     * @return Събитието.
+     * @throws IllegalArgumentException ако редът не е валидно събитие.
+     */
+    public static StoreEvent parse(String line) {
+        String[] parts = line.trim().split(" ");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Невалиден ред в дневника на магазин: " + line);
+        }
+        try {
+            return new StoreEvent(Long.parseLong(parts[0]), Type.valueOf(parts[1]),
+                    Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Невалиден ред в дневника на магазин: " + line);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toLine();
+    }
+}
@@ -0,0 +1,105 @@
+package report;
+
+import model.Money;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * Обобщен финансов отчет за всички магазини - по един ред за магазин и общ ред.
+ */
+public class ConsolidatedReport {
+
+    private static final double NANOS_PER_MILLISECOND = 1_000_000.0;
+
+    private final List<StoreFinancials> stores;
+    private final StoreFinancials total;
+    private final int parallelism;
+    private final long elapsedNanos;
+
+    /**
+     * Конструктор за създаване на отчет.
+     *
+     * @param stores       Показателите на магазините, подредени по ID.
+     * @param parallelism  Брой нишки, с които е изчислен отчетът.
+     * @param elapsedNanos Време за изчисляване в наносекунди.
+     */
+    public ConsolidatedReport(List<StoreFinancials> stores, int parallelism, long elapsedNanos) {
+        this.stores = List.copyOf(stores);
+        this.parallelism = parallelism;
+        this.elapsedNanos = elapsedNanos;
+
+        int receipts = 0;
+        long salaries = 0;
+        long goods = 0;
+        long income = 0;
+        for (StoreFinancials store : stores) {
+            receipts += store.getReceiptCount();
+            salaries += store.getSalariesExpenseCents();
+            goods += store.getDeliveredGoodsExpenseCents();
+            income += store.getIncomeCents();
+        }
+        this.total = new StoreFinancials(0, "Общо", receipts, salaries, goods, income);
+    }
+
+    /**
+     * Връща показателите на магазините, подредени по ID.
+     *
+     * @return Непроменим списък.
+     */
+    public List<StoreFinancials> getStores() {
+        return stores;
+    }
+
+    /**
+     * Връща сумите за всички магазини.
+     *
+     * @return Общият ред с ID 0.
+     */
+    public StoreFinancials getTotal() {
+        return total;
+    }
+
+    /**
+     * Връща броя на нишките, с които е изчислен отчетът.
+     *
+     * @return Брой нишки.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Връща времето за изчисляване на отчета.
+     *
+     * @return Време в наносекунди.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Отпечатва таблица с ред за всеки магазин, общ ред и времето за изчисляване.
+     *
+     * @param out Потокът за отпечатване.
+     */
+    public void print(PrintStream out) {
+        String format = "%6s  %-30s %10s %14s %16s %16s %16s%n";
+        out.printf(format, "ID", "Магазин", "Бележки", "Заплати", "Стоки", "Приходи", "Печалба");
+        for (StoreFinancials store : stores) {
+            printRow(out, format, String.valueOf(store.getStoreId()), store);
+        }
+        printRow(out, format, "", total);
+        out.printf("Магазини: %d, нишки: %d, време: %.1f мс%n", stores.size(), parallelism,
+                elapsedNanos / NANOS_PER_MILLISECOND);
+    }
+
+    private static void printRow(PrintStream out, String format, String id, StoreFinancials store) {
+        String name = store.getName().length() > 30 ? store.getName().substring(0, 29) + "…" : store.getName();
+        out.printf(format, id, name, store.getReceiptCount(),
+                Money.format(store.getSalariesExpenseCents()),
+                Money.format(store.getDeliveredGoodsExpenseCents()),
+                Money.format(store.getIncomeCents()),
+                Money.format(store.getProfitCents()));
+    }
+}
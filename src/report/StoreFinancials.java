@@ -0,0 +1,97 @@
+package report;
+
+/**
+ * Финансовите показатели на един магазин в {@link ConsolidatedReport}. Сумите са в стотинки.
+ */
+public class StoreFinancials {
+
+    private final int storeId;
+    private final String name;
+    private final int receiptCount;
+    private final long salariesExpenseCents;
+    private final long deliveredGoodsExpenseCents;
+    private final long incomeCents;
+
+    /**
+     * Конструктор за създаване на показателите на магазин.
+     *
+     * @param storeId                    ID на магазина (0 за общия ред).
+     * @param name                       Име на магазина.
+     * @param receiptCount               Брой касови бележки.
+     * @param salariesExpenseCents       Разходи за заплати.
+     * @param deliveredGoodsExpenseCents Разходи за доставени стоки (продадени и налични).
+     * @param incomeCents                Приходи от касовите бележки.
+     */
+    public StoreFinancials(int storeId, String name, int receiptCount, long salariesExpenseCents,
+                           long deliveredGoodsExpenseCents, long incomeCents) {
+        this.storeId = storeId;
+        this.name = name;
+        this.receiptCount = receiptCount;
+        this.salariesExpenseCents = salariesExpenseCents;
+        this.deliveredGoodsExpenseCents = deliveredGoodsExpenseCents;
+        this.incomeCents = incomeCents;
+    }
+
+    /**
+     * Връща ID на магазина.
+     *
+     * @return ID на магазина или 0 за общия ред.
+     */
+    public int getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * Връща името на магазина.
+     *
+     * @return Име на магазина.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Връща броя на касовите бележки.
+     *
+     * @return Брой касови бележки.
+     */
+    public int getReceiptCount() {
+        return receiptCount;
+    }
+
+    /**
+     * Връща разходите за заплати.
+     *
+     * @return Разходи за заплати в стотинки.
+     */
+    public long getSalariesExpenseCents() {
+        return salariesExpenseCents;
+    }
+
+    /**
+     * Връща разходите за доставени стоки (продадени и налични).
+     *
+     * @return Разходи за стоки в стотинки.
+     */
+    public long getDeliveredGoodsExpenseCents() {
+        return deliveredGoodsExpenseCents;
+    }
+
+    /**
+     * Връща приходите от касовите бележки.
+     *
+     * @return Приходи в стотинки.
+     */
+    public long getIncomeCents() {
+        return incomeCents;
+    }
+
+    /**
+     * Връща печалбата: приходи - (заплати + доставени стоки), както в {@link model.Store#calculateProfitCents()}.
+     *
+     * @return Печалбата в стотинки.
+     */
+    public long getProfitCents() {
+        return incomeCents - (salariesExpenseCents + deliveredGoodsExpenseCents);
+    }
+}
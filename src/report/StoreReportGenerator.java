@@ -0,0 +1,259 @@
+package report;
+
+import dao.FileStorage;
+import model.Cashier;
+import model.Money;
+import model.Product;
+import model.Receipt;
+import model.Store;
+import service.ServiceFactory;
+import util.DataInitializer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Изчислява финансовите показатели на всички магазини едновременно в {@link ForkJoinPool}.
+ * Вместо всеки магазин и всеки показател да търси касовите бележки, продуктите и касиерите поотделно по ID,
+ * те се обхождат по веднъж: сумите на касовите бележки се записват паралелно в масив по ID, а покупните цени
+ * и заплатите - в таблици по ID. След това магазините се разделят рекурсивно между нишките и всеки магазин
+ * изчислява приходите, разходите и заплатите си от таблиците. Резултатът съвпада с
+ * {@link Store#calculateTotalIncomeCents()}, {@link Store#calculateDeliveredGoodsExpenseCents()} и
+ * {@link Store#calculateTotalSalariesExpenseCents()}.
+ */
+public class StoreReportGenerator {
+
+    // Брой касови бележки, под който частта от списъка се обработва от една нишка
+    private static final int RECEIPTS_PER_TASK = 8192;
+    private static final long MISSING = -1;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Конструктор, който използва общия {@link ForkJoinPool#commonPool()}.
+     */
+    public StoreReportGenerator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Конструктор, който използва даден пул от нишки.
+     *
+     * @param pool Пулът, в който се изчислява отчетът.
+     */
+    public StoreReportGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Изчислява отчет за всички магазини. Данните се копират под заключването на {@link FileStorage},
+     * така че отчетът не вижда наполовина извършени покупки, а изчисленията и зареждането на индексите
+     * с касовите бележки на магазините се извършват паралелно след освобождаването му.
+     *
+     * @return Отчетът с магазините, подредени по ID.
+     * @throws IllegalArgumentException ако магазин сочи към несъществуващ продукт или касиер.
+     */
+    public ConsolidatedReport generate() {
+        long start = System.nanoTime();
+        Snapshot[] snapshot = new Snapshot[1];
+        FileStorage.atomically(() -> snapshot[0] = snapshot());
+        return calculate(snapshot[0], start);
+    }
+
+    /**
+     * Стартира отчета от командния ред: {@code java Main report [parallelism=<брой нишки>]}.
+     *
+     * @param args Настройки във вида ключ=стойност.
+     * @throws IllegalArgumentException ако някоя настройка е непозната или невалидна.
+     */
+    public static void main(String[] args) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length != 2 || !parts[0].equals("parallelism")) {
+                throw new IllegalArgumentException("Непозната настройка: " + arg);
+            }
+            try {
+                parallelism = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Невалидна стойност за " + parts[0] + ": " + parts[1]);
+            }
+            if (parallelism <= 0) {
+                throw new IllegalArgumentException("Броят на нишките трябва да бъде положителен");
+            }
+        }
+
+        DataInitializer.initializeData();
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            new StoreReportGenerator(pool).generate().print(System.out);
+        }
+    }
+
+    private Snapshot snapshot() {
+        List<StoreData> stores = new ArrayList<>();
+        for (Store store : ServiceFactory.getStoreService().getAllEntities()) {
+            stores.add(new StoreData(store, store.getId(), store.getName(), new ArrayList<>(store.getCashiersIds()),
+                    new HashMap<>(store.getProductsInStock()), new HashMap<>(store.getProductsSold())));
+        }
+        stores.sort((a, b) -> Integer.compare(a.id(), b.id()));
+
+        Map<Integer, Long> purchasePrices = new HashMap<>();
+        for (Product product : ServiceFactory.getProductService().getAllEntities()) {
+            purchasePrices.put(product.getId(), product.getUnitPurchasePriceCents());
+        }
+        Map<Integer, Long> salaries = new HashMap<>();
+        for (Cashier cashier : ServiceFactory.getCashierService().getAllEntities()) {
+            salaries.put(cashier.getId(), cashier.getSalaryCents());
+        }
+        List<Receipt> receipts = new ArrayList<>(ServiceFactory.getReceiptService().getAllEntities());
+        return new Snapshot(stores, purchasePrices, salaries, receipts);
+    }
+
+    private ConsolidatedReport calculate(Snapshot snapshot, long start) {
+        int maxReceiptId = 0;
+        for (Receipt receipt : snapshot.receipts()) {
+            maxReceiptId = Math.max(maxReceiptId, receipt.getId());
+        }
+        long[] receiptTotals = new long[maxReceiptId + 1];
+        Arrays.fill(receiptTotals, MISSING);
+
+        pool.invoke(new ReceiptTotalsTask(snapshot.receipts(), 0, snapshot.receipts().size(), receiptTotals));
+        StoreFinancials[] financials = new StoreFinancials[snapshot.stores().size()];
+        pool.invoke(new StoresTask(snapshot.stores(), 0, snapshot.stores().size(), snapshot.purchasePrices(),
+                snapshot.salaries(), receiptTotals, financials));
+        return new ConsolidatedReport(Arrays.asList(financials), pool.getParallelism(), System.nanoTime() - start);
+    }
+
+    private static StoreFinancials calculate(StoreData store, Map<Integer, Long> purchasePrices,
+                                             Map<Integer, Long> salaries, long[] receiptTotals) {
+        // Касовите бележки, издадени след копирането на данните, не се включват в отчета
+        int[] receiptIds = store.store().getReceiptIndex().range(0, receiptTotals.length);
+
+        long salariesExpense = 0;
+        for (Integer cashierId : store.cashierIds()) {
+            Long salary = salaries.get(cashierId);
+            if (salary == null) {
+                throw new IllegalArgumentException("Касиер с ID " + cashierId + " не е намерен при изчисляване на заплати.");
+            }
+            salariesExpense += salary;
+        }
+
+        long goodsExpense = goodsExpense(store.productsInStock(), purchasePrices, "налични")
+                + goodsExpense(store.productsSold(), purchasePrices, "продадени");
+
+        long income = 0;
+        for (int receiptId : receiptIds) {
+            long total = receiptId < receiptTotals.length ? receiptTotals[receiptId] : MISSING;
+            if (total == MISSING) {
+                System.err.println("Касова бележка с ID " + receiptId + " не е намерена при изчисляване на приходи.");
+            } else {
+                income += total;
+            }
+        }
+        return new StoreFinancials(store.id(), store.name(), receiptIds.length, salariesExpense, goodsExpense, income);
+    }
+
+    private static long goodsExpense(Map<Integer, Integer> quantities, Map<Integer, Long> purchasePrices, String kind) {
+        long expense = 0;
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            Long price = purchasePrices.get(entry.getKey());
+            if (price == null) {
+                throw new IllegalArgumentException("Продукт с ID " + entry.getKey()
+                        + " не е намерен при изчисляване на разходи за " + kind + " стоки.");
+            }
+            expense += Money.multiply(price, entry.getValue());
+        }
+        return expense;
+    }
+
+    /**
+     * Записва сумите на част от касовите бележки в масива по ID. Всяка касова бележка има собствено място,
+     * затова частите не си пречат.
+     */
+    private static class ReceiptTotalsTask extends RecursiveAction {
+
+        private final List<Receipt> receipts;
+        private final int from;
+        private final int to;
+        private final long[] totals;
+
+        ReceiptTotalsTask(List<Receipt> receipts, int from, int to, long[] totals) {
+            this.receipts = receipts;
+            this.from = from;
+            this.to = to;
+            this.totals = totals;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= RECEIPTS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    Receipt receipt = receipts.get(i);
+                    totals[receipt.getId()] = receipt.getTotalPriceCents();
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ReceiptTotalsTask(receipts, from, middle, totals),
+                    new ReceiptTotalsTask(receipts, middle, to, totals));
+        }
+    }
+
+    /**
+     * Данните, копирани под заключването на {@link FileStorage}.
+     */
+    private record Snapshot(List<StoreData> stores, Map<Integer, Long> purchasePrices, Map<Integer, Long> salaries,
+                            List<Receipt> receipts) {
+    }
+
+    /**
+     * Копие на данните на един магазин. Индексът с касовите бележки се зарежда от самия магазин
+     * при изчисляването, защото може да изисква четене от файл.
+     */
+    private record StoreData(Store store, int id, String name, List<Integer> cashierIds,
+                             Map<Integer, Integer> productsInStock, Map<Integer, Integer> productsSold) {
+    }
+
+    /**
+     * Изчислява показателите на част от магазините, като я разделя наполовина до един магазин.
+     */
+    private static class StoresTask extends RecursiveAction {
+
+        private final List<StoreData> stores;
+        private final int from;
+        private final int to;
+        private final Map<Integer, Long> purchasePrices;
+        private final Map<Integer, Long> salaries;
+        private final long[] receiptTotals;
+        private final StoreFinancials[] result;
+
+        StoresTask(List<StoreData> stores, int from, int to, Map<Integer, Long> purchasePrices,
+                   Map<Integer, Long> salaries, long[] receiptTotals, StoreFinancials[] result) {
+            this.stores = stores;
+            this.from = from;
+            this.to = to;
+            this.purchasePrices = purchasePrices;
+            this.salaries = salaries;
+            this.receiptTotals = receiptTotals;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    result[from] = calculate(stores.get(from), purchasePrices, salaries, receiptTotals);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new StoresTask(stores, from, middle, purchasePrices, salaries, receiptTotals, result),
+                    new StoresTask(stores, middle, to, purchasePrices, salaries, receiptTotals, result));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package server;
+
+/**
+ * Грешка при обработка на заявка, която се връща на клиента със зададения код на състоянието.
+ */
+public class ApiException extends RuntimeException {
+
+    private final int status;
+
+    /**
+     * Конструктор за създаване на грешка.
+     *
+     * @param status  Код на състоянието.
+     * @param message Съобщение за грешката.
+     */
+    public ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    /**
+     * Връща кода на състоянието.
+     *
+     * @return Код на състоянието.
+     */
+    public int getStatus() {
+        return status;
+    }
+}
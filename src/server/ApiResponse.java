@@ -0,0 +1,69 @@
+package server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Отговор на заявка към HTTP API: код на състоянието и обект, който се изпраща като JSON.
+ */
+public class ApiResponse {
+
+    private final int status;
+    private final Object body;
+
+    private ApiResponse(int status, Object body) {
+        this.status = status;
+        this.body = body;
+    }
+
+    /**
+     * Създава успешен отговор с код 200.
+     *
+     * @param body Съдържанието на отговора.
+     * @return Отговорът.
+     */
+    public static ApiResponse ok(Object body) {
+        return new ApiResponse(200, body);
+    }
+
+    /**
+     * Създава отговор с код 201 за създаден ресурс.
+     *
+     * @param body Създаденият ресурс.
+     * @return Отговорът.
+     */
+    public static ApiResponse created(Object body) {
+        return new ApiResponse(201, body);
+    }
+
+    /**
+     * Създава отговор за грешка със съдържание {@code {"error": "..."}}.
+     *
+     * @param status  Код на състоянието.
+     * @param message Съобщение за грешката.
+     * @return Отговорът.
+     */
+    public static ApiResponse error(int status, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", message);
+        return new ApiResponse(status, body);
+    }
+
+    /**
+     * Връща кода на състоянието.
+     *
+     * @return Код на състоянието.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Връща съдържанието на отговора.
+     *
+     * @return Съдържанието на отговора.
+     */
+    public Object getBody() {
+        return body;
+    }
+}
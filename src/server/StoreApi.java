@@ -0,0 +1,786 @@
+package server;
+
+import analytics.BasketSketch;
+import analytics.BestSellers;
+import analytics.CashierLeaderboard;
+import analytics.CashierStats;
+import analytics.DistinctCount;
+import analytics.EpochMinutes;
+import analytics.HeavyHitter;
+import analytics.ReceiptQuery;
+import analytics.RoaringBitmap;
+import analytics.SalesTotals;
+import analytics.TopNResult;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import dao.FileStorage;
+import model.*;
+import report.StoreFinancials;
+import report.StoreReportGenerator;
+import service.*;
+import util.CartParser;
+import util.NameIndex;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * HTTP API на магазините. Превръща заявките (метод, път и JSON съдържание) в извиквания на услугите
+ * от {@link ServiceFactory} и връща резултата като обекти, готови за сериализация в JSON.
+ * Класът не зависи от HTTP сървъра, за да може да бъде тестван без мрежа.
+ *
+ * <ul>
+ *     <li>{@code GET /api/stores} и {@code GET /api/stores/{id}} - магазини</li>
+ *     <li>{@code GET /api/stores?q=&n=} и {@code GET /api/clients?q=&n=} - търсене на магазини и клиенти по начало на името</li>
+ *     <li>{@code GET /api/stores/{id}/products} - наличните продукти с продажната им цена в магазина</li>
+ *     <li>{@code GET /api/stores/{id}/stock} - наличности и продадени количества</li>
+ *     <li>{@code GET /api/stores/{id}/cash-desks} - касите на магазина</li>
+ *     <li>{@code GET /api/stores/{id}/report} и {@code GET /api/reports/stores} - финансови справки</li>
+ *     <li>{@code GET /api/reports/best-sellers?storeId=&n=&minutes=&window=&at=} - най-продаваните продукти за период</li>
+ *     <li>{@code GET /api/reports/unique-clients?storeId=&period=&date=} или {@code ?from=&to=} - брой различни клиенти</li>
+ *     <li>{@code GET /api/reports/basket-quantiles?storeId=&cashierId=&period=&date=} или {@code ?from=&to=} -
+ *     персентили на стойността и броя на артикулите в касовите бележки</li>
+ *     <li>{@code GET /api/reports/sales?storeId=&cashierId=&category=&period=&date=} или {@code ?from=&to=} -
+ *     брой касови бележки, приходи, бройки и разходи от обобщените продажби</li>
+ *     <li>{@code GET /api/products/{id}} - продукти</li>
+ *     <li>{@code GET /api/products?q=&category=&offset=&limit=} и {@code GET /api/stores/{id}/products?q=&category=&offset=&limit=} -
+ *     страница от каталога с търсене по начало на името и категория, съответно сред наличните продукти в магазина
+ *     (без параметри {@code /api/products} връща първата страница от целия каталог)</li>
+ *     <li>{@code GET /api/clients/{id}} и {@code POST /api/clients} - клиенти</li>
+ *     <li>{@code GET /api/receipts/{id}} - касови бележки</li>
+ *     <li>{@code GET /api/receipts?storeId=&cashierId=&productId=&from=&to=&limit=} - търсене на касови бележки</li>
+ *     <li>{@code POST /api/checkout} и {@code POST /api/checkout/preview} - покупка</li>
+ * </ul>
+ */
+public class StoreApi {
+
+    /**
+     * Общ префикс на пътищата на API.
+     */
+    public static final String PREFIX = "/api/";
+
+    private static final int DEFAULT_RECEIPT_LIMIT = 100;
+    private static final int MAX_RECEIPT_LIMIT = 10_000;
+    private static final int DEFAULT_HISTORY_LIMIT = 50;
+    private static final int MAX_HISTORY_LIMIT = 1000;
+    private static final int DEFAULT_BEST_SELLERS = 20;
+    private static final double[] QUANTILE_RANKS = {0, 0.5, 0.95, 0.99, 1};
+    private static final String[] QUANTILE_NAMES = {"min", "p50", "p95", "p99", "max"};
+    private static final int DEFAULT_BEST_SELLERS_MINUTES = 60;
+    private static final int DEFAULT_CASHIERS = 10;
+    private static final int DEFAULT_SEARCH_RESULTS = 10;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int DEFAULT_PRODUCT_LIMIT = 20;
+    private static final int MAX_PRODUCT_LIMIT = 100;
+
+    /**
+     * Обработва заявка.
+     *
+     * @param method HTTP метод (GET, POST).
+     * @param path   Пътят на заявката, започващ с {@value #PREFIX}.
+     * @param body   Съдържанието на заявката или празен низ.
+     * @return Отговорът на заявката.
+     */
+    public ApiResponse handle(String method, String path, String body) {
+        return handle(method, path, null, body);
+    }
+
+    /**
+     * Обработва заявка с параметри в адреса.
+     *
+     * @param method HTTP метод (GET, POST).
+     * @param path   Пътят на заявката, започващ с {@value #PREFIX}.
+     * @param query  Параметрите след "?" във вида {@code name=value&name=value} или null.
+     * @param body   Съдържанието на заявката или празен низ.
+     * @return Отговорът на заявката.
+     */
+    public ApiResponse handle(String method, String path, String query, String body) {
+        try {
+            return route(method, path, parseQuery(query), body);
+        } catch (ApiException e) {
+            return ApiResponse.error(e.getStatus(), e.getMessage());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ApiResponse.error(400, e.getMessage());
+        }
+    }
+
+    private ApiResponse route(String method, String path, Map<String, String> parameters, String body) {
+        if (!path.startsWith(PREFIX)) {
+            throw new ApiException(404, "Непознат път: " + path);
+        }
+        String[] segments = path.substring(PREFIX.length()).split("/");
+
+        switch (segments[0]) {
+            case "stores":
+                requireMethod(method, "GET");
+                if (segments.length == 1 && parameters.containsKey("q")) {
+                    return ApiResponse.ok(nameSearchView(parameters, ServiceFactory.getStoreService()::searchByName));
+                }
+                if (segments.length == 1) {
+                    return ApiResponse.ok(locked(() -> ServiceFactory.getStoreService().getAllEntities().stream()
+                            .map(StoreApi::storeView)
+                            .toList()));
+                }
+                Store store = findStore(segments[1]);
+                if (segments.length == 2) {
+                    return ApiResponse.ok(locked(() -> storeView(store)));
+                }
+                if (segments.length == 3) {
+                    switch (segments[2]) {
+                        case "products":
+                            if (isProductSearch(parameters)) {
+                                return ApiResponse.ok(locked(() -> productSearchView(parameters, store)));
+                            }
+                            return ApiResponse.ok(locked(() -> storeProductsView(store)));
+                        case "stock":
+                            return ApiResponse.ok(locked(() -> stockView(store)));
+                        case "cash-desks":
+                            return ApiResponse.ok(locked(() -> cashDesksView(store)));
+                        case "report":
+                            return ApiResponse.ok(locked(() -> reportView(store)));
+                        default:
+                            break;
+                    }
+                }
+                break;
+            case "reports":
+                requireMethod(method, "GET");
+                if (segments.length == 2 && segments[1].equals("stores")) {
+                    return ApiResponse.ok(new StoreReportGenerator().generate().getStores().stream()
+                            .map(StoreApi::reportView)
+                            .toList());
+                }
+                if (segments.length == 2 && segments[1].equals("best-sellers")) {
+                    return ApiResponse.ok(bestSellersView(parameters));
+                }
+                if (segments.length == 2 && segments[1].equals("unique-clients")) {
+                    return ApiResponse.ok(uniqueClientsView(parameters));
+                }
+                if (segments.length == 2 && segments[1].equals("basket-quantiles")) {
+                    return ApiResponse.ok(basketQuantilesView(parameters));
+                }
+                if (segments.length == 2 && segments[1].equals("sales")) {
+                    return ApiResponse.ok(salesView(parameters));
+                }
+                if (segments.length == 2 && segments[1].equals("cashiers")) {
+                    return ApiResponse.ok(cashierLeaderboardView(parameters));
+                }
+                break;
+            case "products":
+                requireMethod(method, "GET");
+                if (segments.length == 1) {
+                    // Каталогът се връща на страници и без параметри, за да не се сериализира целият наведнъж
+                    return ApiResponse.ok(productSearchView(parameters, null));
+                }
+                if (segments.length == 2) {
+                    int productId = parseId(segments[1]);
+                    Product product = ServiceFactory.getProductService().findEntityById(productId)
+                            .orElseThrow(() -> new ApiException(404, "Продукт с ID " + productId + " не съществува"));
+                    return ApiResponse.ok(productView(product));
+                }
+                break;
+            case "clients":
+                if (segments.length == 1 && method.equals("GET")) {
+                    return ApiResponse.ok(nameSearchView(parameters, ServiceFactory.getClientService()::searchByName));
+                }
+                if (segments.length == 1) {
+                    requireMethod(method, "POST");
+                    return ApiResponse.created(clientView(registerClient(parseObject(body))));
+                }
+                if (segments.length == 2) {
+                    requireMethod(method, "GET");
+                    int clientId = parseId(segments[1]);
+                    Client client = ServiceFactory.getClientService().findEntityById(clientId)
+                            .orElseThrow(() -> new ApiException(404, "Клиент с ID " + clientId + " не съществува"));
+                    return ApiResponse.ok(locked(() -> clientView(client)));
+                }
+                if (segments.length == 3 && segments[2].equals("receipts")) {
+                    requireMethod(method, "GET");
+                    int clientId = parseId(segments[1]);
+                    if (ServiceFactory.getClientService().findEntityById(clientId).isEmpty()) {
+                        throw new ApiException(404, "Клиент с ID " + clientId + " не съществува");
+                    }
+                    return ApiResponse.ok(purchaseHistoryView(clientId, parameters));
+                }
+                break;
+            case "receipts":
+                requireMethod(method, "GET");
+                if (segments.length == 1) {
+                    return ApiResponse.ok(receiptSearchView(parameters));
+                }
+                if (segments.length == 2) {
+                    int receiptId = parseId(segments[1]);
+                    Receipt receipt = ServiceFactory.getReceiptService().findEntityById(receiptId)
+                            .orElseThrow(() -> new ApiException(404, "Касова бележка с ID " + receiptId + " не съществува"));
+                    return ApiResponse.ok(receiptView(receipt));
+                }
+                break;
+            case "checkout":
+                requireMethod(method, "POST");
+                if (segments.length == 1) {
+                    return checkoutResponse(ServiceFactory.getCheckoutService().checkout(CartParser.parse(parseObject(body))), 201);
+                }
+                if (segments.length == 2 && segments[1].equals("preview")) {
+                    return checkoutResponse(ServiceFactory.getCheckoutService().preview(CartParser.parse(parseObject(body))), 200);
+                }
+                break;
+            default:
+                break;
+        }
+        throw new ApiException(404, "Непознат път: " + path);
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!expected.equals(method)) {
+            throw new ApiException(405, "Методът " + method + " не се поддържа, очаква се " + expected);
+        }
+    }
+
+    private static int parseId(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Невалиден ID: " + segment);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int separator = pair.indexOf('=');
+            String name = separator >= 0 ? pair.substring(0, separator) : pair;
+            String value = separator >= 0 ? pair.substring(separator + 1) : "";
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static LocalDate parseDate(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Невалидна дата в параметър " + name + ": " + value);
+        }
+    }
+
+    private static Map<String, Object> receiptSearchView(Map<String, String> parameters) {
+        ReceiptQuery query = new ReceiptQuery();
+        if (parameters.containsKey("storeId")) {
+            query.store(parseId(parameters.get("storeId")));
+        }
+        if (parameters.containsKey("cashierId")) {
+            query.cashier(parseId(parameters.get("cashierId")));
+        }
+        if (parameters.containsKey("productId")) {
+            query.product(parseId(parameters.get("productId")));
+        }
+        query.between(parseDate(parameters, "from"), parseDate(parameters, "to"));
+        int limit = parameters.containsKey("limit") ? parseId(parameters.get("limit")) : DEFAULT_RECEIPT_LIMIT;
+        if (limit < 0 || limit > MAX_RECEIPT_LIMIT) {
+            throw new ApiException(400, "Параметърът limit трябва да бъде между 0 и " + MAX_RECEIPT_LIMIT);
+        }
+
+        RoaringBitmap receiptIds = ServiceFactory.getReceiptAnalyticsService().findReceiptIds(query);
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("count", receiptIds.getCardinality());
+        view.put("receiptIds", receiptIds.toArray(limit));
+        return view;
+    }
+
+    private static Map<String, Object> purchaseHistoryView(int clientId, Map<String, String> parameters) {
+        int offset = parseInt(parameters, "offset", 0);
+        int limit = parseInt(parameters, "limit", DEFAULT_HISTORY_LIMIT);
+        if (offset < 0 || limit <= 0 || limit > MAX_HISTORY_LIMIT) {
+            throw new ApiException(400, "Параметърът offset не може да бъде отрицателен, а limit трябва да бъде между 1 и " + MAX_HISTORY_LIMIT);
+        }
+
+        ClientService clientService = ServiceFactory.getClientService();
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("clientId", clientId);
+        view.put("count", clientService.countPurchases(clientId));
+        view.put("offset", offset);
+        view.put("receipts", clientService.getPurchaseHistory(clientId, offset, limit).stream()
+                .map(StoreApi::receiptView)
+                .toList());
+        return view;
+    }
+
+    private static List<Map<String, Object>> nameSearchView(Map<String, String> parameters,
+                                                            BiFunction<String, Integer, List<NameIndex.Match>> search) {
+        int n = parseInt(parameters, "n", DEFAULT_SEARCH_RESULTS);
+        if (n <= 0 || n > MAX_SEARCH_RESULTS) {
+            throw new ApiException(400, "Параметърът n трябва да бъде между 1 и " + MAX_SEARCH_RESULTS);
+        }
+        return search.apply(parameters.getOrDefault("q", ""), n).stream()
+                .map(match -> {
+                    Map<String, Object> view = new LinkedHashMap<>();
+                    view.put("id", match.getId());
+                    view.put("name", match.getName());
+                    return view;
+                })
+                .toList();
+    }
+
+    private static ProductCategory parseCategory(Map<String, String> parameters) {
+        if (!parameters.containsKey("category")) {
+            return null;
+        }
+        try {
+            return ProductCategory.valueOf(parameters.get("category"));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Невалидна категория: " + parameters.get("category"));
+        }
+    }
+
+    private static boolean isProductSearch(Map<String, String> parameters) {
+        return parameters.containsKey("q") || parameters.containsKey("category")
+                || parameters.containsKey("offset") || parameters.containsKey("limit");
+    }
+
+    private static Map<String, Object> productSearchView(Map<String, String> parameters, Store store) {
+        int offset = parseInt(parameters, "offset", 0);
+        int limit = parseInt(parameters, "limit", DEFAULT_PRODUCT_LIMIT);
+        if (offset < 0 || limit <= 0 || limit > MAX_PRODUCT_LIMIT) {
+            throw new ApiException(400, "Параметърът offset не може да бъде отрицателен, а limit трябва да бъде между 1 и " + MAX_PRODUCT_LIMIT);
+        }
+
+        ProductCatalog.Page page = ServiceFactory.getProductService()
+                .searchProducts(parameters.getOrDefault("q", ""), parseCategory(parameters), store, offset, limit);
+        StorePriceTable priceTable = store != null ? ServiceFactory.getPriceTableService().getPriceTable(store) : null;
+        List<Map<String, Object>> products = new ArrayList<>();
+        for (Product product : page.getProducts()) {
+            Map<String, Object> view = productView(product);
+            if (store != null) {
+                view.put("price", money(priceTable.getPriceCents(store, product)));
+                view.put("stock", store.getProductStock(product.getId()));
+            }
+            products.add(view);
+        }
+
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("offset", offset);
+        view.put("hasMore", page.hasMore());
+        view.put("products", products);
+        return view;
+    }
+
+    private static int parseInt(Map<String, String> parameters, String name, int defaultValue) {
+        String value = parameters.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Невалидна стойност на параметър " + name + ": " + value);
+        }
+    }
+
+    private static Map<String, Object> bestSellersView(Map<String, String> parameters) {
+        Integer storeId = parameters.containsKey("storeId") ? parseId(parameters.get("storeId")) : null;
+        int n = parseInt(parameters, "n", DEFAULT_BEST_SELLERS);
+        if (n <= 0) {
+            throw new ApiException(400, "Параметърът n трябва да бъде положителен");
+        }
+        int minutes = parseInt(parameters, "minutes", DEFAULT_BEST_SELLERS_MINUTES);
+        LocalDateTime at;
+        try {
+            at = parameters.containsKey("at") ? LocalDateTime.parse(parameters.get("at")) : LocalDateTime.now();
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Невалиден момент в параметър at: " + parameters.get("at"));
+        }
+
+        BestSellers bestSellers = ServiceFactory.getReceiptAnalyticsService().getBestSellers();
+        TopNResult result = switch (parameters.getOrDefault("window", "sliding")) {
+            case "sliding" -> bestSellers.topSliding(storeId, n, at, minutes);
+            case "tumbling" -> bestSellers.topTumbling(storeId, n, at, minutes);
+            default -> throw new ApiException(400, "Параметърът window трябва да бъде sliding или tumbling");
+        };
+
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("from", EpochMinutes.toDateTime(result.getFromMinute()).toString());
+        view.put("to", EpochMinutes.toDateTime(result.getToMinute()).toString());
+        view.put("totalQuantity", result.getTotal());
+        view.put("maxUntrackedQuantity", result.getMaxUntrackedCount());
+        List<Map<String, Object>> products = new ArrayList<>();
+        for (HeavyHitter item : result.getItems()) {
+            Map<String, Object> product = new LinkedHashMap<>();
+            product.put("productId", item.getItem());
+            product.put("quantity", item.getCount());
+            product.put("error", item.getError());
+            products.add(product);
+        }
+        view.put("products", products);
+        return view;
+    }
+
+    private static Map<String, Object> uniqueClientsView(Map<String, String> parameters) {
+        Integer storeId = parameters.containsKey("storeId") ? parseId(parameters.get("storeId")) : null;
+        LocalDate[] period = parsePeriod(parameters);
+
+        DistinctCount count = ServiceFactory.getReceiptAnalyticsService().countDistinctClients(storeId, period[0], period[1]);
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("storeId", storeId);
+        view.put("from", period[0].toString());
+        view.put("to", period[1].toString());
+        view.put("uniqueClients", count.getEstimate());
+        view.put("standardError", count.getStandardError());
+        return view;
+    }
+
+    private static Map<String, Object> basketQuantilesView(Map<String, String> parameters) {
+        Integer storeId = parameters.containsKey("storeId") ? parseId(parameters.get("storeId")) : null;
+        Integer cashierId = parameters.containsKey("cashierId") ? parseId(parameters.get("cashierId")) : null;
+        LocalDate[] period = parsePeriod(parameters);
+
+        BasketSketch baskets = ServiceFactory.getReceiptAnalyticsService().summarizeBaskets(storeId, cashierId, period[0], period[1]);
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("storeId", storeId);
+        view.put("cashierId", cashierId);
+        view.put("from", period[0].toString());
+        view.put("to", period[1].toString());
+        view.put("receipts", baskets.getReceiptCount());
+        view.put("rankError", baskets.getValueCents().getRankError());
+        Map<String, Object> value = new LinkedHashMap<>();
+        long[] valueCents = baskets.getValueCents().quantiles(QUANTILE_RANKS);
+        for (int i = 0; i < QUANTILE_RANKS.length; i++) {
+            value.put(QUANTILE_NAMES[i], money(valueCents[i]));
+        }
+        view.put("basketValue", value);
+        Map<String, Object> items = new LinkedHashMap<>();
+        long[] itemCounts = baskets.getItems().quantiles(QUANTILE_RANKS);
+        for (int i = 0; i < QUANTILE_RANKS.length; i++) {
+            items.put(QUANTILE_NAMES[i], itemCounts[i]);
+        }
+        view.put("basketItems", items);
+        return view;
+    }
+
+    private static Map<String, Object> salesView(Map<String, String> parameters) {
+        Integer storeId = parameters.containsKey("storeId") ? parseId(parameters.get("storeId")) : null;
+        Integer cashierId = parameters.containsKey("cashierId") ? parseId(parameters.get("cashierId")) : null;
+        ProductCategory category = parseCategory(parameters);
+        LocalDateTime[] window = parseWindow(parameters);
+
+        SalesTotals totals = ServiceFactory.getReceiptAnalyticsService().querySales(storeId, cashierId, category, window[0], window[1]);
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("storeId", storeId);
+        view.put("cashierId", cashierId);
+        view.put("category", category != null ? category.name() : null);
+        view.put("from", totals.getFrom().toString());
+        view.put("to", totals.getTo().toString());
+        view.put("receipts", totals.getReceiptCount());
+        view.put("revenue", money(totals.getRevenueCents()));
+        view.put("units", totals.getUnits());
+        view.put("cost", money(totals.getCostCents()));
+        Map<String, Object> buckets = new LinkedHashMap<>();
+        buckets.put("days", totals.getDayBuckets());
+        buckets.put("hours", totals.getHourBuckets());
+        buckets.put("minutes", totals.getMinuteBuckets());
+        view.put("buckets", buckets);
+        return view;
+    }
+
+    private static Map<String, Object> cashierLeaderboardView(Map<String, String> parameters) {
+        Integer storeId = parameters.containsKey("storeId") ? parseId(parameters.get("storeId")) : null;
+        int n = parseInt(parameters, "n", DEFAULT_CASHIERS);
+        if (n <= 0) {
+            throw new ApiException(400, "Параметърът n трябва да бъде положителен");
+        }
+        CashierLeaderboard.Metric metric = CashierLeaderboard.Metric.parse(parameters.getOrDefault("by", "receipts"));
+        LocalDateTime[] window = parseWindow(parameters);
+
+        CashierLeaderboard leaderboard = ServiceFactory.getReceiptAnalyticsService().rankCashiers(storeId, window[0], window[1]);
+        List<Map<String, Object>> cashiers = new ArrayList<>();
+        int rank = 0;
+        for (CashierStats stats : leaderboard.top(n, metric)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("rank", ++rank);
+            item.put("cashierId", stats.getCashierId());
+            ServiceFactory.getCashierService().findEntityById(stats.getCashierId())
+                    .ifPresent(cashier -> item.put("name", cashier.getName()));
+            item.put("storeId", stats.getStoreId());
+            item.put("receipts", stats.getReceiptCount());
+            item.put("units", stats.getUnits());
+            item.put("revenue", money(stats.getRevenueCents()));
+            item.put("averageBasket", money(stats.getAverageBasketCents()));
+            cashiers.add(item);
+        }
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("storeId", storeId);
+        view.put("by", metric.name().toLowerCase(Locale.ROOT));
+        view.put("from", leaderboard.getTotals().getFrom().toString());
+        view.put("to", leaderboard.getTotals().getTo().toString());
+        view.put("receipts", leaderboard.getTotals().getReceiptCount());
+        view.put("revenue", money(leaderboard.getTotals().getRevenueCents()));
+        view.put("cashiers", cashiers);
+        return view;
+    }
+
+    /**
+     * Връща началото и края (без него) на период от {@code from} и {@code to} (дати или моменти), от последните
+     * {@code minutes} минути до {@code at} (по подразбиране сега) или от {@link #parsePeriod}.
+     */
+    private static LocalDateTime[] parseWindow(Map<String, String> parameters) {
+        if (parameters.containsKey("from") && parameters.containsKey("to")) {
+            return new LocalDateTime[]{parseMoment(parameters, "from", false), parseMoment(parameters, "to", true)};
+        }
+        if (parameters.containsKey("minutes")) {
+            int minutes = parseInt(parameters, "minutes", 0);
+            if (minutes <= 0) {
+                throw new ApiException(400, "Параметърът minutes трябва да бъде положителен");
+            }
+            LocalDateTime at = parameters.containsKey("at") ? parseMoment(parameters, "at", false) : LocalDateTime.now();
+            LocalDateTime to = at.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+            return new LocalDateTime[]{to.minusMinutes(minutes), to};
+        }
+        LocalDate[] period = parsePeriod(parameters);
+        return new LocalDateTime[]{period[0].atStartOfDay(), period[1].plusDays(1).atStartOfDay()};
+    }
+
+    /**
+     * Връща момент от параметър във вида {@code 2026-01-05T18:30} или дата {@code 2026-01-05}.
+     * Датата в началото на периода означава началото на деня, а в края - края на деня.
+     */
+    private static LocalDateTime parseMoment(Map<String, String> parameters, String name, boolean end) {
+        String value = parameters.get(name);
+        if (!value.contains("T")) {
+            LocalDate date = parseDate(parameters, name);
+            return end ? date.plusDays(1).atStartOfDay() : date.atStartOfDay();
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Невалиден момент в параметър " + name + ": " + value);
+        }
+    }
+
+    /**
+     * Връща първия и последния ден на периода от параметрите {@code from} и {@code to} или,
+     * ако някой от тях липсва, от {@code period} (day, week или month) и {@code date} (по подразбиране днес).
+     */
+    private static LocalDate[] parsePeriod(Map<String, String> parameters) {
+        LocalDate from = parseDate(parameters, "from");
+        LocalDate to = parseDate(parameters, "to");
+        if (from != null && to != null) {
+            return new LocalDate[]{from, to};
+        }
+        LocalDate date = parameters.containsKey("date") ? parseDate(parameters, "date") : LocalDate.now();
+        return switch (parameters.getOrDefault("period", "day")) {
+            case "day" -> new LocalDate[]{date, date};
+            case "week" -> new LocalDate[]{date.with(DayOfWeek.MONDAY), date.with(DayOfWeek.SUNDAY)};
+            case "month" -> new LocalDate[]{date.withDayOfMonth(1), date.withDayOfMonth(date.lengthOfMonth())};
+            default -> throw new ApiException(400, "Параметърът period трябва да бъде day, week или month");
+        };
+    }
+
+    private static Store findStore(String segment) {
+        int storeId = parseId(segment);
+        return ServiceFactory.getStoreService().findEntityById(storeId)
+                .orElseThrow(() -> new ApiException(404, "Магазин с ID " + storeId + " не съществува"));
+    }
+
+    /**
+     * Изпълнява четене на данни под заключването на хранилището, за да не се прочетат
+     * наличностите или балансът на магазин или клиент по време на покупка.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T locked(Supplier<T> action) {
+        Object[] result = new Object[1];
+        FileStorage.atomically(() -> result[0] = action.get());
+        return (T) result[0];
+    }
+
+    private static JsonObject parseObject(String body) {
+        if (body == null || body.isBlank()) {
+            throw new ApiException(400, "Липсва съдържание на заявката");
+        }
+        JsonElement element;
+        try {
+            element = JsonParser.parseString(body);
+        } catch (JsonParseException e) {
+            throw new ApiException(400, "Съдържанието на заявката не е валиден JSON");
+        }
+        if (!element.isJsonObject()) {
+            throw new ApiException(400, "Съдържанието на заявката трябва да бъде JSON обект");
+        }
+        return element.getAsJsonObject();
+    }
+
+    private static JsonElement requireField(JsonObject object, String field) {
+        JsonElement value = object.get(field);
+        if (value == null || value.isJsonNull()) {
+            throw new ApiException(400, "Липсва поле " + field);
+        }
+        return value;
+    }
+
+    private static Client registerClient(JsonObject request) {
+        JsonElement name = requireField(request, "name");
+        double balance;
+        try {
+            balance = requireField(request, "balance").getAsDouble();
+        } catch (NumberFormatException | UnsupportedOperationException e) {
+            throw new ApiException(400, "Невалидна стойност на поле balance");
+        }
+        return ServiceFactory.getClientService().createEntity(new Client(name.getAsString(), balance));
+    }
+
+    private static ApiResponse checkoutResponse(CheckoutResult result, int successStatus) {
+        if (result.isSuccessful()) {
+            Map<String, Object> view = receiptView(result.getReceipt());
+            return successStatus == 201 ? ApiResponse.created(view) : ApiResponse.ok(view);
+        }
+
+        int status = switch (result.getFailure()) {
+            case STORE_NOT_FOUND, CLIENT_NOT_FOUND, CASH_DESK_NOT_FOUND, CASHIER_NOT_FOUND, PRODUCT_NOT_FOUND -> 404;
+            case CASH_DESK_NOT_IN_STORE, EMPTY_CART -> 400;
+            case PRODUCT_UNAVAILABLE, INSUFFICIENT_STOCK, INSUFFICIENT_BALANCE -> 409;
+        };
+        ApiResponse response = ApiResponse.error(status, result.getMessage());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        body.put("failure", result.getFailure().name());
+        return response;
+    }
+
+    private static BigDecimal money(long cents) {
+        return BigDecimal.valueOf(cents, Money.FRACTION_DIGITS);
+    }
+
+    private static Map<String, Object> storeView(Store store) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("id", store.getId());
+        view.put("name", store.getName());
+        view.put("cashiers", store.getCashiersIds().size());
+        view.put("markupPercentages", new LinkedHashMap<>(store.getMarkupPercentages()));
+        view.put("daysBeforeExpirationThreshold", store.getDaysBeforeExpirationThreshold());
+        view.put("discountPercentNearExpiration", store.getDiscountPercentNearExpiration());
+        return view;
+    }
+
+    private static Map<String, Object> productView(Product product) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("id", product.getId());
+        view.put("name", product.getName());
+        view.put("category", product.getCategory().name());
+        view.put("unitPurchasePrice", money(product.getUnitPurchasePriceCents()));
+        view.put("expirationDate", String.valueOf(product.getExpirationDate()));
+        return view;
+    }
+
+    private static List<Map<String, Object>> storeProductsView(Store store) {
+        StorePriceTable priceTable = ServiceFactory.getPriceTableService().getPriceTable(store);
+        List<Map<String, Object>> products = new ArrayList<>();
+        for (Product product : store.getAvailableProducts()) {
+            Map<String, Object> view = productView(product);
+            view.put("price", money(priceTable.getPriceCents(store, product)));
+            view.put("stock", store.getProductStock(product.getId()));
+            products.add(view);
+        }
+        return products;
+    }
+
+    private static List<Map<String, Object>> stockView(Store store) {
+        List<Map<String, Object>> stock = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : store.getProductsInStock().entrySet()) {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("productId", entry.getKey());
+            view.put("inStock", entry.getValue());
+            view.put("sold", store.getProductsSold().getOrDefault(entry.getKey(), 0));
+            stock.add(view);
+        }
+        return stock;
+    }
+
+    private static List<Map<String, Object>> cashDesksView(Store store) {
+        List<Map<String, Object>> cashDesks = new ArrayList<>();
+        for (CashDesk cashDesk : store.getCashDesks()) {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("id", cashDesk.getId());
+            view.put("cashierId", cashDesk.getCashier());
+            ServiceFactory.getCashierService().findEntityById(cashDesk.getCashier())
+                    .ifPresent(cashier -> view.put("cashierName", cashier.getName()));
+            cashDesks.add(view);
+        }
+        return cashDesks;
+    }
+
+    private static Map<String, Object> reportView(Store store) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("storeId", store.getId());
+        view.put("name", store.getName());
+        view.put("receipts", store.getReceiptCount());
+        view.put("salariesExpense", money(store.calculateTotalSalariesExpenseCents()));
+        view.put("deliveredGoodsExpense", money(store.calculateDeliveredGoodsExpenseCents()));
+        view.put("income", money(store.calculateTotalIncomeCents()));
+        view.put("profit", money(store.calculateProfitCents()));
+        return view;
+    }
+
+    private static Map<String, Object> reportView(StoreFinancials store) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("storeId", store.getStoreId());
+        view.put("name", store.getName());
+        view.put("receipts", store.getReceiptCount());
+        view.put("salariesExpense", money(store.getSalariesExpenseCents()));
+        view.put("deliveredGoodsExpense", money(store.getDeliveredGoodsExpenseCents()));
+        view.put("income", money(store.getIncomeCents()));
+        view.put("profit", money(store.getProfitCents()));
+        return view;
+    }
+
+    private static Map<String, Object> clientView(Client client) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("id", client.getId());
+        view.put("name", client.getName());
+        view.put("balance", money(client.getBalanceCents()));
+        return view;
+    }
+
+    private static Map<String, Object> receiptView(Receipt receipt) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("id", receipt.getId());
+        view.put("storeId", receipt.getStore());
+        view.put("clientId", receipt.getClient());
+        view.put("cashierId", receipt.getCashier());
+        view.put("dateTime", String.valueOf(receipt.getDateTime()));
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (Map.Entry<Product, Integer> entry : receipt.getPurchasedProducts().entrySet()) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("productId", entry.getKey().getId());
+            line.put("name", entry.getKey().getName());
+            line.put("quantity", entry.getValue());
+            line.put("unitPrice", money(receipt.getUnitPriceCents(entry.getKey())));
+            lines.add(line);
+        }
+        view.put("lines", lines);
+        view.put("total", money(receipt.getTotalPriceCents()));
+        return view;
+    }
+}
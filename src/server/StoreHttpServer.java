@@ -0,0 +1,167 @@
+package server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import service.ServiceFactory;
+import util.DataInitializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP сървър, който предоставя {@link StoreApi} като JSON на зададен адрес и порт. API-то няма удостоверяване,
+ * затова по подразбиране сървърът приема заявки само от локалния компютър.
+ * Използва вградения в JDK {@code com.sun.net.httpserver} и обработва всяка заявка във виртуална нишка,
+ * така че много каси и справочни инструменти могат да използват един и същ процес едновременно.
+ */
+public class StoreHttpServer {
+
+    private static final int DEFAULT_PORT = 8080;
+
+    private final StoreApi api = new StoreApi();
+    private final Gson gson = new GsonBuilder().serializeNulls().create();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Конструктор, който създава сървъра на локалния адрес ({@link InetAddress#getLoopbackAddress()}), без да го стартира.
+     *
+     * @param port Портът, на който сървърът приема заявки (0 за произволен свободен порт).
+     * @throws IOException ако портът не може да бъде зает.
+     */
+    public StoreHttpServer(int port) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Конструктор, който създава сървъра на даден адрес, без да го стартира.
+     *
+     * @param host Адресът, на който сървърът приема заявки.
+     * @param port Портът, на който сървърът приема заявки (0 за произволен свободен порт).
+     * @throws IOException ако портът не може да бъде зает.
+     */
+    public StoreHttpServer(InetAddress host, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext(StoreApi.PREFIX, this::handle);
+    }
+
+    /**
+     * Стартира сървъра.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Спира сървъра, като изчаква до една секунда текущите заявки да завършат,
+     * и записва използваните индекси за справки.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.close();
+        ServiceFactory.getReceiptAnalyticsService().saveIndexes();
+    }
+
+    /**
+     * Връща порта, на който сървърът приема заявки.
+     *
+     * @return Портът на сървъра.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Връща адреса, на който сървърът приема заявки.
+     *
+     * @return Адресът на сървъра.
+     */
+    public InetAddress getHost() {
+        return server.getAddress().getAddress();
+    }
+
+    /**
+     * Стартира приложението в режим на сървър: {@code java Main server [host=127.0.0.1] [port=8080]}.
+     * За достъп от други компютри адресът трябва да бъде зададен изрично, например {@code host=0.0.0.0}.
+     *
+     * @param args Настройки във вида ключ=стойност.
+     * @throws IllegalArgumentException ако някоя настройка е непозната или невалидна.
+     */
+    public static void main(String[] args) {
+        InetAddress host = InetAddress.getLoopbackAddress();
+        int port = DEFAULT_PORT;
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Непозната настройка: " + arg);
+            }
+            switch (parts[0]) {
+                case "host":
+                    try {
+                        host = InetAddress.getByName(parts[1]);
+                    } catch (UnknownHostException e) {
+                        throw new IllegalArgumentException("Невалидна стойност за " + parts[0] + ": " + parts[1]);
+                    }
+                    break;
+                case "port":
+                    try {
+                        port = Integer.parseInt(parts[1]);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Невалидна стойност за " + parts[0] + ": " + parts[1]);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Непозната настройка: " + arg);
+            }
+        }
+
+        DataInitializer.initializeData();
+        ServiceFactory.getRepricingService().start();
+
+        try {
+            StoreHttpServer httpServer = new StoreHttpServer(host, port);
+            Runtime.getRuntime().addShutdownHook(new Thread(httpServer::stop));
+            httpServer.start();
+            System.out.println("Сървърът приема заявки на http://" + httpServer.getHost().getHostAddress() + ":"
+                    + httpServer.getPort() + StoreApi.PREFIX);
+        } catch (IOException e) {
+            System.err.println("Грешка при стартиране на сървъра: " + e.getMessage());
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+
+            ApiResponse response;
+            try {
+                response = api.handle(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+                        exchange.getRequestURI().getRawQuery(), body);
+            } catch (RuntimeException e) {
+                System.err.println("Грешка при обработка на " + exchange.getRequestURI() + ": " + e);
+                response = ApiResponse.error(500, "Вътрешна грешка на сървъра");
+            }
+
+            byte[] json = gson.toJson(response.getBody()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.getStatus(), json.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(json);
+            }
+        }
+    }
+}
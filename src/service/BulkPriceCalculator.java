@@ -0,0 +1,126 @@
+package service;
+
+import model.Product;
+import model.ProductCategory;
+import model.Store;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Изчислява крайните цени на много продукти наведнъж.
+ * Покупните цени, категориите и оставащите дни до изтичане на срока на годност се подреждат
+ * в примитивни масиви, а изчислението се извършва с Vector API ({@code jdk.incubator.vector}),
+ * когато модулът е наличен (JVM е стартирана с {@code --add-modules jdk.incubator.vector}).
+ * В противен случай се използва обикновен цикъл. И двата начина дават точно същия резултат като
+ * {@link Store#getProductFinalPrice(Product)}, защото изпълняват същите операции в същия ред.
+ */
+public class BulkPriceCalculator {
+
+    private static final boolean VECTOR_API_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && !Boolean.getBoolean("store.pricing.disableVectorApi");
+
+    // Частен конструктор, за да предотвратим създаването на инстанции
+    private BulkPriceCalculator() {
+    }
+
+    /**
+     * Проверява дали изчисленията се извършват с Vector API.
+     *
+     * @return true, ако се използва Vector API, false ако се използва обикновен цикъл.
+     */
+    public static boolean isVectorApiAvailable() {
+        return VECTOR_API_AVAILABLE;
+    }
+
+    /**
+     * Изчислява крайните цени на продуктите в даден магазин.
+     *
+     * @param store    Магазинът, чиито надценки и отстъпки се прилагат.
+     * @param products Продуктите, за които се изчисляват цените.
+     * @return Масив с крайните цени в реда на подадените продукти.
+     * @throws IllegalArgumentException ако за категорията на някой продукт няма зададена надценка.
+     */
+    public static double[] computeFinalPrices(Store store, List<Product> products) {
+        int size = products.size();
+        double[] purchasePrices = new double[size];
+        int[] categoryOrdinals = new int[size];
+        int[] daysToExpiry = new int[size];
+        double[] markups = markupsByCategoryOrdinal(store);
+        LocalDate today = LocalDate.now();
+
+        for (int i = 0; i < size; i++) {
+            Product product = products.get(i);
+            if (Double.isNaN(markups[product.getCategory().ordinal()])) {
+                throw new IllegalArgumentException("Магазин с ID " + store.getId() + " няма надценка за категория " + product.getCategory());
+            }
+            purchasePrices[i] = product.getUnitPurchasePrice();
+            categoryOrdinals[i] = product.getCategory().ordinal();
+            daysToExpiry[i] = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE,
+                    ChronoUnit.DAYS.between(today, product.getExpirationDate())));
+        }
+
+        double[] finalPrices = new double[size];
+        computeFinalPrices(purchasePrices, categoryOrdinals, daysToExpiry, markups,
+                store.getDaysBeforeExpirationThreshold(), store.getDiscountPercentNearExpiration(), finalPrices, size);
+        return finalPrices;
+    }
+
+    /**
+     * Изчислява крайните цени на продукти, подредени в примитивни масиви.
+     *
+     * @param purchasePrices                Покупни цени на продуктите.
+     * @param categoryOrdinals              Поредни номера на категориите на продуктите ({@link ProductCategory#ordinal()}).
+     * @param daysToExpiry                  Оставащи дни до изтичане на срока на годност.
+     * @param markupsByCategoryOrdinal      Проценти на надценка, индексирани по пореден номер на категория.
+     * @param daysBeforeExpirationThreshold Брой дни преди изтичане на срока на годност, за които се прилага отстъпка.
+     * @param discountPercentNearExpiration Процент на отстъпка за продукти с наближаващ срок на годност.
+     * @param finalPrices                   Масив, в който се записват крайните цени.
+     * @param length                        Брой на продуктите за изчисление.
+     */
+    public static void computeFinalPrices(double[] purchasePrices, int[] categoryOrdinals, int[] daysToExpiry,
+                                          double[] markupsByCategoryOrdinal, int daysBeforeExpirationThreshold,
+                                          double discountPercentNearExpiration, double[] finalPrices, int length) {
+        if (VECTOR_API_AVAILABLE) {
+            VectorPriceKernel.computeFinalPrices(purchasePrices, categoryOrdinals, daysToExpiry, markupsByCategoryOrdinal,
+                    daysBeforeExpirationThreshold, discountPercentNearExpiration, finalPrices, length);
+        } else {
+            computeFinalPricesScalar(purchasePrices, categoryOrdinals, daysToExpiry, markupsByCategoryOrdinal,
+                    daysBeforeExpirationThreshold, discountPercentNearExpiration, finalPrices, 0, length);
+        }
+    }
+
+    /**
+     * Изчислява крайните цени с обикновен цикъл. Използва се, когато Vector API не е наличен,
+     * и за последните елементи, които не запълват цял вектор.
+     */
+    static void computeFinalPricesScalar(double[] purchasePrices, int[] categoryOrdinals, int[] daysToExpiry,
+                                         double[] markupsByCategoryOrdinal, int daysBeforeExpirationThreshold,
+                                         double discountPercentNearExpiration, double[] finalPrices, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double purchasePrice = purchasePrices[i];
+            double productFinalPrice = purchasePrice + (purchasePrice * markupsByCategoryOrdinal[categoryOrdinals[i]] / 100);
+            if (daysBeforeExpirationThreshold >= daysToExpiry[i]) {
+                productFinalPrice = productFinalPrice - (productFinalPrice * discountPercentNearExpiration / 100);
+            }
+            finalPrices[i] = productFinalPrice;
+        }
+    }
+
+    /**
+     * Подрежда процентите на надценка на магазина в масив, индексиран по пореден номер на категория.
+     *
+     * @param store Магазинът.
+     * @return Масив с проценти на надценка. За категории без надценка стойността е NaN.
+     */
+    public static double[] markupsByCategoryOrdinal(Store store) {
+        ProductCategory[] categories = ProductCategory.values();
+        double[] markups = new double[categories.length];
+        for (ProductCategory category : categories) {
+            Double markup = store.getMarkupPercentages().get(category);
+            markups[category.ordinal()] = markup != null ? markup : Double.NaN;
+        }
+        return markups;
+    }
+}
@@ -1,6 +1,8 @@
 package service;
 
 import dao.FileStorage;
+import metrics.Metrics;
+import metrics.ServiceMetrics;
 import model.CashDesk;
 
 import java.util.ArrayList;
@@ -12,6 +14,8 @@ import java.util.function.Predicate;
  */
 public class CashDeskService implements DataService<CashDesk, Integer> {
 
+    private static final ServiceMetrics METRICS = new ServiceMetrics("CashDeskService");
+
     /**
      * Създава нов касов апарат.
      *
@@ -21,9 +25,14 @@ public class CashDeskService implements DataService<CashDesk, Integer> {
      */
     @Override
     public CashDesk createEntity(CashDesk entity) {
-        validateEntity(entity);
-        FileStorage.addObject(entity);
-        return entity;
+        long start = Metrics.startTimer();
+        try {
+            validateEntity(entity);
+            FileStorage.addObject(entity);
+            return entity;
+        } finally {
+            Metrics.stopTimer(METRICS.createEntity, start);
+        }
     }
 
     /**
@@ -35,17 +44,22 @@ public class CashDeskService implements DataService<CashDesk, Integer> {
      */
     @Override
     public CashDesk updateEntity(CashDesk entity) {
-        validateEntity(entity);
+        long start = Metrics.startTimer();
+        try {
+            validateEntity(entity);
 
-        boolean updated = FileStorage.updateObject(
-                entity, c -> c.getId() == entity.getId());
+            boolean updated = FileStorage.updateObject(
+                    entity, c -> c.getId() == entity.getId());
 
-        if (!updated) {
-            throw new IllegalArgumentException(
-                    "Каса с ID " + entity.getId() + " не съществува");
-        }
+            if (!updated) {
+                throw new IllegalArgumentException(
+                        "Каса с ID " + entity.getId() + " не съществува");
+            }
 
-        return entity;
+            return entity;
+        } finally {
+            Metrics.stopTimer(METRICS.updateEntity, start);
+        }
     }
 
     /**
@@ -56,7 +70,12 @@ public class CashDeskService implements DataService<CashDesk, Integer> {
      */
     @Override
     public Optional<CashDesk> findEntityById(Integer integer) {
-        return FileStorage.findObjectById(CashDesk.class, integer);
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.findObjectById(CashDesk.class, integer);
+        } finally {
+            Metrics.stopTimer(METRICS.findEntityById, start);
+        }
     }
 
     /**
@@ -66,7 +85,12 @@ public class CashDeskService implements DataService<CashDesk, Integer> {
      */
     @Override
     public ArrayList<CashDesk> getAllEntities() {
-        return FileStorage.getCollection(CashDesk.class);
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.getCollection(CashDesk.class);
+        } finally {
+            Metrics.stopTimer(METRICS.getAllEntities, start);
+        }
     }
 
     /**
@@ -77,9 +101,14 @@ public class CashDeskService implements DataService<CashDesk, Integer> {
      */
     @Override
     public Optional<CashDesk> findEntityByFilter(Predicate<CashDesk> filter) {
-        return FileStorage.getCollection(CashDesk.class)
-                .stream()
-                .filter(filter).findFirst();
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.getCollection(CashDesk.class)
+                    .stream()
+                    .filter(filter).findFirst();
+        } finally {
+            Metrics.stopTimer(METRICS.findEntityByFilter, start);
+        }
     }
 
     /**
@@ -90,9 +119,14 @@ public class CashDeskService implements DataService<CashDesk, Integer> {
      */
     @Override
     public ArrayList<CashDesk> findEntitiesByFilter(Predicate<CashDesk> filter) {
-        return (ArrayList<CashDesk>) FileStorage.getCollection(CashDesk.class)
-                .stream()
-                .filter(filter).toList();
+        long start = Metrics.startTimer();
+        try {
+            return (ArrayList<CashDesk>) FileStorage.getCollection(CashDesk.class)
+                    .stream()
+                    .filter(filter).toList();
+        } finally {
+            Metrics.stopTimer(METRICS.findEntitiesByFilter, start);
+        }
     }
 
     /**
@@ -103,17 +137,22 @@ public class CashDeskService implements DataService<CashDesk, Integer> {
      */
     @Override
     public void validateEntity(CashDesk cashDesk) {
-        if (cashDesk == null) {
-            throw new IllegalArgumentException("Касиерът не може да бъде null");
-        }
-        if (cashDesk.getId() < 0) {
-            throw new IllegalArgumentException("Невалиден ID на каса");
-        }
-        if (cashDesk.getStore() < 0) {
-            throw new IllegalArgumentException("Касата с ID " + cashDesk.getId() + " трябва да бъде свързана с магазин");
-        }
-        if (cashDesk.getCashier() < 0) {
-            throw new IllegalArgumentException("Касата с ID " + cashDesk.getId() + " трябва да има назначен касиер");
+        long start = Metrics.startTimer();
+        try {
+            if (cashDesk == null) {
+                throw new IllegalArgumentException("Касиерът не може да бъде null");
+            }
+            if (cashDesk.getId() < 0) {
+                throw new IllegalArgumentException("Невалиден ID на каса");
+            }
+            if (cashDesk.getStore() < 0) {
+                throw new IllegalArgumentException("Касата с ID " + cashDesk.getId() + " трябва да бъде свързана с магазин");
+            }
+            if (cashDesk.getCashier() < 0) {
+                throw new IllegalArgumentException("Касата с ID " + cashDesk.getId() + " трябва да има назначен касиер");
+            }
+        } finally {
+            Metrics.stopTimer(METRICS.validateEntity, start);
         }
     }
 }
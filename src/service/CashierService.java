@@ -1,7 +1,10 @@
 package service;
 
 import dao.FileStorage;
+import metrics.Metrics;
+import metrics.ServiceMetrics;
 import model.Cashier;
+import model.Money;
 
 import java.util.ArrayList;
 import java.util.Optional;
@@ -12,6 +15,7 @@ import java.util.function.Predicate;
  */
 public class CashierService implements DataService<Cashier, Integer> {
 
+    private static final ServiceMetrics METRICS = new ServiceMetrics("CashierService");
 
     /**
      * Създава нов касиер.
@@ -22,9 +26,14 @@ public class CashierService implements DataService<Cashier, Integer> {
      */
     @Override
     public Cashier createEntity(Cashier entity) {
-        validateEntity(entity);
-        FileStorage.addObject(entity);
-        return entity;
+        long start = Metrics.startTimer();
+        try {
+            validateEntity(entity);
+            FileStorage.addObject(entity);
+            return entity;
+        } finally {
+            Metrics.stopTimer(METRICS.createEntity, start);
+        }
     }
 
     /**
@@ -36,17 +45,22 @@ public class CashierService implements DataService<Cashier, Integer> {
      */
     @Override
     public Cashier updateEntity(Cashier entity) {
-        validateEntity(entity);
+        long start = Metrics.startTimer();
+        try {
+            validateEntity(entity);
 
-        boolean updated = FileStorage.updateObject(
-                entity, c -> c.getId() == entity.getId());
+            boolean updated = FileStorage.updateObject(
+                    entity, c -> c.getId() == entity.getId());
 
-        if (!updated) {
-            throw new IllegalArgumentException(
-                    "Касиер с ID " + entity.getId() + " не съществува");
-        }
+            if (!updated) {
+                throw new IllegalArgumentException(
+                        "Касиер с ID " + entity.getId() + " не съществува");
+            }
 
-        return entity;
+            return entity;
+        } finally {
+            Metrics.stopTimer(METRICS.updateEntity, start);
+        }
     }
 
 
@@ -58,7 +72,12 @@ public class CashierService implements DataService<Cashier, Integer> {
      */
     @Override
     public Optional<Cashier> findEntityById(Integer integer) {
-        return FileStorage.findObjectById(Cashier.class, integer);
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.findObjectById(Cashier.class, integer);
+        } finally {
+            Metrics.stopTimer(METRICS.findEntityById, start);
+        }
     }
 
     /**
@@ -68,7 +87,12 @@ public class CashierService implements DataService<Cashier, Integer> {
      */
     @Override
     public ArrayList<Cashier> getAllEntities() {
-        return FileStorage.getCollection(Cashier.class);
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.getCollection(Cashier.class);
+        } finally {
+            Metrics.stopTimer(METRICS.getAllEntities, start);
+        }
     }
 
     /**
@@ -79,9 +103,14 @@ public class CashierService implements DataService<Cashier, Integer> {
      */
     @Override
     public Optional<Cashier> findEntityByFilter(Predicate<Cashier> filter) {
-        return FileStorage.getCollection(Cashier.class)
-                .stream()
-                .filter(filter).findFirst();
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.getCollection(Cashier.class)
+                    .stream()
+                    .filter(filter).findFirst();
+        } finally {
+            Metrics.stopTimer(METRICS.findEntityByFilter, start);
+        }
     }
 
     /**
@@ -92,9 +121,14 @@ public class CashierService implements DataService<Cashier, Integer> {
      */
     @Override
     public ArrayList<Cashier> findEntitiesByFilter(Predicate<Cashier> filter) {
-        return (ArrayList<Cashier>) FileStorage.getCollection(Cashier.class)
-                .stream()
-                .filter(filter).toList();
+        long start = Metrics.startTimer();
+        try {
+            return (ArrayList<Cashier>) FileStorage.getCollection(Cashier.class)
+                    .stream()
+                    .filter(filter).toList();
+        } finally {
+            Metrics.stopTimer(METRICS.findEntitiesByFilter, start);
+        }
     }
 
     // Допълнителни специфични методи за касиери могат да бъдат добавени тук
@@ -105,9 +139,9 @@ public class CashierService implements DataService<Cashier, Integer> {
      * @return Сумата на заплатите на всички касиери.
      */
     public double calculateTotalSalaries() {
-        return getAllEntities().stream()
-                .mapToDouble(Cashier::getSalary)
-                .sum();
+        return Money.toDouble(getAllEntities().stream()
+                .mapToLong(Cashier::getSalaryCents)
+                .sum());
     }
 
 
@@ -119,21 +153,26 @@ public class CashierService implements DataService<Cashier, Integer> {
      */
     @Override
     public void validateEntity(Cashier cashier) {
-        if (cashier == null) {
-            throw new IllegalArgumentException("Касиерът не може да бъде null");
+        long start = Metrics.startTimer();
+        try {
+            if (cashier == null) {
+                throw new IllegalArgumentException("Касиерът не може да бъде null");
+            }
+
+            if (cashier.getId() < 0) {
+                throw new IllegalArgumentException("Невалиден ID на касиер");
+            }
+
+            if (cashier.getName() == null || cashier.getName().trim().isEmpty()) {
+                throw new IllegalArgumentException("Името на касиер с ID " + cashier.getId() + " не може да бъде null или празно");
+            }
+
+            if (cashier.getSalary() < 0) {
+                throw new IllegalArgumentException("Заплатата на касиер с ID " + cashier.getId() + " не може да бъде отрицателна");
+            }
+
+        } finally {
+            Metrics.stopTimer(METRICS.validateEntity, start);
         }
-
-        if (cashier.getId() < 0) {
-            throw new IllegalArgumentException("Невалиден ID на касиер");
-        }
-
-        if (cashier.getName() == null || cashier.getName().trim().isEmpty()) {
-            throw new IllegalArgumentException("Името на касиер с ID " + cashier.getId() + " не може да бъде null или празно");
-        }
-
-        if (cashier.getSalary() < 0) {
-            throw new IllegalArgumentException("Заплатата на касиер с ID " + cashier.getId() + " не може да бъде отрицателна");
-        }
-
     }
 }
@@ -0,0 +1,122 @@
+package service;
+
+import dao.FileStorage;
+import model.Client;
+import model.Product;
+import model.Receipt;
+import model.Store;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Покупки, извършени с {@link CheckoutService#checkout(model.Cart, CheckoutBatch)}, които още не са записани.
+ * Наличностите и балансите вече са променени в паметта, а касовите бележки, магазините и клиентите
+ * се записват наведнъж с {@link #flush()} вместо при всяка покупка.
+ * Един обект се използва от една нишка.
+ */
+public class CheckoutBatch {
+
+    private final List<Receipt> receipts = new ArrayList<>();
+    private final List<Store> receiptStores = new ArrayList<>();
+    private final List<Client> receiptClients = new ArrayList<>();
+    private final Set<Store> stores = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Client> clients = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Добавя извършена, но още незаписана покупка.
+     *
+     * @param receipt Касовата бележка без ID.
+     * @param store   Магазинът, в който е извършена покупката.
+     * @param client  Клиентът.
+     */
+    void add(Receipt receipt, Store store, Client client) {
+        receipts.add(receipt);
+        receiptStores.add(store);
+        receiptClients.add(client);
+        stores.add(store);
+        clients.add(client);
+    }
+
+    /**
+     * Връща броя на незаписаните покупки.
+     *
+     * @return Брой покупки.
+     */
+    public int size() {
+        return receipts.size();
+    }
+
+    /**
+     * Проверява дали има незаписани покупки.
+     *
+     * @return true, ако няма незаписани покупки, false в противен случай.
+     */
+    public boolean isEmpty() {
+        return receipts.isEmpty();
+    }
+
+    /**
+     * Записва касовите бележки (като им задава ID), добавя ги към магазините, добавя събитията на променените
+     * магазини в дневниците им и записва променените клиенти с едно записване. Покупките се премахват от групата
+     * и при неуспешно записване. Ако касовите бележки не са записани, промените по наличностите и балансите
+     * се отменят, за да не бъдат записани по-късно заедно с други промени на същите магазини и клиенти.
+     *
+     * @return Записаните касови бележки.
+     * @throws RuntimeException ако записването е неуспешно.
+     */
+    public List<Receipt> flush() {
+        List<Receipt> saved = new ArrayList<>(receipts);
+        if (saved.isEmpty()) {
+            return saved;
+        }
+
+        boolean[] receiptsSaved = {false};
+        try {
+            FileStorage.atomically(() -> {
+                ServiceFactory.getReceiptService().createEntities(saved);
+                receiptsSaved[0] = true;
+                for (int i = 0; i < saved.size(); i++) {
+                    receiptStores.get(i).addReceipt(saved.get(i).getId());
+                }
+                StoreService storeService = ServiceFactory.getStoreService();
+                for (Store store : stores) {
+                    storeService.updateEntity(store);
+                }
+                FileStorage.updateObjects(Client.class, new ArrayList<>(clients));
+            });
+        } catch (RuntimeException e) {
+            if (!receiptsSaved[0]) {
+                FileStorage.atomically(this::revert);
+            }
+            throw e;
+        } finally {
+            receipts.clear();
+            receiptStores.clear();
+            receiptClients.clear();
+            stores.clear();
+            clients.clear();
+        }
+        return saved;
+    }
+
+    /**
+     * Отменя промените по магазините и клиентите, направени при покупките в групата.
+     */
+    private void revert() {
+        for (int i = 0; i < receipts.size(); i++) {
+            Receipt receipt = receipts.get(i);
+            Store store = receiptStores.get(i);
+            for (Map.Entry<Product, Integer> entry : receipt.getPurchasedProducts().entrySet()) {
+                store.addProductStock(entry.getKey(), entry.getValue());
+                store.removeProductSold(entry.getKey(), entry.getValue());
+            }
+            Client client = receiptClients.get(i);
+            client.setBalanceCents(client.getBalanceCents() + receipt.getTotalPriceCents());
+        }
+    }
+}
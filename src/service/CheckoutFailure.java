@@ -0,0 +1,17 @@
+package service;
+
+/**
+ * Причини, поради които покупка не може да бъде извършена.
+ */
+public enum CheckoutFailure {
+    STORE_NOT_FOUND,
+    CLIENT_NOT_FOUND,
+    CASH_DESK_NOT_FOUND,
+    CASH_DESK_NOT_IN_STORE,
+    CASHIER_NOT_FOUND,
+    EMPTY_CART,
+    PRODUCT_NOT_FOUND,
+    PRODUCT_UNAVAILABLE,
+    INSUFFICIENT_STOCK,
+    INSUFFICIENT_BALANCE,
+}
@@ -0,0 +1,76 @@
+package service;
+
+import model.Receipt;
+
+/**
+ * Резултат от покупка - касова бележка при успех или причина и съобщение при неуспех.
+ */
+public class CheckoutResult {
+
+    private final Receipt receipt;
+    private final CheckoutFailure failure;
+    private final String message;
+
+    private CheckoutResult(Receipt receipt, CheckoutFailure failure, String message) {
+        this.receipt = receipt;
+        this.failure = failure;
+        this.message = message;
+    }
+
+    /**
+     * Създава успешен резултат.
+     *
+     * @param receipt Касовата бележка.
+     * @return Успешен резултат.
+     */
+    public static CheckoutResult success(Receipt receipt) {
+        return new CheckoutResult(receipt, null, null);
+    }
+
+    /**
+     * Създава неуспешен резултат.
+     *
+     * @param failure Причината за неуспеха.
+     * @param message Съобщение с подробности.
+     * @return Неуспешен резултат.
+     */
+    public static CheckoutResult failure(CheckoutFailure failure, String message) {
+        return new CheckoutResult(null, failure, message);
+    }
+
+    /**
+     * Проверява дали покупката е успешна.
+     *
+     * @return true, ако покупката е успешна, false в противен случай.
+     */
+    public boolean isSuccessful() {
+        return failure == null;
+    }
+
+    /**
+     * Връща касовата бележка при успешна покупка.
+     *
+     * @return Касовата бележка или null при неуспех.
+     */
+    public Receipt getReceipt() {
+        return receipt;
+    }
+
+    /**
+     * Връща причината за неуспеха.
+     *
+     * @return Причината или null при успех.
+     */
+    public CheckoutFailure getFailure() {
+        return failure;
+    }
+
+    /**
+     * Връща съобщението с подробности за неуспеха.
+     *
+     * @return Съобщението или null при успех.
+     */
+    public String getMessage() {
+        return message;
+    }
+}
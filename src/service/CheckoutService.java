@@ -0,0 +1,295 @@
+package service;
+
+import dao.FileStorage;
+import metrics.CheckoutStepEvent;
+import metrics.Counter;
+import metrics.Histogram;
+import metrics.Metrics;
+import model.*;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Услуга за извършване на покупки без взаимодействие с конзолата.
+ * Приема количка (магазин, клиент, каса и продукти с количества) и връща касова бележка или причина за неуспех.
+ * Покупките в един и същ магазин и покупките на един и същ клиент се изпълняват последователно,
+ * така че наличностите и балансът не могат да станат отрицателни при едновременни покупки.
+ * Времето за всяка стъпка на покупката се записва в хистограмите {@code checkout.*} на {@link Metrics}
+ * и като JFR събитие {@link CheckoutStepEvent}.
+ */
+public class CheckoutService {
+
+    private static final Histogram TOTAL_TIME = Metrics.histogram("checkout.total");
+    private static final Histogram CART_BUILD_TIME = Metrics.histogram("checkout.cartBuild");
+    private static final Histogram RECEIPT_WRITE_TIME = Metrics.histogram("checkout.receiptWrite");
+    private static final Histogram STOCK_UPDATE_TIME = Metrics.histogram("checkout.stockUpdate");
+    private static final Histogram PAYMENT_TIME = Metrics.histogram("checkout.payment");
+    private static final Counter SUCCESSFUL = Metrics.counter("checkout.successful");
+    private static final Map<CheckoutFailure, Counter> FAILED = new EnumMap<>(CheckoutFailure.class);
+
+    static {
+        for (CheckoutFailure failure : CheckoutFailure.values()) {
+            FAILED.put(failure, Metrics.counter("checkout.failed." + failure));
+        }
+    }
+
+    private final Map<Integer, ReentrantLock> storeLocks = new ConcurrentHashMap<>();
+    private final Map<Integer, ReentrantLock> clientLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Проверява количката и изчислява касовата бележка, без да извършва покупката.
+     * Върнатата касова бележка няма ID и не е записана.
+     *
+     * @param cart Количката.
+     * @return Резултат с изчислената касова бележка или причина за неуспех.
+     * @throws IllegalArgumentException ако количката е null.
+     */
+    public CheckoutResult preview(Cart cart) {
+        return prepare(cart).toResult();
+    }
+
+    /**
+     * Извършва покупка: намалява наличностите в магазина, таксува клиента и записва касовата бележка.
+     *
+     * @param cart Количката.
+     * @return Резултат със записаната касова бележка или причина за неуспех.
+     * @throws IllegalArgumentException ако количката е null.
+     */
+    public CheckoutResult checkout(Cart cart) {
+        return checkout(cart, null);
+    }
+
+    /**
+     * Извършва покупка, като записването ѝ може да бъде отложено. Ако е подаден {@link CheckoutBatch},
+     * наличностите и балансът се променят веднага в паметта, а касовата бележка, магазинът и клиентът
+     * се записват при {@link CheckoutBatch#flush()}. Дотогава касовата бележка няма ID.
+     *
+     * @param cart  Количката.
+     * @param batch Незаписаните покупки, към които се добавя тази, или null за незабавно записване.
+     * @return Резултат с касовата бележка или причина за неуспех.
+     * @throws IllegalArgumentException ако количката е null.
+     */
+    public CheckoutResult checkout(Cart cart, CheckoutBatch batch) {
+        long start = Metrics.startTimer();
+        CheckoutResult result = null;
+        try {
+            result = checkoutTimed(cart, batch);
+            return result;
+        } finally {
+            Metrics.stopTimer(TOTAL_TIME, start);
+            if (result != null) {
+                Metrics.increment(result.isSuccessful() ? SUCCESSFUL : FAILED.get(result.getFailure()));
+            }
+        }
+    }
+
+    private CheckoutResult checkoutTimed(Cart cart, CheckoutBatch batch) {
+        long prepareStart = Metrics.startTimer();
+        CheckoutStepEvent prepareEvent = new CheckoutStepEvent();
+        prepareEvent.begin();
+        Checkout checkout = prepare(cart);
+        Metrics.stopTimer(CART_BUILD_TIME, prepareStart);
+        commitStep(prepareEvent, "cartBuild", cart.getStoreId(), cart.getClientId(), cart.getLines().size());
+        if (checkout.failure != null) {
+            return checkout.toResult();
+        }
+
+        // Заключванията се взимат винаги в един и същ ред (магазин, след това клиент), за да няма взаимно блокиране
+        ReentrantLock storeLock = storeLocks.computeIfAbsent(checkout.store.getId(), id -> new ReentrantLock());
+        ReentrantLock clientLock = clientLocks.computeIfAbsent(checkout.client.getId(), id -> new ReentrantLock());
+        storeLock.lock();
+        clientLock.lock();
+        try {
+            return commit(checkout, batch);
+        } finally {
+            clientLock.unlock();
+            storeLock.unlock();
+        }
+    }
+
+    private CheckoutResult commit(Checkout checkout, CheckoutBatch batch) {
+        Store store = checkout.store;
+        Client client = checkout.client;
+        Receipt receipt = checkout.receipt;
+
+        // Наличностите и балансът се проверяват отново, защото може да са променени от друга покупка
+        for (Map.Entry<Product, Integer> entry : receipt.getPurchasedProducts().entrySet()) {
+            CheckoutResult stockFailure = checkStock(store, entry.getKey(), entry.getValue());
+            if (stockFailure != null) {
+                return stockFailure;
+            }
+        }
+        CheckoutResult balanceFailure = checkBalance(client, receipt.getTotalPriceCents());
+        if (balanceFailure != null) {
+            return balanceFailure;
+        }
+
+        // Промените по магазина и клиента се записват под заключването на хранилището,
+        // за да не бъдат сериализирани от друга нишка, докато са наполовина извършени
+        FileStorage.atomically(() -> {
+            long start = Metrics.startTimer();
+            CheckoutStepEvent event = new CheckoutStepEvent();
+            event.begin();
+            if (batch == null) {
+                ServiceFactory.getReceiptService().createEntity(receipt);
+            } else {
+                ServiceFactory.getReceiptService().validateEntity(receipt);
+            }
+            Metrics.stopTimer(RECEIPT_WRITE_TIME, start);
+            commitStep(event, "receiptWrite", store.getId(), client.getId(), receipt.getPurchasedProducts().size());
+
+            start = Metrics.startTimer();
+            event = new CheckoutStepEvent();
+            event.begin();
+            for (Map.Entry<Product, Integer> entry : receipt.getPurchasedProducts().entrySet()) {
+                store.removeProductStock(entry.getKey(), entry.getValue());
+                store.addProductSold(entry.getKey(), entry.getValue());
+            }
+            if (batch == null) {
+                store.addReceipt(receipt.getId());
+                ServiceFactory.getStoreService().updateEntity(store);
+            }
+            Metrics.stopTimer(STOCK_UPDATE_TIME, start);
+            commitStep(event, "stockUpdate", store.getId(), client.getId(), receipt.getPurchasedProducts().size());
+
+            start = Metrics.startTimer();
+            event = new CheckoutStepEvent();
+            event.begin();
+            client.setBalanceCents(client.getBalanceCents() - receipt.getTotalPriceCents());
+            if (batch == null) {
+                ServiceFactory.getClientService().updateEntity(client);
+            } else {
+                batch.add(receipt, store, client);
+            }
+            Metrics.stopTimer(PAYMENT_TIME, start);
+            commitStep(event, "payment", store.getId(), client.getId(), receipt.getPurchasedProducts().size());
+        });
+
+        return CheckoutResult.success(receipt);
+    }
+
+    private Checkout prepare(Cart cart) {
+        if (cart == null) {
+            throw new IllegalArgumentException("Количката не може да бъде null");
+        }
+
+        Optional<Store> storeOpt = ServiceFactory.getStoreService().findEntityById(cart.getStoreId());
+        if (storeOpt.isEmpty()) {
+            return Checkout.failed(CheckoutFailure.STORE_NOT_FOUND, "Магазин с ID " + cart.getStoreId() + " не съществува");
+        }
+        Store store = storeOpt.get();
+
+        Optional<Client> clientOpt = ServiceFactory.getClientService().findEntityById(cart.getClientId());
+        if (clientOpt.isEmpty()) {
+            return Checkout.failed(CheckoutFailure.CLIENT_NOT_FOUND, "Клиент с ID " + cart.getClientId() + " не съществува");
+        }
+        Client client = clientOpt.get();
+
+        Optional<CashDesk> cashDeskOpt = ServiceFactory.getCashDeskService().findEntityById(cart.getCashDeskId());
+        if (cashDeskOpt.isEmpty()) {
+            return Checkout.failed(CheckoutFailure.CASH_DESK_NOT_FOUND, "Каса с ID " + cart.getCashDeskId() + " не съществува");
+        }
+        CashDesk cashDesk = cashDeskOpt.get();
+        if (!store.getCashiersIds().contains(cashDesk.getCashier())) {
+            return Checkout.failed(CheckoutFailure.CASH_DESK_NOT_IN_STORE,
+                    "Каса с ID " + cashDesk.getId() + " не е в магазин " + store.getName());
+        }
+
+        Optional<Cashier> cashierOpt = ServiceFactory.getCashierService().findEntityById(cashDesk.getCashier());
+        if (cashierOpt.isEmpty()) {
+            return Checkout.failed(CheckoutFailure.CASHIER_NOT_FOUND, "Касиерът с ID " + cashDesk.getCashier() + " не съществува");
+        }
+        Cashier cashier = cashierOpt.get();
+
+        if (cart.isEmpty()) {
+            return Checkout.failed(CheckoutFailure.EMPTY_CART, "Не сте избрали никакви продукти.");
+        }
+
+        StorePriceTable priceTable = ServiceFactory.getPriceTableService().getPriceTable(store);
+        ProductService productService = ServiceFactory.getProductService();
+        Map<Product, Integer> purchasedProducts = new LinkedHashMap<>();
+        Map<Integer, Long> unitPrices = new LinkedHashMap<>();
+
+        for (Map.Entry<Integer, Integer> line : cart.getLines().entrySet()) {
+            Optional<Product> productOpt = productService.findEntityById(line.getKey());
+            if (productOpt.isEmpty()) {
+                return Checkout.failed(CheckoutFailure.PRODUCT_NOT_FOUND, "Продукт с ID " + line.getKey() + " не съществува");
+            }
+            Product product = productOpt.get();
+            if (product.isProductExpired()) {
+                return Checkout.failed(CheckoutFailure.PRODUCT_UNAVAILABLE,
+                        "Продуктът " + product.getName() + " е с изтекъл срок на годност");
+            }
+            CheckoutResult stockFailure = checkStock(store, product, line.getValue());
+            if (stockFailure != null) {
+                return Checkout.failed(stockFailure);
+            }
+
+            purchasedProducts.put(product, line.getValue());
+            unitPrices.put(product.getId(), priceTable.getPriceCents(store, product));
+        }
+
+        LocalDateTime dateTime = cart.getDateTime() != null ? cart.getDateTime() : LocalDateTime.now();
+        Receipt receipt = new Receipt(client.getId(), cashier.getId(), store.getId(),
+                dateTime, purchasedProducts, unitPrices);
+
+        CheckoutResult balanceFailure = checkBalance(client, receipt.getTotalPriceCents());
+        if (balanceFailure != null) {
+            return Checkout.failed(balanceFailure);
+        }
+
+        return new Checkout(store, client, receipt, null);
+    }
+
+    private static void commitStep(CheckoutStepEvent event, String step, int storeId, int clientId, int lines) {
+        if (event.shouldCommit()) {
+            event.step = step;
+            event.storeId = storeId;
+            event.clientId = clientId;
+            event.entityCount = lines;
+            event.commit();
+        }
+    }
+
+    private static CheckoutResult checkStock(Store store, Product product, int quantity) {
+        int stock = store.getProductStock(product.getId());
+        if (stock < quantity) {
+            return CheckoutResult.failure(CheckoutFailure.INSUFFICIENT_STOCK,
+                    "Недостатъчно количество от продукта " + product.getName() + ". Недостигат " + (quantity - stock) + " броя.");
+        }
+        return null;
+    }
+
+    private static CheckoutResult checkBalance(Client client, long totalPrice) {
+        if (client.getBalanceCents() < totalPrice) {
+            return CheckoutResult.failure(CheckoutFailure.INSUFFICIENT_BALANCE,
+                    "Недостатъчен баланс. Вашият баланс е " + Money.format(client.getBalanceCents())
+                            + " лв., а общата цена е " + Money.format(totalPrice) + " лв.");
+        }
+        return null;
+    }
+
+    /**
+     * Междинен резултат от проверката на количката.
+     */
+    private record Checkout(Store store, Client client, Receipt receipt, CheckoutResult failure) {
+
+        static Checkout failed(CheckoutFailure failure, String message) {
+            return failed(CheckoutResult.failure(failure, message));
+        }
+
+        static Checkout failed(CheckoutResult failure) {
+            return new Checkout(null, null, null, failure);
+        }
+
+        CheckoutResult toResult() {
+            return failure != null ? failure : CheckoutResult.success(receipt);
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package service;
 
+import dao.ClientReceiptIndex;
 import dao.FileStorage;
+import metrics.Metrics;
+import metrics.ServiceMetrics;
 import model.Client;
+import model.Money;
+import model.Receipt;
+import util.NameIndex;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Predicate;
 
@@ -11,6 +19,12 @@ import java.util.function.Predicate;
  * Услуга за управление на клиенти.
  */
 public class ClientService implements DataService<Client, Integer> {
+
+    private static final ServiceMetrics METRICS = new ServiceMetrics("ClientService");
+
+    private volatile ClientReceiptIndex purchaseHistory;
+    private volatile NameIndex nameIndex;
+
     /**
      * Създава нов клиент.
      *
@@ -20,9 +34,15 @@ public class ClientService implements DataService<Client, Integer> {
      */
     @Override
     public Client createEntity(Client entity) {
-        validateEntity(entity);
-        FileStorage.addObject(entity);
-        return entity; // Return the created entity
+        long start = Metrics.startTimer();
+        try {
+            validateEntity(entity);
+            FileStorage.addObject(entity);
+            indexName(entity);
+            return entity; // Return the created entity
+        } finally {
+            Metrics.stopTimer(METRICS.createEntity, start);
+        }
     }
 
     /**
@@ -34,17 +54,23 @@ public class ClientService implements DataService<Client, Integer> {
      */
     @Override
     public Client updateEntity(Client entity) {
-        validateEntity(entity);
+        long start = Metrics.startTimer();
+        try {
+            validateEntity(entity);
 
-        boolean updated = FileStorage.updateObject(
-                entity, c -> c.getId() == entity.getId());
+            boolean updated = FileStorage.updateObject(
+                    entity, c -> c.getId() == entity.getId());
 
-        if (!updated) {
-            throw new IllegalArgumentException(
-                    "Клиент с ID " + entity.getId() + " не съществува");
-        }
+            if (!updated) {
+                throw new IllegalArgumentException(
+                        "Клиент с ID " + entity.getId() + " не съществува");
+            }
+            indexName(entity);
 
-        return entity;
+            return entity;
+        } finally {
+            Metrics.stopTimer(METRICS.updateEntity, start);
+        }
     }
 
     /**
@@ -55,7 +81,12 @@ public class ClientService implements DataService<Client, Integer> {
      */
     @Override
     public Optional<Client> findEntityById(Integer integer) {
-        return FileStorage.findObjectById(Client.class, integer);
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.findObjectById(Client.class, integer);
+        } finally {
+            Metrics.stopTimer(METRICS.findEntityById, start);
+        }
     }
 
     /**
@@ -65,7 +96,12 @@ public class ClientService implements DataService<Client, Integer> {
      */
     @Override
     public ArrayList<Client> getAllEntities() {
-        return FileStorage.getCollection(Client.class);
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.getCollection(Client.class);
+        } finally {
+            Metrics.stopTimer(METRICS.getAllEntities, start);
+        }
     }
 
     /**
@@ -76,10 +112,15 @@ public class ClientService implements DataService<Client, Integer> {
      */
     @Override
     public Optional<Client> findEntityByFilter(Predicate<Client> filter) {
-        return FileStorage.getCollection(Client.class)
-                .stream()
-                .filter(filter)
-                .findFirst();
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.getCollection(Client.class)
+                    .stream()
+                    .filter(filter)
+                    .findFirst();
+        } finally {
+            Metrics.stopTimer(METRICS.findEntityByFilter, start);
+        }
     }
 
     /**
@@ -90,10 +131,15 @@ public class ClientService implements DataService<Client, Integer> {
      */
     @Override
     public ArrayList<Client> findEntitiesByFilter(Predicate<Client> filter) {
-        return (ArrayList<Client>) FileStorage.getCollection(Client.class)
-                .stream()
-                .filter(filter)
-                .toList();
+        long start = Metrics.startTimer();
+        try {
+            return (ArrayList<Client>) FileStorage.getCollection(Client.class)
+                    .stream()
+                    .filter(filter)
+                    .toList();
+        } finally {
+            Metrics.stopTimer(METRICS.findEntitiesByFilter, start);
+        }
     }
 
     /**
@@ -104,17 +150,136 @@ public class ClientService implements DataService<Client, Integer> {
      */
     @Override
     public void validateEntity(Client entity) throws IllegalArgumentException {
-        if (entity == null) {
-            throw new IllegalArgumentException("Клиентът не може да бъде null");
+        long start = Metrics.startTimer();
+        try {
+            if (entity == null) {
+                throw new IllegalArgumentException("Клиентът не може да бъде null");
+            }
+            if (entity.getId() < 0) {
+                throw new IllegalArgumentException("Невалиден ID на клиент");
+            }
+            if (entity.getName() == null || entity.getName().trim().isEmpty()) {
+                throw new IllegalArgumentException("Името на клиент с ID " + entity.getId() + " не може да бъде null или празно");
+            }
+            if (entity.getBalance() < 0) {
+                throw new IllegalArgumentException("Балансът на клиент с ID " + entity.getId() + " не може да бъде отрицателен");
+            }
+        } finally {
+            Metrics.stopTimer(METRICS.validateEntity, start);
         }
-        if (entity.getId() < 0) {
-            throw new IllegalArgumentException("Невалиден ID на клиент");
+    }
+
+    /**
+     * Връща страница от покупките на клиент, започвайки от най-новата. ID-тата на касовите бележки се взимат
+     * от {@link ClientReceiptIndex}, а всяка касова бележка се чете от собствения си файл, така че времето
+     * зависи от размера на страницата, а не от общия брой касови бележки.
+     *
+     * @param clientId ID на клиента.
+     * @param offset   Брой пропуснати най-нови покупки.
+     * @param limit    Най-голям брой върнати покупки.
+     * @return Касовите бележки от най-новата към най-старата.
+     * @throws IllegalArgumentException ако offset е отрицателен или limit не е положителен.
+     */
+    public List<Receipt> getPurchaseHistory(int clientId, int offset, int limit) {
+        int[] receiptIds = getPurchaseHistoryIndex().newestFirst(clientId, offset, limit);
+        return ServiceFactory.getReceiptService().findEntitiesByIds(receiptIds);
+    }
+
+    /**
+     * Връща броя на покупките на клиент.
+     *
+     * @param clientId ID на клиента.
+     * @return Брой касови бележки на клиента.
+     */
+    public int countPurchases(int clientId) {
+        return getPurchaseHistoryIndex().count(clientId);
+    }
+
+    /**
+     * Връща индекса на касовите бележки по клиент, като го зарежда при първото извикване.
+     *
+     * @return Индексът.
+     */
+    public ClientReceiptIndex getPurchaseHistoryIndex() {
+        ClientReceiptIndex index = purchaseHistory;
+        if (index == null) {
+            FileStorage.atomically(() -> {
+                if (purchaseHistory == null) {
+                    purchaseHistory = ClientReceiptIndex.load(() -> ServiceFactory.getReceiptService().getAllEntities());
+                }
+            });
+            index = purchaseHistory;
         }
-        if (entity.getName() == null || entity.getName().trim().isEmpty()) {
-            throw new IllegalArgumentException("Името на клиент с ID " + entity.getId() + " не може да бъде null или празно");
+        return index;
+    }
+
+    /**
+     * Добавя новосъздадени касови бележки в историята на покупките на клиентите и ги записва в индекса.
+     * Извиква се под заключването на {@link FileStorage}, така че всяка касова бележка попада в индекса точно веднъж.
+     *
+     * @param receipts Записаните касови бележки (с ID).
+     */
+    public void receiptsCreated(Collection<Receipt> receipts) {
+        ClientReceiptIndex index = getPurchaseHistoryIndex();
+        for (Receipt receipt : receipts) {
+            index.add(receipt);
         }
-        if (entity.getBalance() < 0) {
-            throw new IllegalArgumentException("Балансът на клиент с ID " + entity.getId() + " не може да бъде отрицателен");
+        index.flush();
+    }
+
+    /**
+     * Премахва заредения индекс на покупките. Той ще бъде зареден отново при следващото използване.
+     */
+    public void invalidatePurchaseHistory() {
+        purchaseHistory = null;
+    }
+
+    /**
+     * Търси клиенти по начало на името, например "ив пет" за "Иван Петров".
+     *
+     * @param query Заявката. Празна заявка връща първите клиенти по азбучен ред.
+     * @param limit Най-голям брой резултати.
+     * @return Намерените клиенти (ID и име), подредени по съвпадение.
+     * @throws IllegalArgumentException ако limit не е положителен.
+     * @see NameIndex#search(String, int)
+     */
+    public List<NameIndex.Match> searchByName(String query, int limit) {
+        return getNameIndex().search(query, limit);
+    }
+
+    /**
+     * Връща индекса с имената на клиентите, като го създава при първото извикване.
+     *
+     * @return Индексът.
+     */
+    public NameIndex getNameIndex() {
+        NameIndex index = nameIndex;
+        if (index == null) {
+            FileStorage.atomically(() -> {
+                if (nameIndex == null) {
+                    NameIndex created = new NameIndex();
+                    for (Client client : getAllEntities()) {
+                        created.put(client.getId(), client.getName());
+                    }
+                    nameIndex = created;
+                }
+            });
+            index = nameIndex;
+        }
+        return index;
+    }
+
+    /**
+     * Премахва създадения индекс с имената. Той ще бъде създаден отново при следващото използване.
+     */
+    public void invalidateNameIndex() {
+        nameIndex = null;
+    }
+
+    private void indexName(Client client) {
+        NameIndex index = nameIndex;
+        if (index != null) {
+            index.put(client.getId(), client.getName());
         }
     }
 
@@ -140,37 +305,26 @@ public class ClientService implements DataService<Client, Integer> {
             }
         }
         client = this.createEntity(new Client(name, balance));
-        System.out.println("Регистрирахме ви успешно като клиент: " + client.getName() + " с баланс: " + client.getBalance() + " лв.");
+        System.out.println("Регистрирахме ви успешно като клиент: " + client.getName() + " с баланс: " + Money.format(client.getBalanceCents()) + " лв.");
 
         return client;
     }
 
     /**
-     * Позволява на съществуващ клиент да влезе в системата чрез избор от списък в конзолата.
+     * Позволява на съществуващ клиент да влезе в системата, като го търси по начало на името в конзолата.
+     * Показват се само най-добрите съвпадения, а не всички клиенти.
      * Ако няма регистрирани клиенти, първо извиква метода за регистрация.
      *
      * @return Влезлият в системата клиент.
      */
     public Client loginClient() {
-        ArrayList<Client> clients = this.getAllEntities();
-        if (clients.isEmpty()) {
+        if (getNameIndex().size() == 0) {
             System.out.println("Няма регистрирани клиенти. Моля, регистрирайте се първо.");
-            registerClient();
-        }
-        System.out.println("Изберете клиент от списъка:");
-        for (int i = 0; i < clients.size(); i++) {
-            System.out.println((i + 1) + ". " + clients.get(i).getName());
-        }
-        int clientIndex = -1;
-        while (clientIndex < 0 || clientIndex >= clients.size()) {
-            System.out.print("Въведете номера на клиента: ");
-            try {
-                clientIndex = Integer.parseInt(System.console().readLine()) - 1;
-            } catch (NumberFormatException e) {
-                System.out.println("Невалиден номер. Моля, опитайте отново.");
-            }
+            return registerClient();
         }
-        Client client = clients.get(clientIndex);
+        int clientId = ConsoleSearch.select(getNameIndex(), "Въведете началото на името на клиента");
+        Client client = findEntityById(clientId)
+                .orElseThrow(() -> new IllegalArgumentException("Клиент с ID " + clientId + " не съществува"));
         System.out.println("Добре дошли, " + client.getName() + "!");
 
         return client;
@@ -0,0 +1,57 @@
+package service;
+
+import util.NameIndex;
+
+import java.util.List;
+
+/**
+ * Избор на клиент или магазин от конзолата чрез търсене по име.
+ * Вместо целия списък се показват само първите {@code store.search.results} (по подразбиране 10) съвпадения
+ * с въведеното начало на името, а потребителят избира номер от тях или въвежда ново търсене.
+ */
+final class ConsoleSearch {
+
+    static final int RESULTS = Integer.getInteger("store.search.results", 10);
+
+    private ConsoleSearch() {
+    }
+
+    /**
+     * Търси в индекса, докато потребителят не избере някое от показаните имена.
+     *
+     * @param index  Индексът с имената.
+     * @param prompt Подканата за търсене, например "Въведете началото на името на клиента".
+     * @return ID на избрания обект.
+     */
+    static int select(NameIndex index, String prompt) {
+        List<NameIndex.Match> matches = List.of();
+        while (true) {
+            System.out.print(matches.isEmpty()
+                    ? prompt + " (Enter за първите " + RESULTS + "): "
+                    : "Въведете номер от списъка или ново търсене: ");
+            String input = System.console().readLine().trim();
+
+            if (!matches.isEmpty()) {
+                try {
+                    int number = Integer.parseInt(input);
+                    if (number >= 1 && number <= matches.size()) {
+                        return matches.get(number - 1).getId();
+                    }
+                    System.out.println("Невалиден номер. Моля, опитайте отново.");
+                    continue;
+                } catch (NumberFormatException e) {
+                    // Въведеният текст е ново търсене
+                }
+            }
+
+            matches = index.search(input, RESULTS);
+            if (matches.isEmpty()) {
+                System.out.println("Няма намерени съвпадения. Моля, опитайте отново.");
+                continue;
+            }
+            for (int i = 0; i < matches.size(); i++) {
+                System.out.println((i + 1) + ". " + matches.get(i).getName());
+            }
+        }
+    }
+}
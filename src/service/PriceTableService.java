@@ -0,0 +1,72 @@
+package service;
+
+import model.Product;
+import model.Store;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Услуга, която поддържа отделна таблица с продажни цени за всеки магазин.
+ * Цените зависят от надценките и отстъпките на конкретния магазин, затова не се записват
+ * в общия за всички магазини обект {@link Product}.
+ */
+public class PriceTableService {
+
+    private final Map<Integer, StorePriceTable> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Връща актуалната таблица с цени за даден магазин.
+     * Ако денят или правилата за ценообразуване са се променили, версията на таблицата се увеличава.
+     *
+     * @param store Магазинът.
+     * @return Таблицата с цени на магазина.
+     */
+    public StorePriceTable getPriceTable(Store store) {
+        StorePriceTable table = tables.computeIfAbsent(store.getId(), StorePriceTable::new);
+        table.refreshVersion(store);
+        return table;
+    }
+
+    /**
+     * Връща продажната цена на продукт в даден магазин.
+     *
+     * @param store   Магазинът.
+     * @param product Продуктът.
+     * @return Продажната цена на продукта в магазина.
+     */
+    public double getPrice(Store store, Product product) {
+        return getPriceTable(store).getPrice(store, product);
+    }
+
+    /**
+     * Връща продажната цена на продукт в даден магазин в стотинки.
+     *
+     * @param store   Магазинът.
+     * @param product Продуктът.
+     * @return Продажната цена на продукта в магазина в стотинки.
+     */
+    public long getPriceCents(Store store, Product product) {
+        return getPriceTable(store).getPriceCents(store, product);
+    }
+
+    /**
+     * Маркира цената на продукт като неактуална във всички магазини.
+     *
+     * @param productId ID на продукта.
+     */
+    public void invalidateProduct(int productId) {
+        for (StorePriceTable table : tables.values()) {
+            table.invalidate(productId);
+        }
+    }
+
+    /**
+     * Премахва таблицата с цени на даден магазин. Тя ще бъде създадена отново при следващото използване.
+     *
+     * @param storeId ID на магазина.
+     */
+    public void invalidateStore(int storeId) {
+        tables.remove(storeId);
+    }
+}
@@ -0,0 +1,150 @@
+package service;
+
+import model.Product;
+import model.ProductCategory;
+import model.Store;
+import util.NameIndex;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Индекс за търсене в каталога с продукти. Комбинира индекс по начало на думите от името ({@link NameIndex})
+ * с множество от ID-та на продуктите за всяка категория и с множеството на наличните продукти в магазина
+ * ({@link Store#getInStockProducts()}), така че страница с резултати се намира, без да се преглежда целият каталог.
+ * Индексът се поддържа от {@link ProductService}, а наличностите се четат направо от магазина.
+ */
+public class ProductCatalog {
+
+    private final NameIndex names = new NameIndex();
+    private final Map<ProductCategory, BitSet> byCategory = new EnumMap<>(ProductCategory.class);
+    private final Map<Integer, Product> products = new HashMap<>();
+
+    /**
+     * Създава индекс с дадените продукти.
+     *
+     * @param products Продуктите.
+     * @return Индексът.
+     */
+    public static ProductCatalog of(Collection<Product> products) {
+        ProductCatalog catalog = new ProductCatalog();
+        for (Product product : products) {
+            catalog.put(product);
+        }
+        return catalog;
+    }
+
+    /**
+     * Добавя продукт или заменя досегашния продукт със същото ID, например след промяна на името или категорията.
+     *
+     * @param product Продуктът (с ID).
+     */
+    public synchronized void put(Product product) {
+        Product previous = products.put(product.getId(), product);
+        if (previous != null && previous.getCategory() != product.getCategory()) {
+            byCategory.get(previous.getCategory()).clear(product.getId());
+        }
+        byCategory.computeIfAbsent(product.getCategory(), category -> new BitSet()).set(product.getId());
+        names.put(product.getId(), product.getName());
+    }
+
+    /**
+     * Връща броя на продуктите в индекса.
+     *
+     * @return Брой продукти.
+     */
+    public synchronized int size() {
+        return products.size();
+    }
+
+    /**
+     * Търси продукти по начало на думите от името, подредени както в {@link NameIndex#search(String, int)}.
+     * Празна заявка връща продуктите по азбучен ред.
+     *
+     * @param query    Заявката, например "кафе зър".
+     * @param category Категорията или null за всички категории.
+     * @param store    Магазинът, в който продуктите трябва да са налични и с валиден срок на годност, или null за всички продукти.
+     * @param offset   Брой пропуснати резултати.
+     * @param limit    Най-голям брой върнати резултати.
+     * @return Страницата с резултати.
+     * @throws IllegalArgumentException ако offset е отрицателен или limit не е положителен.
+     */
+    public synchronized Page search(String query, ProductCategory category, Store store, int offset, int limit) {
+        if (offset < 0 || limit <= 0 || offset > Integer.MAX_VALUE - limit - 1) {
+            throw new IllegalArgumentException("Отместването не може да бъде отрицателно, а броят трябва да бъде положителен");
+        }
+        IntPredicate filter = id -> true;
+        if (category != null) {
+            BitSet inCategory = byCategory.getOrDefault(category, new BitSet());
+            filter = inCategory::get;
+        }
+        if (store != null) {
+            BitSet inStock = store.getInStockProducts();
+            filter = filter.and(inStock::get).and(id -> !products.get(id).isProductExpired());
+        }
+
+        // Търси се един резултат повече, за да се разбере дали има следваща страница
+        List<NameIndex.Match> matches = names.search(query, offset + limit + 1, filter);
+        List<Product> page = new ArrayList<>();
+        for (int i = offset; i < Math.min(offset + limit, matches.size()); i++) {
+            page.add(products.get(matches.get(i).getId()));
+        }
+        return new Page(page, offset, matches.size() > offset + limit);
+    }
+
+    /**
+     * Страница с резултати от търсене в каталога.
+     */
+    public static class Page {
+
+        private final List<Product> products;
+        private final int offset;
+        private final boolean hasMore;
+
+        /**
+         * Конструктор за създаване на страница.
+         *
+         * @param products Продуктите в страницата.
+         * @param offset   Брой пропуснати резултати преди страницата.
+         * @param hasMore  Дали има още резултати след страницата.
+         */
+        public Page(List<Product> products, int offset, boolean hasMore) {
+            this.products = List.copyOf(products);
+            this.offset = offset;
+            this.hasMore = hasMore;
+        }
+
+        /**
+         * Връща продуктите в страницата.
+         *
+         * @return Непроменим списък с продуктите.
+         */
+        public List<Product> getProducts() {
+            return products;
+        }
+
+        /**
+         * Връща броя на пропуснатите резултати преди страницата.
+         *
+         * @return Отместване на страницата.
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * Проверява дали има още резултати след страницата.
+         *
+         * @return true, ако има следваща страница.
+         */
+        public boolean hasMore() {
+            return hasMore;
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package service;
 
 import dao.FileStorage;
+import metrics.Metrics;
+import metrics.ServiceMetrics;
 import model.Product;
+import model.ProductCategory;
+import model.Store;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Predicate;
 
@@ -12,6 +18,10 @@ import java.util.function.Predicate;
  */
 public class ProductService implements DataService<Product, Integer> {
 
+    private static final ServiceMetrics METRICS = new ServiceMetrics("ProductService");
+
+    private volatile ProductCatalog catalog;
+
     /**
      * Създава нов продукт.
      *
@@ -21,9 +31,15 @@ public class ProductService implements DataService<Product, Integer> {
      */
     @Override
     public Product createEntity(Product entity) {
-        validateEntity(entity);
-        FileStorage.addObject(entity);
-        return entity;
+        long start = Metrics.startTimer();
+        try {
+            validateEntity(entity);
+            FileStorage.addObject(entity);
+            catalogChanged(List.of(entity));
+            return entity;
+        } finally {
+            Metrics.stopTimer(METRICS.createEntity, start);
+        }
     }
 
     /**
@@ -35,17 +51,24 @@ public class ProductService implements DataService<Product, Integer> {
      */
     @Override
     public Product updateEntity(Product entity) {
-        validateEntity(entity);
-
-        boolean updated = FileStorage.updateObject(
-                entity, p -> p.getId() == entity.getId());
-
-        if (!updated) {
-            throw new IllegalArgumentException(
-                    "Продукт с ID " + entity.getId() + " не съществува");
+        long start = Metrics.startTimer();
+        try {
+            validateEntity(entity);
+
+            boolean updated = FileStorage.updateObject(
+                    entity, p -> p.getId() == entity.getId());
+
+            if (!updated) {
+                throw new IllegalArgumentException(
+                        "Продукт с ID " + entity.getId() + " не съществува");
+            }
+
+            ServiceFactory.getPriceTableService().invalidateProduct(entity.getId());
+            catalogChanged(List.of(entity));
+            return entity;
+        } finally {
+            Metrics.stopTimer(METRICS.updateEntity, start);
         }
-
-        return entity;
     }
 
     /**
@@ -56,7 +79,12 @@ public class ProductService implements DataService<Product, Integer> {
      */
     @Override
     public Optional<Product> findEntityById(Integer integer) {
-        return FileStorage.findObjectById(Product.class, integer);
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.findObjectById(Product.class, integer);
+        } finally {
+            Metrics.stopTimer(METRICS.findEntityById, start);
+        }
     }
 
     /**
@@ -66,7 +94,12 @@ public class ProductService implements DataService<Product, Integer> {
      */
     @Override
     public ArrayList<Product> getAllEntities() {
-        return FileStorage.getCollection(Product.class);
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.getCollection(Product.class);
+        } finally {
+            Metrics.stopTimer(METRICS.getAllEntities, start);
+        }
     }
 
     /**
@@ -77,9 +110,14 @@ public class ProductService implements DataService<Product, Integer> {
      */
     @Override
     public Optional<Product> findEntityByFilter(Predicate<Product> filter) {
-        return FileStorage.getCollection(Product.class).stream()
-                .filter(filter)
-                .findFirst();
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.getCollection(Product.class).stream()
+                    .filter(filter)
+                    .findFirst();
+        } finally {
+            Metrics.stopTimer(METRICS.findEntityByFilter, start);
+        }
     }
 
     /**
@@ -90,44 +128,104 @@ public class ProductService implements DataService<Product, Integer> {
      */
     @Override
     public ArrayList<Product> findEntitiesByFilter(Predicate<Product> filter) {
-        return (ArrayList<Product>) FileStorage.getCollection(Product.class).stream()
-                .filter(filter)
-                .toList();
+        long start = Metrics.startTimer();
+        try {
+            return (ArrayList<Product>) FileStorage.getCollection(Product.class).stream()
+                    .filter(filter)
+                    .toList();
+        } finally {
+            Metrics.stopTimer(METRICS.findEntitiesByFilter, start);
+        }
     }
 
     /**
-     * Валидира данните на продукт.
+     * Търси продукти в каталога по начало на думите от името, категория и наличност в магазин.
      *
-     * @param product Продуктът за валидиране.
-     * @throws IllegalArgumentException ако някоя от данните е невалидна (null, отрицателно ID, празно име, отрицателна цена, липсваща категория или срок на годност).
+     * @param query    Заявката. Празна заявка връща продуктите по азбучен ред.
+     * @param category Категорията или null за всички категории.
+     * @param store    Магазинът, в който продуктите трябва да са налични и с валиден срок на годност, или null.
+     * @param offset   Брой пропуснати резултати.
+     * @param limit    Най-голям брой върнати резултати.
+     * @return Страницата с резултати.
+     * @throws IllegalArgumentException ако offset е отрицателен или limit не е положителен.
+     * @see ProductCatalog#search(String, ProductCategory, Store, int, int)
      */
-    @Override
-    public void validateEntity(Product product) {
-        if (product == null) {
-            throw new IllegalArgumentException("Продуктът не може да бъде null");
-        }
-        if (product.getId() < 0) {
-            throw new IllegalArgumentException("ID на продукта трябва да бъде положително число");
-        }
-        if (product.getName() == null || product.getName().isEmpty()) {
-            throw new IllegalArgumentException("Името на продукт с ID " + product.getId() + " не може да бъде null или празно");
-        }
+    public ProductCatalog.Page searchProducts(String query, ProductCategory category, Store store, int offset, int limit) {
+        return getCatalog().search(query, category, store, offset, limit);
+    }
 
-        if (product.getUnitPurchasePrice() < 0) {
-            throw new IllegalArgumentException("Покупната цена на продукт с ID " + product.getId() + " трябва да бъде положително число");
+    /**
+     * Връща индекса на каталога с продукти, като го създава при първото извикване.
+     *
+     * @return Индексът.
+     */
+    public ProductCatalog getCatalog() {
+        ProductCatalog index = catalog;
+        if (index == null) {
+            FileStorage.atomically(() -> {
+                if (catalog == null) {
+                    catalog = ProductCatalog.of(getAllEntities());
+                }
+            });
+            index = catalog;
         }
+        return index;
+    }
 
-        if (product.getUnitSalePrice() < 0) {
-            throw new IllegalArgumentException("Продажната цена на продукт с ID " + product.getId() + " трябва да бъде положително число");
-        }
+    /**
+     * Премахва създадения индекс на каталога. Той ще бъде създаден отново при следващото използване.
+     */
+    public void invalidateCatalog() {
+        catalog = null;
+    }
 
-        if (product.getCategory() == null) {
-            throw new IllegalArgumentException("Категорията на продукт с ID " + product.getId() + " не може да бъде null");
+    private void catalogChanged(Collection<Product> entities) {
+        ProductCatalog index = catalog;
+        if (index != null) {
+            for (Product entity : entities) {
+                index.put(entity);
+            }
         }
+    }
 
-        if (product.getExpirationDate() == null) {
-            throw new IllegalArgumentException("Срокът на годност на продукт с ID " + product.getId() + " не може да бъде null");
+    /**
+     * Валидира данните на продукт.
+     *
+     * @param product Продуктът за валидиране.
+     * @throws IllegalArgumentException ако някоя от данните е невалидна (null, отрицателно ID, празно име, отрицателна цена, липсваща категория или срок на годност).
+     */
+    @Override
+    public void validateEntity(Product product) {
+        long start = Metrics.startTimer();
+        try {
+            if (product == null) {
+                throw new IllegalArgumentException("Продуктът не може да бъде null");
+            }
+            if (product.getId() < 0) {
+                throw new IllegalArgumentException("ID на продукта трябва да бъде положително число");
+            }
+            if (product.getName() == null || product.getName().isEmpty()) {
+                throw new IllegalArgumentException("Името на продукт с ID " + product.getId() + " не може да бъде null или празно");
+            }
+
+            if (product.getUnitPurchasePrice() < 0) {
+                throw new IllegalArgumentException("Покупната цена на продукт с ID " + product.getId() + " трябва да бъде положително число");
+            }
+
+            if (product.getUnitSalePrice() < 0) {
+                throw new IllegalArgumentException("Продажната цена на продукт с ID " + product.getId() + " трябва да бъде положително число");
+            }
+
+            if (product.getCategory() == null) {
+                throw new IllegalArgumentException("Категорията на продукт с ID " + product.getId() + " не може да бъде null");
+            }
+
+            if (product.getExpirationDate() == null) {
+                throw new IllegalArgumentException("Срокът на годност на продукт с ID " + product.getId() + " не може да бъде null");
+            }
+
+        } finally {
+            Metrics.stopTimer(METRICS.validateEntity, start);
         }
-
     }
 }
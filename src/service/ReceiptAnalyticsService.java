@@ -0,0 +1,525 @@
+package service;
+
+import analytics.BasketQuantiles;
+import analytics.BasketSketch;
+import analytics.BestSellers;
+import analytics.CashierLeaderboard;
+import analytics.DistinctClients;
+import analytics.DistinctCount;
+import analytics.ReceiptBitmapIndex;
+import analytics.ReceiptLineStore;
+import analytics.ReceiptQuery;
+import analytics.RoaringBitmap;
+import analytics.SalesRollup;
+import analytics.SalesTotals;
+import dao.FileStorage;
+import model.ProductCategory;
+import model.Receipt;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Услуга за справки по касовите бележки. Поддържа структури за справки, които се създават при първото
+ * използване и се допълват с всяка нова касова бележка, създадена през {@link ReceiptService}:
+ * <ul>
+ *     <li>{@link ReceiptBitmapIndex} - зарежда се от {@code index/receipt-bitmaps_all.idx}, като при зареждането
+ *     се прочитат само касовите бележки след последната записана;</li>
+ *     <li>{@link ReceiptLineStore} - колонно копие на редовете от касовите бележки, което се пази само в паметта;</li>
+ *     <li>{@link BestSellers} - най-продаваните продукти за последните {@code store.bestSellers.buckets} интервала от
+ *     {@code store.bestSellers.bucketMinutes} минути (по подразбиране 288 по 5 минути, т.е. едно денонощие);</li>
+ *     <li>{@link DistinctClients} - броят на различните клиенти по магазин и ден, записан по дни
+ *     в {@code index/unique-clients_<дата>.idx} със списък на дните в {@code index/unique-clients_manifest.idx}.
+ *     При зареждането се прочитат само касовите бележки след последната записана;</li>
+ *     <li>{@link BasketQuantiles} - разпределенията на стойността и броя на артикулите в касовите бележки по ден,
+ *     магазин и касиер със скици KLL с параметър {@code store.basketQuantiles.k} (по подразбиране 200), пазени само в паметта;</li>
+ *     <li>{@link SalesRollup} - обобщените продажби по магазин, касиер и категория за минути, часове и дни. Пазят се
+ *     последните {@code store.rollup.minutes} минути (по подразбиране 1440) и часовете за последните
+ *     {@code store.rollup.hourDays} дни (по подразбиране 31). Дните се записват по месеци в
+ *     {@code index/sales-rollup_<месец>.idx}, а минутите и часовете - в {@code index/sales-rollup_manifest.idx}.
+ *     При зареждането се прочитат само касовите бележки след последната записана.</li>
+ * </ul>
+ * Структурите, които се пазят само в паметта, се създават заедно с едно обхождане на касовите бележки.
+ * Структурите се създават и допълват под заключването на {@link FileStorage}, така че всяка касова бележка
+ * попада в тях точно веднъж.
+ */
+public class ReceiptAnalyticsService {
+
+    /**
+     * Име на индекса във {@link FileStorage}.
+     */
+    public static final String BITMAP_INDEX_NAME = "receipt-bitmaps";
+    private static final String BITMAP_INDEX_KEY = "all";
+    /**
+     * Име на индекса с броя на различните клиенти във {@link FileStorage}.
+     */
+    public static final String DISTINCT_CLIENTS_INDEX_NAME = "unique-clients";
+    private static final String DISTINCT_CLIENTS_MANIFEST_KEY = "manifest";
+    /**
+     * Име на индекса с обобщените продажби във {@link FileStorage}.
+     */
+    public static final String SALES_ROLLUP_INDEX_NAME = "sales-rollup";
+    private static final String SALES_ROLLUP_MANIFEST_KEY = "manifest";
+    private static final int BEST_SELLERS_CAPACITY = Integer.getInteger("store.bestSellers.capacity", 200);
+    private static final int BEST_SELLERS_BUCKET_MINUTES = Integer.getInteger("store.bestSellers.bucketMinutes", 5);
+    private static final int BEST_SELLERS_BUCKETS = Integer.getInteger("store.bestSellers.buckets", 288);
+    private static final int BASKET_QUANTILES_K = Integer.getInteger("store.basketQuantiles.k", 200);
+    private static final int ROLLUP_MINUTES = Integer.getInteger("store.rollup.minutes", 1440);
+    private static final int ROLLUP_HOUR_DAYS = Integer.getInteger("store.rollup.hourDays", 31);
+    private static final int SAVE_EVERY_RECEIPTS = Integer.getInteger("store.analytics.saveEvery", 1000);
+
+    private volatile ReceiptBitmapIndex bitmapIndex;
+    private volatile ReceiptLineStore lineStore;
+    private volatile BestSellers bestSellers;
+    private volatile DistinctClients distinctClients;
+    private volatile BasketQuantiles basketQuantiles;
+    private volatile SalesRollup salesRollup;
+    // Брой на касовите бележки, добавени в записваните индекси след последното им записване (под заключването на FileStorage)
+    private int receiptsSinceSave;
+
+    /**
+     * Връща индекса на касовите бележки, като го зарежда при първото извикване.
+     *
+     * @return Индексът.
+     */
+    public ReceiptBitmapIndex getBitmapIndex() {
+        ReceiptBitmapIndex index = bitmapIndex;
+        if (index == null) {
+            FileStorage.atomically(() -> {
+                if (bitmapIndex == null) {
+                    bitmapIndex = loadBitmapIndex();
+                }
+            });
+            index = bitmapIndex;
+        }
+        return index;
+    }
+
+    /**
+     * Връща колонното хранилище на редовете от касовите бележки, като го създава при първото извикване
+     * заедно с останалите структури в паметта.
+     *
+     * @return Хранилището.
+     */
+    public ReceiptLineStore getLineStore() {
+        ReceiptLineStore store = lineStore;
+        if (store == null) {
+            buildInMemoryStructures();
+            store = lineStore;
+        }
+        return store;
+    }
+
+    /**
+     * Връща най-продаваните продукти по периоди, като ги създава от касовите бележки при първото извикване.
+     *
+     * @return Най-продаваните продукти.
+     */
+    public BestSellers getBestSellers() {
+        BestSellers sellers = bestSellers;
+        if (sellers == null) {
+            buildInMemoryStructures();
+            sellers = bestSellers;
+        }
+        return sellers;
+    }
+
+    /**
+     * Връща приблизителния брой на различните клиенти в даден период. Скиците се зареждат при първото извикване,
+     * а частите за отделните дни - при нужда.
+     *
+     * @param storeId ID на магазина или null за всички магазини.
+     * @param from    Първият ден (включително).
+     * @param to      Последният ден (включително).
+     * @return Оценката и грешката ѝ.
+     * @throws IllegalArgumentException ако началото е след края.
+     */
+    public DistinctCount countDistinctClients(Integer storeId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Началната дата " + from + " е след крайната дата " + to);
+        }
+        DistinctCount[] result = new DistinctCount[1];
+        // Частите се четат от FileStorage, затова заключването на хранилището се взима преди това на скиците
+        FileStorage.atomically(() -> result[0] = getDistinctClients().count(storeId, from, to));
+        return result[0];
+    }
+
+    /**
+     * Връща скиците на различните клиенти, като ги зарежда при първото извикване. Ако списъкът с дни липсва,
+     * скиците се създават от всички касови бележки, а в противен случай се добавят само по-новите бележки.
+     *
+     * @return Скиците на различните клиенти.
+     */
+    public DistinctClients getDistinctClients() {
+        DistinctClients clients = distinctClients;
+        if (clients == null) {
+            FileStorage.atomically(() -> {
+                if (distinctClients == null) {
+                    distinctClients = loadDistinctClients();
+                }
+            });
+            clients = distinctClients;
+        }
+        return clients;
+    }
+
+    /**
+     * Връща разпределенията на касовите бележки по ден, магазин и касиер, като ги създава при първото извикване.
+     *
+     * @return Разпределенията.
+     */
+    public BasketQuantiles getBasketQuantiles() {
+        BasketQuantiles quantiles = basketQuantiles;
+        if (quantiles == null) {
+            buildInMemoryStructures();
+            quantiles = basketQuantiles;
+        }
+        return quantiles;
+    }
+
+    /**
+     * Връща разпределението на стойността и броя на артикулите в касовите бележки за даден период.
+     *
+     * @param storeId   ID на магазина или null за всички магазини.
+     * @param cashierId ID на касиера или null за всички касиери.
+     * @param from      Първият ден (включително).
+     * @param to        Последният ден (включително).
+     * @return Разпределението.
+     * @throws IllegalArgumentException ако началото е след края.
+     */
+    public BasketSketch summarizeBaskets(Integer storeId, Integer cashierId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Началната дата " + from + " е след крайната дата " + to);
+        }
+        return getBasketQuantiles().summarize(storeId, cashierId, from, to);
+    }
+
+    /**
+     * Връща обобщените продажби, като ги зарежда при първото извикване. Ако записът липсва, те се създават
+     * от всички касови бележки, а в противен случай се добавят само по-новите бележки.
+     *
+     * @return Обобщените продажби.
+     */
+    public SalesRollup getSalesRollup() {
+        SalesRollup rollup = salesRollup;
+        if (rollup == null) {
+            FileStorage.atomically(() -> {
+                if (salesRollup == null) {
+                    salesRollup = loadSalesRollup();
+                }
+            });
+            rollup = salesRollup;
+        }
+        return rollup;
+    }
+
+    /**
+     * Връща обобщените продажби за период.
+     *
+     * @param storeId   ID на магазина или null за всички магазини.
+     * @param cashierId ID на касиера или null за всички касиери.
+     * @param category  Категорията или null за всички категории.
+     * @param from      Начало на периода (включително).
+     * @param to        Край на периода (без него).
+     * @return Сумите и действителният период.
+     * @throws IllegalArgumentException ако началото не е преди края.
+     */
+    public SalesTotals querySales(Integer storeId, Integer cashierId, ProductCategory category,
+                                  LocalDateTime from, LocalDateTime to) {
+        return getSalesRollup().query(storeId, cashierId, category, from, to);
+    }
+
+    /**
+     * Връща продажбите на всеки касиер за период от обобщените продажби. Те се допълват с всяка нова
+     * касова бележка, затова класирането на касиерите не преглежда касовите бележки.
+     *
+     * @param storeId ID на магазина или null за всички магазини.
+     * @param from    Начало на периода (включително).
+     * @param to      Край на периода (без него).
+     * @return Продажбите по касиер.
+     * @throws IllegalArgumentException ако началото не е преди края.
+     */
+    public CashierLeaderboard rankCashiers(Integer storeId, LocalDateTime from, LocalDateTime to) {
+        return getSalesRollup().queryCashiers(storeId, from, to);
+    }
+
+    /**
+     * Намира ID-тата на касовите бележки, отговарящи на филтъра.
+     *
+     * @param query Филтърът.
+     * @return Множество с ID-тата на касовите бележки.
+     */
+    public RoaringBitmap findReceiptIds(ReceiptQuery query) {
+        return getBitmapIndex().query(query);
+    }
+
+    /**
+     * Добавя новосъздадени касови бележки в създадените структури. Структурите, които още не са създадени,
+     * ще включат бележките при създаването си. Записваните индекси се записват на всеки
+     * {@code store.analytics.saveEvery} (по подразбиране 1000) касови бележки, така че при следващото
+     * стартиране се прочитат само касовите бележки след последното записване, без значение как е спряна програмата.
+     * Извиква се под заключването на {@link FileStorage}.
+     *
+     * @param receipts Записаните касови бележки (с ID).
+     */
+    public void receiptsCreated(Collection<Receipt> receipts) {
+        ReceiptBitmapIndex index = bitmapIndex;
+        ReceiptLineStore store = lineStore;
+        BestSellers sellers = bestSellers;
+        DistinctClients clients = distinctClients;
+        BasketQuantiles quantiles = basketQuantiles;
+        SalesRollup rollup = salesRollup;
+        for (Receipt receipt : receipts) {
+            if (index != null) {
+                index.add(receipt);
+            }
+            if (store != null) {
+                store.add(receipt);
+            }
+            if (sellers != null) {
+                sellers.add(receipt);
+            }
+            if (clients != null) {
+                clients.add(receipt);
+            }
+            if (quantiles != null) {
+                quantiles.add(receipt);
+            }
+            if (rollup != null) {
+                rollup.add(receipt);
+            }
+        }
+
+        if (index != null || clients != null || rollup != null) {
+            receiptsSinceSave += receipts.size();
+            if (receiptsSinceSave >= SAVE_EVERY_RECEIPTS) {
+                saveIndexes();
+            }
+        }
+    }
+
+    /**
+     * Записва заредените индекси - индекса на касовите бележки, променените дни от скиците на клиентите
+     * и променените месеци от обобщените продажби.
+     */
+    public void saveIndexes() {
+        FileStorage.atomically(() -> {
+            receiptsSinceSave = 0;
+            ReceiptBitmapIndex index = bitmapIndex;
+            if (index != null) {
+                FileStorage.writeIndexData(BITMAP_INDEX_NAME, BITMAP_INDEX_KEY, index.toBytes());
+            }
+            DistinctClients clients = distinctClients;
+            if (clients != null) {
+                saveDistinctClients(clients);
+            }
+            SalesRollup rollup = salesRollup;
+            if (rollup != null) {
+                saveSalesRollup(rollup);
+            }
+        });
+    }
+
+    /**
+     * Премахва заредения индекс на касовите бележки, без да го записва.
+     * Той ще бъде зареден отново при следващото използване.
+     */
+    public void invalidateBitmapIndex() {
+        bitmapIndex = null;
+    }
+
+    /**
+     * Премахва колонното хранилище на редовете. То ще бъде създадено отново при следващото използване.
+     */
+    public void invalidateLineStore() {
+        lineStore = null;
+    }
+
+    /**
+     * Премахва най-продаваните продукти. Те ще бъдат създадени отново при следващото използване.
+     */
+    public void invalidateBestSellers() {
+        bestSellers = null;
+    }
+
+    /**
+     * Премахва заредените скици на различните клиенти, без да ги записва.
+     * Те ще бъдат заредени отново при следващото използване.
+     */
+    public void invalidateDistinctClients() {
+        distinctClients = null;
+    }
+
+    /**
+     * Премахва разпределенията на касовите бележки. Те ще бъдат създадени отново при следващото използване.
+     */
+    public void invalidateBasketQuantiles() {
+        basketQuantiles = null;
+    }
+
+    /**
+     * Премахва заредените обобщени продажби, без да ги записва. Те ще бъдат заредени отново при следващото използване.
+     */
+    public void invalidateSalesRollup() {
+        salesRollup = null;
+    }
+
+    /**
+     * Създава всички структури, които се пазят само в паметта и още не са създадени, с едно обхождане
+     * на касовите бележки, така че първите справки след стартиране не зареждат историята за всяка структура поотделно.
+     */
+    private void buildInMemoryStructures() {
+        FileStorage.atomically(() -> {
+            ReceiptLineStore store = lineStore == null ? new ReceiptLineStore() : null;
+            BestSellers sellers = bestSellers == null
+                    ? new BestSellers(BEST_SELLERS_CAPACITY, BEST_SELLERS_BUCKET_MINUTES, BEST_SELLERS_BUCKETS) : null;
+            BasketQuantiles quantiles = basketQuantiles == null ? new BasketQuantiles(BASKET_QUANTILES_K) : null;
+            if (store == null && sellers == null && quantiles == null) {
+                return;
+            }
+
+            List<Receipt> receipts = ServiceFactory.getReceiptService().getAllEntities();
+            ServiceFactory.getReceiptService().assignLegacyStores(receipts);
+            for (Receipt receipt : receipts) {
+                if (store != null) {
+                    store.add(receipt);
+                }
+                if (sellers != null) {
+                    sellers.add(receipt);
+                }
+                if (quantiles != null) {
+                    quantiles.add(receipt);
+                }
+            }
+            if (store != null) {
+                lineStore = store;
+            }
+            if (sellers != null) {
+                bestSellers = sellers;
+            }
+            if (quantiles != null) {
+                basketQuantiles = quantiles;
+            }
+        });
+    }
+
+    /**
+     * Връща касовите бележки, които трябва да бъдат добавени към заредена или нова структура за справки.
+     * Всички касови бележки се зареждат само при първото създаване, а след това се четат само по-новите.
+     *
+     * @param saved         Дали структурата е прочетена от запис.
+     * @param lastReceiptId Последната касова бележка в записа.
+     * @return Касовите бележки за добавяне, с магазин и за бележките от по-стара версия.
+     */
+    private static List<Receipt> receiptsToCatchUp(boolean saved, int lastReceiptId) {
+        ReceiptService receiptService = ServiceFactory.getReceiptService();
+        List<Receipt> receipts = saved ? receiptService.findEntitiesAfter(lastReceiptId) : receiptService.getAllEntities();
+        receiptService.assignLegacyStores(receipts);
+        return receipts;
+    }
+
+    private ReceiptBitmapIndex loadBitmapIndex() {
+        ReceiptBitmapIndex index = null;
+        byte[] data = FileStorage.readIndexData(BITMAP_INDEX_NAME, BITMAP_INDEX_KEY);
+        if (data != null) {
+            try {
+                index = ReceiptBitmapIndex.fromBytes(data);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Индексът на касовите бележки ще бъде създаден отново: " + e.getMessage());
+                data = null;
+            }
+        }
+        if (index == null) {
+            index = new ReceiptBitmapIndex();
+        }
+
+        List<Receipt> receipts = receiptsToCatchUp(data != null, index.getLastReceiptId());
+        for (Receipt receipt : receipts) {
+            index.add(receipt);
+        }
+        if (!receipts.isEmpty() || data == null) {
+            FileStorage.writeIndexData(BITMAP_INDEX_NAME, BITMAP_INDEX_KEY, index.toBytes());
+        }
+        return index;
+    }
+
+    private DistinctClients loadDistinctClients() {
+        DistinctClients clients = null;
+        byte[] manifest = FileStorage.readIndexData(DISTINCT_CLIENTS_INDEX_NAME, DISTINCT_CLIENTS_MANIFEST_KEY);
+        if (manifest != null) {
+            try {
+                clients = DistinctClients.restore(manifest, day ->
+                        FileStorage.readIndexData(DISTINCT_CLIENTS_INDEX_NAME, LocalDate.ofEpochDay(day)));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Броят на клиентите ще бъде създаден отново: " + e.getMessage());
+            }
+        }
+        if (clients == null) {
+            clients = new DistinctClients(day -> null);
+            manifest = null;
+        }
+
+        List<Receipt> receipts = receiptsToCatchUp(manifest != null, clients.getLastReceiptId());
+        for (Receipt receipt : receipts) {
+            clients.add(receipt);
+        }
+        if (!receipts.isEmpty()) {
+            saveDistinctClients(clients);
+        }
+        return clients;
+    }
+
+    private static void saveDistinctClients(DistinctClients clients) {
+        Map<Integer, byte[]> partitions = clients.drainDirtyPartitions();
+        if (partitions.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Integer, byte[]> partition : partitions.entrySet()) {
+            FileStorage.writeIndexData(DISTINCT_CLIENTS_INDEX_NAME, LocalDate.ofEpochDay(partition.getKey()), partition.getValue());
+        }
+        // Списъкът с дни се записва след частите, за да не сочи към незаписана част
+        FileStorage.writeIndexData(DISTINCT_CLIENTS_INDEX_NAME, DISTINCT_CLIENTS_MANIFEST_KEY, clients.manifest());
+    }
+
+    private SalesRollup loadSalesRollup() {
+        SalesRollup rollup = null;
+        byte[] manifest = FileStorage.readIndexData(SALES_ROLLUP_INDEX_NAME, SALES_ROLLUP_MANIFEST_KEY);
+        if (manifest != null) {
+            try {
+                rollup = SalesRollup.restore(manifest, ROLLUP_MINUTES, ROLLUP_HOUR_DAYS, month ->
+                        FileStorage.readIndexData(SALES_ROLLUP_INDEX_NAME, month));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Обобщените продажби ще бъдат създадени отново: " + e.getMessage());
+            }
+        }
+        if (rollup == null) {
+            rollup = new SalesRollup(ROLLUP_MINUTES, ROLLUP_HOUR_DAYS);
+            manifest = null;
+        }
+
+        List<Receipt> receipts = receiptsToCatchUp(manifest != null, rollup.getLastReceiptId());
+        for (Receipt receipt : receipts) {
+            rollup.add(receipt);
+        }
+        if (!receipts.isEmpty()) {
+            saveSalesRollup(rollup);
+        }
+        return rollup;
+    }
+
+    private static void saveSalesRollup(SalesRollup rollup) {
+        Map<YearMonth, byte[]> months = rollup.drainDirtyMonths();
+        if (months.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<YearMonth, byte[]> month : months.entrySet()) {
+            FileStorage.writeIndexData(SALES_ROLLUP_INDEX_NAME, month.getKey(), month.getValue());
+        }
+        // Списъкът с месеци се записва след месеците, за да не сочи към незаписан месец
+        FileStorage.writeIndexData(SALES_ROLLUP_INDEX_NAME, SALES_ROLLUP_MANIFEST_KEY, rollup.manifest());
+    }
+}
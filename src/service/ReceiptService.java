@@ -1,9 +1,16 @@
 package service;
 
 import dao.FileStorage;
+import metrics.Metrics;
+import metrics.ServiceMetrics;
 import model.Receipt;
+import model.Store;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Predicate;
 
@@ -12,9 +19,10 @@ import java.util.function.Predicate;
  */
 public class ReceiptService implements DataService<Receipt, Integer> {
 
+    private static final ServiceMetrics METRICS = new ServiceMetrics("ReceiptService");
 
     static {
-        FileStorage.registerTypeWithCustomDir(Receipt.class, "data/receipts", true);
+        FileStorage.registerTypeWithCustomDir(Receipt.class, FileStorage.getDataDir() + "receipts", true);
     }
 
     /**
@@ -26,9 +34,42 @@ public class ReceiptService implements DataService<Receipt, Integer> {
      */
     @Override
     public Receipt createEntity(Receipt entity) {
-        validateEntity(entity);
-        FileStorage.addObject(entity);
-        return entity;
+        long start = Metrics.startTimer();
+        try {
+            validateEntity(entity);
+            FileStorage.atomically(() -> {
+                FileStorage.addObject(entity);
+                ServiceFactory.getClientService().receiptsCreated(List.of(entity));
+                ServiceFactory.getReceiptAnalyticsService().receiptsCreated(List.of(entity));
+            });
+            return entity;
+        } finally {
+            Metrics.stopTimer(METRICS.createEntity, start);
+        }
+    }
+
+    /**
+     * Създава няколко нови касови бележки с едно записване.
+     *
+     * @param entities Касовите бележки за създаване.
+     * @return Създадените касови бележки.
+     * @throws IllegalArgumentException ако данните за някоя от касовите бележки са невалидни.
+     */
+    public List<Receipt> createEntities(List<Receipt> entities) {
+        long start = Metrics.startTimer();
+        try {
+            for (Receipt entity : entities) {
+                validateEntity(entity);
+            }
+            FileStorage.atomically(() -> {
+                FileStorage.addObjects(Receipt.class, entities);
+                ServiceFactory.getClientService().receiptsCreated(entities);
+                ServiceFactory.getReceiptAnalyticsService().receiptsCreated(entities);
+            });
+            return entities;
+        } finally {
+            Metrics.stopTimer(METRICS.createEntity, start);
+        }
     }
 
     /**
@@ -40,17 +81,22 @@ public class ReceiptService implements DataService<Receipt, Integer> {
      */
     @Override
     public Receipt updateEntity(Receipt entity) {
-        validateEntity(entity);
+        long start = Metrics.startTimer();
+        try {
+            validateEntity(entity);
 
-        boolean updated = FileStorage.updateObject(
-                entity, r -> r.getId() == entity.getId());
+            boolean updated = FileStorage.updateObject(
+                    entity, r -> r.getId() == entity.getId());
 
-        if (!updated) {
-            throw new IllegalArgumentException(
-                    "Разписка с ID " + entity.getId() + " не съществува");
-        }
+            if (!updated) {
+                throw new IllegalArgumentException(
+                        "Разписка с ID " + entity.getId() + " не съществува");
+            }
 
-        return entity;
+            return entity;
+        } finally {
+            Metrics.stopTimer(METRICS.updateEntity, start);
+        }
     }
 
     /**
@@ -61,7 +107,86 @@ public class ReceiptService implements DataService<Receipt, Integer> {
      */
     @Override
     public Optional<Receipt> findEntityById(Integer integer) {
-        return FileStorage.findObjectById(Receipt.class, integer);
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.findObjectById(Receipt.class, integer);
+        } finally {
+            Metrics.stopTimer(METRICS.findEntityById, start);
+        }
+    }
+
+    /**
+     * Намира касови бележки по ID, като чете всяка от собствения ѝ файл, без да зарежда всички касови бележки.
+     * Липсващите касови бележки се пропускат.
+     *
+     * @param ids ID-тата на касовите бележки.
+     * @return Намерените касови бележки в реда на ID-тата.
+     */
+    public List<Receipt> findEntitiesByIds(int[] ids) {
+        long start = Metrics.startTimer();
+        try {
+            List<Receipt> receipts = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                FileStorage.readSeparateObject(Receipt.class, id).ifPresent(receipts::add);
+            }
+            return receipts;
+        } finally {
+            Metrics.stopTimer(METRICS.findEntityById, start);
+        }
+    }
+
+    /**
+     * Намира касовите бележки с ID след даденото, като чете само техните файлове, без да зарежда всички
+     * касови бележки. ID-тата се взимат от имената на файловете, така че липсващ файл по средата
+     * не скрива касовите бележки след него.
+     *
+     * @param lastId Последното ID, което вече е обработено.
+     * @return Касовите бележки с ID след даденото във възходящ ред.
+     */
+    public List<Receipt> findEntitiesAfter(int lastId) {
+        long start = Metrics.startTimer();
+        try {
+            int[] ids = FileStorage.listSeparateIds(Receipt.class, lastId);
+            List<Receipt> receipts = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                FileStorage.readSeparateObject(Receipt.class, id).ifPresent(receipts::add);
+            }
+            return receipts;
+        } finally {
+            Metrics.stopTimer(METRICS.findEntitiesByFilter, start);
+        }
+    }
+
+    /**
+     * Задава магазина на касовите бележки от по-стара версия, които нямат ID на магазин, по индексите
+     * с касовите бележки на магазините, и записва променените касови бележки. Така справките по магазин
+     * включват и старите продажби. Ако всички касови бележки имат магазин, магазините не се зареждат.
+     *
+     * @param receipts Касовите бележки, които се проверяват.
+     * @return Броят на касовите бележки, на които е зададен магазин.
+     */
+    public int assignLegacyStores(Collection<Receipt> receipts) {
+        List<Receipt> legacy = receipts.stream().filter(receipt -> receipt.getStore() == 0).toList();
+        if (legacy.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, Integer> storeByReceipt = new HashMap<>();
+        for (Store store : ServiceFactory.getStoreService().getAllEntities()) {
+            for (int receiptId : store.getReceiptIndex().toArray()) {
+                storeByReceipt.put(receiptId, store.getId());
+            }
+        }
+        List<Receipt> assigned = new ArrayList<>();
+        for (Receipt receipt : legacy) {
+            Integer storeId = storeByReceipt.get(receipt.getId());
+            if (storeId != null) {
+                receipt.setStore(storeId);
+                assigned.add(receipt);
+            }
+        }
+        FileStorage.updateObjects(Receipt.class, assigned);
+        return assigned.size();
     }
 
     /**
@@ -71,7 +196,12 @@ public class ReceiptService implements DataService<Receipt, Integer> {
      */
     @Override
     public ArrayList<Receipt> getAllEntities() {
-        return FileStorage.getCollection(Receipt.class);
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.getCollection(Receipt.class);
+        } finally {
+            Metrics.stopTimer(METRICS.getAllEntities, start);
+        }
     }
 
     /**
@@ -82,10 +212,15 @@ public class ReceiptService implements DataService<Receipt, Integer> {
      */
     @Override
     public Optional<Receipt> findEntityByFilter(Predicate<Receipt> filter) {
-        return FileStorage.getCollection(Receipt.class)
-                .stream()
-                .filter(filter)
-                .findFirst();
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.getCollection(Receipt.class)
+                    .stream()
+                    .filter(filter)
+                    .findFirst();
+        } finally {
+            Metrics.stopTimer(METRICS.findEntityByFilter, start);
+        }
     }
 
     /**
@@ -96,10 +231,15 @@ public class ReceiptService implements DataService<Receipt, Integer> {
      */
     @Override
     public ArrayList<Receipt> findEntitiesByFilter(Predicate<Receipt> filter) {
-        return (ArrayList<Receipt>) FileStorage.getCollection(Receipt.class)
-                .stream()
-                .filter(filter)
-                .toList();
+        long start = Metrics.startTimer();
+        try {
+            return (ArrayList<Receipt>) FileStorage.getCollection(Receipt.class)
+                    .stream()
+                    .filter(filter)
+                    .toList();
+        } finally {
+            Metrics.stopTimer(METRICS.findEntitiesByFilter, start);
+        }
     }
 
     /**
@@ -110,26 +250,31 @@ public class ReceiptService implements DataService<Receipt, Integer> {
      */
     @Override
     public void validateEntity(Receipt entity) throws IllegalArgumentException {
-        if (entity == null) {
-            throw new IllegalArgumentException("Разписката не може да бъде null");
-        }
-        if (entity.getId() < 0) {
-            throw new IllegalArgumentException("Невалиден ID на разписка");
-        }
-        if (entity.getClient() < 0) {
-            throw new IllegalArgumentException("Разписката с ID " + entity.getId() + " трябва да има клиент");
-        }
-        if (entity.getCashier() < 0) {
-            throw new IllegalArgumentException("Разписката с ID " + entity.getId() + " трябва да има назначен касиер");
-        }
-        if (entity.getDateTime() == null) {
-            throw new IllegalArgumentException("Разписката с ID " + entity.getId() + " трябва да има дата и час");
-        }
-        if (entity.getTotalPrice() < 0) {
-            throw new IllegalArgumentException("Разписката с ID " + entity.getId() + " трябва да има положителна цена");
-        }
-        if (entity.getPurchasedProducts() == null || entity.getPurchasedProducts().isEmpty()) {
-            throw new IllegalArgumentException("Разписката с ID " + entity.getId() + " трябва да има поне един закупен продукт");
+        long start = Metrics.startTimer();
+        try {
+            if (entity == null) {
+                throw new IllegalArgumentException("Разписката не може да бъде null");
+            }
+            if (entity.getId() < 0) {
+                throw new IllegalArgumentException("Невалиден ID на разписка");
+            }
+            if (entity.getClient() < 0) {
+                throw new IllegalArgumentException("Разписката с ID " + entity.getId() + " трябва да има клиент");
+            }
+            if (entity.getCashier() < 0) {
+                throw new IllegalArgumentException("Разписката с ID " + entity.getId() + " трябва да има назначен касиер");
+            }
+            if (entity.getDateTime() == null) {
+                throw new IllegalArgumentException("Разписката с ID " + entity.getId() + " трябва да има дата и час");
+            }
+            if (entity.getTotalPrice() < 0) {
+                throw new IllegalArgumentException("Разписката с ID " + entity.getId() + " трябва да има положителна цена");
+            }
+            if (entity.getPurchasedProducts() == null || entity.getPurchasedProducts().isEmpty()) {
+                throw new IllegalArgumentException("Разписката с ID " + entity.getId() + " трябва да има поне един закупен продукт");
+            }
+        } finally {
+            Metrics.stopTimer(METRICS.validateEntity, start);
         }
     }
 }
@@ -0,0 +1,113 @@
+package service;
+
+import model.Money;
+import model.Product;
+import model.Store;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Услуга за инкрементално преизчисляване на продажните цени на продуктите в таблиците с цени на магазините.
+ * Преизчисляват се само цените, които не са актуални за текущата версия на таблицата на съответния магазин -
+ * например след промяна на надценката на магазина, на покупната цена или при навлизане на продукта
+ * в периода за отстъпка в началото на деня. Услугата може да се стартира като ежедневна фонова задача.
+ *
+ * @see StorePriceTable
+ */
+public class RepricingService {
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Преизчислява неактуалните цени на наличните продукти във всички магазини.
+     *
+     * @return Броят на преизчислените цени.
+     */
+    public synchronized int repriceChangedProducts() {
+        StoreService storeService = ServiceFactory.getStoreService();
+        ProductService productService = ServiceFactory.getProductService();
+        PriceTableService priceTableService = ServiceFactory.getPriceTableService();
+
+        ArrayList<Store> stores = storeService.getAllEntities();
+        if (stores.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, Product> productsById = new HashMap<>();
+        for (Product product : productService.getAllEntities()) {
+            productsById.put(product.getId(), product);
+        }
+
+        int repricedCount = 0;
+        for (Store store : stores) {
+            StorePriceTable priceTable = priceTableService.getPriceTable(store);
+            List<Product> productsToReprice = new ArrayList<>();
+            for (Integer productId : store.getProductsInStock().keySet()) {
+                Product product = productsById.get(productId);
+                if (product != null && !product.isProductExpired() && !priceTable.isCurrent(productId)) {
+                    productsToReprice.add(product);
+                }
+            }
+
+            double[] finalPrices = BulkPriceCalculator.computeFinalPrices(store, productsToReprice);
+            for (int i = 0; i < finalPrices.length; i++) {
+                priceTable.putPriceCents(productsToReprice.get(i).getId(), Money.fromDouble(finalPrices[i]));
+            }
+            repricedCount += finalPrices.length;
+        }
+        return repricedCount;
+    }
+
+    /**
+     * Стартира фоновата задача за преизчисляване на цените. Първото изпълнение е веднага,
+     * а следващите - всеки ден в полунощ, когато продуктите могат да навлязат в периода за отстъпка.
+     * Повторно извикване, докато задачата работи, няма ефект.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "repricing-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        long millisUntilMidnight = Duration.between(now, LocalDate.now().plusDays(1).atStartOfDay()).toMillis();
+
+        scheduler.execute(this::runScheduled);
+        scheduler.scheduleAtFixedRate(this::runScheduled, millisUntilMidnight, TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Спира фоновата задача за преизчисляване на цените.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Изпълнява едно преизчисляване от фоновата задача, като не позволява грешка да спре следващите изпълнения.
+     */
+    private void runScheduled() {
+        try {
+            repriceChangedProducts();
+        } catch (RuntimeException e) {
+            System.err.println("Грешка при актуализиране на цените: " + e.getMessage());
+        }
+    }
+}
@@ -4,6 +4,7 @@ package service;
  * Фабрика за създаване на услуги (services).
  * Този клас използва шаблона Singleton, за да гарантира, че
  * има само по една инстанция от всяка услуга в приложението.
+ * Методите са синхронизирани, за да се създава само една инстанция и при достъп от няколко нишки.
  */
 public class ServiceFactory {
 
@@ -14,6 +15,10 @@ public class ServiceFactory {
     private static ProductService productService;
     private static StoreService storeService;
     private static ReceiptService receiptService;
+    private static RepricingService repricingService;
+    private static PriceTableService priceTableService;
+    private static CheckoutService checkoutService;
+    private static ReceiptAnalyticsService receiptAnalyticsService;
 
     // Частен конструктор, за да предотвратим създаването на инстанции
     private ServiceFactory() {
@@ -25,7 +30,7 @@ public class ServiceFactory {
      *
      * @return Инстанция на CashierService.
      */
-    public static CashierService getCashierService() {
+    public static synchronized CashierService getCashierService() {
         if (cashierService == null) {
             cashierService = new CashierService();
         }
@@ -38,7 +43,7 @@ public class ServiceFactory {
      *
      * @return Инстанция на CashDeskService.
      */
-    public static CashDeskService getCashDeskService() {
+    public static synchronized CashDeskService getCashDeskService() {
         if (cashDeskService == null) {
             cashDeskService = new CashDeskService();
         }
@@ -51,7 +56,7 @@ public class ServiceFactory {
      *
      * @return Инстанция на ClientService.
      */
-    public static ClientService getClientService() {
+    public static synchronized ClientService getClientService() {
         if (clientService == null) {
             clientService = new ClientService();
         }
@@ -64,7 +69,7 @@ public class ServiceFactory {
      *
      * @return Инстанция на ProductService.
      */
-    public static ProductService getProductService() {
+    public static synchronized ProductService getProductService() {
         if (productService == null) {
             productService = new ProductService();
         }
@@ -77,7 +82,7 @@ public class ServiceFactory {
      *
      * @return Инстанция на StoreService.
      */
-    public static StoreService getStoreService() {
+    public static synchronized StoreService getStoreService() {
         if (storeService == null) {
             storeService = new StoreService();
         }
@@ -90,12 +95,63 @@ public class ServiceFactory {
      *
      * @return Инстанция на ReceiptService.
      */
-    public static ReceiptService getReceiptService() {
+    public static synchronized ReceiptService getReceiptService() {
         if (receiptService == null) {
             receiptService = new ReceiptService();
         }
         return receiptService;
     }
 
-}
+    /**
+     * Връща инстанция на услугата за преизчисляване на цените (RepricingService).
+     * При първо извикване създава нова инстанция (lazy initialization).
+     *
+     * @return Инстанция на RepricingService.
+     */
+    public static synchronized RepricingService getRepricingService() {
+        if (repricingService == null) {
+            repricingService = new RepricingService();
+        }
+        return repricingService;
+    }
 
+    /**
+     * Връща инстанция на услугата за таблиците с цени на магазините (PriceTableService).
+     * При първо извикване създава нова инстанция (lazy initialization).
+     *
+     * @return Инстанция на PriceTableService.
+     */
+    public static synchronized PriceTableService getPriceTableService() {
+        if (priceTableService == null) {
+            priceTableService = new PriceTableService();
+        }
+        return priceTableService;
+    }
+
+    /**
+     * Връща инстанция на услугата за покупки (CheckoutService).
+     * При първо извикване създава нова инстанция (lazy initialization).
+     *
+     * @return Инстанция на CheckoutService.
+     */
+    public static synchronized CheckoutService getCheckoutService() {
+        if (checkoutService == null) {
+            checkoutService = new CheckoutService();
+        }
+        return checkoutService;
+    }
+
+    /**
+     * Връща инстанция на услугата за справки по касовите бележки (ReceiptAnalyticsService).
+     * При първо извикване създава нова инстанция (lazy initialization).
+     *
+     * @return Инстанция на ReceiptAnalyticsService.
+     */
+    public static synchronized ReceiptAnalyticsService getReceiptAnalyticsService() {
+        if (receiptAnalyticsService == null) {
+            receiptAnalyticsService = new ReceiptAnalyticsService();
+        }
+        return receiptAnalyticsService;
+    }
+
+}
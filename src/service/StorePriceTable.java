@@ -0,0 +1,161 @@
+package service;
+
+import model.Money;
+import model.Product;
+import model.ProductCategory;
+import model.Store;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Таблица с продажните цени на продуктите в един магазин, индексирана по ID на продукт.
+ * Всяка цена се пази заедно с версията на таблицата, при която е изчислена. Версията се увеличава
+ * при смяна на деня или при промяна на правилата за ценообразуване на магазина (надценки и отстъпка),
+ * така че всяка цена се изчислява най-много веднъж за ден или за промяна на правилата.
+ */
+public class StorePriceTable {
+
+    private static final int INITIAL_CAPACITY = 64;
+    // Версия на цена, която не е изчислена или е маркирана като неактуална. Версията на таблицата започва от 1,
+    // затова такава цена никога не е актуална
+    private static final int NOT_COMPUTED = 0;
+
+    private final int storeId;
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private int[] versions = new int[INITIAL_CAPACITY];
+    private int version = NOT_COMPUTED + 1;
+
+    private long pricingEpochDay = Long.MIN_VALUE;
+    private Map<ProductCategory, Double> markupPercentages;
+    private int daysBeforeExpirationThreshold;
+    private double discountPercentNearExpiration;
+
+    /**
+     * Конструктор за създаване на празна таблица с цени за даден магазин.
+     *
+     * @param storeId ID на магазина.
+     */
+    public StorePriceTable(int storeId) {
+        this.storeId = storeId;
+    }
+
+    /**
+     * Връща ID на магазина, за който е таблицата.
+     *
+     * @return ID на магазина.
+     */
+    public int getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * Връща текущата версия на таблицата.
+     *
+     * @return Версия на таблицата.
+     */
+    public synchronized int getVersion() {
+        return version;
+    }
+
+    /**
+     * Проверява дали денят или правилата за ценообразуване на магазина са се променили
+     * и ако да, увеличава версията на таблицата, с което всички цени стават неактуални.
+     *
+     * @param store Магазинът, за който е таблицата.
+     * @return true, ако версията е увеличена, false в противен случай.
+     */
+    public synchronized boolean refreshVersion(Store store) {
+        long today = LocalDate.now().toEpochDay();
+        if (today == pricingEpochDay
+                && daysBeforeExpirationThreshold == store.getDaysBeforeExpirationThreshold()
+                && Double.compare(discountPercentNearExpiration, store.getDiscountPercentNearExpiration()) == 0
+                && markupPercentages.equals(store.getMarkupPercentages())) {
+            return false;
+        }
+
+        pricingEpochDay = today;
+        markupPercentages = new EnumMap<>(ProductCategory.class);
+        markupPercentages.putAll(store.getMarkupPercentages());
+        daysBeforeExpirationThreshold = store.getDaysBeforeExpirationThreshold();
+        discountPercentNearExpiration = store.getDiscountPercentNearExpiration();
+        version++;
+        return true;
+    }
+
+    /**
+     * Проверява дали цената на продукт е изчислена при текущата версия на таблицата.
+     *
+     * @param productId ID на продукта.
+     * @return true, ако цената е актуална, false в противен случай.
+     */
+    public synchronized boolean isCurrent(int productId) {
+        return productId >= 0 && productId < versions.length && versions[productId] == version;
+    }
+
+    /**
+     * Връща продажната цена на продукт в магазина.
+     *
+     * @param store   Магазинът, за който е таблицата.
+     * @param product Продуктът.
+     * @return Продажната цена на продукта в магазина.
+     * @see #getPriceCents(Store, Product)
+     */
+    public double getPrice(Store store, Product product) {
+        return Money.toDouble(getPriceCents(store, product));
+    }
+
+    /**
+     * Връща продажната цена на продукт в магазина в стотинки. Ако цената не е актуална, тя се изчислява
+     * чрез {@link Store#getProductFinalPriceCents(Product)} и се запазва в таблицата.
+     *
+     * @param store   Магазинът, за който е таблицата.
+     * @param product Продуктът.
+     * @return Продажната цена на продукта в магазина в стотинки.
+     */
+    public synchronized long getPriceCents(Store store, Product product) {
+        int productId = product.getId();
+        if (isCurrent(productId)) {
+            return prices[productId];
+        }
+        long price = store.getProductFinalPriceCents(product);
+        putPriceCents(productId, price);
+        return price;
+    }
+
+    /**
+     * Записва изчислена цена на продукт в стотинки при текущата версия на таблицата.
+     *
+     * @param productId  ID на продукта.
+     * @param priceCents Продажната цена на продукта в стотинки.
+     */
+    public synchronized void putPriceCents(int productId, long priceCents) {
+        if (productId < 0) {
+            throw new IllegalArgumentException("Невалиден ID на продукт: " + productId);
+        }
+        ensureCapacity(productId + 1);
+        prices[productId] = priceCents;
+        versions[productId] = version;
+    }
+
+    /**
+     * Маркира цената на продукт като неактуална, например при промяна на покупната му цена.
+     *
+     * @param productId ID на продукта.
+     */
+    public synchronized void invalidate(int productId) {
+        if (productId >= 0 && productId < versions.length) {
+            versions[productId] = NOT_COMPUTED;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > prices.length) {
+            int newCapacity = Math.max(capacity, prices.length * 2);
+            prices = Arrays.copyOf(prices, newCapacity);
+            versions = Arrays.copyOf(versions, newCapacity);
+        }
+    }
+}
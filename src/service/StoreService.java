@@ -1,19 +1,40 @@
 package service;
 
 import dao.FileStorage;
+import metrics.Metrics;
+import metrics.ServiceMetrics;
 import model.*;
+import util.NameIndex;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 
 /**
  * Услуга за управление на магазини.
+ * Промените в наличностите, продадените бройки и касиерите на магазин се записват като
+ * събития ({@link StoreEvent}) в дневника на магазина, а всички магазини се записват изцяло само на всеки
+ * {@code store.events.snapshotInterval} събития (по подразбиране 1000). При зареждане магазините се възстановяват
+ * от последния пълен запис и събитията след него. Касовите бележки на магазина се записват в отделен индекс.
  */
 public class StoreService implements DataService<Store, Integer> {
 
+    private static final ServiceMetrics METRICS = new ServiceMetrics("StoreService");
+    private static final int SNAPSHOT_INTERVAL = Integer.getInteger("store.events.snapshotInterval", 1000);
+
+    static {
+        FileStorage.registerJournal(Store.class, StoreService::replayJournals);
+    }
+
+    private final AtomicInteger eventsSinceSnapshot = new AtomicInteger();
+    private volatile NameIndex nameIndex;
+
     /**
      * Създава нов магазин.
      *
@@ -23,13 +44,26 @@ public class StoreService implements DataService<Store, Integer> {
      */
     @Override
     public Store createEntity(Store entity) {
-        validateEntity(entity);
-        FileStorage.addObject(entity);
-        return entity;
+        long start = Metrics.startTimer();
+        try {
+            validateEntity(entity);
+            // Индексът с касовите бележки на нов магазин се създава празен, вместо да се търси сред касовите бележки
+            entity.getReceiptIndex();
+            FileStorage.addObject(entity);
+            entity.markSnapshotted();
+            entity.flushReceiptIndex();
+            indexName(entity);
+            return entity;
+        } finally {
+            Metrics.stopTimer(METRICS.createEntity, start);
+        }
     }
 
     /**
      * Актуализира съществуващ магазин.
+     * Ако магазинът е същият обект като заредения и е променян само чрез събития, в дневника му се добавят
+     * незаписаните събития, а в индекса с касовите бележки - новите касови бележки. В противен случай, както и на всеки {@code store.events.snapshotInterval} събития,
+     * магазините се записват изцяло, а дневниците се изтриват.
      *
      * @param entity Магазинът с актуализираните данни.
      * @return Актуализираният магазин.
@@ -37,17 +71,37 @@ public class StoreService implements DataService<Store, Integer> {
      */
     @Override
     public Store updateEntity(Store entity) {
-        validateEntity(entity);
+        long start = Metrics.startTimer();
+        try {
+            validateEntity(entity);
+
+            Optional<Store> loaded = FileStorage.findObjectById(Store.class, entity.getId());
+            if (loaded.isPresent() && loaded.get() == entity && !entity.isSnapshotRequired()
+                    && eventsSinceSnapshot.get() < SNAPSHOT_INTERVAL) {
+                List<StoreEvent> events = entity.drainPendingEvents();
+                FileStorage.appendToJournal(Store.class, entity.getId(),
+                        events.stream().map(StoreEvent::toLine).toList());
+                eventsSinceSnapshot.addAndGet(events.size());
+                entity.flushReceiptIndex();
+                return entity;
+            }
 
-        boolean updated = FileStorage.updateObject(
-                entity, s -> s.getId() == entity.getId());
+            boolean updated = FileStorage.updateObject(
+                    entity, s -> s.getId() == entity.getId());
 
-        if (!updated) {
-            throw new IllegalArgumentException(
-                    "Магазин с ID " + entity.getId() + " не съществува");
+            if (!updated) {
+                throw new IllegalArgumentException(
+                        "Магазин с ID " + entity.getId() + " не съществува");
+            }
+            entity.markSnapshotted();
+            entity.flushReceiptIndex();
+            eventsSinceSnapshot.set(0);
+            indexName(entity);
+
+            return entity;
+        } finally {
+            Metrics.stopTimer(METRICS.updateEntity, start);
         }
-
-        return entity;
     }
 
     /**
@@ -58,7 +112,12 @@ public class StoreService implements DataService<Store, Integer> {
      */
     @Override
     public Optional<Store> findEntityById(Integer integer) {
-        return FileStorage.findObjectById(Store.class, integer);
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.findObjectById(Store.class, integer);
+        } finally {
+            Metrics.stopTimer(METRICS.findEntityById, start);
+        }
     }
 
     /**
@@ -68,7 +127,12 @@ public class StoreService implements DataService<Store, Integer> {
      */
     @Override
     public ArrayList<Store> getAllEntities() {
-        return FileStorage.getCollection(Store.class);
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.getCollection(Store.class);
+        } finally {
+            Metrics.stopTimer(METRICS.getAllEntities, start);
+        }
     }
 
     /**
@@ -79,10 +143,15 @@ public class StoreService implements DataService<Store, Integer> {
      */
     @Override
     public Optional<Store> findEntityByFilter(Predicate<Store> filter) {
-        return FileStorage.getCollection(Store.class)
-                .stream()
-                .filter(filter)
-                .findFirst();
+        long start = Metrics.startTimer();
+        try {
+            return FileStorage.getCollection(Store.class)
+                    .stream()
+                    .filter(filter)
+                    .findFirst();
+        } finally {
+            Metrics.stopTimer(METRICS.findEntityByFilter, start);
+        }
     }
 
     /**
@@ -93,10 +162,15 @@ public class StoreService implements DataService<Store, Integer> {
      */
     @Override
     public ArrayList<Store> findEntitiesByFilter(Predicate<Store> filter) {
-        return (ArrayList<Store>) FileStorage.getCollection(Store.class)
-                .stream()
-                .filter(filter)
-                .toList();
+        long start = Metrics.startTimer();
+        try {
+            return (ArrayList<Store>) FileStorage.getCollection(Store.class)
+                    .stream()
+                    .filter(filter)
+                    .toList();
+        } finally {
+            Metrics.stopTimer(METRICS.findEntitiesByFilter, start);
+        }
     }
 
     /**
@@ -107,44 +181,116 @@ public class StoreService implements DataService<Store, Integer> {
      */
     @Override
     public void validateEntity(Store entity) {
-        if (entity == null) {
-            throw new IllegalArgumentException("Магазинът не може да бъде null");
+        long start = Metrics.startTimer();
+        try {
+            if (entity == null) {
+                throw new IllegalArgumentException("Магазинът не може да бъде null");
+            }
+            if (entity.getId() < 0) {
+                throw new IllegalArgumentException("Невалиден ID на магазина");
+            }
+            if (entity.getName() == null || entity.getName().trim().isEmpty()) {
+                throw new IllegalArgumentException("Името на магазин с ID " + entity.getId() + " не може да бъде null или празно");
+            }
+        } finally {
+            Metrics.stopTimer(METRICS.validateEntity, start);
+        }
+    }
+
+    /**
+     * Прилага към заредените магазини събитията от дневниците им, които са след последния пълен запис.
+     * Събитията се сортират по пореден номер, тъй като при едновременни покупки могат да бъдат добавени
+     * в дневника в различен ред. Повреден ред (например от прекъснат запис) се пропуска.
+     *
+     * @param stores Заредените магазини.
+     */
+    static void replayJournals(List<Store> stores) {
+        for (Store store : stores) {
+            List<StoreEvent> events = new ArrayList<>();
+            for (String line : FileStorage.readJournal(Store.class, store.getId())) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    events.add(StoreEvent.parse(line));
+                } catch (IllegalArgumentException e) {
+                    System.err.println(e.getMessage());
+                }
+            }
+            events.sort(Comparator.comparingLong(StoreEvent::getSequence));
+
+            for (StoreEvent event : events) {
+                if (event.getSequence() > store.getEventSequence()) {
+                    store.apply(event);
+                }
+            }
         }
-        if (entity.getId() < 0) {
-            throw new IllegalArgumentException("Невалиден ID на магазина");
+    }
+
+    /**
+     * Търси магазини по начало на името, например "пло" за "Магазин Пловдив".
+     *
+     * @param query Заявката. Празна заявка връща първите магазини по азбучен ред.
+     * @param limit Най-голям брой резултати.
+     * @return Намерените магазини (ID и име), подредени по съвпадение.
+     * @throws IllegalArgumentException ако limit не е положителен.
+     * @see NameIndex#search(String, int)
+     */
+    public List<NameIndex.Match> searchByName(String query, int limit) {
+        return getNameIndex().search(query, limit);
+    }
+
+    /**
+     * Връща индекса с имената на магазините, като го създава при първото извикване.
+     *
+     * @return Индексът.
+     */
+    public NameIndex getNameIndex() {
+        NameIndex index = nameIndex;
+        if (index == null) {
+            FileStorage.atomically(() -> {
+                if (nameIndex == null) {
+                    NameIndex created = new NameIndex();
+                    for (Store store : getAllEntities()) {
+                        created.put(store.getId(), store.getName());
+                    }
+                    nameIndex = created;
+                }
+            });
+            index = nameIndex;
         }
-        if (entity.getName() == null || entity.getName().trim().isEmpty()) {
-            throw new IllegalArgumentException("Името на магазин с ID " + entity.getId() + " не може да бъде null или празно");
+        return index;
+    }
+
+    /**
+     * Премахва създадения индекс с имената. Той ще бъде създаден отново при следващото използване.
+     */
+    public void invalidateNameIndex() {
+        nameIndex = null;
+    }
+
+    private void indexName(Store store) {
+        NameIndex index = nameIndex;
+        if (index != null) {
+            index.put(store.getId(), store.getName());
         }
     }
 
     /**
-     * Позволява на потребителя да избере магазин от списък в конзолата.
+     * Позволява на потребителя да избере магазин в конзолата, като го търси по начало на името.
+     * Показват се само най-добрите съвпадения, а не всички магазини.
      *
      * @return Избраният магазин.
      * @throws IllegalStateException ако няма налични магазини.
      */
     public Store selectStore() {
-        ArrayList<Store> stores = getAllEntities();
-        if (stores.isEmpty()) {
+        if (getNameIndex().size() == 0) {
             throw new IllegalStateException("Няма налични магазини");
         }
 
-        System.out.println("Изберете магазин:");
-        for (int i = 0; i < stores.size(); i++) {
-            System.out.println((i + 1) + ". " + stores.get(i).getName());
-        }
-
-        int storeIndex = -1;
-        while (storeIndex < 0 || storeIndex >= stores.size()) {
-            System.out.print("Въведете номера на магазина: ");
-            try {
-                storeIndex = Integer.parseInt(System.console().readLine()) - 1;
-            } catch (NumberFormatException e) {
-                System.out.println("Невалиден номер. Моля, опитайте отново.");
-            }
-        }
-        Store selectedStore = stores.get(storeIndex);
+        int storeId = ConsoleSearch.select(getNameIndex(), "Въведете началото на името на магазина");
+        Store selectedStore = findEntityById(storeId)
+                .orElseThrow(() -> new IllegalArgumentException("Магазин с ID " + storeId + " не съществува"));
         System.out.println("Избрахте магазин: " + selectedStore.getName());
         return selectedStore;
     }
@@ -152,36 +298,41 @@ public class StoreService implements DataService<Store, Integer> {
     /**
      * Актуализира продажните цени на всички продукти във всички магазини.
      * Цените се изчисляват на базата на покупната цена, надценката и евентуална отстъпка за срок на годност.
+     * Преизчисляват се само продуктите, чиито входни данни са се променили. Новите цени се записват в таблиците
+     * с цени на магазините в паметта и не се записват във файл, защото се изчисляват отново от продуктите и магазините.
      *
      * @throws RuntimeException ако няма заредени магазини в системата.
+     * @see RepricingService#repriceChangedProducts()
      */
     public void updatePricesForAllStores() {
-        ProductService productService = ServiceFactory.getProductService();
-        ArrayList<Store> stores = getAllEntities();
-        if (stores.isEmpty()) {
+        if (getAllEntities().isEmpty()) {
             throw new RuntimeException("Няма заредени магазини в системата!");
         }
 
-        for (Store store : stores) {
-            for (Map.Entry<Integer, Integer> entry : store.getProductsInStock().entrySet()) {
-                int productId = entry.getKey();
-                Optional<Product> productOpt = productService.findEntityById(productId);
-                if (productOpt.isPresent()) {
-                    Product product = productOpt.get();
-                    if (!product.isProductExpired()) {
-                        double finalPrice = store.getProductFinalPrice(product);
-                        product.setUnitSalePrice(finalPrice);
-                        productService.updateEntity(product);
-                    }
-                }
-            }
-        }
+        ServiceFactory.getRepricingService().repriceChangedProducts();
         System.out.println("Цените са актуализирани успешно за всички магазини.");
     }
 
+    /**
+     * Отпечатва номерирана страница с продукти с продажната им цена и наличността им в магазина.
+     */
+    private static void printProducts(Store store, StorePriceTable priceTable, ProductCatalog.Page page) {
+        List<Product> products = page.getProducts();
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            System.out.printf("%d. %s - %.2f лв. (Категория: %s, Срок на годност: %s, Количество: %s)\n",
+                    (i + 1), product.getName(), priceTable.getPrice(store, product),
+                    product.getCategory(), product.getExpirationDate(), store.getProductStock(product.getId()));
+        }
+        if (page.hasMore()) {
+            System.out.println("... въведете '+' за следващите продукти");
+        }
+    }
+
     /**
      * Симулира процес на покупка в даден магазин от даден клиент.
      * Включва проверка на баланс, избор на продукти, избор на каса, маркиране на продукти, плащане и генериране на касова бележка.
+     * Анимацията при маркиране на продуктите може да бъде изключена със системното свойство {@code store.checkout.animation=false}.
      *
      * @param store  Магазинът, в който се извършва покупката.
      * @param client Клиентът, който извършва покупката.
@@ -189,10 +340,28 @@ public class StoreService implements DataService<Store, Integer> {
      * @throws RuntimeException         ако възникне проблем с наличността на продукти или каси.
      */
     public void makePurchase(Store store, Client client) {
+        makePurchase(store, client, Boolean.parseBoolean(System.getProperty("store.checkout.animation", "true")));
+    }
+
+    /**
+     * Симулира процес на покупка в даден магазин от даден клиент.
+     * Продуктите се избират от страници с резултати от търсене в каталога ({@link ProductCatalog}),
+     * а не от списък с всички налични продукти.
+     * Конзолата се използва само за избор на продукти и каса и за потвърждение на плащането,
+     * а самата покупка се извършва чрез {@link CheckoutService}.
+     *
+     * @param store            Магазинът, в който се извършва покупката.
+     * @param client           Клиентът, който извършва покупката.
+     * @param markingAnimation Дали да се показва анимацията при маркиране на продуктите.
+     * @throws IllegalArgumentException ако магазинът или клиентът са null, или ако данните са невалидни по време на процеса.
+     * @throws RuntimeException         ако възникне проблем с наличността на продукти или каси.
+     * @see CheckoutService#checkout(Cart)
+     */
+    public void makePurchase(Store store, Client client, boolean markingAnimation) {
 
         CashierService cashierService = ServiceFactory.getCashierService();
         ClientService clientService = ServiceFactory.getClientService();
-        ReceiptService receiptService = ServiceFactory.getReceiptService();
+        CheckoutService checkoutService = ServiceFactory.getCheckoutService();
 
         if (store == null) {
             throw new IllegalArgumentException("Магазинът не може да бъде null");
@@ -222,55 +391,80 @@ public class StoreService implements DataService<Store, Integer> {
 
         // Избор на продукти
         System.out.println("Сега можете да изберете продукти за покупка.");
-        System.out.println("Вашият текущ баланс е: " + client.getBalance() + " лв.");
-        System.out.println("Налични продукти в магазина:");
-        ArrayList<Product> products = store.getAvailableProducts();
-        if (products.isEmpty()) {
+        System.out.println("Вашият текущ баланс е: " + Money.format(client.getBalanceCents()) + " лв.");
+        ProductService productService = ServiceFactory.getProductService();
+        ProductCatalog.Page page = productService.searchProducts("", null, store, 0, ConsoleSearch.RESULTS);
+        if (page.getProducts().isEmpty()) {
             throw new RuntimeException("Няма налични продукти в магазина " + store.getName() + ". Моля, опитайте по-късно.");
         }
 
-        for (int i = 0; i < products.size(); i++) {
-            Product product = products.get(i);
-            System.out.printf("%d. %s - %.2f лв. (Категория: %s, Срок на годност: %s, Количество: %s)\n",
-                    (i + 1), product.getName(), product.getUnitSalePrice(),
-                    product.getCategory(), product.getExpirationDate(), store.getProductStock(product.getId()));
-        }
+        StorePriceTable priceTable = ServiceFactory.getPriceTableService().getPriceTable(store);
+
+        System.out.println("Налични продукти в магазина:");
+        printProducts(store, priceTable, page);
 
         System.out.println("За да спрете избора на продукти, въведете 'stop'. Когато избирате продукт въведете неговия номер и количеството, което искате да закупите.");
         System.out.println("Формат: [номер на продукта] [количество]; Пример: 1 2 (за закупуване на 2 броя от продукт с номер 1)");
+        System.out.println("За търсене въведете началото на името на продукта, по желание с категория отпред (например: FOOD кафе), а за следващите продукти - '+'.");
 
-        Map<Product, Integer> selectedProducts = new HashMap<>();
+        Map<Integer, Integer> selectedProducts = new LinkedHashMap<>();
+        String query = "";
+        ProductCategory category = null;
         while (true) {
             System.out.print("Въведете продукт и количество: ");
-            String input = System.console().readLine();
+            String input = System.console().readLine().trim();
             if (input.equalsIgnoreCase("stop")) {
                 break;
             }
 
-            String[] parts = input.split(" ");
-            if (parts.length != 2) {
-                System.out.println("Невалиден формат. Моля, опитайте отново.");
+            if (input.equals("+")) {
+                if (!page.hasMore()) {
+                    System.out.println("Няма повече продукти.");
+                    continue;
+                }
+                page = productService.searchProducts(query, category, store, page.getOffset() + ConsoleSearch.RESULTS, ConsoleSearch.RESULTS);
+                printProducts(store, priceTable, page);
                 continue;
             }
 
-            int productIndex;
-            int quantity;
+            String[] parts = input.split(" ");
+            if (parts.length != 2 || !parts[0].matches("\\d+") || !parts[1].matches("-?\\d+")) {
+                // Всичко, което не е номер и количество, е ново търсене
+                String[] words = input.split(" ", 2);
+                ProductCategory searchCategory = Arrays.stream(ProductCategory.values())
+                        .filter(value -> value.name().equalsIgnoreCase(words[0]))
+                        .findFirst()
+                        .orElse(null);
+                String searchQuery = searchCategory == null ? input : words.length > 1 ? words[1] : "";
+                ProductCatalog.Page found = productService.searchProducts(searchQuery, searchCategory, store, 0, ConsoleSearch.RESULTS);
+                if (found.getProducts().isEmpty()) {
+                    System.out.println("Няма намерени продукти. Моля, опитайте отново.");
+                    continue;
+                }
+                query = searchQuery;
+                category = searchCategory;
+                page = found;
+                printProducts(store, priceTable, page);
+                continue;
+            }
 
             try {
-                productIndex = Integer.parseInt(parts[0]) - 1;
-                quantity = Integer.parseInt(parts[1]);
+                int productIndex = Integer.parseInt(parts[0]) - 1;
+                int quantity = Integer.parseInt(parts[1]);
 
-                if (productIndex < 0 || productIndex >= products.size() || quantity <= 0) {
+                if (productIndex < 0 || productIndex >= page.getProducts().size() || quantity <= 0) {
                     System.out.println("Невалиден избор. Моля, опитайте отново.");
                     continue;
                 }
 
-                if (store.getProductStock(products.get(productIndex).getId()) < quantity) {
-                    throw new IllegalArgumentException("Недостатъчно количество от продукта " + products.get(productIndex).getName() + ". Недостигат " + (quantity - store.getProductStock(products.get(productIndex).getId())) + " броя.");
+                Product selectedProduct = page.getProducts().get(productIndex);
+                int stock = store.getProductStock(selectedProduct.getId());
+                if (stock < quantity) {
+                    System.out.println("Недостатъчно количество от продукта " + selectedProduct.getName() + ". Недостигат " + (quantity - stock) + " броя.");
+                    continue;
                 }
 
-                Product selectedProduct = products.get(productIndex);
-                selectedProducts.put(selectedProduct, quantity);
+                selectedProducts.put(selectedProduct.getId(), quantity);
             } catch (NumberFormatException e) {
                 System.out.println("Невалидно число. Моля, опитайте отново.");
             }
@@ -312,69 +506,63 @@ public class StoreService implements DataService<Store, Integer> {
 
         System.out.println("Избрахте каса: " + selectedCashDesk.getId() + " с касиер " + selectedCashier.getName());
 
+        Cart cart = new Cart(store.getId(), client.getId(), selectedCashDesk.getId());
+        selectedProducts.forEach(cart::addLine);
+
         // Маркиране на продуктите - анимация с изчакване - 3 секунди с принтиране на точки
         // За по-реалистично изживяване
-        System.out.print("Маркиране на продуктите");
-        for (int i = 0; i < 3; i++) {
-            try {
-                Thread.sleep(1000);
-                System.out.print(".");
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("Грешка при изчакване: " + e.getMessage());
+        if (markingAnimation) {
+            System.out.print("Маркиране на продуктите");
+            for (int i = 0; i < 3; i++) {
+                try {
+                    Thread.sleep(1000);
+                    System.out.print(".");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Грешка при изчакване: " + e.getMessage());
+                }
             }
+            System.out.println();
         }
 
-        System.out.println("\nПродуктите са маркирани успешно!");
+        CheckoutResult preview = checkoutService.preview(cart);
+        if (!preview.isSuccessful()) {
+            System.out.println(preview.getMessage());
+            return;
+        }
 
-        System.out.println("Вашите избрани продукти:");
+        System.out.println("Продуктите са маркирани успешно!");
 
-        // Изчисляване на общата цена
-        double totalPrice = 0.0;
-        for (Map.Entry<Product, Integer> entry : selectedProducts.entrySet()) {
+        System.out.println("Вашите избрани продукти:");
+        Receipt receipt = preview.getReceipt();
+        for (Map.Entry<Product, Integer> entry : receipt.getPurchasedProducts().entrySet()) {
             Product product = entry.getKey();
             int quantity = entry.getValue();
-            double unitPrice = product.getUnitSalePrice();
-            totalPrice += unitPrice * quantity;
-
-            System.out.printf("Продукт: %s, Количество: %d, Единична цена: %.2f лв., Обща цена: %.2f лв.\n",
-                    product.getName(), quantity, unitPrice, unitPrice * quantity);
-        }
+            long unitPrice = receipt.getUnitPriceCents(product);
 
-        // Проверка дали клиентът има достатъчно баланс
-        if (client.getBalance() < totalPrice) {
-            throw new IllegalArgumentException("Недостатъчен баланс. Вашият баланс е " + client.getBalance() + " лв., а общата цена е " + totalPrice + " лв.");
+            System.out.printf("Продукт: %s, Количество: %d, Единична цена: %s лв., Обща цена: %s лв.\n",
+                    product.getName(), quantity, Money.format(unitPrice), Money.format(Money.multiply(unitPrice, quantity)));
         }
 
         // Плащане
-        System.out.println("Искате ли да платите общата сума от " + totalPrice + " лв.? (y/n)");
+        long totalPrice = receipt.getTotalPriceCents();
+        System.out.println("Искате ли да платите общата сума от " + Money.format(totalPrice) + " лв.? (y/n)");
         String paymentChoice = System.console().readLine().trim().toLowerCase();
         if (!paymentChoice.equals("y")) {
             System.out.println("Плащането е отменено. Благодарим ви, че пазарувахте при нас!");
             return;
         }
 
-        System.out.println("Плащане на общата сума от " + totalPrice + " лв. на каса " + selectedCashDesk.getId() + " с касиер " + selectedCashier.getName());
-        client.setBalance(client.getBalance() - totalPrice);
-        clientService.updateEntity(client);
-        System.out.println("Плащането е успешно!");
-
-        // Създаване на касовата бележка
-        Receipt receipt = new Receipt(client.getId(), selectedCashier.getId(), java.time.LocalDateTime.now(), selectedProducts);
-
-        // Актуализиране на наличностите в магазина
-        for (Map.Entry<Product, Integer> entry : selectedProducts.entrySet()) {
-            store.removeProductStock(entry.getKey(), entry.getValue());
-            store.addProductSold(entry.getKey(), entry.getValue());
-            store.addReceipt(receipt.getId());
+        System.out.println("Плащане на общата сума от " + Money.format(totalPrice) + " лв. на каса " + selectedCashDesk.getId() + " с касиер " + selectedCashier.getName());
+        CheckoutResult result = checkoutService.checkout(cart);
+        if (!result.isSuccessful()) {
+            System.out.println("Плащането е неуспешно: " + result.getMessage());
+            return;
         }
-        this.updateEntity(store);
-
-        System.out.printf("Вашият нов баланс е: %.2f лв.\n", client.getBalance());
+        System.out.println("Плащането е успешно!");
 
-        // Записване на касовата бележка
-        receipt = receiptService.createEntity(receipt);
+        System.out.println("Вашият нов баланс е: " + Money.format(client.getBalanceCents()) + " лв.");
         System.out.println("Вашата разписка е създадена успешно!");
-        System.out.println("Можете да я откриете на следния адрес: " + FileStorage.getFilePathForObject(receipt));
+        System.out.println("Можете да я откриете на следния адрес: " + FileStorage.getFilePathForObject(result.getReceipt()));
     }
 }
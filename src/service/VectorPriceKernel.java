@@ -0,0 +1,46 @@
+package service;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Изчисляване на крайни цени с Vector API. Класът се зарежда само от {@link BulkPriceCalculator},
+ * когато модулът {@code jdk.incubator.vector} е наличен.
+ */
+final class VectorPriceKernel {
+
+    private static final VectorSpecies<Double> DOUBLE_SPECIES = DoubleVector.SPECIES_PREFERRED;
+    // Вектор с цели числа със същия брой елементи, за да може маската от сравнението на дните да се приложи към цените
+    private static final VectorSpecies<Integer> INT_SPECIES =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLE_SPECIES.length() * Integer.SIZE));
+
+    private VectorPriceKernel() {
+    }
+
+    static void computeFinalPrices(double[] purchasePrices, int[] categoryOrdinals, int[] daysToExpiry,
+                                   double[] markupsByCategoryOrdinal, int daysBeforeExpirationThreshold,
+                                   double discountPercentNearExpiration, double[] finalPrices, int length) {
+        int upperBound = DOUBLE_SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upperBound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector purchasePrice = DoubleVector.fromArray(DOUBLE_SPECIES, purchasePrices, i);
+            DoubleVector markup = DoubleVector.fromArray(DOUBLE_SPECIES, markupsByCategoryOrdinal, 0, categoryOrdinals, i);
+
+            DoubleVector productFinalPrice = purchasePrice.add(purchasePrice.mul(markup).div(100));
+            DoubleVector discountedPrice = productFinalPrice.sub(productFinalPrice.mul(discountPercentNearExpiration).div(100));
+
+            VectorMask<Double> discountable = IntVector.fromArray(INT_SPECIES, daysToExpiry, i)
+                    .compare(VectorOperators.LE, daysBeforeExpirationThreshold)
+                    .cast(DOUBLE_SPECIES);
+
+            productFinalPrice.blend(discountedPrice, discountable).intoArray(finalPrices, i);
+        }
+
+        BulkPriceCalculator.computeFinalPricesScalar(purchasePrices, categoryOrdinals, daysToExpiry, markupsByCategoryOrdinal,
+                daysBeforeExpirationThreshold, discountPercentNearExpiration, finalPrices, i, length);
+    }
+}
@@ -0,0 +1,247 @@
+package simulation;
+
+import metrics.Metrics;
+import model.*;
+import service.*;
+import util.DataInitializer;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Симулация на едновременни покупки на много каси.
+ * Всеки клиент е отделна виртуална нишка, която пристига в случаен магазин, застава на касата с най-къса опашка
+ * (от {@link Store#getCashDesks()}) и извършва истинска покупка чрез {@link CheckoutService}, включително запис
+ * на данните. Така резултатът показва докъде се мащабира системата при дадения брой каси и къде
+ * записът или заключванията ограничават пропускателната способност.
+ */
+public class CheckoutSimulator {
+
+    private static final String CLIENT_NAME_PREFIX = "Симулиран клиент ";
+
+    private final SimulationConfig config;
+
+    /**
+     * Конструктор за създаване на симулация с дадени настройки.
+     *
+     * @param config Настройките на симулацията.
+     */
+    public CheckoutSimulator(SimulationConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Стартира симулацията от командния ред.
+     *
+     * @param args Настройки във формат {@code ключ=стойност}.
+     * @see SimulationConfig#fromArgs(String[])
+     */
+    public static void main(String[] args) {
+        SimulationConfig config = SimulationConfig.fromArgs(args);
+        DataInitializer.initializeData();
+
+        System.out.printf("Симулация на %d клиента с %.1f пристигания/с и средно %.1f продукта в количката...%n",
+                config.getClients(), config.getArrivalRate(), config.getBasketMean());
+        try {
+            SimulationReport report = new CheckoutSimulator(config).run();
+            report.print(System.out);
+            if (Metrics.isEnabled()) {
+                System.out.println();
+                System.out.print(Metrics.dump());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Симулацията е прекъсната.");
+        }
+    }
+
+    /**
+     * Подготвя магазините и клиентите и изпълнява симулацията.
+     * Наличностите в магазините се зареждат до {@link SimulationConfig#getRestockTo()}, а клиентските профили
+     * получават баланс {@link SimulationConfig#getClientBalance()}, за да не се изчерпват по време на симулацията.
+     *
+     * @return Резултатът от симулацията.
+     * @throws IllegalStateException ако няма магазин с каси и налични продукти.
+     * @throws InterruptedException  ако нишката бъде прекъсната, докато чака пристигането на клиентите.
+     */
+    public SimulationReport run() throws InterruptedException {
+        List<StoreLanes> stores = prepareStores();
+        if (stores.isEmpty()) {
+            throw new IllegalStateException("Няма магазин с каси и налични продукти");
+        }
+        List<Client> clients = prepareClients();
+        CheckoutService checkoutService = ServiceFactory.getCheckoutService();
+        Random random = new Random(config.getSeed());
+
+        long start = System.nanoTime();
+        long nextArrival = start;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.getClients(); i++) {
+                StoreLanes store = stores.get(random.nextInt(stores.size()));
+                Client client = clients.get(random.nextInt(clients.size()));
+                Map<Integer, Integer> basket = randomBasket(random, store.products);
+
+                if (config.getArrivalRate() > 0) {
+                    nextArrival += (long) (-Math.log(1 - random.nextDouble()) / config.getArrivalRate() * TimeUnit.SECONDS.toNanos(1));
+                    waitUntil(nextArrival);
+                }
+                executor.submit(() -> serve(checkoutService, store, client, basket));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        List<DeskStats> stats = new ArrayList<>();
+        for (StoreLanes store : stores) {
+            for (DeskQueue desk : store.desks) {
+                stats.add(desk.stats);
+            }
+        }
+        return new SimulationReport(stats, elapsed);
+    }
+
+    private void serve(CheckoutService checkoutService, StoreLanes store, Client client, Map<Integer, Integer> basket) {
+        DeskQueue desk = store.shortestQueue();
+        Cart cart = new Cart(store.store.getId(), client.getId(), desk.cashDesk.getId());
+        basket.forEach(cart::addLine);
+
+        desk.queueLength.incrementAndGet();
+        long enqueued = System.nanoTime();
+        desk.lock.lock();
+        long started = System.nanoTime();
+        try {
+            if (config.getScanMillisPerItem() > 0) {
+                Thread.sleep(config.getScanMillisPerItem() * cart.getLines().size());
+            }
+            long checkoutStarted = System.nanoTime();
+            try {
+                CheckoutResult result = checkoutService.checkout(cart);
+                desk.stats.record(started - enqueued, System.nanoTime() - checkoutStarted, result.getFailure());
+            } catch (RuntimeException e) {
+                desk.stats.recordError(started - enqueued, System.nanoTime() - checkoutStarted);
+                System.err.println("Грешка при покупка на каса " + desk.cashDesk.getId() + ": " + e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            desk.lock.unlock();
+            desk.queueLength.decrementAndGet();
+        }
+    }
+
+    private Map<Integer, Integer> randomBasket(Random random, List<Product> products) {
+        // Броят на продуктите в количката е с геометрично разпределение със средна стойност basketMean
+        double p = 1 / config.getBasketMean();
+        int items = 1;
+        if (p < 1) {
+            items += (int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+        }
+
+        Map<Integer, Integer> basket = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(items, products.size()); i++) {
+            Product product = products.get(random.nextInt(products.size()));
+            basket.merge(product.getId(), 1 + random.nextInt(config.getMaxQuantity()), Integer::sum);
+        }
+        return basket;
+    }
+
+    private List<StoreLanes> prepareStores() {
+        StoreService storeService = ServiceFactory.getStoreService();
+        CashierService cashierService = ServiceFactory.getCashierService();
+        ProductService productService = ServiceFactory.getProductService();
+
+        List<StoreLanes> stores = new ArrayList<>();
+        for (Store store : storeService.getAllEntities()) {
+            if (config.getRestockTo() > 0) {
+                for (Map.Entry<Integer, Integer> entry : new ArrayList<>(store.getProductsInStock().entrySet())) {
+                    Optional<Product> product = productService.findEntityById(entry.getKey());
+                    if (product.isPresent() && !product.get().isProductExpired() && entry.getValue() < config.getRestockTo()) {
+                        store.setProductStock(entry.getKey(), config.getRestockTo());
+                    }
+                }
+                storeService.updateEntity(store);
+            }
+
+            List<Product> products = store.getAvailableProducts();
+            ArrayList<CashDesk> cashDesks = store.getCashDesks();
+            if (products.isEmpty() || cashDesks.isEmpty()) {
+                continue;
+            }
+
+            List<DeskQueue> desks = new ArrayList<>();
+            for (CashDesk cashDesk : cashDesks) {
+                String cashierName = cashierService.findEntityById(cashDesk.getCashier())
+                        .map(Cashier::getName)
+                        .orElse("-");
+                desks.add(new DeskQueue(cashDesk, new DeskStats(cashDesk.getId(), store.getName(), cashierName)));
+            }
+            stores.add(new StoreLanes(store, products, desks));
+        }
+        return stores;
+    }
+
+    private List<Client> prepareClients() {
+        ClientService clientService = ServiceFactory.getClientService();
+        List<Client> clients = new ArrayList<>(clientService.getAllEntities().stream()
+                .filter(client -> client.getName().startsWith(CLIENT_NAME_PREFIX))
+                .toList());
+        if (clients.size() > config.getClientPool()) {
+            clients = clients.subList(0, config.getClientPool());
+        }
+
+        for (Client client : clients) {
+            client.setBalance(config.getClientBalance());
+            clientService.updateEntity(client);
+        }
+        while (clients.size() < config.getClientPool()) {
+            clients.add(clientService.createEntity(
+                    new Client(CLIENT_NAME_PREFIX + (clients.size() + 1), config.getClientBalance())));
+        }
+        return clients;
+    }
+
+    private static void waitUntil(long nanoTime) throws InterruptedException {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Магазин с продуктите, от които избират клиентите, и опашките пред касите му.
+     */
+    private record StoreLanes(Store store, List<Product> products, List<DeskQueue> desks) {
+
+        DeskQueue shortestQueue() {
+            DeskQueue shortest = desks.get(0);
+            for (DeskQueue desk : desks) {
+                if (desk.queueLength.get() < shortest.queueLength.get()) {
+                    shortest = desk;
+                }
+            }
+            return shortest;
+        }
+    }
+
+    /**
+     * Опашка пред една каса. Клиентите се обслужват един по един в реда на пристигане.
+     */
+    private static final class DeskQueue {
+        private final CashDesk cashDesk;
+        private final DeskStats stats;
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private final AtomicInteger queueLength = new AtomicInteger();
+
+        private DeskQueue(CashDesk cashDesk, DeskStats stats) {
+            this.cashDesk = cashDesk;
+            this.stats = stats;
+        }
+    }
+}
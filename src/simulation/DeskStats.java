@@ -0,0 +1,171 @@
+package simulation;
+
+import service.CheckoutFailure;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Статистика за една каса по време на симулацията: обслужени клиенти, неуспешни покупки,
+ * време за изчакване на опашката и време за извършване на покупката.
+ */
+public class DeskStats {
+
+    private final int cashDeskId;
+    private final String storeName;
+    private final String cashierName;
+
+    private long[] waitNanos = new long[64];
+    private long[] latencyNanos = new long[64];
+    private int count = 0;
+    private int successful = 0;
+    private int errors = 0;
+    private final Map<CheckoutFailure, Integer> failures = new EnumMap<>(CheckoutFailure.class);
+
+    /**
+     * Конструктор за създаване на празна статистика за каса.
+     *
+     * @param cashDeskId  ID на касата.
+     * @param storeName   Име на магазина.
+     * @param cashierName Име на касиера.
+     */
+    public DeskStats(int cashDeskId, String storeName, String cashierName) {
+        this.cashDeskId = cashDeskId;
+        this.storeName = storeName;
+        this.cashierName = cashierName;
+    }
+
+    /**
+     * Записва резултата от обслужването на един клиент.
+     *
+     * @param waitNanos    Време за изчакване на опашката в наносекунди.
+     * @param latencyNanos Време за извършване на покупката в наносекунди.
+     * @param failure      Причина за неуспех или null при успешна покупка.
+     */
+    public synchronized void record(long waitNanos, long latencyNanos, CheckoutFailure failure) {
+        if (count == this.waitNanos.length) {
+            this.waitNanos = Arrays.copyOf(this.waitNanos, count * 2);
+            this.latencyNanos = Arrays.copyOf(this.latencyNanos, count * 2);
+        }
+        this.waitNanos[count] = waitNanos;
+        this.latencyNanos[count] = latencyNanos;
+        count++;
+        if (failure == null) {
+            successful++;
+        } else {
+            failures.merge(failure, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Записва покупка, която е завършила с неочаквана грешка (например при запис във файл).
+     *
+     * @param waitNanos    Време за изчакване на опашката в наносекунди.
+     * @param latencyNanos Време до възникване на грешката в наносекунди.
+     */
+    public synchronized void recordError(long waitNanos, long latencyNanos) {
+        record(waitNanos, latencyNanos, null);
+        successful--;
+        errors++;
+    }
+
+    /**
+     * Връща ID на касата.
+     *
+     * @return ID на касата.
+     */
+    public int getCashDeskId() {
+        return cashDeskId;
+    }
+
+    /**
+     * Връща името на магазина.
+     *
+     * @return Име на магазина.
+     */
+    public String getStoreName() {
+        return storeName;
+    }
+
+    /**
+     * Връща името на касиера.
+     *
+     * @return Име на касиера.
+     */
+    public String getCashierName() {
+        return cashierName;
+    }
+
+    /**
+     * Връща броя на обслужените клиенти.
+     *
+     * @return Брой обслужени клиенти.
+     */
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * Връща броя на успешните покупки.
+     *
+     * @return Брой успешни покупки.
+     */
+    public synchronized int getSuccessful() {
+        return successful;
+    }
+
+    /**
+     * Връща броя на покупките, завършили с неочаквана грешка.
+     *
+     * @return Брой грешки.
+     */
+    public synchronized int getErrors() {
+        return errors;
+    }
+
+    /**
+     * Връща броя на неуспешните покупки по причина.
+     *
+     * @return Речник с броя на неуспешните покупки по причина.
+     */
+    public synchronized Map<CheckoutFailure, Integer> getFailures() {
+        return new EnumMap<>(failures);
+    }
+
+    /**
+     * Връща персентил на времето за изчакване на опашката.
+     *
+     * @param percentile Персентил между 0 и 100.
+     * @return Времето за изчакване в наносекунди или 0, ако няма обслужени клиенти.
+     */
+    public synchronized long getWaitPercentile(double percentile) {
+        return percentile(waitNanos, count, percentile);
+    }
+
+    /**
+     * Връща персентил на времето за извършване на покупката.
+     *
+     * @param percentile Персентил между 0 и 100.
+     * @return Времето за извършване на покупката в наносекунди или 0, ако няма обслужени клиенти.
+     */
+    public synchronized long getLatencyPercentile(double percentile) {
+        return percentile(latencyNanos, count, percentile);
+    }
+
+    /**
+     * Изчислява персентил по метода на най-близкия ранг.
+     */
+    static long percentile(long[] values, int length, double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Персентилът трябва да бъде между 0 и 100");
+        }
+        if (length == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(values, length);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
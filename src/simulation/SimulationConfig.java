@@ -0,0 +1,250 @@
+package simulation;
+
+/**
+ * Настройки на симулацията на покупки.
+ * Всяка настройка може да бъде зададена от командния ред във формат {@code ключ=стойност},
+ * например {@code clients=5000 arrivalRate=800 basketMean=6}.
+ */
+public class SimulationConfig {
+
+    private int clients = 2000;
+    private double arrivalRate = 500;
+    private double basketMean = 5;
+    private int maxQuantity = 3;
+    private long scanMillisPerItem = 0;
+    private int clientPool = 200;
+    private double clientBalance = 1_000_000;
+    private int restockTo = 100_000;
+    private long seed = 42;
+
+    /**
+     * Създава настройки от аргументите на командния ред.
+     *
+     * @param args Аргументи във формат {@code ключ=стойност}.
+     * @return Настройките на симулацията.
+     * @throws IllegalArgumentException ако някой аргумент е в невалиден формат, с непознат ключ или с невалидна стойност.
+     */
+    public static SimulationConfig fromArgs(String[] args) {
+        SimulationConfig config = new SimulationConfig();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Невалиден аргумент: " + arg + ". Очакван формат: ключ=стойност");
+            }
+            String key = arg.substring(0, separator);
+            String value = arg.substring(separator + 1);
+            try {
+                switch (key) {
+                    case "clients" -> config.setClients(Integer.parseInt(value));
+                    case "arrivalRate" -> config.setArrivalRate(Double.parseDouble(value));
+                    case "basketMean" -> config.setBasketMean(Double.parseDouble(value));
+                    case "maxQuantity" -> config.setMaxQuantity(Integer.parseInt(value));
+                    case "scanMillisPerItem" -> config.setScanMillisPerItem(Long.parseLong(value));
+                    case "clientPool" -> config.setClientPool(Integer.parseInt(value));
+                    case "clientBalance" -> config.setClientBalance(Double.parseDouble(value));
+                    case "restockTo" -> config.setRestockTo(Integer.parseInt(value));
+                    case "seed" -> config.setSeed(Long.parseLong(value));
+                    default -> throw new IllegalArgumentException("Непозната настройка: " + key);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Невалидна стойност за " + key + ": " + value);
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Връща броя на клиентите, които пристигат в магазините по време на симулацията.
+     *
+     * @return Брой клиенти.
+     */
+    public int getClients() {
+        return clients;
+    }
+
+    /**
+     * Задава броя на клиентите, които пристигат в магазините по време на симулацията.
+     *
+     * @param clients Брой клиенти.
+     * @throws IllegalArgumentException ако броят не е положителен.
+     */
+    public void setClients(int clients) {
+        if (clients <= 0) {
+            throw new IllegalArgumentException("Броят на клиентите трябва да бъде положителен");
+        }
+        this.clients = clients;
+    }
+
+    /**
+     * Връща средния брой пристигащи клиенти в секунда. Пристиганията са поасонов поток.
+     * Стойност 0 означава, че всички клиенти пристигат едновременно.
+     *
+     * @return Среден брой клиенти в секунда.
+     */
+    public double getArrivalRate() {
+        return arrivalRate;
+    }
+
+    /**
+     * Задава средния брой пристигащи клиенти в секунда.
+     *
+     * @param arrivalRate Среден брой клиенти в секунда или 0 за едновременно пристигане.
+     * @throws IllegalArgumentException ако стойността е отрицателна.
+     */
+    public void setArrivalRate(double arrivalRate) {
+        if (arrivalRate < 0) {
+            throw new IllegalArgumentException("Честотата на пристигане не може да бъде отрицателна");
+        }
+        this.arrivalRate = arrivalRate;
+    }
+
+    /**
+     * Връща средния брой различни продукти в количката. Броят е с геометрично разпределение.
+     *
+     * @return Среден брой продукти в количката.
+     */
+    public double getBasketMean() {
+        return basketMean;
+    }
+
+    /**
+     * Задава средния брой различни продукти в количката.
+     *
+     * @param basketMean Среден брой продукти, не по-малък от 1.
+     * @throws IllegalArgumentException ако стойността е по-малка от 1.
+     */
+    public void setBasketMean(double basketMean) {
+        if (basketMean < 1) {
+            throw new IllegalArgumentException("Средният брой продукти в количката трябва да бъде поне 1");
+        }
+        this.basketMean = basketMean;
+    }
+
+    /**
+     * Връща максималното количество от един продукт в количката.
+     *
+     * @return Максимално количество.
+     */
+    public int getMaxQuantity() {
+        return maxQuantity;
+    }
+
+    /**
+     * Задава максималното количество от един продукт в количката.
+     *
+     * @param maxQuantity Максимално количество.
+     * @throws IllegalArgumentException ако количеството не е положително.
+     */
+    public void setMaxQuantity(int maxQuantity) {
+        if (maxQuantity <= 0) {
+            throw new IllegalArgumentException("Максималното количество трябва да бъде положително");
+        }
+        this.maxQuantity = maxQuantity;
+    }
+
+    /**
+     * Връща времето в милисекунди, за което касиерът маркира един продукт.
+     *
+     * @return Време за маркиране на един продукт.
+     */
+    public long getScanMillisPerItem() {
+        return scanMillisPerItem;
+    }
+
+    /**
+     * Задава времето в милисекунди, за което касиерът маркира един продукт.
+     *
+     * @param scanMillisPerItem Време за маркиране на един продукт.
+     * @throws IllegalArgumentException ако времето е отрицателно.
+     */
+    public void setScanMillisPerItem(long scanMillisPerItem) {
+        if (scanMillisPerItem < 0) {
+            throw new IllegalArgumentException("Времето за маркиране не може да бъде отрицателно");
+        }
+        this.scanMillisPerItem = scanMillisPerItem;
+    }
+
+    /**
+     * Връща броя на различните клиентски профили, от които се избира при всяко пристигане.
+     *
+     * @return Брой клиентски профили.
+     */
+    public int getClientPool() {
+        return clientPool;
+    }
+
+    /**
+     * Задава броя на различните клиентски профили, от които се избира при всяко пристигане.
+     *
+     * @param clientPool Брой клиентски профили.
+     * @throws IllegalArgumentException ако броят не е положителен.
+     */
+    public void setClientPool(int clientPool) {
+        if (clientPool <= 0) {
+            throw new IllegalArgumentException("Броят на клиентските профили трябва да бъде положителен");
+        }
+        this.clientPool = clientPool;
+    }
+
+    /**
+     * Връща началния баланс на клиентските профили, създадени за симулацията.
+     *
+     * @return Начален баланс.
+     */
+    public double getClientBalance() {
+        return clientBalance;
+    }
+
+    /**
+     * Задава началния баланс на клиентските профили, създадени за симулацията.
+     *
+     * @param clientBalance Начален баланс.
+     * @throws IllegalArgumentException ако балансът е отрицателен.
+     */
+    public void setClientBalance(double clientBalance) {
+        if (clientBalance < 0) {
+            throw new IllegalArgumentException("Балансът не може да бъде отрицателен");
+        }
+        this.clientBalance = clientBalance;
+    }
+
+    /**
+     * Връща наличността, до която се зареждат продуктите в магазините преди симулацията.
+     *
+     * @return Наличност на продукт или 0, ако не се зарежда.
+     */
+    public int getRestockTo() {
+        return restockTo;
+    }
+
+    /**
+     * Задава наличността, до която се зареждат продуктите в магазините преди симулацията.
+     *
+     * @param restockTo Наличност на продукт или 0, ако не се зарежда.
+     * @throws IllegalArgumentException ако наличността е отрицателна.
+     */
+    public void setRestockTo(int restockTo) {
+        if (restockTo < 0) {
+            throw new IllegalArgumentException("Наличността не може да бъде отрицателна");
+        }
+        this.restockTo = restockTo;
+    }
+
+    /**
+     * Връща началната стойност на генератора на случайни числа.
+     *
+     * @return Начална стойност.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Задава началната стойност на генератора на случайни числа.
+     *
+     * @param seed Начална стойност.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+}
@@ -0,0 +1,115 @@
+package simulation;
+
+import service.CheckoutFailure;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Резултат от симулацията на покупки - статистика по каси и общо за всички каси.
+ */
+public class SimulationReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final List<DeskStats> desks;
+    private final long elapsedNanos;
+
+    /**
+     * Конструктор за създаване на резултат от симулацията.
+     *
+     * @param desks        Статистика по каси.
+     * @param elapsedNanos Продължителност на симулацията в наносекунди.
+     */
+    public SimulationReport(List<DeskStats> desks, long elapsedNanos) {
+        this.desks = List.copyOf(desks);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Връща статистиката по каси.
+     *
+     * @return Списък със статистика по каси.
+     */
+    public List<DeskStats> getDesks() {
+        return desks;
+    }
+
+    /**
+     * Връща продължителността на симулацията.
+     *
+     * @return Продължителност в наносекунди.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Връща общия брой обслужени клиенти.
+     *
+     * @return Брой обслужени клиенти.
+     */
+    public int getTotalCount() {
+        return desks.stream().mapToInt(DeskStats::getCount).sum();
+    }
+
+    /**
+     * Връща общия брой успешни покупки.
+     *
+     * @return Брой успешни покупки.
+     */
+    public int getTotalSuccessful() {
+        return desks.stream().mapToInt(DeskStats::getSuccessful).sum();
+    }
+
+    /**
+     * Връща броя на успешните покупки в секунда за цялата симулация.
+     *
+     * @return Успешни покупки в секунда.
+     */
+    public double getThroughput() {
+        return throughput(getTotalSuccessful());
+    }
+
+    /**
+     * Отпечатва резултата като таблица.
+     *
+     * @param out Потокът, в който се отпечатва.
+     */
+    public void print(PrintStream out) {
+        out.printf("Продължителност: %.2f с, обслужени клиенти: %d, успешни покупки: %d, пропускателна способност: %.1f покупки/с%n",
+                elapsedNanos / NANOS_PER_SECOND, getTotalCount(), getTotalSuccessful(), getThroughput());
+        out.printf("%-6s %-20s %-20s %8s %8s %9s %10s %10s %10s %10s %10s %10s%n",
+                "Каса", "Магазин", "Касиер", "Успешни", "Неусп.", "Покупки/с",
+                "Чакане p50", "p95", "p99", "Покупка p50", "p95", "p99");
+        Map<CheckoutFailure, Integer> failures = new EnumMap<>(CheckoutFailure.class);
+        int errors = 0;
+        for (DeskStats desk : desks) {
+            errors += desk.getErrors();
+            desk.getFailures().forEach((failure, count) -> failures.merge(failure, count, Integer::sum));
+            out.printf("%-6d %-20s %-20s %8d %8d %9.1f %10.2f %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                    desk.getCashDeskId(), desk.getStoreName(), desk.getCashierName(),
+                    desk.getSuccessful(), desk.getCount() - desk.getSuccessful(), throughput(desk.getSuccessful()),
+                    millis(desk.getWaitPercentile(50)), millis(desk.getWaitPercentile(95)), millis(desk.getWaitPercentile(99)),
+                    millis(desk.getLatencyPercentile(50)), millis(desk.getLatencyPercentile(95)), millis(desk.getLatencyPercentile(99)));
+        }
+        out.println("Времената са в милисекунди.");
+        if (!failures.isEmpty()) {
+            out.println("Неуспешни покупки по причина: " + failures);
+        }
+        if (errors > 0) {
+            out.println("Покупки, завършили с грешка: " + errors);
+        }
+    }
+
+    private double throughput(int count) {
+        return elapsedNanos > 0 ? count / (elapsedNanos / NANOS_PER_SECOND) : 0;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,80 @@
+package analytics;
+
+import model.Product;
+import model.ProductCategory;
+import model.Receipt;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BasketQuantilesTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+
+    private static Receipt receipt(int storeId, int cashierId, LocalDate day, int quantity, long unitPriceCents) {
+        Product product = new Product("Хляб", 1.0, ProductCategory.FOOD, day.plusDays(5));
+        product.setId(1);
+        Map<Product, Integer> products = new HashMap<>();
+        products.put(product, quantity);
+        Map<Integer, Long> unitPrices = new HashMap<>();
+        unitPrices.put(1, unitPriceCents);
+        return new Receipt(1, cashierId, storeId, day.atTime(10, 0), products, unitPrices);
+    }
+
+    private static BasketQuantiles sample() {
+        BasketQuantiles quantiles = new BasketQuantiles(KllSketch.DEFAULT_K);
+        // Магазин 1, касиер 1: 1..10 артикула по 100 ст.; магазин 2, касиер 2: по 1 артикул за 5000 ст.
+        for (int quantity = 1; quantity <= 10; quantity++) {
+            quantiles.add(receipt(1, 1, DAY, quantity, 100));
+        }
+        quantiles.add(receipt(1, 3, DAY.plusDays(1), 20, 100));
+        quantiles.add(receipt(2, 2, DAY, 1, 5000));
+        quantiles.add(receipt(2, 2, DAY.plusDays(1), 1, 5000));
+        return quantiles;
+    }
+
+    @Test
+    public void testSummarize_FiltersByStoreCashierAndPeriod() {
+        BasketQuantiles quantiles = sample();
+
+        BasketSketch storeDay = quantiles.summarize(1, null, DAY, DAY);
+        BasketSketch cashier = quantiles.summarize(null, 3, DAY, DAY.plusDays(6));
+        BasketSketch storeTwo = quantiles.summarize(2, 2, DAY, DAY.plusDays(1));
+
+        assertEquals(10, storeDay.getReceiptCount());
+        assertEquals(5, storeDay.getItems().quantile(0.5));
+        assertEquals(1000, storeDay.getValueCents().getMax());
+        assertEquals(1, cashier.getReceiptCount());
+        assertEquals(20, cashier.getItems().getMax());
+        assertEquals(2, storeTwo.getReceiptCount());
+        assertEquals(5000, storeTwo.getValueCents().quantile(0.5));
+    }
+
+    @Test
+    public void testSummarize_AllStores_MergesSketches() {
+        BasketQuantiles quantiles = sample();
+
+        BasketSketch all = quantiles.summarize(null, null, DAY, DAY.plusDays(1));
+
+        assertEquals(13, all.getReceiptCount());
+        assertEquals(5000, all.getValueCents().getMax());
+        assertEquals(100, all.getValueCents().getMin());
+        assertEquals(4, quantiles.getSketchCount());
+        assertEquals(0, quantiles.summarize(null, null, DAY.minusDays(3), DAY.minusDays(1)).getReceiptCount());
+    }
+
+    @Test
+    public void testSummarize_ResultIsIndependentOfLaterReceipts() {
+        BasketQuantiles quantiles = sample();
+
+        BasketSketch before = quantiles.summarize(1, null, DAY, DAY);
+        quantiles.add(receipt(1, 1, DAY, 50, 100));
+
+        assertEquals(10, before.getReceiptCount());
+        assertEquals(11, quantiles.summarize(1, null, DAY, DAY).getReceiptCount());
+    }
+}
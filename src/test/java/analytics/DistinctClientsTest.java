@@ -0,0 +1,91 @@
+package analytics;
+
+import model.Product;
+import model.ProductCategory;
+import model.Receipt;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DistinctClientsTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2026, 3, 2);
+
+    private static Receipt receipt(int id, int clientId, int storeId, LocalDate day) {
+        Product product = new Product("Мляко", 2.0, ProductCategory.FOOD, day.plusDays(10));
+        product.setId(1);
+        Map<Product, Integer> products = new HashMap<>();
+        products.put(product, 1);
+        Receipt receipt = new Receipt(clientId, 1, storeId, day.atTime(12, 0), products, new HashMap<>());
+        receipt.setId(id);
+        return receipt;
+    }
+
+    private static DistinctClients sample() {
+        DistinctClients clients = new DistinctClients(day -> null);
+        int id = 0;
+        for (int day = 0; day < 7; day++) {
+            // Клиенти 1..10 пазаруват всеки ден в магазин 1, клиенти 100+ - по един нов на ден в магазин 2
+            for (int client = 1; client <= 10; client++) {
+                clients.add(receipt(++id, client, 1, MONDAY.plusDays(day)));
+            }
+            clients.add(receipt(++id, 100 + day, 2, MONDAY.plusDays(day)));
+            clients.add(receipt(++id, 1, 2, MONDAY.plusDays(day)));
+        }
+        return clients;
+    }
+
+    @Test
+    public void testCount_PerStoreAndAcrossStoresAndDays() {
+        DistinctClients clients = sample();
+
+        assertEquals(10, clients.count(1, MONDAY, MONDAY).getEstimate());
+        assertEquals(10, clients.count(1, MONDAY, MONDAY.plusDays(6)).getEstimate());
+        assertEquals(8, clients.count(2, MONDAY, MONDAY.plusDays(6)).getEstimate());
+        assertEquals(17, clients.count(null, MONDAY, MONDAY.plusDays(6)).getEstimate());
+        assertEquals(0, clients.count(1, MONDAY.minusDays(7), MONDAY.minusDays(1)).getEstimate());
+        assertEquals(84, clients.getLastReceiptId());
+    }
+
+    @Test
+    public void testRestore_LoadsPartitionsOnDemand() {
+        DistinctClients original = sample();
+        Map<Integer, byte[]> partitions = original.drainDirtyPartitions();
+        AtomicInteger loads = new AtomicInteger();
+
+        DistinctClients restored = DistinctClients.restore(original.manifest(), day -> {
+            loads.incrementAndGet();
+            return partitions.get(day);
+        });
+
+        assertEquals(7, partitions.size());
+        assertTrue(original.drainDirtyPartitions().isEmpty());
+        assertEquals(0, restored.getCachedDayCount());
+        assertEquals(17, restored.count(null, MONDAY, MONDAY.plusDays(6)).getEstimate());
+        assertEquals(10, restored.count(1, MONDAY, MONDAY.plusDays(1)).getEstimate());
+        assertEquals(7, loads.get());
+        assertEquals(84, restored.getLastReceiptId());
+    }
+
+    @Test
+    public void testRestore_AddToLoadedDay_MarksItDirty() {
+        DistinctClients original = sample();
+        Map<Integer, byte[]> partitions = original.drainDirtyPartitions();
+        DistinctClients restored = DistinctClients.restore(original.manifest(), partitions::get);
+
+        restored.add(receipt(85, 500, 1, MONDAY));
+
+        assertEquals(11, restored.count(1, MONDAY, MONDAY).getEstimate());
+        assertEquals(1, restored.drainDirtyPartitions().size());
+    }
+
+    @Test
+    public void testRestore_InvalidManifest_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> DistinctClients.restore(new byte[]{0, 0, 0, 9}, day -> null));
+    }
+}
@@ -0,0 +1,88 @@
+package analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void testEstimate_SmallAndLargeCardinalities() {
+        HyperLogLog small = new HyperLogLog(12);
+        for (int i = 0; i < 100; i++) {
+            small.add(i);
+            small.add(i);
+        }
+        HyperLogLog large = new HyperLogLog(12);
+        for (int i = 0; i < 200_000; i++) {
+            large.add(i);
+        }
+
+        assertEquals(100, small.estimate(), 5);
+        assertEquals(200_000, large.estimate(), 200_000 * 4 * large.getStandardError());
+    }
+
+    @Test
+    public void testMerge_EqualsSketchOfUnion() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        HyperLogLog union = new HyperLogLog(12);
+        for (int i = 0; i < 30_000; i++) {
+            first.add(i);
+            union.add(i);
+        }
+        for (int i = 20_000; i < 50; i++) {
+            second.add(i);
+        }
+        for (int i = 20_000; i < 60_000; i++) {
+            second.add(i);
+            union.add(i);
+        }
+
+        first.merge(second);
+
+        assertEquals(union.estimate(), first.estimate());
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new HyperLogLog(10)));
+    }
+
+    @Test
+    public void testMerge_SparseIntoSparse() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        for (int i = 0; i < 60; i++) {
+            first.add(i);
+            second.add(i + 30);
+        }
+
+        first.merge(second);
+
+        assertEquals(90, first.estimate(), 2);
+    }
+
+    @Test
+    public void testSerialize_RoundTripSparseAndDense() throws IOException {
+        for (int count : new int[]{10, 50_000}) {
+            HyperLogLog sketch = new HyperLogLog(12);
+            for (int i = 0; i < count; i++) {
+                sketch.add(i * 7L);
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            sketch.serialize(new DataOutputStream(bytes));
+            HyperLogLog read = HyperLogLog.deserialize(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+            assertEquals(sketch.estimate(), read.estimate());
+            if (count == 10) {
+                assertTrue(bytes.size() < 100, "Скица с малко стойности трябва да заема малко място");
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidPrecision_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(19));
+    }
+}
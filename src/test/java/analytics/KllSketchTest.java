@@ -0,0 +1,98 @@
+package analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KllSketchTest {
+
+    private static long exactQuantile(long[] sorted, double rank) {
+        return sorted[(int) Math.max(0, Math.ceil(rank * sorted.length) - 1)];
+    }
+
+    private static double rankOf(long[] sorted, long value) {
+        int position = Arrays.binarySearch(sorted, value);
+        return (double) (position >= 0 ? position : -position - 1) / sorted.length;
+    }
+
+    @Test
+    public void testQuantiles_FewValues_AreExact() {
+        KllSketch sketch = new KllSketch();
+        for (long value = 100; value >= 1; value--) {
+            sketch.add(value);
+        }
+
+        assertArrayEquals(new long[]{1, 50, 95, 99, 100}, sketch.quantiles(0, 0.5, 0.95, 0.99, 1));
+        assertEquals(100, sketch.getCount());
+        assertEquals(5050, sketch.getSum());
+        assertEquals(1, sketch.getMin());
+        assertEquals(100, sketch.getMax());
+    }
+
+    @Test
+    public void testQuantiles_ManyValues_WithinRankError() {
+        KllSketch sketch = new KllSketch();
+        Random random = new Random(42);
+        long[] values = new long[200_000];
+        for (int i = 0; i < values.length; i++) {
+            // Логнормално разпределение, подобно на стойността на касовите бележки
+            values[i] = Math.round(Math.exp(7 + random.nextGaussian()));
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double rank : new double[]{0.5, 0.95, 0.99}) {
+            double actualRank = rankOf(values, sketch.quantile(rank));
+            assertEquals(rank, actualRank, sketch.getRankError(), "ранг " + rank);
+        }
+        assertTrue(sketch.getRetainedCount() < 4 * KllSketch.DEFAULT_K, "запазени: " + sketch.getRetainedCount());
+        assertEquals(values[0], sketch.getMin());
+        assertEquals(values[values.length - 1], sketch.getMax());
+    }
+
+    @Test
+    public void testMerge_MatchesSingleSketch() {
+        KllSketch[] parts = new KllSketch[30];
+        KllSketch merged = new KllSketch();
+        long[] values = new long[30 * 1000];
+        Random random = new Random(7);
+        for (int part = 0; part < parts.length; part++) {
+            parts[part] = new KllSketch();
+            for (int i = 0; i < 1000; i++) {
+                long value = random.nextInt(1_000_000);
+                values[part * 1000 + i] = value;
+                parts[part].add(value);
+            }
+            merged.merge(parts[part]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, merged.getCount());
+        for (double rank : new double[]{0.5, 0.95, 0.99}) {
+            double actualRank = rankOf(values, merged.quantile(rank));
+            assertEquals(rank, actualRank, merged.getRankError(), "ранг " + rank);
+        }
+        assertEquals(exactQuantile(values, 1), merged.getMax());
+    }
+
+    @Test
+    public void testEmptySketch_ReturnsZero() {
+        KllSketch sketch = new KllSketch();
+
+        assertEquals(0, sketch.quantile(0.5));
+        assertEquals(0, sketch.getMin());
+        assertEquals(0, sketch.getMax());
+    }
+
+    @Test
+    public void testInvalidArguments_Throw() {
+        KllSketch sketch = new KllSketch(16);
+
+        assertThrows(IllegalArgumentException.class, () -> new KllSketch(4));
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(new KllSketch(32)));
+    }
+}
@@ -0,0 +1,96 @@
+package analytics;
+
+import model.Product;
+import model.ProductCategory;
+import model.Receipt;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReceiptBitmapIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+
+    private ReceiptBitmapIndex index;
+    private Product milk;
+    private Product bread;
+
+    @BeforeEach
+    public void setUp() {
+        milk = new Product("Мляко", 2.0, ProductCategory.FOOD, DAY.plusDays(10));
+        milk.setId(42);
+        bread = new Product("Хляб", 1.0, ProductCategory.FOOD, DAY.plusDays(3));
+        bread.setId(43);
+
+        index = new ReceiptBitmapIndex();
+        index.add(receipt(1, 3, 7, DAY, milk));
+        index.add(receipt(2, 3, 7, DAY.plusDays(1), bread));
+        index.add(receipt(3, 3, 8, DAY.plusDays(2), milk));
+        index.add(receipt(4, 4, 7, DAY.plusDays(3), milk));
+        index.add(receipt(5, 3, 7, DAY.plusDays(9), milk));
+    }
+
+    private static Receipt receipt(int id, int storeId, int cashierId, LocalDate day, Product product) {
+        Map<Product, Integer> products = new HashMap<>();
+        products.put(product, 1);
+        Receipt receipt = new Receipt(1, cashierId, storeId, day.atTime(10, 0), products, new HashMap<>());
+        receipt.setId(id);
+        return receipt;
+    }
+
+    @Test
+    public void testQuery_IntersectsAllConditions() {
+        RoaringBitmap result = index.query(new ReceiptQuery().store(3).cashier(7).between(DAY, DAY.plusDays(6)).product(42));
+
+        assertArrayEquals(new int[]{1}, result.toArray());
+    }
+
+    @Test
+    public void testQuery_SingleConditionsAndPeriods() {
+        assertArrayEquals(new int[]{1, 2, 3, 5}, index.query(new ReceiptQuery().store(3)).toArray());
+        assertArrayEquals(new int[]{1, 3, 4, 5}, index.query(new ReceiptQuery().product(42)).toArray());
+        assertArrayEquals(new int[]{2, 3, 4}, index.query(new ReceiptQuery().between(DAY.plusDays(1), DAY.plusDays(3))).toArray());
+        assertArrayEquals(new int[]{4, 5}, index.query(new ReceiptQuery().between(DAY.plusDays(3), null)).toArray());
+        assertEquals(5, index.query(new ReceiptQuery()).getCardinality());
+    }
+
+    @Test
+    public void testQuery_UnknownKey_ReturnsEmpty() {
+        assertTrue(index.query(new ReceiptQuery().store(99).product(42)).isEmpty());
+        assertTrue(index.query(new ReceiptQuery().between(DAY.minusDays(5), DAY.minusDays(1))).isEmpty());
+    }
+
+    @Test
+    public void testQuery_ResultDoesNotChangeIndex() {
+        RoaringBitmap result = index.query(new ReceiptQuery().store(3));
+        result.add(100);
+
+        assertFalse(index.query(new ReceiptQuery().store(3)).contains(100));
+    }
+
+    @Test
+    public void testBetween_FromAfterTo_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new ReceiptQuery().between(DAY, DAY.minusDays(1)));
+    }
+
+    @Test
+    public void testBytes_RoundTrip() {
+        ReceiptBitmapIndex read = ReceiptBitmapIndex.fromBytes(index.toBytes());
+
+        assertEquals(5, read.getLastReceiptId());
+        assertEquals(5, read.size());
+        assertArrayEquals(new int[]{1, 3, 5},
+                read.query(new ReceiptQuery().store(3).product(42)).toArray());
+        assertArrayEquals(new int[]{2}, read.query(new ReceiptQuery().between(DAY.plusDays(1), DAY.plusDays(1))).toArray());
+    }
+
+    @Test
+    public void testFromBytes_InvalidData_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> ReceiptBitmapIndex.fromBytes(new byte[]{1, 2}));
+    }
+}
@@ -0,0 +1,114 @@
+package analytics;
+
+import model.Product;
+import model.ProductCategory;
+import model.Receipt;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReceiptLineStoreTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2026, 3, 2, 10, 15);
+
+    private ReceiptLineStore lines;
+    private Product milk;
+    private Product soap;
+
+    @BeforeEach
+    public void setUp() {
+        milk = new Product("Мляко", 2.0, ProductCategory.FOOD, LocalDate.of(2026, 4, 1));
+        milk.setId(1);
+        soap = new Product("Сапун", 3.0, ProductCategory.NON_FOOD, LocalDate.of(2027, 1, 1));
+        soap.setId(2);
+        lines = new ReceiptLineStore();
+    }
+
+    private static Receipt receipt(int id, int storeId, LocalDateTime dateTime, Object... productsAndQuantities) {
+        Map<Product, Integer> products = new LinkedHashMap<>();
+        Map<Integer, Long> unitPrices = new HashMap<>();
+        for (int i = 0; i < productsAndQuantities.length; i += 2) {
+            Product product = (Product) productsAndQuantities[i];
+            products.put(product, (Integer) productsAndQuantities[i + 1]);
+            unitPrices.put(product.getId(), product.getId() * 100L + 50);
+        }
+        Receipt receipt = new Receipt(1, storeId * 10, storeId, dateTime, products, unitPrices);
+        receipt.setId(id);
+        return receipt;
+    }
+
+    @Test
+    public void testAdd_OneRowPerProduct() {
+        lines.add(receipt(1, 1, TIME, milk, 2, soap, 1));
+        lines.add(receipt(2, 2, TIME, milk, 5));
+
+        assertEquals(3, lines.size());
+        assertEquals(8, lines.sum(ReceiptLine::quantity, line -> true));
+        assertEquals(2, lines.count(line -> line.productId() == milk.getId()));
+    }
+
+    @Test
+    public void testSumBy_RevenuePerStoreAndCategory() {
+        lines.add(receipt(1, 1, TIME, milk, 2, soap, 1));
+        lines.add(receipt(2, 2, TIME, milk, 5));
+        lines.add(receipt(3, 1, TIME, soap, 3));
+        ProductCategory[] categories = {null, ProductCategory.FOOD, ProductCategory.NON_FOOD};
+
+        Map<Long, Long> revenueByStore = lines.sumBy(ReceiptLine::storeId, ReceiptLine::amountCents, line -> true);
+        Map<Long, Long> foodByCategory = lines.sumBy(line -> categories[line.productId()].ordinal(),
+                ReceiptLine::quantity, line -> line.storeId() == 1);
+
+        // Мляко по 1.50, сапун по 2.50
+        assertEquals(Map.of(1L, 2 * 150L + 250L + 3 * 250L, 2L, 5 * 150L), revenueByStore);
+        assertEquals(Map.of((long) ProductCategory.FOOD.ordinal(), 2L, (long) ProductCategory.NON_FOOD.ordinal(), 4L),
+                foodByCategory);
+    }
+
+    @Test
+    public void testSumBy_TimeKeys() {
+        lines.add(receipt(1, 1, TIME, milk, 1));
+        lines.add(receipt(2, 1, TIME.plusMinutes(50), milk, 2));
+        lines.add(receipt(3, 1, TIME.plusDays(1), milk, 4));
+
+        long hour = TIME.toEpochSecond(ZoneOffset.UTC) / 3600;
+        long day = TIME.toLocalDate().toEpochDay();
+
+        assertEquals(Map.of(hour, 1L, hour + 1, 2L, hour + 24, 4L), lines.sumBy(ReceiptLine::epochHour, ReceiptLine::quantity, line -> true));
+        assertEquals(Map.of(day, 3L, day + 1, 4L), lines.sumBy(ReceiptLine::epochDay, ReceiptLine::quantity, line -> true));
+    }
+
+    @Test
+    public void testSumBy_ManyChunks_MatchesSequentialTotals() {
+        Random random = new Random(3);
+        long[] expected = new long[5];
+        for (int id = 1; id <= 30_000; id++) {
+            int storeId = random.nextInt(5);
+            int quantity = 1 + random.nextInt(4);
+            lines.add(receipt(id, storeId, TIME.plusMinutes(id), milk, quantity, soap, 1));
+            expected[storeId] += quantity + 1;
+        }
+
+        Map<Long, Long> quantities = lines.sumBy(ReceiptLine::storeId, ReceiptLine::quantity, line -> true);
+
+        assertEquals(60_000, lines.size());
+        for (int storeId = 0; storeId < expected.length; storeId++) {
+            assertEquals(expected[storeId], quantities.get((long) storeId));
+        }
+    }
+
+    @Test
+    public void testEmptyStore() {
+        assertEquals(0, lines.size());
+        assertEquals(0, lines.sum(ReceiptLine::amountCents, line -> true));
+        assertTrue(lines.sumBy(ReceiptLine::storeId, ReceiptLine::amountCents, line -> true).isEmpty());
+    }
+}
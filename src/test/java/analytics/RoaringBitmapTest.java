@@ -0,0 +1,104 @@
+package analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoaringBitmapTest {
+
+    @Test
+    public void testAdd_SparseAndDenseBlocks() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        // Плътен блок (битова карта) и два редки блока (масиви)
+        for (int i = 0; i < 10_000; i++) {
+            bitmap.add(i);
+        }
+        bitmap.add(70_000);
+        bitmap.add(5_000_000);
+        bitmap.add(5);
+
+        assertEquals(10_002, bitmap.getCardinality());
+        assertTrue(bitmap.contains(9_999));
+        assertTrue(bitmap.contains(70_000));
+        assertTrue(bitmap.contains(5_000_000));
+        assertFalse(bitmap.contains(10_000));
+        assertFalse(bitmap.contains(-1));
+    }
+
+    @Test
+    public void testAdd_NegativeValue_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new RoaringBitmap().add(-1));
+    }
+
+    @Test
+    public void testAndOr_MatchSetOperations() {
+        Random random = new Random(7);
+        RoaringBitmap first = new RoaringBitmap();
+        RoaringBitmap second = new RoaringBitmap();
+        TreeSet<Integer> firstValues = new TreeSet<>();
+        TreeSet<Integer> secondValues = new TreeSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            int a = random.nextInt(200_000);
+            int b = i % 3 == 0 ? random.nextInt(200_000) : random.nextInt(70_000);
+            first.add(a);
+            firstValues.add(a);
+            second.add(b);
+            secondValues.add(b);
+        }
+
+        TreeSet<Integer> intersection = new TreeSet<>(firstValues);
+        intersection.retainAll(secondValues);
+        TreeSet<Integer> union = new TreeSet<>(firstValues);
+        union.addAll(secondValues);
+
+        assertArrayEquals(toArray(intersection), RoaringBitmap.and(first, second).toArray());
+        assertArrayEquals(toArray(union), RoaringBitmap.or(first, second).toArray());
+
+        RoaringBitmap merged = first.copy();
+        merged.addAll(second);
+        assertArrayEquals(toArray(union), merged.toArray());
+        assertEquals(firstValues.size(), first.getCardinality());
+    }
+
+    @Test
+    public void testToArray_WithLimit_ReturnsSmallestValues() {
+        RoaringBitmap bitmap = RoaringBitmap.of(100_000, 3, 70_000, 1);
+
+        assertArrayEquals(new int[]{1, 3, 70_000}, bitmap.toArray(3));
+        assertArrayEquals(new int[]{1, 3, 70_000, 100_000}, bitmap.toArray(10));
+    }
+
+    @Test
+    public void testSerialize_RoundTrip() throws IOException {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int i = 0; i < 100_000; i += 3) {
+            bitmap.add(i);
+        }
+        bitmap.add(1_000_000);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bitmap.serialize(new DataOutputStream(bytes));
+        RoaringBitmap read = RoaringBitmap.deserialize(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(bitmap, read);
+        assertTrue(read.contains(1_000_000));
+    }
+
+    @Test
+    public void testDenseBitmap_IsSmallerThanIntArray() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int i = 0; i < 1_000_000; i++) {
+            bitmap.add(i);
+        }
+
+        assertTrue(bitmap.getSizeInBytes() < 1_000_000L * Integer.BYTES / 20);
+    }
+
+    private static int[] toArray(TreeSet<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,159 @@
+package analytics;
+
+import model.Product;
+import model.ProductCategory;
+import model.Receipt;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SalesRollupTest {
+
+    private static final LocalDateTime LATEST = LocalDateTime.of(2026, 3, 5, 10, 30);
+
+    private static Receipt receipt(int id, int storeId, int cashierId, LocalDateTime dateTime, ProductCategory category, int quantity) {
+        // Покупна цена 1.00, продажна цена 2.50
+        Product product = new Product("Продукт", 1.0, category, LocalDate.of(2027, 1, 1));
+        product.setId(category.ordinal() + 1);
+        Map<Product, Integer> products = new HashMap<>();
+        products.put(product, quantity);
+        Map<Integer, Long> unitPrices = new HashMap<>();
+        unitPrices.put(product.getId(), 250L);
+        Receipt receipt = new Receipt(1, cashierId, storeId, dateTime, products, unitPrices);
+        receipt.setId(id);
+        return receipt;
+    }
+
+    /**
+     * По една покупка на всеки кръгъл час от 2026-03-01 до 2026-03-05 10:00 в магазин 1 и покупка в 10:30 в магазин 2.
+     */
+    private static SalesRollup sample() {
+        SalesRollup rollup = new SalesRollup(120, 2);
+        int id = 0;
+        for (LocalDateTime time = LocalDateTime.of(2026, 3, 1, 0, 0); !time.isAfter(LATEST.withMinute(0)); time = time.plusHours(1)) {
+            rollup.add(receipt(++id, 1, 1 + time.getHour() % 2, time, ProductCategory.FOOD, 2));
+        }
+        rollup.add(receipt(++id, 2, 5, LATEST, ProductCategory.NON_FOOD, 1));
+        return rollup;
+    }
+
+    @Test
+    public void testQuery_RecentMinutes_UsesMinuteBuckets() {
+        SalesRollup rollup = sample();
+
+        SalesTotals totals = rollup.query(null, null, null, LATEST.minusMinutes(5), LATEST.plusMinutes(1));
+
+        assertEquals(1, totals.getReceiptCount());
+        assertEquals(250, totals.getRevenueCents());
+        assertEquals(100, totals.getCostCents());
+        assertEquals(6, totals.getMinuteBuckets());
+        assertEquals(0, totals.getHourBuckets());
+        assertEquals(LATEST.minusMinutes(5), totals.getFrom());
+    }
+
+    @Test
+    public void testQuery_LongRange_CombinesCoarsestBuckets() {
+        SalesRollup rollup = sample();
+
+        SalesTotals totals = rollup.query(null, null, null, LocalDateTime.of(2026, 3, 1, 0, 0), LATEST.plusMinutes(1));
+
+        assertEquals(4 * 24 + 11 + 1, totals.getReceiptCount());
+        assertEquals((4 * 24 + 11) * 2 + 1, totals.getUnits());
+        assertEquals(4, totals.getDayBuckets());
+        assertEquals(10, totals.getHourBuckets());
+        assertEquals(31, totals.getMinuteBuckets());
+    }
+
+    @Test
+    public void testQuery_OldPartialRange_ExpandsToWholeDay() {
+        SalesRollup rollup = sample();
+
+        SalesTotals totals = rollup.query(null, null, null, LocalDateTime.of(2026, 3, 2, 10, 15), LocalDateTime.of(2026, 3, 2, 11, 0));
+
+        assertEquals(LocalDateTime.of(2026, 3, 2, 0, 0), totals.getFrom());
+        assertEquals(LocalDateTime.of(2026, 3, 3, 0, 0), totals.getTo());
+        assertEquals(24, totals.getReceiptCount());
+        assertEquals(1, totals.getDayBuckets());
+    }
+
+    @Test
+    public void testQuery_FiltersByStoreCashierAndCategory() {
+        SalesRollup rollup = sample();
+        LocalDateTime from = LocalDateTime.of(2026, 3, 4, 0, 0);
+        LocalDateTime to = from.plusDays(2);
+
+        assertEquals(24 + 11, rollup.query(1, null, null, from, to).getReceiptCount());
+        assertEquals(12 + 6, rollup.query(1, 1, null, from, to).getReceiptCount());
+        assertEquals(1, rollup.query(null, null, ProductCategory.NON_FOOD, from, to).getReceiptCount());
+        assertEquals(0, rollup.query(2, null, ProductCategory.FOOD, from, to).getReceiptCount());
+        assertThrows(IllegalArgumentException.class, () -> rollup.query(null, null, null, to, from));
+    }
+
+    @Test
+    public void testQueryCashiers_GroupsByStoreAndCashier() {
+        SalesRollup rollup = sample();
+        LocalDateTime from = LocalDateTime.of(2026, 3, 4, 0, 0);
+
+        CashierLeaderboard all = rollup.queryCashiers(null, from, LATEST.plusMinutes(1));
+        CashierLeaderboard store = rollup.queryCashiers(1, from, LATEST.plusMinutes(1));
+        List<CashierStats> byUnits = all.top(10, CashierLeaderboard.Metric.UNITS);
+
+        assertEquals(3, all.getCashierCount());
+        assertEquals(24 + 11 + 1, all.getTotals().getReceiptCount());
+        assertEquals(2, store.getCashierCount());
+        assertEquals(24 + 11, store.getTotals().getReceiptCount());
+        // Касиер 1 продава в четните часове (включително 10:00), касиер 2 - в нечетните
+        assertEquals(1, byUnits.get(0).getCashierId());
+        assertEquals(18, byUnits.get(0).getReceiptCount());
+        assertEquals(500, byUnits.get(0).getAverageBasketCents());
+        assertEquals(5, byUnits.get(2).getCashierId());
+        assertEquals(2, byUnits.get(2).getStoreId());
+        assertEquals(1, all.top(1, CashierLeaderboard.Metric.REVENUE).size());
+        assertThrows(IllegalArgumentException.class, () -> all.top(0, CashierLeaderboard.Metric.RECEIPTS));
+    }
+
+    @Test
+    public void testQueryCashiers_RecentMinutes() {
+        SalesRollup rollup = sample();
+
+        CashierLeaderboard recent = rollup.queryCashiers(null, LATEST.minusMinutes(20), LATEST.plusMinutes(1));
+
+        assertEquals(1, recent.getCashierCount());
+        assertEquals(5, recent.top(5, CashierLeaderboard.Metric.parse("receipts")).get(0).getCashierId());
+        assertThrows(IllegalArgumentException.class, () -> CashierLeaderboard.Metric.parse("speed"));
+    }
+
+    @Test
+    public void testOldReceipts_OnlyDayBucketsAreUpdated() {
+        SalesRollup rollup = sample();
+
+        rollup.add(receipt(1000, 1, 1, LocalDateTime.of(2026, 3, 1, 12, 30), ProductCategory.FOOD, 1));
+
+        assertEquals(25, rollup.query(null, null, null, LocalDateTime.of(2026, 3, 1, 12, 0), LocalDateTime.of(2026, 3, 1, 13, 0)).getReceiptCount());
+        assertEquals(2 * 24, rollup.getHourCount());
+    }
+
+    @Test
+    public void testRestore_KeepsAllGranularities() {
+        SalesRollup rollup = sample();
+        Map<YearMonth, byte[]> months = rollup.drainDirtyMonths();
+        byte[] manifest = rollup.manifest();
+
+        SalesRollup restored = SalesRollup.restore(manifest, 120, 2, months::get);
+        SalesTotals totals = restored.query(null, null, null, LocalDateTime.of(2026, 3, 1, 0, 0), LATEST.plusMinutes(1));
+
+        assertEquals(4 * 24 + 12, totals.getReceiptCount());
+        assertEquals(31, totals.getMinuteBuckets());
+        assertEquals(rollup.getLastReceiptId(), restored.getLastReceiptId());
+        assertTrue(rollup.drainDirtyMonths().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> SalesRollup.restore(manifest, 60, 2, months::get));
+        assertThrows(IllegalArgumentException.class, () -> SalesRollup.restore(manifest, 120, 2, month -> null));
+    }
+}
@@ -0,0 +1,94 @@
+package analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpaceSavingTest {
+
+    @Test
+    public void testTop_FewItems_CountsAreExact() {
+        SpaceSaving sketch = new SpaceSaving(10);
+        sketch.add(1, 5);
+        sketch.add(2, 3);
+        sketch.add(1, 2);
+        sketch.add(3, 1);
+
+        List<HeavyHitter> top = sketch.top(2);
+
+        assertEquals(2, top.size());
+        assertEquals(1, top.get(0).getItem());
+        assertEquals(7, top.get(0).getCount());
+        assertEquals(0, top.get(0).getError());
+        assertEquals(2, top.get(1).getItem());
+        assertEquals(11, sketch.getTotal());
+        assertEquals(0, sketch.getFloor());
+    }
+
+    @Test
+    public void testAdd_SkewedStream_BoundsHoldWithLimitedCounters() {
+        SpaceSaving sketch = new SpaceSaving(50);
+        Map<Integer, Long> exact = new HashMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 100_000; i++) {
+            // Няколко често срещани продукта и дълга опашка от редки
+            int item = random.nextInt(10) < 6 ? random.nextInt(10) : 10 + random.nextInt(5_000);
+            sketch.add(item, 1);
+            exact.merge(item, 1L, Long::sum);
+        }
+
+        assertEquals(50, sketch.size());
+        for (HeavyHitter hitter : sketch.top(50)) {
+            long count = exact.get(hitter.getItem());
+            assertTrue(hitter.getCount() >= count);
+            assertTrue(hitter.getGuaranteedCount() <= count);
+        }
+        List<HeavyHitter> top = sketch.top(10);
+        for (HeavyHitter hitter : top) {
+            assertTrue(hitter.getItem() < 10, "Често срещаните продукти трябва да бъдат в началото");
+        }
+        for (Map.Entry<Integer, Long> entry : exact.entrySet()) {
+            if (sketch.top(50).stream().noneMatch(h -> h.getItem() == entry.getKey())) {
+                assertTrue(entry.getValue() <= sketch.getFloor());
+            }
+        }
+    }
+
+    @Test
+    public void testMerge_BoundsHold() {
+        SpaceSaving first = new SpaceSaving(3);
+        SpaceSaving second = new SpaceSaving(3);
+        Map<Integer, Long> exact = new HashMap<>();
+        int[][] stream = {{1, 10}, {2, 8}, {3, 1}, {4, 2}, {1, 5}, {5, 1}};
+        for (int i = 0; i < stream.length; i++) {
+            (i % 2 == 0 ? first : second).add(stream[i][0], stream[i][1]);
+            exact.merge(stream[i][0], (long) stream[i][1], Long::sum);
+        }
+
+        SpaceSaving merged = SpaceSaving.merge(List.of(first, second), 3);
+
+        assertEquals(27, merged.getTotal());
+        assertEquals(1, merged.top(1).get(0).getItem());
+        for (HeavyHitter hitter : merged.top(3)) {
+            long count = exact.get(hitter.getItem());
+            assertTrue(hitter.getCount() >= count);
+            assertTrue(hitter.getGuaranteedCount() <= count);
+        }
+        for (Map.Entry<Integer, Long> entry : exact.entrySet()) {
+            if (merged.top(3).stream().noneMatch(h -> h.getItem() == entry.getKey())) {
+                assertTrue(entry.getValue() <= merged.getFloor());
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidArguments_ThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSaving(0));
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSaving(5).add(1, 0));
+    }
+}
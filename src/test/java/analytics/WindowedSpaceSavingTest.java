@@ -0,0 +1,98 @@
+package analytics;
+
+import model.Product;
+import model.ProductCategory;
+import model.Receipt;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WindowedSpaceSavingTest {
+
+    // 2026-03-02 10:00 в минути
+    private static final int TEN_O_CLOCK = EpochMinutes.of(LocalDateTime.of(2026, 3, 2, 10, 0));
+
+    @Test
+    public void testTopSliding_CountsOnlyRecentBuckets() {
+        WindowedSpaceSaving windows = new WindowedSpaceSaving(10, 5, 24);
+        windows.add(1, 10, TEN_O_CLOCK);
+        windows.add(2, 4, TEN_O_CLOCK + 50);
+        windows.add(2, 3, TEN_O_CLOCK + 70);
+
+        TopNResult lastHour = windows.topSliding(5, TEN_O_CLOCK + 70, 60);
+        TopNResult lastTwoHours = windows.topSliding(5, TEN_O_CLOCK + 70, 120);
+
+        assertEquals(1, lastHour.getItems().size());
+        assertEquals(2, lastHour.getItems().get(0).getItem());
+        assertEquals(7, lastHour.getTotal());
+        assertEquals(TEN_O_CLOCK + 15, lastHour.getFromMinute());
+        assertEquals(TEN_O_CLOCK + 75, lastHour.getToMinute());
+        assertEquals(1, lastTwoHours.getItems().get(0).getItem());
+        assertEquals(17, lastTwoHours.getTotal());
+    }
+
+    @Test
+    public void testTopTumbling_UsesAlignedPeriod() {
+        WindowedSpaceSaving windows = new WindowedSpaceSaving(10, 5, 24);
+        windows.add(1, 10, TEN_O_CLOCK + 59);
+        windows.add(2, 4, TEN_O_CLOCK + 60);
+
+        TopNResult tenToEleven = windows.topTumbling(5, TEN_O_CLOCK + 30, 60);
+
+        assertEquals(TEN_O_CLOCK, tenToEleven.getFromMinute());
+        assertEquals(TEN_O_CLOCK + 60, tenToEleven.getToMinute());
+        assertEquals(10, tenToEleven.getTotal());
+        assertEquals(1, tenToEleven.getItems().get(0).getItem());
+    }
+
+    @Test
+    public void testAdd_EventsOlderThanRetention_AreDropped() {
+        // Пазят се 12 интервала по 5 минути, т.е. последният час
+        WindowedSpaceSaving windows = new WindowedSpaceSaving(10, 5, 12);
+        windows.add(1, 1, TEN_O_CLOCK + 120);
+        windows.add(2, 1, TEN_O_CLOCK);
+        windows.add(3, 1, TEN_O_CLOCK + 150);
+
+        assertEquals(1, windows.getDroppedEvents());
+        assertEquals(2, windows.topSliding(5, TEN_O_CLOCK + 150, 60).getTotal());
+
+        // Интервалът от 12:00 е заменен в кръговия масив от интервала от 13:00
+        windows.add(4, 1, TEN_O_CLOCK + 180);
+        assertEquals(2, windows.topSliding(5, TEN_O_CLOCK + 180, 60).getTotal());
+        assertEquals(0, windows.topSliding(5, TEN_O_CLOCK + 120, 5).getTotal());
+    }
+
+    @Test
+    public void testWindowLength_MustMatchBuckets() {
+        WindowedSpaceSaving windows = new WindowedSpaceSaving(10, 5, 12);
+
+        assertThrows(IllegalArgumentException.class, () -> windows.topSliding(5, TEN_O_CLOCK, 7));
+        assertThrows(IllegalArgumentException.class, () -> windows.topSliding(5, TEN_O_CLOCK, 65));
+    }
+
+    @Test
+    public void testBestSellers_PerStoreAndGlobal() {
+        Product milk = new Product("Мляко", 2.0, ProductCategory.FOOD, LocalDate.of(2026, 4, 1));
+        milk.setId(1);
+        Product bread = new Product("Хляб", 1.0, ProductCategory.FOOD, LocalDate.of(2026, 3, 5));
+        bread.setId(2);
+        BestSellers bestSellers = new BestSellers(10, 5, 24);
+        LocalDateTime time = LocalDateTime.of(2026, 3, 2, 10, 20);
+
+        Map<Product, Integer> first = new HashMap<>();
+        first.put(milk, 3);
+        Map<Product, Integer> second = new HashMap<>();
+        second.put(bread, 5);
+        bestSellers.add(new Receipt(1, 1, 1, time, first, new HashMap<>()));
+        bestSellers.add(new Receipt(1, 2, 2, time, second, new HashMap<>()));
+
+        assertEquals(2, bestSellers.topSliding(null, 1, time, 60).getItems().get(0).getItem());
+        assertEquals(1, bestSellers.topTumbling(1, 1, time, 60).getItems().get(0).getItem());
+        assertTrue(bestSellers.topSliding(3, 5, time, 60).getItems().isEmpty());
+    }
+}
@@ -0,0 +1,64 @@
+package batch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayConfigTest {
+
+    @Test
+    public void testFromArgs_OnlyFile_UsesDefaults() {
+        ReplayConfig config = ReplayConfig.fromArgs(new String[]{"file=sales.jsonl"});
+
+        assertEquals("sales.jsonl", config.getFile());
+        assertEquals(Runtime.getRuntime().availableProcessors(), config.getWorkers());
+        assertEquals(1000, config.getBatchSize());
+        assertNull(config.getFailuresFile());
+    }
+
+    @Test
+    public void testFromArgs_ValidArgs_OverridesValues() {
+        ReplayConfig config = ReplayConfig.fromArgs(new String[]{
+                "file=sales.jsonl", "workers=3", "batchSize=50", "queueCapacity=10", "failures=failed.txt"});
+
+        assertEquals(3, config.getWorkers());
+        assertEquals(50, config.getBatchSize());
+        assertEquals(10, config.getQueueCapacity());
+        assertEquals("failed.txt", config.getFailuresFile());
+    }
+
+    @Test
+    public void testFromArgs_MissingFile_ThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> ReplayConfig.fromArgs(new String[]{"workers=2"})
+        );
+
+        assertEquals("Не е зададен файл с покупки (file=<път>)", exception.getMessage());
+    }
+
+    @Test
+    public void testFromArgs_UnknownKey_ThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> ReplayConfig.fromArgs(new String[]{"file=a", "threads=2"})
+        );
+
+        assertEquals("Непозната настройка: threads", exception.getMessage());
+    }
+
+    @Test
+    public void testFromArgs_InvalidNumber_ThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> ReplayConfig.fromArgs(new String[]{"file=a", "workers=много"})
+        );
+
+        assertEquals("Невалидна стойност за workers: много", exception.getMessage());
+    }
+
+    @Test
+    public void testFromArgs_NonPositiveWorkers_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> ReplayConfig.fromArgs(new String[]{"file=a", "workers=0"}));
+    }
+}
@@ -0,0 +1,150 @@
+package batch;
+
+import dao.FileStorage;
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import service.ServiceFactory;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ReplayWorkerTest {
+
+    private Store testStore;
+    private Client testClient;
+    private CashDesk testCashDesk;
+    private Cashier testCashier;
+    private Product testProduct;
+    private int nextReceiptId;
+
+    @BeforeEach
+    public void setUp() {
+        ServiceFactory.getPriceTableService().invalidateStore(1);
+        nextReceiptId = 1;
+
+        Map<ProductCategory, Double> markupPercentages = new HashMap<>();
+        markupPercentages.put(ProductCategory.FOOD, 20.0);
+        markupPercentages.put(ProductCategory.NON_FOOD, 30.0);
+
+        testStore = new Store("Тестов магазин", markupPercentages, 5, 10.0);
+        testStore.setId(1);
+
+        testCashier = new Cashier("Тестов касиер", 1000.0);
+        testCashier.setId(1);
+        testStore.addCashier(testCashier.getId());
+
+        testCashDesk = new CashDesk(testStore.getId(), testCashier.getId());
+        testCashDesk.setId(1);
+
+        testClient = new Client("Тестов клиент", 100.0);
+        testClient.setId(1);
+
+        testProduct = new Product("Тестов продукт", 10.0, ProductCategory.FOOD, LocalDate.now().plusDays(30));
+        testProduct.setId(1);
+        testStore.setProductStock(testProduct.getId(), 5);
+    }
+
+    private void mockEntities(MockedStatic<FileStorage> mockedFileStorage) {
+        mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+        mockedFileStorage.when(() -> FileStorage.findObjectById(Store.class, 1)).thenReturn(Optional.of(testStore));
+        mockedFileStorage.when(() -> FileStorage.findObjectById(Client.class, 1)).thenReturn(Optional.of(testClient));
+        mockedFileStorage.when(() -> FileStorage.findObjectById(CashDesk.class, 1)).thenReturn(Optional.of(testCashDesk));
+        mockedFileStorage.when(() -> FileStorage.findObjectById(Cashier.class, 1)).thenReturn(Optional.of(testCashier));
+        mockedFileStorage.when(() -> FileStorage.findObjectById(Product.class, 1)).thenReturn(Optional.of(testProduct));
+        mockedFileStorage.when(() -> FileStorage.addObjects(eq(Receipt.class), any())).thenAnswer(invocation -> {
+            for (Receipt receipt : invocation.<List<Receipt>>getArgument(1)) {
+                receipt.setId(nextReceiptId++);
+            }
+            return null;
+        });
+    }
+
+    private static PurchaseCommand command(long lineNumber, int quantity) {
+        Cart cart = new Cart(1, 1, 1);
+        cart.addLine(1, quantity);
+        return new PurchaseCommand(lineNumber, cart);
+    }
+
+    @Test
+    public void testRun_ProcessesCommandsInOrderAndFlushesInBatches() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            BlockingQueue<PurchaseCommand> queue = new LinkedBlockingQueue<>();
+            Queue<ReplayFailure> failures = new ConcurrentLinkedQueue<>();
+            queue.add(command(1, 2));
+            queue.add(command(2, 2));
+            queue.add(command(3, 2));
+            queue.add(command(4, 1));
+            queue.add(ReplayWorker.END);
+
+            ReplayWorker worker = new ReplayWorker(queue, failures, 2);
+            worker.run();
+
+            assertEquals(3, worker.getSuccessful());
+            assertEquals(2, worker.getFlushes());
+            assertEquals(0, testStore.getProductStock(testProduct.getId()));
+            assertEquals(3, testStore.getReceiptsIds().size());
+
+            assertEquals(1, failures.size());
+            ReplayFailure failure = failures.peek();
+            assertEquals(3, failure.getLineNumber());
+            assertEquals("INSUFFICIENT_STOCK", failure.getReason());
+            mockedFileStorage.verify(() -> FileStorage.addObjects(eq(Receipt.class), any()), times(2));
+        }
+    }
+
+    @Test
+    public void testProcess_UnexpectedError_RecordsFailureAndContinues() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+            mockedFileStorage.when(() -> FileStorage.findObjectById(Store.class, 1))
+                    .thenThrow(new RuntimeException("Диск"))
+                    .thenReturn(Optional.of(testStore));
+
+            Queue<ReplayFailure> failures = new ConcurrentLinkedQueue<>();
+            ReplayWorker worker = new ReplayWorker(new LinkedBlockingQueue<>(), failures, 10);
+            worker.process(command(1, 1));
+            worker.process(command(2, 1));
+            worker.flush();
+
+            assertEquals(1, worker.getSuccessful());
+            assertEquals(1, failures.size());
+            assertEquals(ReplayFailure.ERROR, failures.peek().getReason());
+            assertEquals(1, failures.peek().getLineNumber());
+        }
+    }
+
+    @Test
+    public void testFlush_StorageError_MarksBatchAsFailed() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+            mockedFileStorage.when(() -> FileStorage.addObjects(eq(Receipt.class), any()))
+                    .thenThrow(new RuntimeException("Пълен диск"));
+
+            Queue<ReplayFailure> failures = new ConcurrentLinkedQueue<>();
+            ReplayWorker worker = new ReplayWorker(new LinkedBlockingQueue<>(), failures, 10);
+            worker.process(command(7, 1));
+            worker.process(command(8, 1));
+            worker.flush();
+
+            assertEquals(0, worker.getSuccessful());
+            assertEquals(List.of(7L, 8L), failures.stream().map(ReplayFailure::getLineNumber).toList());
+            assertEquals("Грешка при записване: Пълен диск", failures.peek().getMessage());
+        }
+    }
+}
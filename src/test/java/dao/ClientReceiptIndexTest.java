@@ -0,0 +1,90 @@
+package dao;
+
+import model.Receipt;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ClientReceiptIndexTest {
+
+    private static Receipt receipt(int id, int clientId) {
+        Receipt receipt = new Receipt(clientId, 1, 1, LocalDateTime.now(), new HashMap<>(), new HashMap<>());
+        receipt.setId(id);
+        return receipt;
+    }
+
+    @Test
+    public void testNewestFirst_ReturnsPagesFromNewest() {
+        try (MockedStatic<FileStorage> ignored = mockStatic(FileStorage.class)) {
+            ClientReceiptIndex index = ClientReceiptIndex.load(ArrayList::new);
+            for (int id = 1; id <= 10; id++) {
+                index.add(receipt(id, id % 2 == 0 ? 7 : 8));
+            }
+            assertFalse(index.add(receipt(4, 7)));
+            index.add(receipt(3, 7));
+
+            assertArrayEquals(new int[]{10, 8}, index.newestFirst(7, 0, 2));
+            assertArrayEquals(new int[]{6, 4, 3, 2}, index.newestFirst(7, 2, 10));
+            assertArrayEquals(new int[0], index.newestFirst(7, 6, 10));
+            assertArrayEquals(new int[0], index.newestFirst(99, 0, 10));
+            assertEquals(6, index.count(7));
+            assertEquals(11, index.size());
+            assertThrows(IllegalArgumentException.class, () -> index.newestFirst(7, -1, 10));
+            assertThrows(IllegalArgumentException.class, () -> index.newestFirst(7, 0, 0));
+        }
+    }
+
+    @Test
+    public void testLoad_ReadsPairsAndSkipsIncompletePair() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            // Двойките на един клиент могат да бъдат разбъркани от едновременни записи
+            mockedFileStorage.when(() -> FileStorage.readIntIndex(ClientReceiptIndex.INDEX_NAME, "all"))
+                    .thenReturn(new int[]{1, 5, 2, 6, 1, 3, 1, 9, 2});
+
+            ClientReceiptIndex index = ClientReceiptIndex.load(() -> {
+                throw new AssertionError("Касовите бележки не трябва да се зареждат");
+            });
+
+            assertArrayEquals(new int[]{9, 5, 3}, index.newestFirst(1, 0, 10));
+            assertEquals(1, index.count(2));
+        }
+    }
+
+    @Test
+    public void testLoad_MissingIndex_RebuildsFromReceipts() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            ClientReceiptIndex index = ClientReceiptIndex.load(() -> List.of(receipt(4, 2), receipt(2, 2)));
+
+            assertArrayEquals(new int[]{4, 2}, index.newestFirst(2, 0, 10));
+            mockedFileStorage.verify(() -> FileStorage.writeIntIndex(eq(ClientReceiptIndex.INDEX_NAME), eq("all"), aryEq(new int[]{2, 2, 2, 4})));
+            index.flush();
+            mockedFileStorage.verify(() -> FileStorage.appendToIntIndex(any(), any(), any()), never());
+        }
+    }
+
+    @Test
+    public void testFlush_AppendsOnlyNewPairs() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.readIntIndex(ClientReceiptIndex.INDEX_NAME, "all")).thenReturn(new int[]{1, 1});
+            ClientReceiptIndex index = ClientReceiptIndex.load(ArrayList::new);
+
+            index.add(receipt(2, 3));
+            index.add(receipt(3, 1));
+            index.flush();
+            index.flush();
+
+            mockedFileStorage.verify(() -> FileStorage.appendToIntIndex(eq(ClientReceiptIndex.INDEX_NAME), eq("all"), aryEq(new int[]{3, 2, 1, 3})));
+            mockedFileStorage.verify(() -> FileStorage.appendToIntIndex(any(), any(), any()), times(1));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package dao;
+
+import com.google.gson.Gson;
+import model.Receipt;
+import model.Store;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class StoreReceiptIndexTest {
+
+    @Test
+    public void testAdd_KeepsIdsSortedAndDistinct() {
+        StoreReceiptIndex index = new StoreReceiptIndex();
+
+        assertTrue(index.add(5));
+        assertTrue(index.add(9));
+        assertTrue(index.add(2));
+        assertFalse(index.add(5));
+
+        assertArrayEquals(new int[]{2, 5, 9}, index.toArray());
+        assertEquals(3, index.size());
+        assertTrue(index.contains(9));
+        assertFalse(index.contains(7));
+    }
+
+    @Test
+    public void testRemove() {
+        StoreReceiptIndex index = StoreReceiptIndex.of(Set.of(1, 2, 3));
+
+        assertTrue(index.remove(2));
+        assertFalse(index.remove(2));
+
+        assertArrayEquals(new int[]{1, 3}, index.toArray());
+    }
+
+    @Test
+    public void testRange() {
+        StoreReceiptIndex index = StoreReceiptIndex.of(List.of(10, 20, 30, 40, 50));
+
+        assertArrayEquals(new int[]{20, 30}, index.range(15, 40));
+        assertArrayEquals(new int[]{10, 20, 30, 40, 50}, index.range(0, 100));
+        assertArrayEquals(new int[0], index.range(41, 50));
+        assertArrayEquals(new int[0], index.range(40, 10));
+        assertEquals(2, index.countInRange(15, 40));
+        assertEquals(0, index.countInRange(40, 10));
+    }
+
+    @Test
+    public void testFlush_AppendsOnlyNewIds() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.readIntIndex(StoreReceiptIndex.INDEX_NAME, 1)).thenReturn(new int[]{1, 2});
+            StoreReceiptIndex index = StoreReceiptIndex.load(1, null, ArrayList::new);
+
+            index.add(3);
+            index.add(4);
+            index.flush(1);
+            index.flush(1);
+
+            mockedFileStorage.verify(() -> FileStorage.appendToIntIndex(eq(StoreReceiptIndex.INDEX_NAME), eq(1), aryEq(new int[]{3, 4})));
+            mockedFileStorage.verify(() -> FileStorage.appendToIntIndex(any(), any(), any()), times(1));
+            mockedFileStorage.verify(() -> FileStorage.writeIntIndex(any(), any(), any()), never());
+        }
+    }
+
+    @Test
+    public void testFlush_AfterRemoval_RewritesIndex() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.readIntIndex(StoreReceiptIndex.INDEX_NAME, 1)).thenReturn(new int[]{1, 2, 3});
+            StoreReceiptIndex index = StoreReceiptIndex.load(1, null, ArrayList::new);
+
+            index.remove(2);
+            index.flush(1);
+
+            mockedFileStorage.verify(() -> FileStorage.writeIntIndex(eq(StoreReceiptIndex.INDEX_NAME), eq(1), aryEq(new int[]{1, 3})));
+        }
+    }
+
+    @Test
+    public void testLoad_MissingIndex_RebuildsFromReceipts() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            ArrayList<Receipt> receipts = new ArrayList<>();
+            int[][] receiptStores = {{7, 1}, {3, 2}, {5, 1}};
+            for (int[] receiptStore : receiptStores) {
+                Receipt receipt = new Receipt(1, 1, receiptStore[1], LocalDateTime.now(), new HashMap<>(), new HashMap<>());
+                receipt.setId(receiptStore[0]);
+                receipts.add(receipt);
+            }
+
+            StoreReceiptIndex index = StoreReceiptIndex.load(1, null, () -> receipts);
+
+            assertArrayEquals(new int[]{5, 7}, index.toArray());
+            mockedFileStorage.verify(() -> FileStorage.writeIntIndex(eq(StoreReceiptIndex.INDEX_NAME), eq(1), aryEq(new int[]{5, 7})));
+        }
+    }
+
+    @Test
+    public void testStoreJson_DoesNotContainReceipts() {
+        Store store = new Store("Магазин", new HashMap<>(), 5, 10.0);
+        for (int i = 1; i <= 1000; i++) {
+            store.addReceipt(i);
+        }
+
+        String json = new Gson().toJson(store);
+
+        assertEquals(1000, store.getReceiptCount());
+        assertFalse(json.contains("receipt"));
+    }
+}
@@ -0,0 +1,62 @@
+package metrics;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlightRecordingTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testStart_RecordsApplicationEvents() throws Exception {
+        Path file = tempDir.resolve("store.jfr");
+        try (Recording recording = FlightRecording.start(file)) {
+            StorageEvent storageEvent = new StorageEvent();
+            storageEvent.begin();
+            storageEvent.operation = "save";
+            storageEvent.entityType = "Store";
+            storageEvent.entityCount = 3;
+            storageEvent.bytes = 1024;
+            storageEvent.commit();
+
+            CheckoutStepEvent stepEvent = new CheckoutStepEvent();
+            stepEvent.step = "payment";
+            stepEvent.storeId = 7;
+            stepEvent.commit();
+
+            recording.stop();
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent storage = events.stream()
+                .filter(e -> e.getEventType().getName().equals("store.Storage"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("save", storage.getString("operation"));
+        assertEquals("Store", storage.getString("entityType"));
+        assertEquals(3, storage.getLong("entityCount"));
+        assertEquals(1024, storage.getLong("bytes"));
+
+        RecordedEvent step = events.stream()
+                .filter(e -> e.getEventType().getName().equals("store.CheckoutStep"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("payment", step.getString("step"));
+        assertEquals(7, step.getInt("storeId"));
+    }
+
+    @Test
+    public void testStartIfConfigured_WithoutProperty_DoesNotStart() {
+        assertNull(System.getProperty("store.jfr.file"));
+        assertFalse(FlightRecording.startIfConfigured());
+    }
+}
@@ -0,0 +1,67 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramTest {
+
+    @Test
+    public void testBuckets_SmallValuesAreExact() {
+        for (long value = 0; value < 32; value++) {
+            assertEquals(value, Histogram.bucketUpperBound(Histogram.bucketIndex(value)));
+        }
+    }
+
+    @Test
+    public void testBuckets_ContainValueWithinRelativeError() {
+        for (long value = 32; value < 1L << 40; value = value * 3 + 7) {
+            long upper = Histogram.bucketUpperBound(Histogram.bucketIndex(value));
+            assertTrue(upper >= value, "Горната граница трябва да е поне " + value);
+            assertTrue(upper - value <= value / 32, "Грешката за " + value + " е твърде голяма: " + upper);
+        }
+    }
+
+    @Test
+    public void testBuckets_AreContiguous() {
+        for (int index = 0; index < 1800; index++) {
+            assertEquals(index + 1, Histogram.bucketIndex(Histogram.bucketUpperBound(index) + 1));
+        }
+    }
+
+    @Test
+    public void testPercentiles_ApproximateRecordedValues() {
+        Histogram histogram = new Histogram("test");
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500_000, histogram.getPercentile(50), 500_000 * 0.04);
+        assertEquals(990_000, histogram.getPercentile(99), 990_000 * 0.04);
+        assertEquals(1_000_000, histogram.getPercentile(100));
+        assertEquals(0.5005, histogram.getMeanMillis(), 1e-9);
+        assertEquals(1.0, histogram.getMaxMillis(), 1e-9);
+    }
+
+    @Test
+    public void testPercentile_NoValues_ReturnsZero() {
+        Histogram histogram = new Histogram("test");
+        assertEquals(0, histogram.getPercentile(99));
+        assertEquals(0, histogram.getMeanMillis());
+    }
+
+    @Test
+    public void testRecord_NegativeValueIsZero() {
+        Histogram histogram = new Histogram("test");
+        histogram.record(-5);
+        assertEquals(0, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testPercentile_OutOfRange_ThrowsException() {
+        Histogram histogram = new Histogram("test");
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(-1));
+    }
+}
@@ -0,0 +1,59 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+
+    @Test
+    public void testCounter_SameNameReturnsSameInstance() {
+        Counter counter = Metrics.counter("test.counter");
+        counter.add(3);
+
+        assertSame(counter, Metrics.counter("test.counter"));
+        assertEquals(3, Metrics.counter("test.counter").getCount());
+    }
+
+    @Test
+    public void testHistogram_SameNameReturnsSameInstance() {
+        assertSame(Metrics.histogram("test.histogram"), Metrics.histogram("test.histogram"));
+    }
+
+    @Test
+    public void testGauge_ReplacesPreviousGauge() {
+        Metrics.gauge("test.gauge", () -> 1);
+        Gauge gauge = Metrics.gauge("test.gauge", () -> 2);
+
+        assertEquals(2, gauge.getValue());
+        assertTrue(Metrics.dump().contains("value=2"));
+        assertFalse(Metrics.dump().contains("value=1"));
+    }
+
+    @Test
+    public void testDump_ContainsRecordedMetrics() {
+        Metrics.counter("test.dump.counter").increment();
+        Metrics.histogram("test.dump.histogram").record(2_000_000);
+        Metrics.histogram("test.dump.empty");
+
+        String dump = Metrics.dump();
+        assertTrue(dump.contains("test.dump.counter"));
+        assertTrue(dump.contains("test.dump.histogram"));
+        assertTrue(dump.contains("max=2.000ms"));
+        assertFalse(dump.contains("test.dump.empty"), "Празните хистограми не се включват в отчета");
+    }
+
+    @Test
+    public void testDisabled_TimersDoNotRecord() {
+        assertFalse(Metrics.isEnabled(), "Тестовете се изпълняват без -Dstore.metrics.enabled");
+        Histogram histogram = Metrics.histogram("test.disabled");
+        Counter counter = Metrics.counter("test.disabled");
+
+        Metrics.stopTimer(histogram, Metrics.startTimer());
+        Metrics.increment(counter);
+
+        assertEquals(0, Metrics.startTimer());
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, counter.getCount());
+    }
+}
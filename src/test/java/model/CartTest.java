@@ -0,0 +1,44 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartTest {
+
+    @Test
+    void constructorTest() {
+        Cart cart = new Cart(1, 2, 3);
+        assertEquals(1, cart.getStoreId());
+        assertEquals(2, cart.getClientId());
+        assertEquals(3, cart.getCashDeskId());
+        assertTrue(cart.isEmpty());
+    }
+
+    @Test
+    void addLine_SameProduct_SumsQuantities() {
+        Cart cart = new Cart(1, 2, 3);
+        cart.addLine(10, 2);
+        cart.addLine(10, 3);
+        cart.addLine(11, 1);
+
+        assertFalse(cart.isEmpty());
+        assertEquals(2, cart.getLines().size());
+        assertEquals(5, cart.getLines().get(10));
+        assertEquals(1, cart.getLines().get(11));
+    }
+
+    @Test
+    void addLine_NonPositiveQuantity_ThrowsException() {
+        Cart cart = new Cart(1, 2, 3);
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> cart.addLine(10, 0));
+        assertEquals("Количеството на продукт с ID 10 трябва да бъде положително", exception.getMessage());
+    }
+
+    @Test
+    void getLines_IsUnmodifiable() {
+        Cart cart = new Cart(1, 2, 3);
+        cart.addLine(10, 1);
+        assertThrows(UnsupportedOperationException.class, () -> cart.getLines().put(11, 1));
+    }
+}
@@ -0,0 +1,74 @@
+package model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final Gson gson = new GsonBuilder().create();
+
+    @Test
+    void fromDouble() {
+        assertEquals(120, Money.fromDouble(1.20));
+        assertEquals(29, Money.fromDouble(0.29));
+        assertEquals(1560, Money.fromDouble(19.5 - (19.5 * 20.0 / 100)));
+        assertEquals(0, Money.fromDouble(0.0));
+    }
+
+    @Test
+    void toDouble() {
+        assertEquals(1.2, Money.toDouble(120));
+        assertEquals(15.6, Money.toDouble(1560));
+    }
+
+    @Test
+    void multiply() {
+        assertEquals(360, Money.multiply(120, 3));
+        assertThrows(ArithmeticException.class, () -> Money.multiply(Long.MAX_VALUE, 2));
+    }
+
+    @Test
+    void percentOf() {
+        assertEquals(25, Money.percentOf(100, 25.0));
+        assertEquals(13, Money.percentOf(125, 10.0));
+    }
+
+    @Test
+    void format() {
+        assertEquals("12.05", Money.format(1205));
+        assertEquals("0.90", Money.format(90));
+        assertEquals("-1.50", Money.format(-150));
+    }
+
+    @Test
+    void sumOfManyAmounts_IsExact() {
+        long total = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            total += Money.fromDouble(0.1);
+        }
+        assertEquals(10_000_000, total);
+    }
+
+    @Test
+    void jsonAdapter_ReadsLegacyDoubleFields() {
+        Cashier cashier = gson.fromJson("{\"id\":1,\"name\":\"Мария\",\"salary\":1300.5}", Cashier.class);
+        Client client = gson.fromJson("{\"id\":1,\"name\":\"Иван\",\"balance\":10.799999999999999}", Client.class);
+
+        assertEquals(130050, cashier.getSalaryCents());
+        assertEquals(1080, client.getBalanceCents());
+    }
+
+    @Test
+    void jsonAdapter_WritesDecimalAmounts() {
+        Client client = new Client("Иван", 0);
+        client.setBalanceCents(12345);
+
+        String json = gson.toJson(client);
+
+        assertTrue(json.contains("\"balance\":123.45"), json);
+        assertEquals(12345, gson.fromJson(json, Client.class).getBalanceCents());
+    }
+}
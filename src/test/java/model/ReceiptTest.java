@@ -108,6 +108,25 @@ class ReceiptTest {
         assertEquals(90.0, receipt.getTotalPrice(), 0.001);
     }
 
+    @Test
+    void calculateTotalPrice_UsesStoreUnitPrices() {
+        testProduct1.setId(1);
+        testProduct2.setId(2);
+        Map<Integer, Long> unitPrices = new HashMap<>();
+        unitPrices.put(testProduct1.getId(), 1200L);
+        unitPrices.put(testProduct2.getId(), 2600L);
+
+        Receipt storeReceipt = new Receipt(testClientId, testCashierId, 7, testDateTime, testPurchasedProducts, unitPrices);
+
+        assertEquals(7, storeReceipt.getStore());
+        assertEquals(50.0, storeReceipt.getTotalPrice(), 0.001);
+        assertEquals(5000, storeReceipt.getTotalPriceCents());
+
+        testProduct1.setUnitSalePrice(100.0);
+        storeReceipt.calculateTotalPrice();
+        assertEquals(50.0, storeReceipt.getTotalPrice(), 0.001);
+    }
+
     @Test
     void getPurchasedProducts() {
         Map<Product, Integer> products = receipt.getPurchasedProducts();
@@ -0,0 +1,45 @@
+package model;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoreEventTest {
+
+    @Test
+    void toLine_And_Parse() {
+        StoreEvent event = new StoreEvent(1042, StoreEvent.Type.SOLD, 3, 2);
+
+        assertEquals("1042 SOLD 3 2", event.toLine());
+
+        StoreEvent parsed = StoreEvent.parse(event.toLine());
+        assertEquals(1042, parsed.getSequence());
+        assertEquals(StoreEvent.Type.SOLD, parsed.getType());
+        assertEquals(3, parsed.getTargetId());
+        assertEquals(2, parsed.getQuantity());
+    }
+
+    @Test
+    void parse_InvalidLine_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> StoreEvent.parse("1042 SOLD 3"));
+        assertThrows(IllegalArgumentException.class, () -> StoreEvent.parse("1042 UNKNOWN 3 2"));
+        assertThrows(IllegalArgumentException.class, () -> StoreEvent.parse("x SOLD 3 2"));
+    }
+
+    @Test
+    void store_PendingEventsAreNotSerialized() {
+        Store store = new Store("Магазин", new HashMap<>(), 5, 10.0);
+        store.addCashier(7);
+
+        String json = new Gson().toJson(store);
+        Store loaded = new Gson().fromJson(json, Store.class);
+
+        assertFalse(json.contains("pendingEvents"));
+        assertEquals(1, loaded.getEventSequence());
+        assertTrue(loaded.drainPendingEvents().isEmpty());
+        assertFalse(loaded.isSnapshotRequired());
+    }
+}
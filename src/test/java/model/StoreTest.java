@@ -1,5 +1,8 @@
 package model;
 
+import com.google.gson.Gson;
+import dao.FileStorage;
+import dao.StoreReceiptIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -490,17 +493,17 @@ class StoreTest {
             mockedFactory.when(ServiceFactory::getProductService).thenReturn(mockProductService);
 
             Receipt mockReceipt = mock(Receipt.class);
-            when(mockReceipt.getTotalPrice()).thenReturn(100.0);
+            when(mockReceipt.getTotalPriceCents()).thenReturn(10000L);
             when(mockReceiptService.findEntityById(anyInt())).thenReturn(Optional.of(mockReceipt));
             testStore.addReceipt(1);
 
             Cashier mockCashier = mock(Cashier.class);
-            when(mockCashier.getSalary()).thenReturn(30.0);
+            when(mockCashier.getSalaryCents()).thenReturn(3000L);
             when(mockCashierService.findEntityById(anyInt())).thenReturn(Optional.of(mockCashier));
             testStore.addCashier(1);
 
             Product mockProduct = mock(Product.class);
-            when(mockProduct.getUnitPurchasePrice()).thenReturn(50.0);
+            when(mockProduct.getUnitPurchasePriceCents()).thenReturn(5000L);
             when(mockProductService.findEntityById(anyInt())).thenReturn(Optional.of(mockProduct));
             testStore.setProductStock(1, 1);
 
@@ -508,7 +511,7 @@ class StoreTest {
 
             assertEquals(20.0, profit, 0.001);
 
-            when(mockReceipt.getTotalPrice()).thenReturn(60.0);
+            when(mockReceipt.getTotalPriceCents()).thenReturn(6000L);
 
             profit = testStore.calculateProfit();
 
@@ -581,5 +584,96 @@ class StoreTest {
         String actualMessage = exception.getMessage();
         assertTrue(actualMessage.contains(expectedMessage));
     }
-}
 
+    @Test
+    void mutators_RecordPendingEvents() {
+        long sequence = store.getEventSequence();
+        store.drainPendingEvents();
+
+        store.addProductStock(testProduct1, 10);
+        store.removeProductStock(testProduct1, 3);
+        store.addProductSold(testProduct1, 3);
+        store.addCashier(7);
+        assertFalse(store.removeProductStock(testProduct1, 100));
+
+        List<StoreEvent> events = store.drainPendingEvents();
+
+        assertEquals(List.of(
+                        (sequence + 1) + " STOCK_ADDED 1 10",
+                        (sequence + 2) + " STOCK_REMOVED 1 3",
+                        (sequence + 3) + " SOLD 1 3",
+                        (sequence + 4) + " CASHIER_ASSIGNED 7 0"),
+                events.stream().map(StoreEvent::toLine).toList());
+        assertEquals(sequence + 4, store.getEventSequence());
+        assertTrue(store.drainPendingEvents().isEmpty());
+        assertFalse(store.isSnapshotRequired());
+    }
+
+    @Test
+    void apply_RebuildsStateFromEvents() {
+        // Всички промени от setUp също са събития, затова празен магазин може да бъде възстановен изцяло
+        store.addProductStock(testProduct1, 10);
+        store.removeProductStock(testProduct1, 4);
+        store.addProductSold(testProduct1, 4);
+        store.addCashier(3);
+        List<StoreEvent> events = store.drainPendingEvents();
+
+        Store rebuilt = new Store(testName, testMarkupPercentages, testDaysBeforeExpirationThreshold, testDiscountPercentNearExpiration);
+        for (StoreEvent event : events) {
+            rebuilt.apply(event);
+        }
+
+        assertEquals(store.getProductsInStock(), rebuilt.getProductsInStock());
+        assertEquals(store.getProductsSold(), rebuilt.getProductsSold());
+        assertEquals(store.getCashiersIds(), rebuilt.getCashiersIds());
+        assertEquals(store.getEventSequence(), rebuilt.getEventSequence());
+        assertTrue(rebuilt.drainPendingEvents().isEmpty());
+    }
+
+    @Test
+    void setters_RequireSnapshot() {
+        store.addCashier(2);
+        store.setName("Нов магазин");
+
+        assertTrue(store.isSnapshotRequired());
+
+        store.markSnapshotted();
+
+        assertFalse(store.isSnapshotRequired());
+        assertTrue(store.drainPendingEvents().isEmpty());
+    }
+
+    @Test
+    void getInStockProducts_FollowsStockEvents() {
+        store.setProductStock(testProduct1.getId(), 2);
+        store.setProductStock(testProduct2.getId(), 0);
+
+        BitSet inStock = store.getInStockProducts();
+        assertTrue(inStock.get(testProduct1.getId()));
+        assertFalse(inStock.get(testProduct2.getId()));
+
+        store.removeProductStock(testProduct1, 2);
+        store.addProductStock(testProduct2, 4);
+
+        assertFalse(inStock.get(testProduct1.getId()));
+        assertTrue(inStock.get(testProduct2.getId()));
+
+        store.setProductsInStock(new HashMap<>(Map.of(testExpiringProduct.getId(), 1)));
+        assertEquals(BitSet.valueOf(new long[]{1L << testExpiringProduct.getId()}), store.getInStockProducts());
+    }
+
+    @Test
+    void getReceiptIndex_OldFormatStore_SeedsIndexFromReceiptsIds() {
+        String oldFormat = "{\"id\": 4, \"name\": \"Стар магазин\", \"receiptsIds\": [12, 3, 7],"
+                + " \"markupPercentages\": {\"FOOD\": 20.0}}";
+        Store oldStore = new Gson().fromJson(oldFormat, Store.class);
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            assertArrayEquals(new int[]{3, 7, 12}, oldStore.getReceiptIndex().toArray());
+            assertEquals(3, oldStore.getReceiptCount());
+            mockedFileStorage.verify(() -> FileStorage.writeIntIndex(StoreReceiptIndex.INDEX_NAME, 4, new int[]{3, 7, 12}));
+            mockedFileStorage.verify(() -> FileStorage.getCollection(Receipt.class), never());
+        }
+        assertFalse(new Gson().toJson(oldStore).contains("receiptsIds"));
+    }
+}
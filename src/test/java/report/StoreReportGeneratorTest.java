@@ -0,0 +1,170 @@
+package report;
+
+import dao.FileStorage;
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mockStatic;
+
+public class StoreReportGeneratorTest {
+
+    private List<Store> stores;
+    private List<Cashier> cashiers;
+    private List<Product> products;
+    private List<Receipt> receipts;
+
+    @BeforeEach
+    public void setUp() {
+        stores = new ArrayList<>();
+        cashiers = new ArrayList<>();
+        products = new ArrayList<>();
+        receipts = new ArrayList<>();
+
+        Product milk = new Product("Мляко", 1.5, ProductCategory.FOOD, LocalDate.now().plusDays(30));
+        milk.setId(1);
+        Product soap = new Product("Сапун", 2.0, ProductCategory.NON_FOOD, LocalDate.now().plusDays(300));
+        soap.setId(2);
+        products.add(milk);
+        products.add(soap);
+
+        // Магазините се добавят в обратен ред, а отчетът ги подрежда по ID
+        for (int storeId = 3; storeId >= 1; storeId--) {
+            Store store = new Store("Магазин " + storeId, new HashMap<>(), 5, 10.0);
+            store.setId(storeId);
+            Cashier cashier = new Cashier("Касиер " + storeId, 1000.0 * storeId);
+            cashier.setId(storeId);
+            cashiers.add(cashier);
+            store.addCashier(cashier.getId());
+            store.setProductStock(milk.getId(), 10 * storeId);
+            store.addProductSold(soap, storeId);
+            stores.add(store);
+        }
+
+        // Магазин N има N касови бележки по 5.00 лв.
+        int receiptId = 0;
+        for (int storeId = 1; storeId <= 3; storeId++) {
+            for (int i = 0; i < storeId; i++) {
+                Map<Product, Integer> purchased = new HashMap<>();
+                purchased.put(soap, 1);
+                Map<Integer, Long> unitPrices = new HashMap<>();
+                unitPrices.put(soap.getId(), 500L);
+                Receipt receipt = new Receipt(storeId, storeId, storeId, LocalDateTime.of(2026, 1, 1, 10, i), purchased, unitPrices);
+                receipt.setId(++receiptId);
+                receipts.add(receipt);
+            }
+        }
+        // Индексите се задават предварително, защото отчетът ги зарежда в нишките на пула, където FileStorage не е подменен
+        for (Store store : stores) {
+            store.setReceiptsIds(receipts.stream()
+                    .filter(receipt -> receipt.getStore() == store.getId())
+                    .map(Receipt::getId)
+                    .collect(Collectors.toSet()));
+        }
+    }
+
+    private void mockEntities(MockedStatic<FileStorage> mockedFileStorage) {
+        mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+        mockedFileStorage.when(() -> FileStorage.getCollection(Store.class)).thenReturn(new ArrayList<>(stores));
+        mockedFileStorage.when(() -> FileStorage.getCollection(Cashier.class)).thenReturn(new ArrayList<>(cashiers));
+        mockedFileStorage.when(() -> FileStorage.getCollection(Product.class)).thenReturn(new ArrayList<>(products));
+        mockedFileStorage.when(() -> FileStorage.getCollection(Receipt.class)).thenReturn(new ArrayList<>(receipts));
+    }
+
+    @Test
+    public void testGenerate_ComputesEveryStoreAndTotal() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class);
+             ForkJoinPool pool = new ForkJoinPool(2)) {
+            mockEntities(mockedFileStorage);
+
+            ConsolidatedReport report = new StoreReportGenerator(pool).generate();
+
+            assertEquals(3, report.getStores().size());
+            assertEquals(2, report.getParallelism());
+            for (int storeId = 1; storeId <= 3; storeId++) {
+                StoreFinancials store = report.getStores().get(storeId - 1);
+                assertEquals(storeId, store.getStoreId());
+                assertEquals(storeId, store.getReceiptCount());
+                assertEquals(100_000L * storeId, store.getSalariesExpenseCents());
+                // 10 * N млека по 1.50 и N сапуна по 2.00
+                assertEquals(1500L * storeId + 200L * storeId, store.getDeliveredGoodsExpenseCents());
+                assertEquals(500L * storeId, store.getIncomeCents());
+                assertEquals(500L * storeId - 100_000L * storeId - 1700L * storeId, store.getProfitCents());
+            }
+            assertEquals(6, report.getTotal().getReceiptCount());
+            assertEquals(3000, report.getTotal().getIncomeCents());
+            assertEquals(600_000 + 10_200, report.getTotal().getSalariesExpenseCents() + report.getTotal().getDeliveredGoodsExpenseCents());
+        }
+    }
+
+    @Test
+    public void testGenerate_MatchesStoreCalculations() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+            for (Cashier cashier : cashiers) {
+                mockedFileStorage.when(() -> FileStorage.findObjectById(Cashier.class, cashier.getId())).thenReturn(Optional.of(cashier));
+            }
+            for (Product product : products) {
+                mockedFileStorage.when(() -> FileStorage.findObjectById(Product.class, product.getId())).thenReturn(Optional.of(product));
+            }
+            for (Receipt receipt : receipts) {
+                mockedFileStorage.when(() -> FileStorage.findObjectById(Receipt.class, receipt.getId())).thenReturn(Optional.of(receipt));
+            }
+
+            ConsolidatedReport report = new StoreReportGenerator().generate();
+
+            for (Store store : stores) {
+                StoreFinancials financials = report.getStores().get(store.getId() - 1);
+                assertEquals(store.calculateTotalSalariesExpenseCents(), financials.getSalariesExpenseCents());
+                assertEquals(store.calculateDeliveredGoodsExpenseCents(), financials.getDeliveredGoodsExpenseCents());
+                assertEquals(store.calculateTotalIncomeCents(), financials.getIncomeCents());
+                assertEquals(store.calculateProfitCents(), financials.getProfitCents());
+            }
+        }
+    }
+
+    @Test
+    public void testGenerate_MissingProduct_ThrowsException() {
+        stores.get(0).setProductStock(99, 1);
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> new StoreReportGenerator().generate());
+            assertTrue(exception.getMessage().contains("Продукт с ID 99"));
+        }
+    }
+
+    @Test
+    public void testPrint_ContainsStoresAndTotal() {
+        ConsolidatedReport report = new ConsolidatedReport(List.of(
+                new StoreFinancials(1, "Първи", 2, 1000, 500, 2500),
+                new StoreFinancials(2, "Втори", 1, 1000, 0, 500)), 4, 2_500_000);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        report.print(new PrintStream(buffer, true, StandardCharsets.UTF_8));
+        String output = buffer.toString(StandardCharsets.UTF_8);
+
+        assertTrue(output.contains("Първи"));
+        assertTrue(output.contains("Общо"));
+        assertTrue(output.contains("Магазини: 2, нишки: 4"));
+        assertEquals(500, report.getTotal().getProfitCents());
+    }
+}
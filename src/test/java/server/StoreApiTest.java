@@ -0,0 +1,537 @@
+package server;
+
+import dao.FileStorage;
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import service.ServiceFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mockStatic;
+
+public class StoreApiTest {
+
+    private StoreApi api;
+    private Store testStore;
+    private Client testClient;
+    private CashDesk testCashDesk;
+    private Cashier testCashier;
+    private Product testProduct;
+
+    @BeforeEach
+    public void setUp() {
+        api = new StoreApi();
+        ServiceFactory.getPriceTableService().invalidateStore(1);
+
+        Map<ProductCategory, Double> markupPercentages = new HashMap<>();
+        markupPercentages.put(ProductCategory.FOOD, 20.0);
+        markupPercentages.put(ProductCategory.NON_FOOD, 30.0);
+
+        testStore = new Store("Тестов магазин", markupPercentages, 5, 10.0);
+        testStore.setId(1);
+
+        testCashier = new Cashier("Тестов касиер", 1000.0);
+        testCashier.setId(1);
+        testStore.addCashier(testCashier.getId());
+
+        testCashDesk = new CashDesk(testStore.getId(), testCashier.getId());
+        testCashDesk.setId(1);
+
+        testClient = new Client("Тестов клиент", 100.0);
+        testClient.setId(1);
+
+        testProduct = new Product("Тестов продукт", 10.0, ProductCategory.FOOD, LocalDate.now().plusDays(30));
+        testProduct.setId(1);
+        testStore.setProductStock(testProduct.getId(), 10);
+    }
+
+    private void mockEntities(MockedStatic<FileStorage> mockedFileStorage) {
+        mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+        mockedFileStorage.when(() -> FileStorage.getCollection(Store.class)).thenReturn(new ArrayList<>(List.of(testStore)));
+        mockedFileStorage.when(() -> FileStorage.findObjectById(Store.class, 1)).thenReturn(Optional.of(testStore));
+        mockedFileStorage.when(() -> FileStorage.findObjectById(Store.class, 2)).thenReturn(Optional.empty());
+        mockedFileStorage.when(() -> FileStorage.findObjectById(Client.class, 1)).thenReturn(Optional.of(testClient));
+        mockedFileStorage.when(() -> FileStorage.findObjectById(CashDesk.class, 1)).thenReturn(Optional.of(testCashDesk));
+        mockedFileStorage.when(() -> FileStorage.findObjectById(Cashier.class, 1)).thenReturn(Optional.of(testCashier));
+        mockedFileStorage.when(() -> FileStorage.findObjectById(Product.class, 1)).thenReturn(Optional.of(testProduct));
+        mockedFileStorage.when(() -> FileStorage.updateObject(eq(testStore), any())).thenReturn(true);
+        mockedFileStorage.when(() -> FileStorage.updateObject(eq(testClient), any())).thenReturn(true);
+        mockedFileStorage.when(() -> FileStorage.addObject(any(Receipt.class))).thenAnswer(invocation -> {
+            invocation.<Receipt>getArgument(0).setId(42);
+            return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> bodyOf(ApiResponse response) {
+        return (Map<String, Object>) response.getBody();
+    }
+
+    @Test
+    public void testGetStores_ReturnsStoreViews() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            ApiResponse response = api.handle("GET", "/api/stores", "");
+
+            assertEquals(200, response.getStatus());
+            List<Map<String, Object>> stores = (List<Map<String, Object>>) response.getBody();
+            assertEquals(1, stores.size());
+            assertEquals("Тестов магазин", stores.get(0).get("name"));
+            assertEquals(1, stores.get(0).get("cashiers"));
+        }
+    }
+
+    @Test
+    public void testGetStoreProducts_IncludesStorePriceAndStock() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            ApiResponse response = api.handle("GET", "/api/stores/1/products", "");
+
+            assertEquals(200, response.getStatus());
+            List<Map<String, Object>> products = (List<Map<String, Object>>) response.getBody();
+            assertEquals(1, products.size());
+            assertEquals(new BigDecimal("12.00"), products.get(0).get("price"));
+            assertEquals(10, products.get(0).get("stock"));
+        }
+    }
+
+    @Test
+    public void testGetStore_UnknownId_Returns404() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            ApiResponse response = api.handle("GET", "/api/stores/2", "");
+
+            assertEquals(404, response.getStatus());
+            assertEquals("Магазин с ID 2 не съществува", bodyOf(response).get("error"));
+        }
+    }
+
+    @Test
+    public void testGetStore_InvalidId_Returns400() {
+        ApiResponse response = api.handle("GET", "/api/stores/abc", "");
+
+        assertEquals(400, response.getStatus());
+    }
+
+    @Test
+    public void testCheckout_ValidCart_Returns201WithReceipt() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            ApiResponse response = api.handle("POST", "/api/checkout",
+                    "{\"storeId\": 1, \"clientId\": 1, \"cashDeskId\": 1, \"lines\": [{\"productId\": 1, \"quantity\": 3}]}");
+
+            assertEquals(201, response.getStatus());
+            assertEquals(42, bodyOf(response).get("id"));
+            assertEquals(new BigDecimal("36.00"), bodyOf(response).get("total"));
+            assertEquals(7, testStore.getProductStock(testProduct.getId()));
+            assertEquals(6400, testClient.getBalanceCents());
+        }
+    }
+
+    @Test
+    public void testCheckoutPreview_DoesNotChangeState() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            ApiResponse response = api.handle("POST", "/api/checkout/preview",
+                    "{\"storeId\": 1, \"clientId\": 1, \"cashDeskId\": 1, \"lines\": [{\"productId\": 1, \"quantity\": 3}]}");
+
+            assertEquals(200, response.getStatus());
+            assertEquals(new BigDecimal("36.00"), bodyOf(response).get("total"));
+            assertEquals(10, testStore.getProductStock(testProduct.getId()));
+            assertEquals(10000, testClient.getBalanceCents());
+        }
+    }
+
+    @Test
+    public void testCheckout_InsufficientStock_Returns409WithFailure() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            ApiResponse response = api.handle("POST", "/api/checkout",
+                    "{\"storeId\": 1, \"clientId\": 1, \"cashDeskId\": 1, \"lines\": [{\"productId\": 1, \"quantity\": 11}]}");
+
+            assertEquals(409, response.getStatus());
+            assertEquals("INSUFFICIENT_STOCK", bodyOf(response).get("failure"));
+        }
+    }
+
+    @Test
+    public void testCheckout_MissingField_Returns400() {
+        ApiResponse response = api.handle("POST", "/api/checkout", "{\"storeId\": 1, \"clientId\": 1}");
+
+        assertEquals(400, response.getStatus());
+        assertEquals("Липсва поле cashDeskId", bodyOf(response).get("error"));
+    }
+
+    @Test
+    public void testCheckout_InvalidJson_Returns400() {
+        ApiResponse response = api.handle("POST", "/api/checkout", "{storeId");
+
+        assertEquals(400, response.getStatus());
+    }
+
+    @Test
+    public void testRegisterClient_CreatesClient() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.addObject(any(Client.class))).thenAnswer(invocation -> {
+                invocation.<Client>getArgument(0).setId(5);
+                return null;
+            });
+
+            ApiResponse response = api.handle("POST", "/api/clients", "{\"name\": \"Нов клиент\", \"balance\": 25.5}");
+
+            assertEquals(201, response.getStatus());
+            assertEquals(5, bodyOf(response).get("id"));
+            assertEquals(new BigDecimal("25.50"), bodyOf(response).get("balance"));
+        }
+    }
+
+    @Test
+    public void testStoreReport_ReturnsFinancials() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            ApiResponse response = api.handle("GET", "/api/stores/1/report", "");
+
+            assertEquals(200, response.getStatus());
+            assertEquals(new BigDecimal("1000.00"), bodyOf(response).get("salariesExpense"));
+            assertEquals(new BigDecimal("100.00"), bodyOf(response).get("deliveredGoodsExpense"));
+        }
+    }
+
+    @Test
+    public void testSearchReceipts_FiltersByQueryParameters() {
+        ServiceFactory.getReceiptAnalyticsService().invalidateBitmapIndex();
+        List<Receipt> receipts = new ArrayList<>();
+        for (int id = 1; id <= 4; id++) {
+            Map<Product, Integer> products = new HashMap<>();
+            products.put(testProduct, 1);
+            Receipt receipt = new Receipt(1, id % 2 == 0 ? 2 : 1, 1, LocalDate.of(2026, 1, id).atTime(9, 0), products, new HashMap<>());
+            receipt.setId(id);
+            receipts.add(receipt);
+        }
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+            mockedFileStorage.when(() -> FileStorage.getCollection(Receipt.class)).thenReturn(new ArrayList<>(receipts));
+
+            ApiResponse response = api.handle("GET", "/api/receipts",
+                    "storeId=1&cashierId=1&productId=1&from=2026-01-02&to=2026-01-31", "");
+            ApiResponse invalid = api.handle("GET", "/api/receipts", "from=yesterday", "");
+
+            assertEquals(200, response.getStatus());
+            assertEquals(1L, bodyOf(response).get("count"));
+            assertArrayEquals(new int[]{3}, (int[]) bodyOf(response).get("receiptIds"));
+            assertEquals(400, invalid.getStatus());
+        } finally {
+            ServiceFactory.getReceiptAnalyticsService().invalidateBitmapIndex();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBestSellers_ReturnsTopProductsWithErrors() {
+        ServiceFactory.getReceiptAnalyticsService().invalidateBestSellers();
+        Map<Product, Integer> products = new HashMap<>();
+        products.put(testProduct, 4);
+        Receipt receipt = new Receipt(1, 1, 1, LocalDate.of(2026, 1, 5).atTime(9, 30), products, new HashMap<>());
+        receipt.setId(1);
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+            mockedFileStorage.when(() -> FileStorage.getCollection(Receipt.class)).thenReturn(new ArrayList<>(List.of(receipt)));
+
+            ApiResponse response = api.handle("GET", "/api/reports/best-sellers",
+                    "storeId=1&n=5&minutes=60&window=tumbling&at=2026-01-05T09:45", "");
+            ApiResponse invalid = api.handle("GET", "/api/reports/best-sellers", "window=weekly", "");
+
+            assertEquals(200, response.getStatus());
+            assertEquals("2026-01-05T09:00", bodyOf(response).get("from"));
+            List<Map<String, Object>> top = (List<Map<String, Object>>) bodyOf(response).get("products");
+            assertEquals(1, top.get(0).get("productId"));
+            assertEquals(4L, top.get(0).get("quantity"));
+            assertEquals(0L, top.get(0).get("error"));
+            assertEquals(400, invalid.getStatus());
+        } finally {
+            ServiceFactory.getReceiptAnalyticsService().invalidateBestSellers();
+        }
+    }
+
+    @Test
+    public void testUniqueClients_CountsClientsInPeriod() {
+        ServiceFactory.getReceiptAnalyticsService().invalidateDistinctClients();
+        List<Receipt> receipts = new ArrayList<>();
+        for (int id = 1; id <= 6; id++) {
+            Map<Product, Integer> products = new HashMap<>();
+            products.put(testProduct, 1);
+            // Клиенти 1, 2 и 3 пазаруват два пъти през седмицата от 2026-01-05
+            Receipt receipt = new Receipt(1 + id % 3, 1, 1, LocalDate.of(2026, 1, 4 + id).atTime(9, 0), products, new HashMap<>());
+            receipt.setId(id);
+            receipts.add(receipt);
+        }
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+            mockedFileStorage.when(() -> FileStorage.getCollection(Receipt.class)).thenReturn(new ArrayList<>(receipts));
+
+            ApiResponse week = api.handle("GET", "/api/reports/unique-clients", "storeId=1&period=week&date=2026-01-07", "");
+            ApiResponse day = api.handle("GET", "/api/reports/unique-clients", "from=2026-01-05&to=2026-01-05", "");
+            ApiResponse invalid = api.handle("GET", "/api/reports/unique-clients", "period=year", "");
+
+            assertEquals(200, week.getStatus());
+            assertEquals("2026-01-05", bodyOf(week).get("from"));
+            assertEquals("2026-01-11", bodyOf(week).get("to"));
+            assertEquals(3L, bodyOf(week).get("uniqueClients"));
+            assertEquals(1L, bodyOf(day).get("uniqueClients"));
+            assertEquals(400, invalid.getStatus());
+        } finally {
+            ServiceFactory.getReceiptAnalyticsService().invalidateDistinctClients();
+        }
+    }
+
+    @Test
+    public void testBasketQuantiles_ReturnsPercentilesForPeriod() {
+        ServiceFactory.getReceiptAnalyticsService().invalidateBasketQuantiles();
+        List<Receipt> receipts = new ArrayList<>();
+        for (int id = 1; id <= 100; id++) {
+            Map<Product, Integer> products = new HashMap<>();
+            products.put(testProduct, id);
+            Map<Integer, Long> unitPrices = new HashMap<>();
+            unitPrices.put(testProduct.getId(), 100L);
+            Receipt receipt = new Receipt(1, 1 + id % 2, 1, LocalDate.of(2026, 1, 5).atTime(9, 0), products, unitPrices);
+            receipt.setId(id);
+            receipts.add(receipt);
+        }
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+            mockedFileStorage.when(() -> FileStorage.getCollection(Receipt.class)).thenReturn(new ArrayList<>(receipts));
+
+            ApiResponse day = api.handle("GET", "/api/reports/basket-quantiles", "storeId=1&period=day&date=2026-01-05", "");
+            ApiResponse cashier = api.handle("GET", "/api/reports/basket-quantiles", "cashierId=2&period=month&date=2026-01-20", "");
+            ApiResponse invalid = api.handle("GET", "/api/reports/basket-quantiles", "from=2026-01-06&to=2026-01-05", "");
+
+            assertEquals(200, day.getStatus());
+            assertEquals(100L, bodyOf(day).get("receipts"));
+            @SuppressWarnings("unchecked")
+            Map<String, Object> items = (Map<String, Object>) bodyOf(day).get("basketItems");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> value = (Map<String, Object>) bodyOf(day).get("basketValue");
+            assertEquals(50L, items.get("p50"));
+            assertEquals(95L, items.get("p95"));
+            assertEquals(99L, items.get("p99"));
+            assertEquals(new BigDecimal("100.00"), value.get("max"));
+            assertEquals(50L, bodyOf(cashier).get("receipts"));
+            assertEquals("2026-01-01", bodyOf(cashier).get("from"));
+            assertEquals(400, invalid.getStatus());
+        } finally {
+            ServiceFactory.getReceiptAnalyticsService().invalidateBasketQuantiles();
+        }
+    }
+
+    @Test
+    public void testSales_ReturnsRollupTotals() {
+        ServiceFactory.getReceiptAnalyticsService().invalidateSalesRollup();
+        List<Receipt> receipts = new ArrayList<>();
+        for (int id = 1; id <= 4; id++) {
+            Map<Product, Integer> products = new HashMap<>();
+            products.put(testProduct, id);
+            Map<Integer, Long> unitPrices = new HashMap<>();
+            unitPrices.put(testProduct.getId(), 200L);
+            Receipt receipt = new Receipt(1, 1, 1, LocalDate.of(2026, 1, 5).atTime(8 + id, 0), products, unitPrices);
+            receipt.setId(id);
+            receipts.add(receipt);
+        }
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+            mockedFileStorage.when(() -> FileStorage.getCollection(Receipt.class)).thenReturn(new ArrayList<>(receipts));
+
+            ApiResponse day = api.handle("GET", "/api/reports/sales", "storeId=1&period=day&date=2026-01-05", "");
+            ApiResponse morning = api.handle("GET", "/api/reports/sales", "from=2026-01-05T09:00&to=2026-01-05T11:00", "");
+            ApiResponse invalid = api.handle("GET", "/api/reports/sales", "category=TOYS", "");
+
+            assertEquals(200, day.getStatus());
+            assertEquals(4L, bodyOf(day).get("receipts"));
+            assertEquals(10L, bodyOf(day).get("units"));
+            assertEquals(new BigDecimal("20.00"), bodyOf(day).get("revenue"));
+            assertEquals(2L, bodyOf(morning).get("receipts"));
+            assertEquals("2026-01-05T09:00", bodyOf(morning).get("from"));
+            assertEquals(400, invalid.getStatus());
+        } finally {
+            ServiceFactory.getReceiptAnalyticsService().invalidateSalesRollup();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCashierLeaderboard_RanksCashiers() {
+        ServiceFactory.getReceiptAnalyticsService().invalidateSalesRollup();
+        List<Receipt> receipts = new ArrayList<>();
+        for (int id = 1; id <= 5; id++) {
+            Map<Product, Integer> products = new HashMap<>();
+            products.put(testProduct, id);
+            Map<Integer, Long> unitPrices = new HashMap<>();
+            unitPrices.put(testProduct.getId(), 100L);
+            // Касиер 1 има три малки касови бележки, а касиер 2 - две големи
+            Receipt receipt = new Receipt(1, id <= 3 ? 1 : 2, 1, LocalDate.of(2026, 1, 5).atTime(9, id), products, unitPrices);
+            receipt.setId(id);
+            receipts.add(receipt);
+        }
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+            mockedFileStorage.when(() -> FileStorage.getCollection(Receipt.class)).thenReturn(new ArrayList<>(receipts));
+
+            ApiResponse byReceipts = api.handle("GET", "/api/reports/cashiers", "storeId=1&period=day&date=2026-01-05", "");
+            ApiResponse byRevenue = api.handle("GET", "/api/reports/cashiers", "by=revenue&minutes=3&at=2026-01-05T09:05", "");
+            ApiResponse invalid = api.handle("GET", "/api/reports/cashiers", "by=speed", "");
+
+            assertEquals(200, byReceipts.getStatus());
+            List<Map<String, Object>> ranked = (List<Map<String, Object>>) bodyOf(byReceipts).get("cashiers");
+            assertEquals(1, ranked.get(0).get("cashierId"));
+            assertEquals("Тестов касиер", ranked.get(0).get("name"));
+            assertEquals(3L, ranked.get(0).get("receipts"));
+            assertEquals(new BigDecimal("2.00"), ranked.get(0).get("averageBasket"));
+            assertEquals(5L, bodyOf(byReceipts).get("receipts"));
+
+            ranked = (List<Map<String, Object>>) bodyOf(byRevenue).get("cashiers");
+            assertEquals("2026-01-05T09:03", bodyOf(byRevenue).get("from"));
+            assertEquals(2, ranked.get(0).get("cashierId"));
+            assertEquals(new BigDecimal("9.00"), ranked.get(0).get("revenue"));
+            assertEquals(new BigDecimal("3.00"), ranked.get(1).get("revenue"));
+            assertEquals(400, invalid.getStatus());
+        } finally {
+            ServiceFactory.getReceiptAnalyticsService().invalidateSalesRollup();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testClientReceipts_ReturnsNewestFirst() {
+        ServiceFactory.getClientService().invalidatePurchaseHistory();
+        List<Receipt> receipts = new ArrayList<>();
+        for (int id = 1; id <= 3; id++) {
+            Map<Product, Integer> products = new HashMap<>();
+            products.put(testProduct, id);
+            Receipt receipt = new Receipt(1, 1, 1, LocalDate.of(2026, 1, id).atTime(9, 0), products, new HashMap<>());
+            receipt.setId(id);
+            receipts.add(receipt);
+        }
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+            mockedFileStorage.when(() -> FileStorage.getCollection(Receipt.class)).thenReturn(new ArrayList<>(receipts));
+            for (Receipt receipt : receipts) {
+                mockedFileStorage.when(() -> FileStorage.readSeparateObject(Receipt.class, receipt.getId())).thenReturn(Optional.of(receipt));
+            }
+
+            ApiResponse response = api.handle("GET", "/api/clients/1/receipts", "offset=1&limit=5", "");
+            ApiResponse missing = api.handle("GET", "/api/clients/2/receipts", "");
+            ApiResponse invalid = api.handle("GET", "/api/clients/1/receipts", "limit=0", "");
+
+            assertEquals(200, response.getStatus());
+            assertEquals(3, bodyOf(response).get("count"));
+            List<Map<String, Object>> page = (List<Map<String, Object>>) bodyOf(response).get("receipts");
+            assertEquals(List.of(2, 1), page.stream().map(receipt -> receipt.get("id")).toList());
+            assertEquals(404, missing.getStatus());
+            assertEquals(400, invalid.getStatus());
+        } finally {
+            ServiceFactory.getClientService().invalidatePurchaseHistory();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSearchByName_ReturnsMatchingClientsAndStores() {
+        ServiceFactory.getClientService().invalidateNameIndex();
+        ServiceFactory.getStoreService().invalidateNameIndex();
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+            mockedFileStorage.when(() -> FileStorage.getCollection(Client.class)).thenReturn(new ArrayList<>(List.of(testClient)));
+
+            ApiResponse clients = api.handle("GET", "/api/clients", "q=%D1%82%D0%B5%D1%81%D1%82%D0%BE%D0%B2+%D0%BA%D0%BB&n=5", "");
+            ApiResponse stores = api.handle("GET", "/api/stores", "q=МАГ", "");
+            ApiResponse invalid = api.handle("GET", "/api/clients", "q=x&n=0", "");
+
+            assertEquals(200, clients.getStatus());
+            List<Map<String, Object>> foundClients = (List<Map<String, Object>>) clients.getBody();
+            assertEquals(1, foundClients.size());
+            assertEquals("Тестов клиент", foundClients.get(0).get("name"));
+            assertEquals(List.of(1), ((List<Map<String, Object>>) stores.getBody()).stream().map(store -> store.get("id")).toList());
+            assertEquals(400, invalid.getStatus());
+        } finally {
+            ServiceFactory.getClientService().invalidateNameIndex();
+            ServiceFactory.getStoreService().invalidateNameIndex();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSearchProducts_FiltersByStoreStockAndCategory() {
+        ServiceFactory.getProductService().invalidateCatalog();
+        Product soap = new Product("Тестов сапун", 2.0, ProductCategory.NON_FOOD, LocalDate.now().plusDays(30));
+        soap.setId(2);
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+            mockedFileStorage.when(() -> FileStorage.getCollection(Product.class)).thenReturn(new ArrayList<>(List.of(testProduct, soap)));
+
+            ApiResponse catalog = api.handle("GET", "/api/products", "q=тест&limit=1", "");
+            ApiResponse inStore = api.handle("GET", "/api/stores/1/products", "q=тест", "");
+            ApiResponse nonFood = api.handle("GET", "/api/products", "category=NON_FOOD", "");
+            ApiResponse invalid = api.handle("GET", "/api/products", "category=DRINKS", "");
+            ApiResponse firstPage = api.handle("GET", "/api/products", null, "");
+
+            assertEquals(200, catalog.getStatus());
+            assertEquals(true, bodyOf(catalog).get("hasMore"));
+            List<Map<String, Object>> catalogProducts = (List<Map<String, Object>>) bodyOf(catalog).get("products");
+            assertEquals("Тестов продукт", catalogProducts.get(0).get("name"));
+
+            List<Map<String, Object>> storeProducts = (List<Map<String, Object>>) bodyOf(inStore).get("products");
+            assertEquals(1, storeProducts.size());
+            assertEquals(new BigDecimal("12.00"), storeProducts.get(0).get("price"));
+            assertEquals(10, storeProducts.get(0).get("stock"));
+
+            List<Map<String, Object>> nonFoodProducts = (List<Map<String, Object>>) bodyOf(nonFood).get("products");
+            assertEquals(List.of(2), nonFoodProducts.stream().map(product -> product.get("id")).toList());
+            assertEquals(400, invalid.getStatus());
+
+            assertEquals(0, bodyOf(firstPage).get("offset"));
+            assertEquals(false, bodyOf(firstPage).get("hasMore"));
+            assertEquals(2, ((List<Map<String, Object>>) bodyOf(firstPage).get("products")).size());
+        } finally {
+            ServiceFactory.getProductService().invalidateCatalog();
+        }
+    }
+
+    @Test
+    public void testWrongMethod_Returns405() {
+        ApiResponse response = api.handle("DELETE", "/api/stores", "");
+
+        assertEquals(405, response.getStatus());
+    }
+
+    @Test
+    public void testUnknownPath_Returns404() {
+        ApiResponse response = api.handle("GET", "/api/unknown", "");
+
+        assertEquals(404, response.getStatus());
+    }
+}
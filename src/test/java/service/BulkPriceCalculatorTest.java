@@ -0,0 +1,98 @@
+package service;
+
+import model.Product;
+import model.ProductCategory;
+import model.Store;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkPriceCalculatorTest {
+
+    private Store testStore;
+    private List<Product> testProducts;
+
+    @BeforeEach
+    public void setUp() {
+        Map<ProductCategory, Double> markupPercentages = new HashMap<>();
+        markupPercentages.put(ProductCategory.FOOD, 17.5);
+        markupPercentages.put(ProductCategory.NON_FOOD, 33.3);
+
+        testStore = new Store("Тестов магазин", markupPercentages, 5, 12.5);
+        testStore.setId(1);
+
+        Random random = new Random(42);
+        testProducts = new ArrayList<>();
+        ProductCategory[] categories = ProductCategory.values();
+        // Нечетен брой, за да се провери и обработката на последните елементи извън цял вектор
+        for (int i = 1; i <= 1037; i++) {
+            Product product = new Product("Продукт " + i, random.nextInt(100_000) / 100.0,
+                    categories[random.nextInt(categories.length)], LocalDate.now().plusDays(random.nextInt(20) - 5));
+            product.setId(i);
+            testProducts.add(product);
+        }
+    }
+
+    @Test
+    public void testComputeFinalPrices_MatchesScalarPriceExactly() {
+        double[] finalPrices = BulkPriceCalculator.computeFinalPrices(testStore, testProducts);
+
+        assertEquals(testProducts.size(), finalPrices.length);
+        for (int i = 0; i < testProducts.size(); i++) {
+            assertEquals(testStore.getProductFinalPrice(testProducts.get(i)), finalPrices[i], 0.0,
+                    "Разлика в цената на продукт " + testProducts.get(i).getId());
+        }
+    }
+
+    @Test
+    public void testComputeFinalPricesScalar_MatchesScalarPriceExactly() {
+        int size = testProducts.size();
+        double[] purchasePrices = new double[size];
+        int[] categoryOrdinals = new int[size];
+        int[] daysToExpiry = new int[size];
+        for (int i = 0; i < size; i++) {
+            Product product = testProducts.get(i);
+            purchasePrices[i] = product.getUnitPurchasePrice();
+            categoryOrdinals[i] = product.getCategory().ordinal();
+            daysToExpiry[i] = (int) ChronoUnit.DAYS.between(LocalDate.now(), product.getExpirationDate());
+        }
+
+        double[] finalPrices = new double[size];
+        BulkPriceCalculator.computeFinalPricesScalar(purchasePrices, categoryOrdinals, daysToExpiry,
+                BulkPriceCalculator.markupsByCategoryOrdinal(testStore), testStore.getDaysBeforeExpirationThreshold(),
+                testStore.getDiscountPercentNearExpiration(), finalPrices, 0, size);
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(testStore.getProductFinalPrice(testProducts.get(i)), finalPrices[i], 0.0);
+        }
+    }
+
+    @Test
+    public void testComputeFinalPrices_EmptyList_ReturnsEmptyArray() {
+        assertEquals(0, BulkPriceCalculator.computeFinalPrices(testStore, new ArrayList<>()).length);
+    }
+
+    @Test
+    public void testComputeFinalPrices_MissingMarkup_ThrowsException() {
+        testStore.getMarkupPercentages().remove(ProductCategory.NON_FOOD);
+        List<Product> products = new ArrayList<>();
+        Product product = new Product("Продукт", 1.0, ProductCategory.NON_FOOD, LocalDate.now().plusDays(30));
+        products.add(product);
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> BulkPriceCalculator.computeFinalPrices(testStore, products)
+        );
+
+        assertEquals("Магазин с ID 1 няма надценка за категория NON_FOOD", exception.getMessage());
+    }
+}
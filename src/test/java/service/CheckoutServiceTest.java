@@ -0,0 +1,306 @@
+package service;
+
+import dao.FileStorage;
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class CheckoutServiceTest {
+
+    private CheckoutService checkoutService;
+    private Store testStore;
+    private Client testClient;
+    private CashDesk testCashDesk;
+    private Cashier testCashier;
+    private Product testProduct;
+
+    @BeforeEach
+    public void setUp() {
+        checkoutService = new CheckoutService();
+        ServiceFactory.getPriceTableService().invalidateStore(1);
+
+        Map<ProductCategory, Double> markupPercentages = new HashMap<>();
+        markupPercentages.put(ProductCategory.FOOD, 20.0);
+        markupPercentages.put(ProductCategory.NON_FOOD, 30.0);
+
+        testStore = new Store("Тестов магазин", markupPercentages, 5, 10.0);
+        testStore.setId(1);
+
+        testCashier = new Cashier("Тестов касиер", 1000.0);
+        testCashier.setId(1);
+        testStore.addCashier(testCashier.getId());
+
+        testCashDesk = new CashDesk(testStore.getId(), testCashier.getId());
+        testCashDesk.setId(1);
+
+        testClient = new Client("Тестов клиент", 100.0);
+        testClient.setId(1);
+
+        testProduct = new Product("Тестов продукт", 10.0, ProductCategory.FOOD, LocalDate.now().plusDays(30));
+        testProduct.setId(1);
+        testStore.setProductStock(testProduct.getId(), 10);
+    }
+
+    private void mockEntities(MockedStatic<FileStorage> mockedFileStorage) {
+        mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+        mockedFileStorage.when(() -> FileStorage.findObjectById(Store.class, 1)).thenReturn(Optional.of(testStore));
+        mockedFileStorage.when(() -> FileStorage.findObjectById(Client.class, 1)).thenReturn(Optional.of(testClient));
+        mockedFileStorage.when(() -> FileStorage.findObjectById(CashDesk.class, 1)).thenReturn(Optional.of(testCashDesk));
+        mockedFileStorage.when(() -> FileStorage.findObjectById(Cashier.class, 1)).thenReturn(Optional.of(testCashier));
+        mockedFileStorage.when(() -> FileStorage.findObjectById(Product.class, 1)).thenReturn(Optional.of(testProduct));
+        mockedFileStorage.when(() -> FileStorage.findObjectById(Product.class, 2)).thenReturn(Optional.empty());
+        mockedFileStorage.when(() -> FileStorage.updateObject(eq(testStore), any())).thenReturn(true);
+        mockedFileStorage.when(() -> FileStorage.updateObject(eq(testClient), any())).thenReturn(true);
+        mockedFileStorage.when(() -> FileStorage.addObject(any(Receipt.class))).thenAnswer(invocation -> {
+            invocation.<Receipt>getArgument(0).setId(42);
+            return null;
+        });
+    }
+
+    @Test
+    public void testCheckout_ValidCart_CreatesReceiptAndUpdatesState() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            Cart cart = new Cart(1, 1, 1);
+            cart.addLine(testProduct.getId(), 3);
+            CheckoutResult result = checkoutService.checkout(cart);
+
+            assertTrue(result.isSuccessful());
+            assertNull(result.getFailure());
+            Receipt receipt = result.getReceipt();
+            assertEquals(42, receipt.getId());
+            assertEquals(testStore.getId(), receipt.getStore());
+            assertEquals(testCashier.getId(), receipt.getCashier());
+            assertEquals(3600, receipt.getTotalPriceCents());
+            assertEquals(6400, testClient.getBalanceCents());
+            assertEquals(7, testStore.getProductStock(testProduct.getId()));
+            assertEquals(3, testStore.getProductsSold().get(testProduct.getId()));
+            assertTrue(testStore.getReceiptsIds().contains(42));
+            mockedFileStorage.verify(() -> FileStorage.appendToJournal(eq(Store.class), eq(1), anyCollection()));
+            mockedFileStorage.verify(() -> FileStorage.updateObject(eq(testStore), any()), never());
+            mockedFileStorage.verify(() -> FileStorage.updateObject(eq(testClient), any()));
+        }
+    }
+
+    @Test
+    public void testPreview_ValidCart_DoesNotChangeState() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            Cart cart = new Cart(1, 1, 1);
+            cart.addLine(testProduct.getId(), 3);
+            CheckoutResult result = checkoutService.preview(cart);
+
+            assertTrue(result.isSuccessful());
+            assertEquals(3600, result.getReceipt().getTotalPriceCents());
+            assertEquals(10000, testClient.getBalanceCents());
+            assertEquals(10, testStore.getProductStock(testProduct.getId()));
+            mockedFileStorage.verify(() -> FileStorage.addObject(any()), never());
+            mockedFileStorage.verify(() -> FileStorage.updateObject(any(), any()), never());
+        }
+    }
+
+    @Test
+    public void testCheckout_WithBatch_DefersPersistenceUntilFlush() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+            mockedFileStorage.when(() -> FileStorage.addObjects(eq(Receipt.class), any())).thenAnswer(invocation -> {
+                int id = 100;
+                for (Receipt receipt : invocation.<List<Receipt>>getArgument(1)) {
+                    receipt.setId(id++);
+                }
+                return null;
+            });
+
+            CheckoutBatch batch = new CheckoutBatch();
+            for (int i = 0; i < 2; i++) {
+                Cart cart = new Cart(1, 1, 1);
+                cart.addLine(testProduct.getId(), 2);
+                assertTrue(checkoutService.checkout(cart, batch).isSuccessful());
+            }
+
+            assertEquals(2, batch.size());
+            assertEquals(6, testStore.getProductStock(testProduct.getId()));
+            assertEquals(5200, testClient.getBalanceCents());
+            assertTrue(testStore.getReceiptsIds().isEmpty());
+            mockedFileStorage.verify(() -> FileStorage.addObject(any()), never());
+            mockedFileStorage.verify(() -> FileStorage.updateObject(any(), any()), never());
+
+            List<Receipt> saved = batch.flush();
+
+            assertEquals(2, saved.size());
+            assertTrue(batch.isEmpty());
+            assertEquals(Set.of(100, 101), testStore.getReceiptsIds());
+            mockedFileStorage.verify(() -> FileStorage.addObjects(eq(Receipt.class), any()));
+            mockedFileStorage.verify(() -> FileStorage.appendToJournal(eq(Store.class), eq(1), anyCollection()));
+            mockedFileStorage.verify(() -> FileStorage.updateObjects(eq(Store.class), any()), never());
+            mockedFileStorage.verify(() -> FileStorage.updateObjects(eq(Client.class), eq(List.of(testClient))));
+        }
+    }
+
+    @Test
+    public void testCheckout_WithBatch_FailedFlushRevertsStockAndBalance() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+            mockedFileStorage.when(() -> FileStorage.addObjects(eq(Receipt.class), any()))
+                    .thenThrow(new RuntimeException("Дискът е пълен"));
+
+            CheckoutBatch batch = new CheckoutBatch();
+            for (int i = 0; i < 2; i++) {
+                Cart cart = new Cart(1, 1, 1);
+                cart.addLine(testProduct.getId(), 2);
+                assertTrue(checkoutService.checkout(cart, batch).isSuccessful());
+            }
+
+            assertThrows(RuntimeException.class, batch::flush);
+
+            assertTrue(batch.isEmpty());
+            assertEquals(10, testStore.getProductStock(testProduct.getId()));
+            assertEquals(0, testStore.getProductsSold().getOrDefault(testProduct.getId(), 0));
+            assertEquals(10000, testClient.getBalanceCents());
+            assertTrue(testStore.getReceiptsIds().isEmpty());
+            mockedFileStorage.verify(() -> FileStorage.updateObjects(eq(Client.class), any()), never());
+        }
+    }
+
+    @Test
+    public void testCheckout_CartWithDateTime_UsesItForReceipt() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            Cart cart = new Cart(1, 1, 1);
+            cart.addLine(testProduct.getId(), 1);
+            cart.setDateTime(LocalDateTime.of(2026, 1, 31, 18, 45));
+            CheckoutResult result = checkoutService.checkout(cart);
+
+            assertEquals(LocalDateTime.of(2026, 1, 31, 18, 45), result.getReceipt().getDateTime());
+        }
+    }
+
+    @Test
+    public void testCheckout_EmptyCart_ReturnsFailure() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            CheckoutResult result = checkoutService.checkout(new Cart(1, 1, 1));
+
+            assertFalse(result.isSuccessful());
+            assertEquals(CheckoutFailure.EMPTY_CART, result.getFailure());
+            assertNull(result.getReceipt());
+        }
+    }
+
+    @Test
+    public void testCheckout_InsufficientStock_ReturnsFailure() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            Cart cart = new Cart(1, 1, 1);
+            cart.addLine(testProduct.getId(), 11);
+            CheckoutResult result = checkoutService.checkout(cart);
+
+            assertEquals(CheckoutFailure.INSUFFICIENT_STOCK, result.getFailure());
+            assertEquals("Недостатъчно количество от продукта Тестов продукт. Недостигат 1 броя.", result.getMessage());
+            assertEquals(10, testStore.getProductStock(testProduct.getId()));
+        }
+    }
+
+    @Test
+    public void testCheckout_InsufficientBalance_ReturnsFailure() {
+        testClient.setBalance(10.0);
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            Cart cart = new Cart(1, 1, 1);
+            cart.addLine(testProduct.getId(), 1);
+            CheckoutResult result = checkoutService.checkout(cart);
+
+            assertEquals(CheckoutFailure.INSUFFICIENT_BALANCE, result.getFailure());
+            assertEquals(1000, testClient.getBalanceCents());
+            mockedFileStorage.verify(() -> FileStorage.addObject(any()), never());
+        }
+    }
+
+    @Test
+    public void testCheckout_UnknownProduct_ReturnsFailure() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            Cart cart = new Cart(1, 1, 1);
+            cart.addLine(2, 1);
+            CheckoutResult result = checkoutService.checkout(cart);
+
+            assertEquals(CheckoutFailure.PRODUCT_NOT_FOUND, result.getFailure());
+            assertEquals("Продукт с ID 2 не съществува", result.getMessage());
+        }
+    }
+
+    @Test
+    public void testCheckout_ExpiredProduct_ReturnsFailure() {
+        testProduct.setExpirationDate(LocalDate.now().minusDays(1));
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            Cart cart = new Cart(1, 1, 1);
+            cart.addLine(testProduct.getId(), 1);
+            CheckoutResult result = checkoutService.checkout(cart);
+
+            assertEquals(CheckoutFailure.PRODUCT_UNAVAILABLE, result.getFailure());
+        }
+    }
+
+    @Test
+    public void testCheckout_UnknownStore_ReturnsFailure() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+            mockedFileStorage.when(() -> FileStorage.findObjectById(Store.class, 5)).thenReturn(Optional.empty());
+
+            CheckoutResult result = checkoutService.checkout(new Cart(5, 1, 1));
+
+            assertEquals(CheckoutFailure.STORE_NOT_FOUND, result.getFailure());
+            assertEquals("Магазин с ID 5 не съществува", result.getMessage());
+        }
+    }
+
+    @Test
+    public void testCheckout_CashDeskFromOtherStore_ReturnsFailure() {
+        testStore.removeCashier(testCashier.getId());
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockEntities(mockedFileStorage);
+
+            Cart cart = new Cart(1, 1, 1);
+            cart.addLine(testProduct.getId(), 1);
+            CheckoutResult result = checkoutService.checkout(cart);
+
+            assertEquals(CheckoutFailure.CASH_DESK_NOT_IN_STORE, result.getFailure());
+        }
+    }
+
+    @Test
+    public void testCheckout_NullCart_ThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> checkoutService.checkout(null)
+        );
+
+        assertEquals("Количката не може да бъде null", exception.getMessage());
+    }
+}
@@ -2,17 +2,22 @@ package service;
 
 import dao.FileStorage;
 import model.Client;
+import model.Receipt;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
 
 public class ClientServiceTest {
 
@@ -155,4 +160,48 @@ public class ClientServiceTest {
 
         assertEquals("Балансът на клиент с ID " + testClient.getId() + " не може да бъде отрицателен", exception.getMessage());
     }
+
+    @Test
+    public void testGetPurchaseHistory_ReadsOnlyRequestedReceipts() {
+        List<Receipt> receipts = new ArrayList<>();
+        for (int id = 1; id <= 5; id++) {
+            Receipt receipt = new Receipt(id == 3 ? 2 : 1, 1, 1, LocalDateTime.of(2026, 1, id, 10, 0), new HashMap<>(), new HashMap<>());
+            receipt.setId(id);
+            receipts.add(receipt);
+        }
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+            for (Receipt receipt : receipts) {
+                mockedFileStorage.when(() -> FileStorage.readSeparateObject(Receipt.class, receipt.getId())).thenReturn(Optional.of(receipt));
+            }
+            clientService.receiptsCreated(receipts);
+
+            List<Receipt> page = clientService.getPurchaseHistory(1, 1, 2);
+
+            assertEquals(4, clientService.countPurchases(1));
+            assertEquals(List.of(4, 2), page.stream().map(Receipt::getId).toList());
+            mockedFileStorage.verify(() -> FileStorage.readSeparateObject(eq(Receipt.class), any()), times(2));
+            mockedFileStorage.verify(() -> FileStorage.getCollection(Receipt.class), times(1));
+        }
+    }
+
+    @Test
+    public void testSearchByName_IncludesCreatedClients() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+            mockedFileStorage.when(() -> FileStorage.getCollection(Client.class)).thenReturn(new ArrayList<>(List.of(testClient)));
+            mockedFileStorage.when(() -> FileStorage.addObject(any(Client.class))).thenAnswer(invocation -> {
+                invocation.<Client>getArgument(0).setId(2);
+                return null;
+            });
+
+            assertTrue(clientService.searchByName("иван", 5).isEmpty());
+
+            clientService.createEntity(new Client("Иван Петров", 10.0));
+
+            assertEquals(List.of(2), clientService.searchByName("иван", 5).stream().map(match -> match.getId()).toList());
+            assertEquals(1, clientService.searchByName("test", 5).get(0).getId());
+        }
+    }
 }
@@ -0,0 +1,95 @@
+package service;
+
+import model.Product;
+import model.ProductCategory;
+import model.Store;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCatalogTest {
+
+    private ProductCatalog catalog;
+    private Store store;
+    private List<Product> products;
+
+    @BeforeEach
+    public void setUp() {
+        products = new ArrayList<>();
+        String[] names = {"Кафе Jacobs", "Кафе на зърна", "Кисело мляко", "Шампоан Pantene", "Кафе машина", "Хляб Симид"};
+        ProductCategory[] categories = {ProductCategory.FOOD, ProductCategory.FOOD, ProductCategory.FOOD,
+                ProductCategory.NON_FOOD, ProductCategory.NON_FOOD, ProductCategory.FOOD};
+        for (int i = 0; i < names.length; i++) {
+            Product product = new Product(names[i], 1.0 + i, categories[i], LocalDate.now().plusDays(30));
+            product.setId(i + 1);
+            products.add(product);
+        }
+        catalog = ProductCatalog.of(products);
+
+        store = new Store("Тестов магазин", new HashMap<>(), 5, 10.0);
+        store.setId(1);
+        for (Product product : products) {
+            store.setProductStock(product.getId(), 5);
+        }
+    }
+
+    private static List<Integer> ids(ProductCatalog.Page page) {
+        return page.getProducts().stream().map(Product::getId).toList();
+    }
+
+    @Test
+    public void testSearch_CombinesNamePrefixAndCategory() {
+        assertEquals(List.of(1, 5, 2), ids(catalog.search("кафе", null, null, 0, 10)));
+        assertEquals(List.of(1, 2), ids(catalog.search("кафе", ProductCategory.FOOD, null, 0, 10)));
+        assertEquals(List.of(5, 4), ids(catalog.search("", ProductCategory.NON_FOOD, null, 0, 10)));
+        assertEquals(List.of(2), ids(catalog.search("зър", null, null, 0, 10)));
+    }
+
+    @Test
+    public void testSearch_PagesThroughResults() {
+        ProductCatalog.Page first = catalog.search("", null, null, 0, 4);
+        ProductCatalog.Page second = catalog.search("", null, null, 4, 4);
+
+        assertEquals(4, first.getProducts().size());
+        assertTrue(first.hasMore());
+        assertEquals(List.of(6, 4), ids(second));
+        assertFalse(second.hasMore());
+        assertThrows(IllegalArgumentException.class, () -> catalog.search("", null, null, -1, 4));
+        assertThrows(IllegalArgumentException.class, () -> catalog.search("", null, null, 0, 0));
+    }
+
+    @Test
+    public void testSearch_StoreFilter_FollowsStockChanges() {
+        store.setProductStock(1, 0);
+        products.get(1).setExpirationDate(LocalDate.now().minusDays(1));
+
+        assertEquals(List.of(5), ids(catalog.search("кафе", null, store, 0, 10)));
+
+        store.addProductStock(products.get(0), 3);
+        assertEquals(List.of(1, 5), ids(catalog.search("кафе", null, store, 0, 10)));
+        assertEquals(List.of(1), ids(catalog.search("кафе", ProductCategory.FOOD, store, 0, 10)));
+    }
+
+    @Test
+    public void testPut_RenamedAndRecategorizedProduct_ReplacesOldEntry() {
+        Product machine = new Product("Кафемашина Delonghi", 300.0, ProductCategory.NON_FOOD, LocalDate.now().plusYears(5));
+        machine.setId(5);
+        Product bread = new Product("Хляб Добруджа", 1.0, ProductCategory.NON_FOOD, LocalDate.now().plusDays(3));
+        bread.setId(6);
+
+        catalog.put(machine);
+        catalog.put(bread);
+
+        assertEquals(List.of(5), ids(catalog.search("delon", null, null, 0, 10)));
+        assertTrue(catalog.search("машина", null, null, 0, 10).getProducts().isEmpty());
+        assertEquals(List.of(1, 2, 3), ids(catalog.search("", ProductCategory.FOOD, null, 0, 10)));
+        assertSame(bread, catalog.search("хляб", null, null, 0, 10).getProducts().get(0));
+        assertEquals(6, catalog.size());
+    }
+}
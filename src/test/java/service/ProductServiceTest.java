@@ -9,6 +9,7 @@ import org.mockito.MockedStatic;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -198,4 +199,27 @@ public class ProductServiceTest {
 
         assertEquals("Срокът на годност на продукт с ID " + testProduct.getId() + " не може да бъде null", exception.getMessage());
     }
+
+    @Test
+    public void testSearchProducts_FollowsCreatedAndUpdatedProducts() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+            mockedFileStorage.when(() -> FileStorage.getCollection(Product.class)).thenReturn(new ArrayList<>(List.of(testProduct)));
+            mockedFileStorage.when(() -> FileStorage.updateObject(eq(testProduct), any())).thenReturn(true);
+            mockedFileStorage.when(() -> FileStorage.addObject(any(Product.class))).thenAnswer(invocation -> {
+                invocation.<Product>getArgument(0).setId(2);
+                return null;
+            });
+
+            assertEquals(1, productService.searchProducts("test", null, null, 0, 10).getProducts().size());
+
+            productService.createEntity(new Product("Кафе на зърна", 10.0, ProductCategory.FOOD, LocalDate.now().plusDays(30)));
+            testProduct.setName("Кафе Jacobs");
+            productService.updateEntity(testProduct);
+
+            ProductCatalog.Page page = productService.searchProducts("кафе", ProductCategory.FOOD, null, 0, 10);
+            assertEquals(List.of(1, 2), page.getProducts().stream().map(Product::getId).toList());
+            assertTrue(productService.searchProducts("test", null, null, 0, 10).getProducts().isEmpty());
+        }
+    }
 }
@@ -0,0 +1,246 @@
+package service;
+
+import analytics.DistinctClients;
+import analytics.ReceiptBitmapIndex;
+import analytics.ReceiptLine;
+import analytics.ReceiptLineStore;
+import analytics.ReceiptQuery;
+import analytics.SalesRollup;
+import dao.FileStorage;
+import model.Product;
+import model.ProductCategory;
+import model.Receipt;
+import model.Store;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ReceiptAnalyticsServiceTest {
+
+    private ReceiptAnalyticsService analyticsService;
+    private Product product;
+
+    @BeforeEach
+    public void setUp() {
+        analyticsService = ServiceFactory.getReceiptAnalyticsService();
+        analyticsService.invalidateBitmapIndex();
+        analyticsService.invalidateLineStore();
+        analyticsService.invalidateSalesRollup();
+        analyticsService.invalidateDistinctClients();
+        analyticsService.invalidateBestSellers();
+        analyticsService.invalidateBasketQuantiles();
+        product = new Product("Тестов продукт", 10.0, ProductCategory.FOOD, LocalDate.now().plusDays(30));
+        product.setId(1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        analyticsService.invalidateBitmapIndex();
+        analyticsService.invalidateLineStore();
+        analyticsService.invalidateSalesRollup();
+        analyticsService.invalidateDistinctClients();
+        analyticsService.invalidateBestSellers();
+        analyticsService.invalidateBasketQuantiles();
+    }
+
+    private Receipt receipt(int id, int storeId) {
+        Map<Product, Integer> products = new HashMap<>();
+        products.put(product, 1);
+        Receipt receipt = new Receipt(1, 1, storeId, LocalDateTime.of(2026, 1, 5, 12, 0), products, new HashMap<>());
+        receipt.setId(id);
+        return receipt;
+    }
+
+    @Test
+    public void testGetBitmapIndex_MissingIndex_BuildsFromReceiptsAndSaves() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+            mockedFileStorage.when(() -> FileStorage.getCollection(Receipt.class))
+                    .thenReturn(new ArrayList<>(List.of(receipt(1, 1), receipt(2, 2), receipt(3, 1))));
+
+            assertArrayEquals(new int[]{1, 3}, analyticsService.findReceiptIds(new ReceiptQuery().store(1)).toArray());
+            mockedFileStorage.verify(() -> FileStorage.writeIndexData(
+                    eq(ReceiptAnalyticsService.BITMAP_INDEX_NAME), any(), any(byte[].class)));
+        }
+    }
+
+    @Test
+    public void testGetBitmapIndex_SavedIndex_AddsOnlyNewerReceipts() {
+        ReceiptBitmapIndex saved = new ReceiptBitmapIndex();
+        saved.add(receipt(1, 1));
+        saved.add(receipt(2, 2));
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+            mockedFileStorage.when(() -> FileStorage.readIndexData(eq(ReceiptAnalyticsService.BITMAP_INDEX_NAME), any()))
+                    .thenReturn(saved.toBytes());
+            mockedFileStorage.when(() -> FileStorage.listSeparateIds(Receipt.class, 2)).thenReturn(new int[]{3});
+            mockedFileStorage.when(() -> FileStorage.readSeparateObject(Receipt.class, 3)).thenReturn(Optional.of(receipt(3, 1)));
+
+            ReceiptBitmapIndex index = analyticsService.getBitmapIndex();
+
+            assertEquals(3, index.size());
+            assertEquals(3, index.getLastReceiptId());
+            mockedFileStorage.verify(() -> FileStorage.getCollection(Receipt.class), never());
+        }
+    }
+
+    @Test
+    public void testGetBitmapIndex_LegacyReceiptsWithoutStore_TakeStoreFromStoreIndex() {
+        Receipt legacy1 = receipt(1, 0);
+        Receipt legacy3 = receipt(3, 0);
+        Store store = new Store("Стар магазин", new HashMap<>(), 5, 10.0);
+        store.setId(2);
+        store.setReceiptsIds(Set.of(1, 3));
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+            mockedFileStorage.when(() -> FileStorage.getCollection(Receipt.class))
+                    .thenReturn(new ArrayList<>(List.of(legacy1, receipt(2, 1), legacy3)));
+            mockedFileStorage.when(() -> FileStorage.getCollection(Store.class)).thenReturn(new ArrayList<>(List.of(store)));
+
+            assertArrayEquals(new int[]{1, 3}, analyticsService.findReceiptIds(new ReceiptQuery().store(2)).toArray());
+            assertEquals(2, legacy1.getStore());
+            mockedFileStorage.verify(() -> FileStorage.updateObjects(Receipt.class, List.of(legacy1, legacy3)));
+        }
+    }
+
+    @Test
+    public void testCreateEntity_AddsReceiptToLoadedIndex() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+            analyticsService.getBitmapIndex();
+
+            ServiceFactory.getReceiptService().createEntity(receipt(5, 2));
+
+            assertArrayEquals(new int[]{5}, analyticsService.findReceiptIds(new ReceiptQuery().store(2)).toArray());
+        }
+    }
+
+    @Test
+    public void testGetLineStore_BuildsFromReceiptsAndAddsNewOnes() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+            mockedFileStorage.when(() -> FileStorage.getCollection(Receipt.class))
+                    .thenReturn(new ArrayList<>(List.of(receipt(1, 1), receipt(2, 2))));
+
+            ReceiptLineStore lines = analyticsService.getLineStore();
+            ServiceFactory.getReceiptService().createEntity(receipt(3, 2));
+
+            assertEquals(3, lines.size());
+            assertEquals(Map.of(1L, 1L, 2L, 2L), lines.sumBy(ReceiptLine::storeId, ReceiptLine::quantity, line -> true));
+        }
+    }
+
+    @Test
+    public void testGetBestSellers_BuildsInMemoryStructuresInOnePass() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+            mockedFileStorage.when(() -> FileStorage.getCollection(Receipt.class))
+                    .thenReturn(new ArrayList<>(List.of(receipt(1, 1), receipt(2, 2))));
+
+            analyticsService.getBestSellers();
+            ReceiptLineStore lines = analyticsService.getLineStore();
+            analyticsService.getBasketQuantiles();
+
+            assertEquals(2, lines.size());
+            mockedFileStorage.verify(() -> FileStorage.getCollection(Receipt.class), times(1));
+        }
+    }
+
+    @Test
+    public void testGetSalesRollup_SavedRollup_AddsOnlyNewerReceiptsAndSaves() {
+        SalesRollup saved = new SalesRollup(1440, 31);
+        saved.add(receipt(1, 1));
+        Map<YearMonth, byte[]> months = saved.drainDirtyMonths();
+        byte[] manifest = saved.manifest();
+        LocalDateTime day = LocalDateTime.of(2026, 1, 5, 0, 0);
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+            mockedFileStorage.when(() -> FileStorage.readIndexData(ReceiptAnalyticsService.SALES_ROLLUP_INDEX_NAME, "manifest"))
+                    .thenReturn(manifest);
+            mockedFileStorage.when(() -> FileStorage.readIndexData(ReceiptAnalyticsService.SALES_ROLLUP_INDEX_NAME, YearMonth.of(2026, 1)))
+                    .thenReturn(months.get(YearMonth.of(2026, 1)));
+            mockedFileStorage.when(() -> FileStorage.listSeparateIds(Receipt.class, 1)).thenReturn(new int[]{2});
+            mockedFileStorage.when(() -> FileStorage.readSeparateObject(Receipt.class, 2)).thenReturn(Optional.of(receipt(2, 2)));
+
+            assertEquals(2, analyticsService.querySales(null, null, null, day, day.plusDays(1)).getReceiptCount());
+            ServiceFactory.getReceiptService().createEntity(receipt(3, 1));
+
+            assertEquals(2, analyticsService.querySales(1, null, ProductCategory.FOOD, day, day.plusDays(1)).getReceiptCount());
+            assertEquals(2000, analyticsService.querySales(1, null, null, day, day.plusDays(1)).getCostCents());
+            mockedFileStorage.verify(() -> FileStorage.getCollection(Receipt.class), never());
+            mockedFileStorage.verify(() -> FileStorage.writeIndexData(
+                    eq(ReceiptAnalyticsService.SALES_ROLLUP_INDEX_NAME), eq(YearMonth.of(2026, 1)), any(byte[].class)));
+        }
+    }
+
+    @Test
+    public void testGetDistinctClients_SavedSketches_ReadsOnlyNewerReceipts() {
+        DistinctClients saved = new DistinctClients(day -> null);
+        saved.add(receipt(1, 1));
+        Map<Integer, byte[]> partitions = saved.drainDirtyPartitions();
+        byte[] manifest = saved.manifest();
+        Receipt newer = receipt(2, 1);
+        newer.setClient(2);
+        LocalDate day = LocalDate.of(2026, 1, 5);
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+            mockedFileStorage.when(() -> FileStorage.readIndexData(ReceiptAnalyticsService.DISTINCT_CLIENTS_INDEX_NAME, "manifest"))
+                    .thenReturn(manifest);
+            mockedFileStorage.when(() -> FileStorage.readIndexData(ReceiptAnalyticsService.DISTINCT_CLIENTS_INDEX_NAME, day))
+                    .thenReturn(partitions.get((int) day.toEpochDay()));
+            mockedFileStorage.when(() -> FileStorage.listSeparateIds(Receipt.class, 1)).thenReturn(new int[]{2});
+            mockedFileStorage.when(() -> FileStorage.readSeparateObject(Receipt.class, 2)).thenReturn(Optional.of(newer));
+
+            assertEquals(2, analyticsService.countDistinctClients(1, day, day).getEstimate());
+            assertEquals(2, analyticsService.getDistinctClients().getLastReceiptId());
+            mockedFileStorage.verify(() -> FileStorage.getCollection(Receipt.class), never());
+            mockedFileStorage.verify(() -> FileStorage.writeIndexData(
+                    eq(ReceiptAnalyticsService.DISTINCT_CLIENTS_INDEX_NAME), eq(day), any(byte[].class)));
+        }
+    }
+
+    @Test
+    public void testCreateEntities_ManyReceipts_SavesLoadedIndexes() {
+        List<Receipt> receipts = new ArrayList<>();
+        for (int id = 1; id <= 1000; id++) {
+            receipts.add(receipt(id, 1));
+        }
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+            analyticsService.getDistinctClients();
+            analyticsService.getSalesRollup();
+            analyticsService.getBitmapIndex();
+            mockedFileStorage.clearInvocations();
+
+            ServiceFactory.getReceiptService().createEntities(receipts);
+
+            mockedFileStorage.verify(() -> FileStorage.writeIndexData(
+                    ReceiptAnalyticsService.DISTINCT_CLIENTS_INDEX_NAME, "manifest", analyticsService.getDistinctClients().manifest()));
+            mockedFileStorage.verify(() -> FileStorage.writeIndexData(
+                    eq(ReceiptAnalyticsService.SALES_ROLLUP_INDEX_NAME), eq(YearMonth.of(2026, 1)), any(byte[].class)));
+            mockedFileStorage.verify(() -> FileStorage.writeIndexData(
+                    eq(ReceiptAnalyticsService.BITMAP_INDEX_NAME), any(), any(byte[].class)));
+        }
+    }
+}
@@ -12,6 +12,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -19,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
 
 public class ReceiptServiceTest {
 
@@ -134,6 +136,26 @@ public class ReceiptServiceTest {
         }
     }
 
+    @Test
+    public void testFindEntitiesAfter_GapInIds_ReturnsReceiptsAfterGap() {
+        Receipt second = new Receipt(1, 1, LocalDateTime.now(), purchasedProducts);
+        second.setId(2);
+        Receipt fourth = new Receipt(1, 1, LocalDateTime.now(), purchasedProducts);
+        fourth.setId(4);
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            // Файлът на касова бележка 3 липсва
+            mockedFileStorage.when(() -> FileStorage.listSeparateIds(Receipt.class, 1)).thenReturn(new int[]{2, 4});
+            mockedFileStorage.when(() -> FileStorage.readSeparateObject(Receipt.class, 2)).thenReturn(Optional.of(second));
+            mockedFileStorage.when(() -> FileStorage.readSeparateObject(Receipt.class, 4)).thenReturn(Optional.of(fourth));
+
+            List<Receipt> result = receiptService.findEntitiesAfter(1);
+
+            assertEquals(List.of(second, fourth), result);
+            mockedFileStorage.verify(() -> FileStorage.getCollection(Receipt.class), never());
+        }
+    }
+
     @Test
     public void testValidateEntity_InvalidId_ThrowsException() {
         testReceipt.setId(-1);
@@ -190,7 +212,7 @@ public class ReceiptServiceTest {
         try {
             java.lang.reflect.Field field = Receipt.class.getDeclaredField("totalPrice");
             field.setAccessible(true);
-            field.set(testReceipt, -10.0);
+            field.set(testReceipt, -1000L);
         } catch (Exception e) {
             fail("Failed to set totalPrice using reflection: " + e.getMessage());
         }
@@ -0,0 +1,134 @@
+package service;
+
+import dao.FileStorage;
+import model.Product;
+import model.ProductCategory;
+import model.Store;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class RepricingServiceTest {
+
+    private RepricingService repricingService;
+    private Store testStore;
+    private Product testProduct;
+    private ArrayList<Store> stores;
+    private ArrayList<Product> products;
+
+    @BeforeEach
+    public void setUp() {
+        repricingService = new RepricingService();
+        ServiceFactory.getPriceTableService().invalidateStore(1);
+
+        Map<ProductCategory, Double> markupPercentages = new HashMap<>();
+        markupPercentages.put(ProductCategory.FOOD, 20.0);
+        markupPercentages.put(ProductCategory.NON_FOOD, 30.0);
+
+        testStore = new Store("Тестов магазин", markupPercentages, 5, 10.0);
+        testStore.setId(1);
+
+        testProduct = new Product("Тестов продукт", 10.0, ProductCategory.FOOD, LocalDate.now().plusDays(30));
+        testProduct.setId(1);
+        testStore.setProductStock(testProduct.getId(), 10);
+
+        stores = new ArrayList<>();
+        stores.add(testStore);
+        products = new ArrayList<>();
+        products.add(testProduct);
+    }
+
+    @Test
+    public void testRepriceChangedProducts_FirstRun_FillsStorePriceTable() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.getCollection(Store.class)).thenReturn(stores);
+            mockedFileStorage.when(() -> FileStorage.getCollection(Product.class)).thenReturn(products);
+
+            int repricedCount = repricingService.repriceChangedProducts();
+
+            StorePriceTable priceTable = ServiceFactory.getPriceTableService().getPriceTable(testStore);
+            assertEquals(1, repricedCount);
+            assertTrue(priceTable.isCurrent(testProduct.getId()));
+            assertEquals(12.0, priceTable.getPrice(testStore, testProduct), 0.001);
+            assertEquals(0.0, testProduct.getUnitSalePrice(), 0.001);
+            mockedFileStorage.verify(() -> FileStorage.updateObjects(any(), any()), never());
+            mockedFileStorage.verify(() -> FileStorage.updateObject(any(), any()), never());
+        }
+    }
+
+    @Test
+    public void testRepriceChangedProducts_UnchangedInputs_SkipsProducts() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.getCollection(Store.class)).thenReturn(stores);
+            mockedFileStorage.when(() -> FileStorage.getCollection(Product.class)).thenReturn(products);
+
+            repricingService.repriceChangedProducts();
+            int repricedCount = repricingService.repriceChangedProducts();
+
+            assertEquals(0, repricedCount);
+        }
+    }
+
+    @Test
+    public void testRepriceChangedProducts_MarkupChanged_RepricesProduct() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.getCollection(Store.class)).thenReturn(stores);
+            mockedFileStorage.when(() -> FileStorage.getCollection(Product.class)).thenReturn(products);
+
+            repricingService.repriceChangedProducts();
+            testStore.getMarkupPercentages().put(ProductCategory.FOOD, 50.0);
+            int repricedCount = repricingService.repriceChangedProducts();
+
+            assertEquals(1, repricedCount);
+            assertEquals(15.0, ServiceFactory.getPriceTableService().getPrice(testStore, testProduct), 0.001);
+        }
+    }
+
+    @Test
+    public void testRepriceChangedProducts_ProductUpdated_RepricesOnlyThatProduct() {
+        Product otherProduct = new Product("Друг продукт", 20.0, ProductCategory.NON_FOOD, LocalDate.now().plusDays(30));
+        otherProduct.setId(2);
+        testStore.setProductStock(otherProduct.getId(), 5);
+        products.add(otherProduct);
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.getCollection(Store.class)).thenReturn(stores);
+            mockedFileStorage.when(() -> FileStorage.getCollection(Product.class)).thenReturn(products);
+            mockedFileStorage.when(() -> FileStorage.updateObject(eq(testProduct), any())).thenReturn(true);
+
+            repricingService.repriceChangedProducts();
+            testProduct.setExpirationDate(LocalDate.now().plusDays(2));
+            ServiceFactory.getProductService().updateEntity(testProduct);
+            int repricedCount = repricingService.repriceChangedProducts();
+
+            assertEquals(1, repricedCount);
+            assertEquals(10.8, ServiceFactory.getPriceTableService().getPrice(testStore, testProduct), 0.001);
+            assertEquals(26.0, ServiceFactory.getPriceTableService().getPrice(testStore, otherProduct), 0.001);
+        }
+    }
+
+    @Test
+    public void testRepriceChangedProducts_ExpiredProduct_IsSkipped() {
+        testProduct.setExpirationDate(LocalDate.now().minusDays(1));
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.getCollection(Store.class)).thenReturn(stores);
+            mockedFileStorage.when(() -> FileStorage.getCollection(Product.class)).thenReturn(products);
+
+            int repricedCount = repricingService.repriceChangedProducts();
+
+            assertEquals(0, repricedCount);
+            assertFalse(ServiceFactory.getPriceTableService().getPriceTable(testStore).isCurrent(testProduct.getId()));
+        }
+    }
+}
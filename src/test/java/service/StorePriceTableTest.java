@@ -0,0 +1,100 @@
+package service;
+
+import model.Product;
+import model.ProductCategory;
+import model.Store;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class StorePriceTableTest {
+
+    private StorePriceTable priceTable;
+    private Store testStore;
+    private Product testProduct;
+
+    @BeforeEach
+    public void setUp() {
+        Map<ProductCategory, Double> markupPercentages = new HashMap<>();
+        markupPercentages.put(ProductCategory.FOOD, 20.0);
+        markupPercentages.put(ProductCategory.NON_FOOD, 30.0);
+
+        testStore = new Store("Тестов магазин", markupPercentages, 5, 10.0);
+        testStore.setId(1);
+
+        testProduct = new Product("Тестов продукт", 10.0, ProductCategory.FOOD, LocalDate.now().plusDays(30));
+        testProduct.setId(3);
+
+        priceTable = new StorePriceTable(testStore.getId());
+        priceTable.refreshVersion(testStore);
+    }
+
+    @Test
+    public void testGetPrice_ComputesOnceAndCaches() {
+        Store spyStore = spy(testStore);
+
+        assertEquals(12.0, priceTable.getPrice(spyStore, testProduct), 0.001);
+        assertEquals(12.0, priceTable.getPrice(spyStore, testProduct), 0.001);
+
+        verify(spyStore, times(1)).getProductFinalPrice(testProduct);
+    }
+
+    @Test
+    public void testGetPrice_NewTableWithoutRefresh_ComputesPrice() {
+        StorePriceTable newTable = new StorePriceTable(testStore.getId());
+
+        assertFalse(newTable.isCurrent(testProduct.getId()));
+        assertEquals(12.0, newTable.getPrice(testStore, testProduct), 0.001);
+        assertTrue(newTable.isCurrent(testProduct.getId()));
+
+        newTable.invalidate(testProduct.getId());
+        assertFalse(newTable.isCurrent(testProduct.getId()));
+    }
+
+    @Test
+    public void testRefreshVersion_UnchangedRules_KeepsVersion() {
+        int version = priceTable.getVersion();
+
+        assertFalse(priceTable.refreshVersion(testStore));
+        assertEquals(version, priceTable.getVersion());
+    }
+
+    @Test
+    public void testRefreshVersion_ChangedRules_InvalidatesPrices() {
+        priceTable.getPrice(testStore, testProduct);
+
+        testStore.setDiscountPercentNearExpiration(50.0);
+
+        assertTrue(priceTable.refreshVersion(testStore));
+        assertFalse(priceTable.isCurrent(testProduct.getId()));
+    }
+
+    @Test
+    public void testInvalidate_RecomputesOnlyThatProduct() {
+        Product otherProduct = new Product("Друг продукт", 20.0, ProductCategory.NON_FOOD, LocalDate.now().plusDays(30));
+        otherProduct.setId(100);
+        priceTable.getPrice(testStore, testProduct);
+        priceTable.getPrice(testStore, otherProduct);
+
+        priceTable.invalidate(testProduct.getId());
+
+        assertFalse(priceTable.isCurrent(testProduct.getId()));
+        assertTrue(priceTable.isCurrent(otherProduct.getId()));
+    }
+
+    @Test
+    public void testPutPrice_NegativeProductId_ThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> priceTable.putPriceCents(-1, 100)
+        );
+
+        assertEquals("Невалиден ID на продукт: -1", exception.getMessage());
+    }
+}
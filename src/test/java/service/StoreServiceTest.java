@@ -1,18 +1,22 @@
 package service;
 
 import dao.FileStorage;
+import dao.StoreReceiptIndex;
 import model.ProductCategory;
 import model.Store;
+import model.StoreEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -45,6 +49,60 @@ public class StoreServiceTest {
         assertEquals("Магазинът не може да бъде null", exception.getMessage());
     }
 
+    @Test
+    public void testUpdateEntity_LoadedStore_AppendsEventsToJournal() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.findObjectById(Store.class, 1)).thenReturn(Optional.of(testStore));
+            testStore.setProductStock(5, 10);
+            testStore.addReceipt(42);
+
+            storeService.updateEntity(testStore);
+
+            mockedFileStorage.verify(() -> FileStorage.appendToJournal(Store.class, 1, List.of("1 STOCK_SET 5 10")));
+            mockedFileStorage.verify(() -> FileStorage.appendToIntIndex(eq(StoreReceiptIndex.INDEX_NAME), eq(1), aryEq(new int[]{42})));
+            mockedFileStorage.verify(() -> FileStorage.updateObject(any(), any()), never());
+            assertTrue(testStore.drainPendingEvents().isEmpty());
+        }
+    }
+
+    @Test
+    public void testUpdateEntity_StoreChangedBySetter_WritesSnapshot() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.findObjectById(Store.class, 1)).thenReturn(Optional.of(testStore));
+            mockedFileStorage.when(() -> FileStorage.updateObject(eq(testStore), any())).thenReturn(true);
+            testStore.addReceipt(42);
+            testStore.setName("Нов магазин");
+
+            storeService.updateEntity(testStore);
+
+            mockedFileStorage.verify(() -> FileStorage.updateObject(eq(testStore), any()));
+            mockedFileStorage.verify(() -> FileStorage.appendToJournal(any(), any(), any()), never());
+            assertFalse(testStore.isSnapshotRequired());
+        }
+    }
+
+    @Test
+    public void testReplayJournals_AppliesEventsAfterSnapshotInSequenceOrder() {
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            testStore.setProductStock(5, 10);
+            testStore.drainPendingEvents();
+            mockedFileStorage.when(() -> FileStorage.readJournal(Store.class, 1)).thenReturn(List.of(
+                    "1 STOCK_SET 5 10",
+                    "3 SOLD 5 2",
+                    "2 STOCK_REMOVED 5 2",
+                    "4 CASHIER_ASSIGNED 7 0",
+                    "5 STOCK_REM"));
+
+            StoreService.replayJournals(List.of(testStore));
+
+            assertEquals(8, testStore.getProductStock(5));
+            assertEquals(2, testStore.getProductsSold().get(5));
+            assertTrue(testStore.getCashiersIds().contains(7));
+            assertEquals(4, testStore.getEventSequence());
+            assertTrue(testStore.drainPendingEvents().isEmpty());
+        }
+    }
+
     @Test
     public void testUpdateEntity_ValidStore_Success() {
         try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
@@ -149,5 +207,25 @@ public class StoreServiceTest {
 
         assertEquals("Името на магазин с ID " + testStore.getId() + " не може да бъде null или празно", exception.getMessage());
     }
-}
 
+    @Test
+    public void testSearchByName_FollowsRenamedStores() {
+        Store plovdiv = new Store("Магазин Пловдив", new HashMap<>(), 5, 15.0);
+        plovdiv.setId(2);
+
+        try (MockedStatic<FileStorage> mockedFileStorage = mockStatic(FileStorage.class)) {
+            mockedFileStorage.when(() -> FileStorage.atomically(any())).thenCallRealMethod();
+            mockedFileStorage.when(() -> FileStorage.getCollection(Store.class)).thenReturn(new ArrayList<>(List.of(testStore, plovdiv)));
+            mockedFileStorage.when(() -> FileStorage.updateObject(eq(plovdiv), any())).thenReturn(true);
+
+            assertEquals(List.of(2), storeService.searchByName("пло", 10).stream().map(match -> match.getId()).toList());
+
+            plovdiv.setName("Магазин Варна");
+            storeService.updateEntity(plovdiv);
+
+            assertTrue(storeService.searchByName("пло", 10).isEmpty());
+            assertEquals("Магазин Варна", storeService.searchByName("вар", 10).get(0).getName());
+            assertEquals(2, storeService.searchByName("магазин", 10).size());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package simulation;
+
+import org.junit.jupiter.api.Test;
+import service.CheckoutFailure;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeskStatsTest {
+
+    @Test
+    public void testRecord_CountsSuccessesAndFailures() {
+        DeskStats stats = new DeskStats(1, "Магазин", "Касиер");
+        stats.record(10, 100, null);
+        stats.record(20, 200, CheckoutFailure.INSUFFICIENT_STOCK);
+        stats.recordError(30, 300);
+
+        assertEquals(3, stats.getCount());
+        assertEquals(1, stats.getSuccessful());
+        assertEquals(1, stats.getErrors());
+        assertEquals(1, stats.getFailures().get(CheckoutFailure.INSUFFICIENT_STOCK));
+    }
+
+    @Test
+    public void testPercentiles_UseNearestRank() {
+        DeskStats stats = new DeskStats(1, "Магазин", "Касиер");
+        for (int i = 100; i >= 1; i--) {
+            stats.record(i, i * 10L, null);
+        }
+
+        assertEquals(50, stats.getWaitPercentile(50));
+        assertEquals(95, stats.getWaitPercentile(95));
+        assertEquals(1000, stats.getLatencyPercentile(100));
+        assertEquals(10, stats.getLatencyPercentile(0));
+    }
+
+    @Test
+    public void testPercentile_NoSamples_ReturnsZero() {
+        DeskStats stats = new DeskStats(1, "Магазин", "Касиер");
+        assertEquals(0, stats.getLatencyPercentile(99));
+    }
+
+    @Test
+    public void testPercentile_OutOfRange_ThrowsException() {
+        DeskStats stats = new DeskStats(1, "Магазин", "Касиер");
+        assertThrows(IllegalArgumentException.class, () -> stats.getWaitPercentile(101));
+    }
+}
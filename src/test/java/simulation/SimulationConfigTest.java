@@ -0,0 +1,57 @@
+package simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationConfigTest {
+
+    @Test
+    public void testFromArgs_NoArgs_UsesDefaults() {
+        SimulationConfig config = SimulationConfig.fromArgs(new String[0]);
+
+        assertEquals(2000, config.getClients());
+        assertEquals(500, config.getArrivalRate(), 0.001);
+        assertEquals(5, config.getBasketMean(), 0.001);
+        assertEquals(0, config.getScanMillisPerItem());
+    }
+
+    @Test
+    public void testFromArgs_ValidArgs_OverridesValues() {
+        SimulationConfig config = SimulationConfig.fromArgs(new String[]{
+                "clients=100", "arrivalRate=0", "basketMean=2.5", "maxQuantity=1", "scanMillisPerItem=3", "seed=7"});
+
+        assertEquals(100, config.getClients());
+        assertEquals(0, config.getArrivalRate(), 0.001);
+        assertEquals(2.5, config.getBasketMean(), 0.001);
+        assertEquals(1, config.getMaxQuantity());
+        assertEquals(3, config.getScanMillisPerItem());
+        assertEquals(7, config.getSeed());
+    }
+
+    @Test
+    public void testFromArgs_UnknownKey_ThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> SimulationConfig.fromArgs(new String[]{"desks=3"})
+        );
+
+        assertEquals("Непозната настройка: desks", exception.getMessage());
+    }
+
+    @Test
+    public void testFromArgs_InvalidNumber_ThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> SimulationConfig.fromArgs(new String[]{"clients=много"})
+        );
+
+        assertEquals("Невалидна стойност за clients: много", exception.getMessage());
+    }
+
+    @Test
+    public void testSetBasketMean_BelowOne_ThrowsException() {
+        SimulationConfig config = new SimulationConfig();
+        assertThrows(IllegalArgumentException.class, () -> config.setBasketMean(0.5));
+    }
+}
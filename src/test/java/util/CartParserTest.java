@@ -0,0 +1,71 @@
+package util;
+
+import model.Cart;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CartParserTest {
+
+    @Test
+    public void testParse_ValidCart_ReturnsCart() {
+        Cart cart = CartParser.parse("{\"storeId\": 1, \"clientId\": 2, \"cashDeskId\": 3, "
+                + "\"lines\": [{\"productId\": 4, \"quantity\": 2}, {\"productId\": 4, \"quantity\": 1}, {\"productId\": 5, \"quantity\": 1}]}");
+
+        assertEquals(1, cart.getStoreId());
+        assertEquals(2, cart.getClientId());
+        assertEquals(3, cart.getCashDeskId());
+        assertEquals(Map.of(4, 3, 5, 1), cart.getLines());
+        assertNull(cart.getDateTime());
+    }
+
+    @Test
+    public void testParse_WithDateTime_SetsDateTime() {
+        Cart cart = CartParser.parse("{\"storeId\": 1, \"clientId\": 1, \"cashDeskId\": 1, \"lines\": [], "
+                + "\"dateTime\": \"2026-01-31T18:45:00\"}");
+
+        assertEquals(LocalDateTime.of(2026, 1, 31, 18, 45), cart.getDateTime());
+    }
+
+    @Test
+    public void testParse_MissingField_ThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> CartParser.parse("{\"storeId\": 1, \"clientId\": 1, \"lines\": []}")
+        );
+
+        assertEquals("Липсва поле cashDeskId", exception.getMessage());
+    }
+
+    @Test
+    public void testParse_InvalidValue_ThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> CartParser.parse("{\"storeId\": \"един\", \"clientId\": 1, \"cashDeskId\": 1, \"lines\": []}")
+        );
+
+        assertEquals("Невалидна стойност на поле storeId", exception.getMessage());
+    }
+
+    @Test
+    public void testParse_InvalidDateTime_ThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CartParser.parse("{\"storeId\": 1, \"clientId\": 1, \"cashDeskId\": 1, \"lines\": [], \"dateTime\": \"вчера\"}"));
+    }
+
+    @Test
+    public void testParse_NotJson_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> CartParser.parse("not json"));
+        assertThrows(IllegalArgumentException.class, () -> CartParser.parse("[1, 2]"));
+        assertThrows(IllegalArgumentException.class, () -> CartParser.parse(""));
+    }
+
+    @Test
+    public void testParse_NonPositiveQuantity_ThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CartParser.parse("{\"storeId\": 1, \"clientId\": 1, \"cashDeskId\": 1, \"lines\": [{\"productId\": 1, \"quantity\": 0}]}"));
+    }
+}
@@ -0,0 +1,45 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatasetConfigTest {
+
+    @Test
+    public void testFromArgs_ValidArgs_OverridesValues() {
+        DatasetConfig config = DatasetConfig.fromArgs(new String[]{
+                "stores=50", "productsPerCategory=1000", "receipts=10000000", "years=3", "endDate=2025-01-31", "seed=7"});
+
+        assertEquals(50, config.getStores());
+        assertEquals(1000, config.getProductsPerCategory());
+        assertEquals(10_000_000L, config.getReceipts());
+        assertEquals(3, config.getYears());
+        assertEquals(LocalDate.of(2025, 1, 31), config.getEndDate());
+        assertEquals(7, config.getSeed());
+    }
+
+    @Test
+    public void testFromArgs_InvalidDate_ThrowsException() {
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> DatasetConfig.fromArgs(new String[]{"endDate=вчера"})
+        );
+
+        assertEquals("Невалидна стойност за endDate: вчера", exception.getMessage());
+    }
+
+    @Test
+    public void testFromArgs_MissingSeparator_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> DatasetConfig.fromArgs(new String[]{"stores"}));
+    }
+
+    @Test
+    public void testSetStores_Zero_ThrowsException() {
+        DatasetConfig config = new DatasetConfig();
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> config.setStores(0));
+        assertEquals("Броят на магазините трябва да бъде положителен", exception.getMessage());
+    }
+}
@@ -0,0 +1,94 @@
+package util;
+
+import model.Product;
+import model.ProductCategory;
+import model.Store;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatasetGeneratorTest {
+
+    @Test
+    public void testReceiptsPerDay_SumsToTotal() {
+        long[] perDay = DatasetGenerator.receiptsPerDay(1_000_003, LocalDate.of(2024, 1, 1), 365);
+
+        assertEquals(365, perDay.length);
+        assertEquals(1_000_003, Arrays.stream(perDay).sum());
+        assertTrue(Arrays.stream(perDay).allMatch(count -> count >= 0));
+    }
+
+    @Test
+    public void testReceiptsPerDay_SaturdayBusierThanSunday() {
+        // 6 януари 2024 е събота, 7 януари е неделя
+        long[] perDay = DatasetGenerator.receiptsPerDay(70_000, LocalDate.of(2024, 1, 1), 7);
+
+        assertTrue(perDay[5] > perDay[6]);
+        assertTrue(perDay[5] > perDay[0]);
+    }
+
+    @Test
+    public void testRandomHour_OnlyOpeningHours() {
+        Random random = new Random(1);
+        for (int i = 0; i < 10_000; i++) {
+            int hour = DatasetGenerator.randomHour(random);
+            assertTrue(hour >= 8 && hour <= 21, "Час извън работното време: " + hour);
+        }
+    }
+
+    @Test
+    public void testBasketSize_MeanIsClose() {
+        Random random = new Random(1);
+        long total = 0;
+        int samples = 100_000;
+        for (int i = 0; i < samples; i++) {
+            int size = DatasetGenerator.basketSize(random, 4);
+            assertTrue(size >= 1);
+            total += size;
+        }
+        assertEquals(4.0, (double) total / samples, 0.1);
+    }
+
+    @Test
+    public void testBasketSize_MeanOne_AlwaysOne() {
+        assertEquals(1, DatasetGenerator.basketSize(new Random(1), 1));
+    }
+
+    @Test
+    public void testHistoricalPrices_MatchStorePricingWithoutExpirationDiscount() {
+        Store store = new Store("Тестов магазин", Map.of(ProductCategory.FOOD, 20.0, ProductCategory.NON_FOOD, 35.0), 5, 50.0);
+        Product fresh = new Product("Мляко", 1.99, ProductCategory.FOOD, LocalDate.now().plusDays(30));
+        Product expiring = new Product("Сапун", 3.15, ProductCategory.NON_FOOD, LocalDate.now().plusDays(1));
+
+        long[][] prices = DatasetGenerator.historicalPrices(List.of(store), List.of(fresh, expiring));
+
+        assertEquals(store.getProductFinalPriceCents(fresh), prices[0][0]);
+        // Историческата цена не включва отстъпката, която зависи от днешната дата
+        assertEquals(425, prices[0][1]);
+    }
+
+    @Test
+    public void testSell_LowersStockAndRestocksWhenShort() {
+        Store store = new Store("Тестов магазин", Map.of(ProductCategory.FOOD, 20.0), 5, 50.0);
+        Product milk = new Product("Мляко", 1.99, ProductCategory.FOOD, LocalDate.now().plusDays(30));
+        milk.setId(1);
+        store.setProductStock(milk.getId(), 3);
+
+        DatasetGenerator.sell(store, milk, 2);
+
+        assertEquals(1, store.getProductStock(milk.getId()));
+        assertEquals(2, store.getProductsSold().get(milk.getId()));
+
+        DatasetGenerator.sell(store, milk, 5);
+
+        // Наличността не стига, затова се доставят 200 + 5 бройки
+        assertEquals(201, store.getProductStock(milk.getId()));
+        assertEquals(7, store.getProductsSold().get(milk.getId()));
+    }
+}
@@ -0,0 +1,85 @@
+package util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NameIndexTest {
+
+    private NameIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new NameIndex();
+        index.put(1, "Иван Петров");
+        index.put(2, "Петър Иванов");
+        index.put(3, "Мария Георгиева");
+        index.put(4, "Иван");
+        index.put(5, "Йордан Стоянов");
+    }
+
+    private static List<Integer> ids(List<NameIndex.Match> matches) {
+        return matches.stream().map(NameIndex.Match::getId).toList();
+    }
+
+    @Test
+    public void testNormalize_IgnoresCaseAccentsAndSpaces() {
+        assertEquals("иван петров", NameIndex.normalize("  ИВАН   Петров "));
+        assertEquals("иордан", NameIndex.normalize("Йордан"));
+        assertEquals("cafe d o", NameIndex.normalize("Café d'O"));
+    }
+
+    @Test
+    public void testSearch_PrefixOfAnyWord_RanksWholeAndLeadingMatchesFirst() {
+        assertEquals(List.of(4, 1, 2), ids(index.search("иван", 10)));
+        assertEquals(List.of(1, 2), ids(index.search("ив пет", 10)));
+        assertEquals(List.of(2, 1), ids(index.search("ПЕТ", 10)));
+        assertEquals(List.of(4, 1), ids(index.search("иван", 2)));
+        assertEquals(List.of(5), ids(index.search("йор", 10)));
+    }
+
+    @Test
+    public void testSearch_Typo_FallsBackToFuzzyMatches() {
+        List<NameIndex.Match> matches = index.search("геогриева", 10);
+
+        assertEquals(List.of(3), ids(matches));
+        assertTrue(matches.get(0).getEdits() > 0);
+        assertTrue(index.search("хх", 10).isEmpty());
+        // Грешка само в по-късата дума
+        assertEquals(List.of(1), ids(index.search("петров ивн", 10)));
+    }
+
+    @Test
+    public void testSearch_Filter_SkipsRejectedIds() {
+        assertEquals(List.of(1, 2), ids(index.search("иван", 10, id -> id != 4)));
+        assertTrue(index.search("мария", 10, id -> false).isEmpty());
+    }
+
+    @Test
+    public void testSearch_EmptyQuery_ReturnsFirstNamesAlphabetically() {
+        assertEquals(List.of(4, 1, 5), ids(index.search(" ", 3)));
+        assertThrows(IllegalArgumentException.class, () -> index.search("иван", 0));
+    }
+
+    @Test
+    public void testPutAndRemove_UpdateIndexedWords() {
+        index.put(1, "Иван Димитров");
+        assertTrue(index.remove(4));
+        assertFalse(index.remove(4));
+
+        assertEquals(List.of(1), ids(index.search("дим", 10)));
+        assertEquals(List.of(2), ids(index.search("петр", 10)));
+        assertEquals(List.of(1, 2), ids(index.search("иван", 10)));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    public void testPrefixDistance_CountsEditsAgainstBestPrefix() {
+        assertEquals(0, NameIndex.prefixDistance("пет", "петров", 2));
+        assertEquals(1, NameIndex.prefixDistance("птр", "петров", 2));
+        assertEquals(3, NameIndex.prefixDistance("абвг", "петров", 2));
+    }
+}
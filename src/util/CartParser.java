@@ -0,0 +1,93 @@
+package util;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import model.Cart;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Преобразува количка от JSON във вида
+ * {@code {"storeId": 1, "clientId": 1, "cashDeskId": 1, "lines": [{"productId": 1, "quantity": 2}]}}.
+ * Незадължителното поле {@code dateTime} (например {@code "2026-01-31T18:45:00"}) задава момента на покупката.
+ */
+public final class CartParser {
+
+    // Частен конструктор, за да предотвратим създаването на инстанции
+    private CartParser() {
+    }
+
+    /**
+     * Преобразува количка от JSON текст.
+     *
+     * @param json JSON обект с количката.
+     * @return Количката.
+     * @throws IllegalArgumentException ако текстът не е валиден JSON обект или в него липсва или е невалидно някое поле.
+     */
+    public static Cart parse(String json) {
+        if (json == null || json.isBlank()) {
+            throw new IllegalArgumentException("Липсва съдържание на количката");
+        }
+        JsonElement element;
+        try {
+            element = JsonParser.parseString(json);
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Количката не е валиден JSON");
+        }
+        if (!element.isJsonObject()) {
+            throw new IllegalArgumentException("Количката трябва да бъде JSON обект");
+        }
+        return parse(element.getAsJsonObject());
+    }
+
+    /**
+     * Преобразува количка от JSON обект.
+     *
+     * @param object JSON обект с количката.
+     * @return Количката.
+     * @throws IllegalArgumentException ако в обекта липсва или е невалидно някое поле.
+     */
+    public static Cart parse(JsonObject object) {
+        Cart cart = new Cart(requireInt(object, "storeId"), requireInt(object, "clientId"), requireInt(object, "cashDeskId"));
+
+        JsonElement lines = requireField(object, "lines");
+        if (!lines.isJsonArray()) {
+            throw new IllegalArgumentException("Полето lines трябва да бъде масив");
+        }
+        for (JsonElement line : lines.getAsJsonArray()) {
+            if (!line.isJsonObject()) {
+                throw new IllegalArgumentException("Всеки ред от lines трябва да бъде обект с productId и quantity");
+            }
+            cart.addLine(requireInt(line.getAsJsonObject(), "productId"), requireInt(line.getAsJsonObject(), "quantity"));
+        }
+
+        JsonElement dateTime = object.get("dateTime");
+        if (dateTime != null && !dateTime.isJsonNull()) {
+            try {
+                cart.setDateTime(LocalDateTime.parse(dateTime.getAsString()));
+            } catch (DateTimeParseException | UnsupportedOperationException | IllegalStateException e) {
+                throw new IllegalArgumentException("Невалидна стойност на поле dateTime");
+            }
+        }
+        return cart;
+    }
+
+    private static JsonElement requireField(JsonObject object, String field) {
+        JsonElement value = object.get(field);
+        if (value == null || value.isJsonNull()) {
+            throw new IllegalArgumentException("Липсва поле " + field);
+        }
+        return value;
+    }
+
+    private static int requireInt(JsonObject object, String field) {
+        try {
+            return requireField(object, field).getAsInt();
+        } catch (NumberFormatException | UnsupportedOperationException | IllegalStateException e) {
+            throw new IllegalArgumentException("Невалидна стойност на поле " + field);
+        }
+    }
+}
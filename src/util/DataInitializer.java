@@ -1,5 +1,6 @@
 package util;
 
+import dao.FileStorage;
 import model.*;
 import service.*;
 
@@ -14,7 +15,7 @@ import java.util.HashMap;
  */
 public class DataInitializer {
 
-    private static final String DATA_DIR = "data/";
+    private static final String DATA_DIR = FileStorage.getDataDir();
 
     // Услуги
     private static final CashierService cashierService = ServiceFactory.getCashierService();
@@ -115,5 +116,22 @@ public class DataInitializer {
         }
     }
 
+    /**
+     * Генерира синтетични данни с размер, зададен в настройките, в празна директория за данни.
+     *
+     * @param config Настройките на генератора.
+     * @throws IllegalStateException ако директорията за данни не е празна.
+     * @see DatasetGenerator
+     */
+    public static void generateData(DatasetConfig config) {
+        File dataDir = new File(DATA_DIR);
+        if (dataDir.exists() && dataDir.list() != null && dataDir.list().length > 0) {
+            throw new IllegalStateException("Директорията за данни " + DATA_DIR + " не е празна. Изберете друга директория с -Dstore.dataDir.");
+        }
 
+        System.out.println("Генериране на синтетични данни в " + DATA_DIR + "...");
+        long startNanos = System.nanoTime();
+        new DatasetGenerator(config).generate();
+        System.out.printf("Данните са генерирани успешно за %.1f с.%n", (System.nanoTime() - startNanos) / 1e9);
+    }
 }
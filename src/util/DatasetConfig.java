@@ -0,0 +1,250 @@
+package util;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Настройки на генератора на синтетични данни.
+ * Всяка настройка може да бъде зададена от командния ред във формат {@code ключ=стойност},
+ * например {@code stores=50 receipts=10000000 years=3}.
+ */
+public class DatasetConfig {
+
+    private int stores = 10;
+    private int productsPerCategory = 500;
+    private int cashiersPerStore = 5;
+    private int clients = 10_000;
+    private long receipts = 100_000;
+    private int years = 1;
+    private double basketMean = 4;
+    private long seed = 42;
+    private LocalDate endDate = LocalDate.now();
+
+    /**
+     * Създава настройки от аргументите на командния ред.
+     *
+     * @param args Аргументи във формат {@code ключ=стойност}.
+     * @return Настройките на генератора.
+     * @throws IllegalArgumentException ако някой аргумент е в невалиден формат, с непознат ключ или с невалидна стойност.
+     */
+    public static DatasetConfig fromArgs(String[] args) {
+        DatasetConfig config = new DatasetConfig();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Невалиден аргумент: " + arg + ". Очакван формат: ключ=стойност");
+            }
+            String key = arg.substring(0, separator);
+            String value = arg.substring(separator + 1);
+            try {
+                switch (key) {
+                    case "stores" -> config.setStores(Integer.parseInt(value));
+                    case "productsPerCategory" -> config.setProductsPerCategory(Integer.parseInt(value));
+                    case "cashiersPerStore" -> config.setCashiersPerStore(Integer.parseInt(value));
+                    case "clients" -> config.setClients(Integer.parseInt(value));
+                    case "receipts" -> config.setReceipts(Long.parseLong(value));
+                    case "years" -> config.setYears(Integer.parseInt(value));
+                    case "basketMean" -> config.setBasketMean(Double.parseDouble(value));
+                    case "seed" -> config.setSeed(Long.parseLong(value));
+                    case "endDate" -> config.setEndDate(LocalDate.parse(value));
+                    default -> throw new IllegalArgumentException("Непозната настройка: " + key);
+                }
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Невалидна стойност за " + key + ": " + value);
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Връща броя на магазините.
+     *
+     * @return Брой магазини.
+     */
+    public int getStores() {
+        return stores;
+    }
+
+    /**
+     * Задава броя на магазините.
+     *
+     * @param stores Брой магазини.
+     * @throws IllegalArgumentException ако броят не е положителен.
+     */
+    public void setStores(int stores) {
+        requirePositive(stores, "Броят на магазините");
+        this.stores = stores;
+    }
+
+    /**
+     * Връща броя на продуктите от всяка категория.
+     *
+     * @return Брой продукти от категория.
+     */
+    public int getProductsPerCategory() {
+        return productsPerCategory;
+    }
+
+    /**
+     * Задава броя на продуктите от всяка категория.
+     *
+     * @param productsPerCategory Брой продукти от категория.
+     * @throws IllegalArgumentException ако броят не е положителен.
+     */
+    public void setProductsPerCategory(int productsPerCategory) {
+        requirePositive(productsPerCategory, "Броят на продуктите");
+        this.productsPerCategory = productsPerCategory;
+    }
+
+    /**
+     * Връща броя на касиерите (и касите) във всеки магазин.
+     *
+     * @return Брой касиери в магазин.
+     */
+    public int getCashiersPerStore() {
+        return cashiersPerStore;
+    }
+
+    /**
+     * Задава броя на касиерите (и касите) във всеки магазин.
+     *
+     * @param cashiersPerStore Брой касиери в магазин.
+     * @throws IllegalArgumentException ако броят не е положителен.
+     */
+    public void setCashiersPerStore(int cashiersPerStore) {
+        requirePositive(cashiersPerStore, "Броят на касиерите");
+        this.cashiersPerStore = cashiersPerStore;
+    }
+
+    /**
+     * Връща броя на клиентите.
+     *
+     * @return Брой клиенти.
+     */
+    public int getClients() {
+        return clients;
+    }
+
+    /**
+     * Задава броя на клиентите.
+     *
+     * @param clients Брой клиенти.
+     * @throws IllegalArgumentException ако броят не е положителен.
+     */
+    public void setClients(int clients) {
+        requirePositive(clients, "Броят на клиентите");
+        this.clients = clients;
+    }
+
+    /**
+     * Връща общия брой касови бележки.
+     *
+     * @return Брой касови бележки.
+     */
+    public long getReceipts() {
+        return receipts;
+    }
+
+    /**
+     * Задава общия брой касови бележки.
+     *
+     * @param receipts Брой касови бележки или 0, ако не се генерират.
+     * @throws IllegalArgumentException ако броят е отрицателен.
+     */
+    public void setReceipts(long receipts) {
+        if (receipts < 0) {
+            throw new IllegalArgumentException("Броят на касовите бележки не може да бъде отрицателен");
+        }
+        this.receipts = receipts;
+    }
+
+    /**
+     * Връща броя на годините назад, през които са издадени касовите бележки.
+     *
+     * @return Брой години.
+     */
+    public int getYears() {
+        return years;
+    }
+
+    /**
+     * Задава броя на годините назад, през които са издадени касовите бележки.
+     *
+     * @param years Брой години.
+     * @throws IllegalArgumentException ако броят не е положителен.
+     */
+    public void setYears(int years) {
+        requirePositive(years, "Броят на годините");
+        this.years = years;
+    }
+
+    /**
+     * Връща средния брой различни продукти в една касова бележка.
+     *
+     * @return Среден брой продукти.
+     */
+    public double getBasketMean() {
+        return basketMean;
+    }
+
+    /**
+     * Задава средния брой различни продукти в една касова бележка.
+     *
+     * @param basketMean Среден брой продукти, не по-малък от 1.
+     * @throws IllegalArgumentException ако стойността е по-малка от 1.
+     */
+    public void setBasketMean(double basketMean) {
+        if (basketMean < 1) {
+            throw new IllegalArgumentException("Средният брой продукти в касова бележка трябва да бъде поне 1");
+        }
+        this.basketMean = basketMean;
+    }
+
+    /**
+     * Връща началната стойност на генератора на случайни числа.
+     *
+     * @return Начална стойност.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Задава началната стойност на генератора на случайни числа. Една и съща стойност и едни и същи
+     * настройки дават едни и същи данни.
+     *
+     * @param seed Начална стойност.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Връща датата, до която (без нея) са издадени касовите бележки. Сроковете на годност на продуктите
+     * също се определят спрямо тази дата, така че при зададена дата данните не зависят от деня на генериране.
+     *
+     * @return Крайна дата.
+     */
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    /**
+     * Задава датата, до която (без нея) са издадени касовите бележки.
+     *
+     * @param endDate Крайна дата.
+     * @throws IllegalArgumentException ако датата е null.
+     */
+    public void setEndDate(LocalDate endDate) {
+        if (endDate == null) {
+            throw new IllegalArgumentException("Крайната дата не може да бъде null");
+        }
+        this.endDate = endDate;
+    }
+
+    private static void requirePositive(long value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " трябва да бъде положителен");
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package util;
+
+import dao.FileStorage;
+import model.*;
+import service.BulkPriceCalculator;
+import service.ServiceFactory;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Генератор на синтетични данни с размер, близък до реална търговска верига.
+ * Създава магазини, продукти, касиери с каси, клиенти и касови бележки за няколко години назад.
+ * Броят на касовите бележки за ден зависи от деня от седмицата, часът на покупка следва дневния трафик
+ * в магазин, а броят на продуктите в касовата бележка е с геометрично разпределение.
+ * Генерирането е детерминирано - една и съща начална стойност и едни и същи настройки дават едни и същи данни.
+ * Данните се записват през пакетните методи на {@link FileStorage}, а касовите бележки - на порции,
+ * без да се пазят в паметта.
+ */
+public class DatasetGenerator {
+
+    private static final int RECEIPT_BATCH_SIZE = 10_000;
+    private static final int SECONDS_PER_HOUR = 3600;
+    // Количество, което магазинът доставя, когато наличността на продукт не стига за покупка
+    private static final int RESTOCK_QUANTITY = 200;
+
+    private static final String[] FIRST_NAMES = {
+            "Иван", "Георги", "Димитър", "Петър", "Николай", "Христо", "Стефан", "Тодор", "Васил", "Александър",
+            "Мария", "Елена", "Иванка", "Йорданка", "Пенка", "Десислава", "Анна", "Виктория", "Гергана", "Радка"};
+    private static final String[] LAST_NAMES = {
+            "Иванов", "Георгиев", "Димитров", "Петров", "Николов", "Христов", "Стефанов", "Тодоров", "Василев", "Колев",
+            "Иванова", "Георгиева", "Димитрова", "Петрова", "Николова", "Христова", "Стефанова", "Тодорова", "Василева", "Колева"};
+    private static final String[] CITIES = {
+            "София", "Пловдив", "Варна", "Бургас", "Русе", "Стара Загора", "Плевен", "Сливен", "Добрич", "Шумен"};
+
+    // Относителен брой покупки по час от денонощието - магазините работят от 8 до 22 часа с пикове по обед и вечер
+    private static final double[] HOUR_WEIGHTS = {
+            0, 0, 0, 0, 0, 0, 0, 0, 3, 4, 5, 6, 8, 7, 5, 5, 6, 8, 9, 8, 6, 4, 0, 0};
+    // Относителен брой покупки по ден от седмицата, от понеделник до неделя
+    private static final double[] DAY_OF_WEEK_WEIGHTS = {1.0, 0.95, 0.95, 1.0, 1.2, 1.4, 0.8};
+
+    private final DatasetConfig config;
+    private final Random random;
+
+    /**
+     * Конструктор за създаване на генератор с дадени настройки.
+     *
+     * @param config Настройките на генератора.
+     */
+    public DatasetGenerator(DatasetConfig config) {
+        this.config = config;
+        this.random = new Random(config.getSeed());
+    }
+
+    /**
+     * Генерира и записва всички данни.
+     */
+    public void generate() {
+        // Регистрира касовите бележки за запис в отделни файлове
+        ServiceFactory.getReceiptService();
+
+        List<Store> stores = generateStores();
+        List<Product> products = generateProducts();
+        for (Store store : stores) {
+            for (Product product : products) {
+                store.setProductStock(product.getId(), 20 + random.nextInt(200));
+            }
+        }
+        Map<Integer, List<Cashier>> cashiersByStore = generateCashiers(stores);
+        List<Client> clients = generateClients();
+        System.out.printf("Създадени са %d магазина, %d продукта, %d касиера и %d клиента.%n",
+                stores.size(), products.size(), stores.size() * config.getCashiersPerStore(), clients.size());
+
+        generateReceipts(stores, products, cashiersByStore, clients);
+        FileStorage.updateObjects(Store.class, stores);
+        for (Store store : stores) {
+            store.flushReceiptIndex();
+        }
+    }
+
+    private List<Store> generateStores() {
+        List<Store> stores = new ArrayList<>(config.getStores());
+        for (int i = 0; i < config.getStores(); i++) {
+            Map<ProductCategory, Double> markupPercentages = new HashMap<>();
+            markupPercentages.put(ProductCategory.FOOD, 10.0 + random.nextInt(21));
+            markupPercentages.put(ProductCategory.NON_FOOD, 20.0 + random.nextInt(21));
+            Store store = new Store("Магазин " + CITIES[i % CITIES.length] + " " + (i / CITIES.length + 1),
+                    markupPercentages, 2 + random.nextInt(4), 10.0 + random.nextInt(21));
+            ServiceFactory.getStoreService().validateEntity(store);
+            // Новите магазини започват с празен индекс на касовите бележки
+            store.setReceiptsIds(new HashSet<>());
+            stores.add(store);
+        }
+        FileStorage.addObjects(Store.class, stores);
+        return stores;
+    }
+
+    private List<Product> generateProducts() {
+        List<Product> products = new ArrayList<>();
+        for (ProductCategory category : ProductCategory.values()) {
+            for (int i = 1; i <= config.getProductsPerCategory(); i++) {
+                // Покупните цени са с логнормално разпределение - много евтини и малко скъпи продукти
+                double price = Math.max(0.10, Math.round(Math.exp(0.7 + 0.9 * random.nextGaussian()) * 100) / 100.0);
+                LocalDate expirationDate = category == ProductCategory.FOOD
+                        ? config.getEndDate().plusDays(random.nextInt(66) - 5)
+                        : config.getEndDate().plusDays(180 + random.nextInt(541));
+                String name = (category == ProductCategory.FOOD ? "Хранителен продукт " : "Нехранителен продукт ") + i;
+                Product product = new Product(name, price, category, expirationDate);
+                ServiceFactory.getProductService().validateEntity(product);
+                products.add(product);
+            }
+        }
+        FileStorage.addObjects(Product.class, products);
+        return products;
+    }
+
+    private Map<Integer, List<Cashier>> generateCashiers(List<Store> stores) {
+        List<Cashier> cashiers = new ArrayList<>();
+        for (int i = 0; i < stores.size() * config.getCashiersPerStore(); i++) {
+            Cashier cashier = new Cashier(randomName(), 1000 + random.nextInt(100_000) / 100.0);
+            ServiceFactory.getCashierService().validateEntity(cashier);
+            cashiers.add(cashier);
+        }
+        FileStorage.addObjects(Cashier.class, cashiers);
+
+        Map<Integer, List<Cashier>> cashiersByStore = new HashMap<>();
+        List<CashDesk> cashDesks = new ArrayList<>();
+        for (int i = 0; i < cashiers.size(); i++) {
+            Store store = stores.get(i / config.getCashiersPerStore());
+            Cashier cashier = cashiers.get(i);
+            store.addCashier(cashier.getId());
+            cashDesks.add(new CashDesk(store.getId(), cashier.getId()));
+            cashiersByStore.computeIfAbsent(store.getId(), id -> new ArrayList<>()).add(cashier);
+        }
+        FileStorage.addObjects(CashDesk.class, cashDesks);
+        return cashiersByStore;
+    }
+
+    private List<Client> generateClients() {
+        List<Client> clients = new ArrayList<>(config.getClients());
+        for (int i = 0; i < config.getClients(); i++) {
+            Client client = new Client(randomName(), 50 + random.nextInt(195_000) / 100.0);
+            ServiceFactory.getClientService().validateEntity(client);
+            clients.add(client);
+        }
+        FileStorage.addObjects(Client.class, clients);
+        return clients;
+    }
+
+    private void generateReceipts(List<Store> stores, List<Product> products,
+                                  Map<Integer, List<Cashier>> cashiersByStore, List<Client> clients) {
+        if (config.getReceipts() == 0) {
+            return;
+        }
+
+        long[][] prices = historicalPrices(stores, products);
+
+        int days = config.getYears() * 365;
+        LocalDate firstDay = config.getEndDate().minusDays(days);
+        long[] perDay = receiptsPerDay(config.getReceipts(), firstDay, days);
+
+        List<Receipt> batch = new ArrayList<>(RECEIPT_BATCH_SIZE);
+        int nextId = 1;
+        long reportEvery = Math.max(1, config.getReceipts() / 10);
+        long startNanos = System.nanoTime();
+
+        for (int d = 0; d < days; d++) {
+            LocalDate day = firstDay.plusDays(d);
+            int[] secondsOfDay = new int[(int) perDay[d]];
+            for (int i = 0; i < secondsOfDay.length; i++) {
+                secondsOfDay[i] = randomHour(random) * SECONDS_PER_HOUR + random.nextInt(SECONDS_PER_HOUR);
+            }
+            Arrays.sort(secondsOfDay);
+
+            for (int secondOfDay : secondsOfDay) {
+                int storeIndex = random.nextInt(stores.size());
+                Store store = stores.get(storeIndex);
+                List<Cashier> storeCashiers = cashiersByStore.get(store.getId());
+                Cashier cashier = storeCashiers.get(random.nextInt(storeCashiers.size()));
+                // Честите клиенти пазаруват по-често - изборът е изместен към началото на списъка
+                Client client = clients.get((int) (clients.size() * Math.pow(random.nextDouble(), 2)));
+
+                int items = basketSize(random, config.getBasketMean());
+                Map<Product, Integer> purchasedProducts = new LinkedHashMap<>();
+                Map<Integer, Long> unitPrices = new LinkedHashMap<>();
+                for (int i = 0; i < items; i++) {
+                    int productIndex = (int) (products.size() * Math.pow(random.nextDouble(), 1.5));
+                    Product product = products.get(productIndex);
+                    int quantity = randomQuantity(random);
+                    purchasedProducts.merge(product, quantity, Integer::sum);
+                    unitPrices.put(product.getId(), prices[storeIndex][productIndex]);
+                    sell(store, product, quantity);
+                }
+
+                Receipt receipt = new Receipt(client.getId(), cashier.getId(), store.getId(),
+                        day.atStartOfDay().plusSeconds(secondOfDay), purchasedProducts, unitPrices);
+                receipt.setId(nextId);
+                store.addReceipt(nextId);
+                batch.add(receipt);
+
+                if (batch.size() == RECEIPT_BATCH_SIZE) {
+                    FileStorage.appendObjects(Receipt.class, batch);
+                    batch = new ArrayList<>(RECEIPT_BATCH_SIZE);
+                }
+                if (nextId % reportEvery == 0) {
+                    System.out.printf("Генерирани касови бележки: %d от %d (%.0f с)%n",
+                            nextId, config.getReceipts(), (System.nanoTime() - startNanos) / 1e9);
+                }
+                nextId++;
+            }
+        }
+        FileStorage.appendObjects(Receipt.class, batch);
+    }
+
+    /**
+     * Продава количество от продукт в магазина, като намалява наличността му. Ако наличността не стига,
+     * магазинът първо получава доставка, така че наличностите и продадените количества остават съгласувани
+     * с касовите бележки, а доставените стоки влизат в разходите на магазина.
+     *
+     * @param store    Магазинът.
+     * @param product  Продуктът.
+     * @param quantity Продаденото количество.
+     */
+    static void sell(Store store, Product product, int quantity) {
+        if (store.getProductStock(product.getId()) < quantity) {
+            store.addProductStock(product, RESTOCK_QUANTITY + quantity);
+        }
+        store.removeProductStock(product, quantity);
+        store.addProductSold(product, quantity);
+    }
+
+    private String randomName() {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    /**
+     * Изчислява продажните цени на продуктите във всеки магазин чрез {@link BulkPriceCalculator}.
+     * Отстъпката за срок на годност зависи от текущата дата, затова за историческите цени се прилага само надценката.
+     *
+     * @param stores   Магазините.
+     * @param products Продуктите.
+     * @return Цените в стотинки, индексирани по пореден номер на магазин и на продукт.
+     */
+    static long[][] historicalPrices(List<Store> stores, List<Product> products) {
+        double[] purchasePrices = new double[products.size()];
+        int[] categoryOrdinals = new int[products.size()];
+        // Най-големият брой дни до изтичане на срока изключва отстъпката при всеки праг
+        int[] daysToExpiry = new int[products.size()];
+        Arrays.fill(daysToExpiry, Integer.MAX_VALUE);
+        for (int p = 0; p < products.size(); p++) {
+            purchasePrices[p] = products.get(p).getUnitPurchasePrice();
+            categoryOrdinals[p] = products.get(p).getCategory().ordinal();
+        }
+
+        long[][] prices = new long[stores.size()][products.size()];
+        double[] finalPrices = new double[products.size()];
+        for (int s = 0; s < stores.size(); s++) {
+            Store store = stores.get(s);
+            BulkPriceCalculator.computeFinalPrices(purchasePrices, categoryOrdinals, daysToExpiry,
+                    BulkPriceCalculator.markupsByCategoryOrdinal(store), store.getDaysBeforeExpirationThreshold(),
+                    store.getDiscountPercentNearExpiration(), finalPrices, products.size());
+            for (int p = 0; p < products.size(); p++) {
+                prices[s][p] = Money.fromDouble(finalPrices[p]);
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * Разпределя касовите бележки по дни пропорционално на теглото на деня от седмицата,
+     * така че сборът да е точно равен на общия брой.
+     */
+    static long[] receiptsPerDay(long total, LocalDate firstDay, int days) {
+        double[] cumulativeWeights = new double[days + 1];
+        for (int d = 0; d < days; d++) {
+            DayOfWeek dayOfWeek = firstDay.plusDays(d).getDayOfWeek();
+            cumulativeWeights[d + 1] = cumulativeWeights[d] + DAY_OF_WEEK_WEIGHTS[dayOfWeek.getValue() - 1];
+        }
+
+        long[] perDay = new long[days];
+        long allocated = 0;
+        for (int d = 0; d < days; d++) {
+            long upTo = d == days - 1 ? total : Math.round(total * cumulativeWeights[d + 1] / cumulativeWeights[days]);
+            perDay[d] = upTo - allocated;
+            allocated = upTo;
+        }
+        return perDay;
+    }
+
+    /**
+     * Избира час от денонощието според дневния трафик в магазин.
+     */
+    static int randomHour(Random random) {
+        double total = 0;
+        for (double weight : HOUR_WEIGHTS) {
+            total += weight;
+        }
+        double target = random.nextDouble() * total;
+        for (int hour = 0; hour < HOUR_WEIGHTS.length; hour++) {
+            target -= HOUR_WEIGHTS[hour];
+            if (target < 0) {
+                return hour;
+            }
+        }
+        return HOUR_WEIGHTS.length - 3;
+    }
+
+    /**
+     * Избира брой различни продукти в касова бележка с геометрично разпределение с дадена средна стойност.
+     */
+    static int basketSize(Random random, double mean) {
+        double p = 1 / mean;
+        if (p >= 1) {
+            return 1;
+        }
+        return 1 + (int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+    }
+
+    private static int randomQuantity(Random random) {
+        double r = random.nextDouble();
+        if (r < 0.7) {
+            return 1;
+        }
+        if (r < 0.9) {
+            return 2;
+        }
+        return 3 + random.nextInt(3);
+    }
+}
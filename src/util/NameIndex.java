@@ -0,0 +1,423 @@
+package util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Индекс за търсене по име с префикс - например за избор на клиент или магазин от конзолата.
+ * Имената се нормализират (малки букви, без диакритични знаци и излишни интервали) и се пазят в два
+ * сортирани речника: по цялото име и по всяка дума от името, като всеки ключ сочи към сортиран масив от ID-та.
+ * Така "Пет" намира и "Петър Иванов", и "Иван Петров", а търсенето спира след първите {@code limit}
+ * съвпадения, без да преглежда всички имена.
+ * Ако с префикс не се намира нито едно име, търсенето допуска и правописни грешки
+ * (до една за думи с 3-5 букви и до две за по-дълги думи) в думите със същата първа буква.
+ */
+public class NameIndex {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final TreeMap<String, Ids> byName = new TreeMap<>();
+    private final TreeMap<String, Ids> byToken = new TreeMap<>();
+    private final Map<Integer, Entry> byId = new HashMap<>();
+
+    /**
+     * Нормализира име или заявка за търсене: Unicode NFD, премахване на диакритичните знаци,
+     * малки букви и по един интервал между думите.
+     * Диакритичните знаци се премахват и от кирилицата, така че "й" и "ѝ" съвпадат с "и".
+     *
+     * @param text Текстът.
+     * @return Нормализираният текст.
+     */
+    public static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder result = new StringBuilder(decomposed.length());
+        boolean space = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (!Character.isLetterOrDigit(c)) {
+                space = true;
+                continue;
+            }
+            if (space && !result.isEmpty()) {
+                result.append(' ');
+            }
+            space = false;
+            result.append(c);
+        }
+        return result.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Добавя име в индекса или заменя досегашното име със същото ID.
+     *
+     * @param id   ID на обекта (клиент, магазин).
+     * @param name Името.
+     */
+    public synchronized void put(int id, String name) {
+        Entry previous = byId.get(id);
+        String normalized = normalize(name);
+        if (previous != null) {
+            if (previous.normalized.equals(normalized)) {
+                byId.put(id, new Entry(name, normalized));
+                return;
+            }
+            remove(id);
+        }
+        Entry entry = new Entry(name, normalized);
+        byId.put(id, entry);
+        byName.computeIfAbsent(normalized, n -> new Ids()).add(id);
+        for (String token : entry.tokens) {
+            byToken.computeIfAbsent(token, t -> new Ids()).add(id);
+        }
+    }
+
+    /**
+     * Премахва име от индекса.
+     *
+     * @param id ID на обекта.
+     * @return true, ако името е било в индекса.
+     */
+    public synchronized boolean remove(int id) {
+        Entry entry = byId.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        removeId(byName, entry.normalized, id);
+        for (String token : entry.tokens) {
+            removeId(byToken, token, id);
+        }
+        return true;
+    }
+
+    /**
+     * Връща броя на имената в индекса.
+     *
+     * @return Брой имена.
+     */
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    /**
+     * Търси имената, в които всяка дума от заявката е начало на някоя от думите на името.
+     * Първи са имената, които съвпадат изцяло със заявката, после тези, които започват с нея (по азбучен ред),
+     * и накрая останалите - по азбучния ред на съвпадналата дума и по ID. Ако така не се намира нито едно име,
+     * се връщат имената с правописни грешки, като по-напред са имената с по-малко грешки.
+     * Празна заявка връща първите имена по азбучен ред.
+     *
+     * @param query Заявката, например "ив пет".
+     * @param limit Най-голям брой резултати.
+     * @return Намерените имена в реда на съвпадение.
+     * @throws IllegalArgumentException ако limit не е положителен.
+     */
+    public List<Match> search(String query, int limit) {
+        return search(query, limit, id -> true);
+    }
+
+    /**
+     * Търси като {@link #search(String, int)}, но връща само имената, чиито ID-та отговарят на филтъра.
+     * Филтърът се проверява преди останалите думи от заявката, затова трябва да бъде бърз - например
+     * проверка в {@link java.util.BitSet}.
+     *
+     * @param query  Заявката.
+     * @param limit  Най-голям брой резултати.
+     * @param filter Филтърът по ID.
+     * @return Намерените имена в реда на съвпадение.
+     * @throws IllegalArgumentException ако limit не е положителен.
+     */
+    public synchronized List<Match> search(String query, int limit, IntPredicate filter) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Броят на резултатите трябва да бъде положителен");
+        }
+        String normalized = normalize(query);
+        List<Match> result = new ArrayList<>(Math.min(limit, byId.size()));
+        Set<Integer> found = new HashSet<>();
+
+        // Имената, които започват със заявката, са последователни в речника по име
+        for (Map.Entry<String, Ids> names : prefixRange(byName, normalized).entrySet()) {
+            int rank = normalized.isEmpty() ? 2 : names.getKey().equals(normalized) ? 0 : 1;
+            Ids ids = names.getValue();
+            for (int i = 0; i < ids.size; i++) {
+                if (result.size() == limit) {
+                    return result;
+                }
+                if (!filter.test(ids.values[i])) {
+                    continue;
+                }
+                result.add(new Match(ids.values[i], byId.get(ids.values[i]).name, 0, rank));
+                found.add(ids.values[i]);
+            }
+        }
+        if (normalized.isEmpty()) {
+            return result;
+        }
+
+        String[] queryTokens = normalized.split(" ");
+        collect(queryTokens, false, limit, filter, result, found);
+        if (result.isEmpty()) {
+            collect(queryTokens, true, limit, filter, result, found);
+            result.sort(Comparator.comparingInt(Match::getEdits));
+        }
+        return result;
+    }
+
+    /**
+     * Добавя имената, в които всяка дума от заявката съвпада с началото на някоя от думите им.
+     * Кандидатите се взимат от думата на заявката, с която съвпадат най-малко имена,
+     * а останалите думи се проверяват по думите на името.
+     */
+    private void collect(String[] queryTokens, boolean fuzzy, int limit, IntPredicate filter,
+                         List<Match> result, Set<Integer> found) {
+        if (fuzzy && Arrays.stream(queryTokens).allMatch(token -> maxEdits(token) == 0)) {
+            return;
+        }
+
+        List<String> candidates = List.of();
+        long fewest = Long.MAX_VALUE;
+        for (String queryToken : queryTokens) {
+            List<String> tokens = candidateTokens(queryToken, fuzzy);
+            long count = 0;
+            for (int i = 0; i < tokens.size() && count < fewest; i++) {
+                count += byToken.get(tokens.get(i)).size;
+            }
+            if (count < fewest) {
+                candidates = tokens;
+                fewest = count;
+            }
+        }
+
+        for (String token : candidates) {
+            Ids ids = byToken.get(token);
+            for (int i = 0; i < ids.size; i++) {
+                if (result.size() == limit) {
+                    return;
+                }
+                int id = ids.values[i];
+                if (found.contains(id) || !filter.test(id)) {
+                    continue;
+                }
+                Entry entry = byId.get(id);
+                int edits = edits(entry, queryTokens, fuzzy);
+                if (edits >= 0) {
+                    result.add(new Match(id, entry.name, edits, 2));
+                    found.add(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Връща думите от индекса, които започват с думата от заявката, по азбучен ред, а при търсене с грешки -
+     * и думите със същата първа буква, чието начало се различава с допустимия брой грешки, подредени по грешки.
+     */
+    private List<String> candidateTokens(String queryToken, boolean fuzzy) {
+        int maxEdits = maxEdits(queryToken);
+        if (!fuzzy || maxEdits == 0) {
+            return new ArrayList<>(prefixRange(byToken, queryToken).keySet());
+        }
+        Map<String, Integer> distances = new HashMap<>();
+        for (String token : prefixRange(byToken, queryToken.substring(0, 1)).keySet()) {
+            if (token.length() + maxEdits < queryToken.length()) {
+                continue;
+            }
+            int edits = token.startsWith(queryToken) ? 0 : prefixDistance(queryToken, token, maxEdits);
+            if (edits <= maxEdits) {
+                distances.put(token, edits);
+            }
+        }
+        List<String> tokens = new ArrayList<>(distances.keySet());
+        tokens.sort(Comparator.comparing((String token) -> distances.get(token)).thenComparing(Comparator.naturalOrder()));
+        return tokens;
+    }
+
+    /**
+     * Връща общия брой грешки, с които думите на заявката съвпадат с началото на думи от името,
+     * или -1, ако някоя не съвпада.
+     */
+    private static int edits(Entry entry, String[] queryTokens, boolean fuzzy) {
+        int total = 0;
+        for (String queryToken : queryTokens) {
+            int maxEdits = fuzzy ? maxEdits(queryToken) : 0;
+            int fewest = maxEdits + 1;
+            for (String token : entry.tokens) {
+                if (token.startsWith(queryToken)) {
+                    fewest = 0;
+                    break;
+                }
+                if (fuzzy) {
+                    fewest = Math.min(fewest, prefixDistance(queryToken, token, maxEdits));
+                }
+            }
+            if (fewest > maxEdits) {
+                return -1;
+            }
+            total += fewest;
+        }
+        return total;
+    }
+
+    private static int maxEdits(String queryToken) {
+        if (queryToken.length() < 3) {
+            return 0;
+        }
+        return queryToken.length() <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Връща най-малкото разстояние на Левенщайн между заявката и някое начало на думата
+     * или {@code maxEdits + 1}, ако то е по-голямо от {@code maxEdits}.
+     */
+    static int prefixDistance(String query, String token, int maxEdits) {
+        int columns = token.length() + 1;
+        int[] previous = new int[columns];
+        int[] current = new int[columns];
+        for (int j = 0; j < columns; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= query.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j < columns; j++) {
+                int substitution = previous[j - 1] + (query.charAt(i - 1) == token.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        // Последният ред съдържа разстоянието до всяко начало на думата
+        int best = maxEdits + 1;
+        for (int j = 0; j < columns; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return best;
+    }
+
+    private static Map<String, Ids> prefixRange(TreeMap<String, Ids> map, String prefix) {
+        return map.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static void removeId(Map<String, Ids> map, String key, int id) {
+        Ids ids = map.get(key);
+        if (ids != null && ids.remove(id) && ids.size == 0) {
+            map.remove(key);
+        }
+    }
+
+    /**
+     * Намерено име.
+     */
+    public static class Match {
+
+        private final int id;
+        private final String name;
+        private final int edits;
+        private final int rank;
+
+        private Match(int id, String name, int edits, int rank) {
+            this.id = id;
+            this.name = name;
+            this.edits = edits;
+            this.rank = rank;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Връща броя на правописните грешки, с които заявката съвпада с името.
+         *
+         * @return 0 при съвпадение по префикс.
+         */
+        public int getEdits() {
+            return edits;
+        }
+
+        /**
+         * Връща вида на съвпадението: 0 - цялото име, 1 - началото на името, 2 - началото на някоя от думите.
+         *
+         * @return Видът на съвпадението.
+         */
+        public int getRank() {
+            return rank;
+        }
+    }
+
+    /**
+     * Името на един обект и нормализираните му думи.
+     */
+    private static class Entry {
+
+        private final String name;
+        private final String normalized;
+        private final String[] tokens;
+
+        private Entry(String name, String normalized) {
+            this.name = name;
+            this.normalized = normalized;
+            this.tokens = normalized.isEmpty() ? new String[0] : Arrays.stream(normalized.split(" ")).distinct().toArray(String[]::new);
+        }
+    }
+
+    /**
+     * Сортираните ID-та на имената с един ключ.
+     */
+    private static class Ids {
+
+        private int[] values = new int[INITIAL_CAPACITY];
+        private int size;
+
+        private void add(int id) {
+            if (size > 0 && values[size - 1] >= id) {
+                int position = Arrays.binarySearch(values, 0, size, id);
+                if (position >= 0) {
+                    return;
+                }
+                insertAt(-position - 1, id);
+            } else {
+                insertAt(size, id);
+            }
+        }
+
+        private void insertAt(int position, int id) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            System.arraycopy(values, position, values, position + 1, size - position);
+            values[position] = id;
+            size++;
+        }
+
+        private boolean remove(int id) {
+            int position = Arrays.binarySearch(values, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+}